@@ -2,6 +2,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.5.4"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.mycontract"
@@ -26,6 +27,7 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-data-redis")
     implementation("org.springframework.boot:spring-boot-starter-aop")
     implementation("org.springframework.boot:spring-boot-starter-validation")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
     implementation("org.springframework.boot:spring-boot-starter-thymeleaf")
     implementation("org.springdoc:springdoc-openapi-starter-webmvc-ui:2.6.0")
 
@@ -33,6 +35,9 @@ dependencies {
     implementation("org.springframework.retry:spring-retry")
     implementation("org.springframework.ai:spring-ai-tika-document-reader")
     implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("io.micrometer:micrometer-tracing-bridge-otel")
+    implementation("io.opentelemetry:opentelemetry-sdk-trace")
+    runtimeOnly("io.micrometer:micrometer-registry-prometheus")
     
     developmentOnly("org.springframework.boot:spring-boot-devtools")
     
@@ -52,3 +57,33 @@ dependencyManagement {
 tasks.withType<Test> {
     useJUnitPlatform()
 }
+
+// Microbenchmarks of the LLM layer in src/jmh: ./gradlew jmh, optionally -PjmhIncludes=<regex>.
+// Results are written as JSON per version so runs can be compared across releases.
+jmh {
+    jmhVersion = "1.37"
+    resultFormat = "JSON"
+    resultsFile = layout.buildDirectory.file("reports/jmh/results-${project.version}.json")
+    humanOutputFile = layout.buildDirectory.file("reports/jmh/human-${project.version}.txt")
+    providers.gradleProperty("jmhIncludes").orNull?.let { includes.add(it) }
+}
+
+
+// Offline load test in src/loadtest against simulated Ollama and Gemini servers: ./gradlew loadTest,
+// options as -PloadArgs="concurrency=1,8,32 duration-seconds=60 ollama.error-rate=0.05".
+// State is kept in memory, so no Redis is needed; add --app.llm.state.store=redis to the arguments to include it.
+val loadtest by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+configurations[loadtest.implementationConfigurationName].extendsFrom(configurations.implementation.get())
+configurations[loadtest.runtimeOnlyConfigurationName].extendsFrom(configurations.runtimeOnly.get())
+
+tasks.register<JavaExec>("loadTest") {
+    description = "Runs the load-test harness against simulated LLM servers"
+    group = "verification"
+    classpath = loadtest.runtimeClasspath
+    mainClass = "com.docmgr.loadtest.LoadHarness"
+    providers.gradleProperty("loadArgs").orNull?.let { args(it.trim().split(Regex("\\s+"))) }
+}
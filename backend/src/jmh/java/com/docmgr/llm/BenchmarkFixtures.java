@@ -0,0 +1,38 @@
+package com.docmgr.llm;
+
+import com.docmgr.llm.model.AnalysisSchema;
+
+/**
+ * Inputs shared by the benchmarks
+ */
+public final class BenchmarkFixtures {
+    
+    private static final String[] TYPES = {"string", "number", "date", "boolean"};
+    private static final String INVOICE_LINE =
+        "Rechnung Nr. 2024-0815 vom 12.03.2024, Kundennummer 4711, Position 3: Wartung Heizungsanlage 1 Std. 89,50 EUR\n";
+    
+    private BenchmarkFixtures() {}
+    
+    /**
+     * Schema with the given number of fields, a third of them required and all with descriptions
+     */
+    public static AnalysisSchema schema(int fields) {
+        AnalysisSchema schema = new AnalysisSchema("invoice")
+            .withInstructions("Dates as ISO-8601, amounts as numbers without currency.");
+        for (int i = 0; i < fields; i++) {
+            schema.addField("field_" + i, TYPES[i % TYPES.length], i % 3 == 0, "Description of field " + i);
+        }
+        return schema;
+    }
+    
+    /**
+     * German invoice-like document text of about the given length
+     */
+    public static String document(int chars) {
+        StringBuilder text = new StringBuilder(chars + INVOICE_LINE.length());
+        while (text.length() < chars) {
+            text.append(INVOICE_LINE);
+        }
+        return text.toString();
+    }
+}
\ No newline at end of file
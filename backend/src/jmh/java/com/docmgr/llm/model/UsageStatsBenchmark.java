@@ -0,0 +1,59 @@
+package com.docmgr.llm.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of usage recording when many request threads update the same provider's statistics,
+ * alone and while the dashboard takes snapshots
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsageStatsBenchmark {
+    
+    private static final String[] MODELS = {"gemini-1.5-flash", "gemini-1.5-pro", "llama3.2:3b", "qwen2.5:7b"};
+    
+    private final UsageStats stats = new UsageStats();
+    
+    @Benchmark
+    @Threads(1)
+    public void recordUncontended() {
+        stats.recordRequest(MODELS[0], 512, 0.0001);
+    }
+    
+    @Benchmark
+    @Threads(8)
+    public void recordContended() {
+        stats.recordRequest(MODELS[(int) (Thread.currentThread().getId() % MODELS.length)], 512, 0.0001);
+    }
+    
+    @Benchmark
+    @Group("recordWhileSnapshotting")
+    @GroupThreads(7)
+    public void record() {
+        stats.recordRequest(MODELS[(int) (Thread.currentThread().getId() % MODELS.length)], 512, 0.0001);
+    }
+    
+    @Benchmark
+    @Group("recordWhileSnapshotting")
+    @GroupThreads(1)
+    public UsageSnapshot snapshot() {
+        return stats.snapshot();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.docmgr.llm.prompt;
+
+import com.docmgr.llm.BenchmarkFixtures;
+import com.docmgr.llm.model.AnalysisSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the analysis prompt by schema size, with and without native schema enforcement
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisPromptBenchmark {
+    
+    @Param({"5", "20", "80"})
+    private int fields;
+    
+    @Param({"2000", "20000"})
+    private int documentChars;
+    
+    private AnalysisSchema schema;
+    private String text;
+    
+    @Setup
+    public void setUp() {
+        schema = BenchmarkFixtures.schema(fields);
+        text = BenchmarkFixtures.document(documentChars);
+    }
+    
+    @Benchmark
+    public String promptWithJsonInstructions() {
+        return AnalysisPromptBuilder.build(text, schema, false);
+    }
+    
+    @Benchmark
+    public String promptWithEnforcedSchema() {
+        return AnalysisPromptBuilder.build(text, schema, true);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.docmgr.llm.providers.gemini;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.model.LLMResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding a Gemini generateContent response and mapping it to an {@link LLMResponse}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeminiResponseBenchmark {
+    
+    @Param({"200", "4000"})
+    private int completionChars;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private GeminiProvider provider;
+    private String json;
+    private GeminiResponse response;
+    
+    @Setup
+    public void setUp() throws Exception {
+        // Only the mapping is benchmarked, which needs none of the collaborators
+        provider = new GeminiProvider(WebClient.builder(), null, new LLMProperties(), objectMapper,
+            null, null, null, null, null, null, null);
+        String completion = "{\"invoice_number\": \"2024-0815\", \"notes\": \"" + "x".repeat(completionChars) + "\"}";
+        json = """
+            {"candidates": [{"content": {"parts": [{"text": %s}], "role": "model"}, "finishReason": "STOP", "index": 0,
+              "safetyRatings": [{"category": "HARM_CATEGORY_HARASSMENT", "probability": "NEGLIGIBLE"},
+                                {"category": "HARM_CATEGORY_DANGEROUS_CONTENT", "probability": "NEGLIGIBLE"}]}],
+             "usageMetadata": {"promptTokenCount": 812, "candidatesTokenCount": 96, "totalTokenCount": 908}}
+            """.formatted(objectMapper.writeValueAsString(completion));
+        response = objectMapper.readValue(json, GeminiResponse.class);
+    }
+    
+    @Benchmark
+    public GeminiResponse decode() throws Exception {
+        return objectMapper.readValue(json, GeminiResponse.class);
+    }
+    
+    @Benchmark
+    public LLMResponse map() {
+        return provider.mapToLLMResponse(response, 850, "gemini-1.5-flash");
+    }
+    
+    @Benchmark
+    public LLMResponse decodeAndMap() throws Exception {
+        return provider.mapToLLMResponse(objectMapper.readValue(json, GeminiResponse.class), 850, "gemini-1.5-flash");
+    }
+}
\ No newline at end of file
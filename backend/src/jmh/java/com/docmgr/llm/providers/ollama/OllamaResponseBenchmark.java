@@ -0,0 +1,78 @@
+package com.docmgr.llm.providers.ollama;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.model.LLMResponse;
+import com.docmgr.llm.tokens.TokenBudget;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of decoding an Ollama generate response and mapping it to an {@link LLMResponse}.
+ * Non-streaming responses include the context token array, which dominates their size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OllamaResponseBenchmark {
+    
+    @Param({"200", "4000"})
+    private int completionChars;
+    
+    @Param({"0", "4096"})
+    private int contextTokens;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenBudget budget = new TokenBudget(812, 1000, 8192, 4096, false);
+    private OllamaProvider provider;
+    private String json;
+    private OllamaResponse response;
+    
+    @Setup
+    public void setUp() throws Exception {
+        // Only the mapping is benchmarked; responses carry eval_count, so no token counter is needed
+        provider = new OllamaProvider(WebClient.builder(), null, new LLMProperties(), objectMapper,
+            null, null, null, null, null, null, null, null);
+        StringBuilder context = new StringBuilder();
+        for (int i = 0; i < contextTokens; i++) {
+            context.append(i > 0 ? "," : "").append(1000 + i * 7 % 30000);
+        }
+        String completion = "{\"invoice_number\": \"2024-0815\", \"notes\": \"" + "x".repeat(completionChars) + "\"}";
+        json = """
+            {"model": "llama3.2:3b", "created_at": "2024-03-12T10:15:30.123Z", "response": %s, "done": true,
+             "context": [%s], "total_duration": 5191566416, "load_duration": 2154458, "prompt_eval_count": 812,
+             "prompt_eval_duration": 383809000, "eval_count": 96, "eval_duration": 4709213000}
+            """.formatted(objectMapper.writeValueAsString(completion), context);
+        response = objectMapper.readValue(json, OllamaResponse.class);
+    }
+    
+    @Benchmark
+    public OllamaResponse decode() throws Exception {
+        return objectMapper.readValue(json, OllamaResponse.class);
+    }
+    
+    @Benchmark
+    public LLMResponse map() {
+        return provider.mapToLLMResponse(response, 5200, "llama3.2:3b", budget);
+    }
+    
+    @Benchmark
+    public LLMResponse decodeAndMap() throws Exception {
+        return provider.mapToLLMResponse(objectMapper.readValue(json, OllamaResponse.class), 5200, "llama3.2:3b", budget);
+    }
+}
\ No newline at end of file
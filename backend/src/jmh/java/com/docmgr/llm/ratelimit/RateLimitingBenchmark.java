@@ -0,0 +1,70 @@
+package com.docmgr.llm.ratelimit;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.service.RequestCoalescer;
+import com.docmgr.llm.state.InMemoryStateStore;
+import com.docmgr.llm.tracing.LLMTracing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate-limit decision around a provider call on the in-memory state store,
+ * i.e. the aspect's own work without a Redis round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitingBenchmark {
+    
+    private RateLimitingAspect aspect;
+    private ProceedingJoinPoint joinPoint;
+    private RateLimited allowed;
+    private RateLimited rejected;
+    
+    @Setup
+    public void setUp() throws Exception {
+        aspect = new RateLimitingAspect(new InMemoryStateStore(new LLMProperties(), new ObjectMapper()),
+            new LLMMetrics(new SimpleMeterRegistry(), new RequestCoalescer()),
+            new LLMTracing(ObservationRegistry.create()));
+        joinPoint = (ProceedingJoinPoint) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[] {ProceedingJoinPoint.class},
+            (proxy, method, args) -> method.getName().equals("proceed") ? "result" : null);
+        allowed = getClass().getDeclaredMethod("allowedCall").getAnnotation(RateLimited.class);
+        rejected = getClass().getDeclaredMethod("rejectedCall").getAnnotation(RateLimited.class);
+    }
+    
+    @Benchmark
+    public Object allowed() throws Throwable {
+        return aspect.enforceRateLimit(joinPoint, allowed);
+    }
+    
+    @Benchmark
+    public Object rejected() throws Throwable {
+        return aspect.enforceRateLimit(joinPoint, rejected);
+    }
+    
+    @RateLimited(provider = "benchmark", requestsPerMinute = Integer.MAX_VALUE)
+    private void allowedCall() {}
+    
+    @RateLimited(provider = "benchmark", requestsPerMinute = 0, throwOnExceeded = false)
+    private void rejectedCall() {}
+}
\ No newline at end of file
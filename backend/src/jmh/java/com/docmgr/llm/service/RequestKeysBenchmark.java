@@ -0,0 +1,58 @@
+package com.docmgr.llm.service;
+
+import com.docmgr.llm.BenchmarkFixtures;
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.CompletionOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of hashing request keys for coalescing, which every request pays before reaching a provider
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestKeysBenchmark {
+    
+    @Param({"1000", "10000", "100000"})
+    private int textChars;
+    
+    private String text;
+    private AnalysisSchema schema;
+    private CompletionOptions options;
+    
+    @Setup
+    public void setUp() {
+        text = BenchmarkFixtures.document(textChars);
+        schema = BenchmarkFixtures.schema(20);
+        options = CompletionOptions.builder()
+            .model("gemini-1.5-flash")
+            .maxTokens(1000)
+            .temperature(0.7)
+            .build();
+    }
+    
+    @Benchmark
+    public String completionKey() {
+        return RequestKeys.completionKey("gemini", text, options);
+    }
+    
+    @Benchmark
+    public String analysisKey() {
+        return RequestKeys.analysisKey("gemini", text, schema);
+    }
+}
\ No newline at end of file
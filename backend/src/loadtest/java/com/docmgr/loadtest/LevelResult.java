@@ -0,0 +1,42 @@
+package com.docmgr.loadtest;
+
+import java.util.Map;
+
+/**
+ * Outcome of one concurrency level
+ * @param concurrency concurrent clients
+ * @param seconds measured duration
+ * @param latenciesMs latency of every completed request, sorted
+ * @param statuses responses by HTTP status, "error" for requests without a response
+ * @param providers successful responses by the provider that served them
+ * @param fallbacks provider fallbacks the application counted during the level
+ * @param mockStats requests seen by each mock server
+ */
+record LevelResult(int concurrency, double seconds, long[] latenciesMs, Map<String, Long> statuses,
+                   Map<String, Long> providers, long fallbacks, Map<String, Map<String, Long>> mockStats) {
+    
+    long requests() {
+        return latenciesMs.length;
+    }
+    
+    double throughput() {
+        return seconds > 0 ? latenciesMs.length / seconds : 0;
+    }
+    
+    long percentile(double percentile) {
+        if (latenciesMs.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latenciesMs.length) - 1;
+        return latenciesMs[Math.max(0, Math.min(latenciesMs.length - 1, index))];
+    }
+    
+    long max() {
+        return latenciesMs.length > 0 ? latenciesMs[latenciesMs.length - 1] : 0;
+    }
+    
+    double successRate() {
+        long ok = statuses.getOrDefault("200", 0L);
+        return latenciesMs.length > 0 ? (double) ok / latenciesMs.length : 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package com.docmgr.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.mycontract.backend.BackendApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Offline load test: starts simulated Ollama and Gemini servers, starts the application against them
+ * (or uses a running one given as target=...), drives the completion and analysis endpoints at each
+ * concurrency level and reports throughput, latency percentiles, status codes and which provider served
+ * the responses, so fallbacks under injected errors and 429s become visible.
+ * The embedded application keeps its state in memory and needs no Redis;
+ * pass --app.llm.state.store=redis to include the Redis round trips.
+ */
+public class LoadHarness {
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        String ollamaModel = config.option("ollama.model", "llama3.1");
+        
+        try (MockOllamaServer ollama = new MockOllamaServer(MockProfile.from("ollama", config.options(), MockProfile.OLLAMA), ollamaModel);
+             MockGeminiServer gemini = new MockGeminiServer(MockProfile.from("gemini", config.options(), MockProfile.GEMINI))) {
+            ConfigurableApplicationContext application = null;
+            String baseUrl = config.target();
+            if (baseUrl == null) {
+                application = startApplication(config, ollama, gemini, ollamaModel);
+                baseUrl = "http://localhost:" + application.getEnvironment().getProperty("local.server.port");
+            }
+            
+            try {
+                LoadRunner runner = new LoadRunner(baseUrl, config.operation(), List.of(ollama, gemini));
+                runner.activate(config.provider());
+                List<LevelResult> results = new ArrayList<>();
+                for (int concurrency : config.concurrencyLevels()) {
+                    System.out.printf("Running %d client(s) for %ds against %s...%n", concurrency, config.durationSeconds(), baseUrl);
+                    results.add(runner.run(concurrency, config.warmupSeconds(), config.durationSeconds()));
+                }
+                printTable(results);
+                writeReport(config, results);
+            } finally {
+                if (application != null) {
+                    application.close();
+                }
+            }
+        }
+    }
+    
+    private static ConfigurableApplicationContext startApplication(LoadTestConfig config, MockServer ollama,
+                                                                   MockServer gemini, String ollamaModel) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        // Single instance without Redis; pass --app.llm.state.store=redis to include the Redis round trips
+        properties.put("app.llm.state.store", "memory");
+        properties.put("app.llm.jobs.enabled", "false");
+        properties.put("management.health.redis.enabled", "false");
+        properties.put("app.llm.default-provider", config.provider());
+        properties.put("app.llm.ollama.base-url", ollama.baseUrl());
+        properties.put("app.llm.ollama.default-model", ollamaModel);
+        properties.put("app.llm.gemini.enabled", "true");
+        properties.put("app.llm.gemini.base-url", gemini.baseUrl());
+        properties.put("app.llm.gemini.api-key", "load-test");
+        
+        // Arguments given on the command line win; Spring would join duplicates instead of overriding
+        List<String> args = new ArrayList<>(config.applicationArgs());
+        properties.forEach((key, value) -> {
+            if (args.stream().noneMatch(arg -> arg.startsWith("--" + key + "="))) {
+                args.add("--" + key + "=" + value);
+            }
+        });
+        return SpringApplication.run(BackendApplication.class, args.toArray(String[]::new));
+    }
+    
+    private static void printTable(List<LevelResult> results) {
+        System.out.println();
+        System.out.printf("%-6s %8s %9s %8s %8s %8s %8s %8s %10s  %s%n",
+            "conc", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "success", "fallbacks", "served by / statuses");
+        for (LevelResult result : results) {
+            System.out.printf("%-6d %8d %9.2f %8d %8d %8d %8d %7.1f%% %10d  %s %s%n",
+                result.concurrency(), result.requests(), result.throughput(),
+                result.percentile(50), result.percentile(90), result.percentile(99), result.max(),
+                result.successRate() * 100, result.fallbacks(), result.providers(), result.statuses());
+        }
+        System.out.println();
+    }
+    
+    private static void writeReport(LoadTestConfig config, List<LevelResult> results) throws IOException {
+        List<Map<String, Object>> levels = new ArrayList<>();
+        for (LevelResult result : results) {
+            Map<String, Object> level = new LinkedHashMap<>();
+            level.put("concurrency", result.concurrency());
+            level.put("seconds", result.seconds());
+            level.put("requests", result.requests());
+            level.put("requests_per_second", result.throughput());
+            level.put("latency_ms", Map.of(
+                "p50", result.percentile(50),
+                "p90", result.percentile(90),
+                "p99", result.percentile(99),
+                "max", result.max()));
+            level.put("success_rate", result.successRate());
+            level.put("statuses", result.statuses());
+            level.put("served_by", result.providers());
+            level.put("fallbacks", result.fallbacks());
+            level.put("mock_servers", result.mockStats());
+            levels.add(level);
+        }
+        
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("generated_at", Instant.now().toString());
+        report.put("options", config.options());
+        report.put("levels", levels);
+        
+        Path output = Path.of(config.output());
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), report);
+        System.out.println("Results written to " + output.toAbsolutePath());
+    }
+}
\ No newline at end of file
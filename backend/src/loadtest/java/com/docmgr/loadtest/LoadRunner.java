@@ -0,0 +1,199 @@
+package com.docmgr.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load: each client sends its next request as soon as the previous one finished.
+ * Every request carries a unique document number so that request coalescing and caching do not
+ * turn the run into a cache benchmark.
+ */
+class LoadRunner {
+    
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(120);
+    private static final String ANALYSIS_FIELDS = "{\"invoice_number\":{\"type\":\"string\",\"required\":true},"
+        + "\"total\":{\"type\":\"number\",\"required\":true},\"due_date\":{\"type\":\"date\"},"
+        + "\"customer\":{\"type\":\"string\"}}";
+    
+    private final String baseUrl;
+    private final String operation;
+    private final List<MockServer> mocks;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+    private final AtomicLong sequence = new AtomicLong();
+    
+    LoadRunner(String baseUrl, String operation, List<MockServer> mocks) {
+        this.baseUrl = baseUrl;
+        this.operation = operation;
+        this.mocks = mocks;
+    }
+    
+    /**
+     * Run one concurrency level: a warm-up whose results are discarded, then the measured period
+     */
+    LevelResult run(int concurrency, int warmupSeconds, int durationSeconds) throws InterruptedException {
+        if (warmupSeconds > 0) {
+            drive(concurrency, warmupSeconds, new Recorder());
+        }
+        mocks.forEach(MockServer::resetStats);
+        long fallbacksBefore = fallbackCount();
+        
+        Recorder recorder = new Recorder();
+        long start = System.nanoTime();
+        drive(concurrency, durationSeconds, recorder);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        
+        Map<String, Map<String, Long>> mockStats = new TreeMap<>();
+        mocks.forEach(mock -> mockStats.put(mock.name(), mock.stats()));
+        return new LevelResult(concurrency, seconds, recorder.sortedLatencies(), new TreeMap<>(recorder.statuses()),
+            new TreeMap<>(recorder.providers()), fallbackCount() - fallbacksBefore, mockStats);
+    }
+    
+    /**
+     * Activate a provider before the run
+     */
+    void activate(String provider) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/llm/providers/" + provider + "/activate"))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .timeout(REQUEST_TIMEOUT)
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Could not activate provider " + provider + ": HTTP " + response.statusCode());
+        }
+    }
+    
+    private void drive(int concurrency, int seconds, Recorder recorder) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        send(recorder);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i).start();
+        }
+        done.await();
+    }
+    
+    private void send(Recorder recorder) {
+        long number = sequence.incrementAndGet();
+        boolean analyze = "analyze".equals(operation) || ("both".equals(operation) && number % 2 == 0);
+        String path = analyze ? "/api/v1/llm/analyze" : "/api/v1/llm/complete";
+        String body = analyze
+            ? "{\"documentType\":\"invoice\",\"fields\":" + ANALYSIS_FIELDS + ",\"text\":\"" + invoice(number) + "\"}"
+            : "{\"prompt\":\"Summarize the following invoice in one sentence. " + invoice(number) + "\",\"maxTokens\":200}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .timeout(REQUEST_TIMEOUT)
+            .build();
+        
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            recorder.record(System.nanoTime() - start, String.valueOf(response.statusCode()),
+                response.statusCode() == 200 ? providerId(response.body()) : null);
+        } catch (IOException e) {
+            recorder.record(System.nanoTime() - start, "error", null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private String providerId(String body) {
+        try {
+            return objectMapper.readTree(body).path("providerId").asText("unknown");
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+    
+    /**
+     * Fallbacks counted by the application so far, from the actuator's llm.fallbacks meter
+     */
+    private long fallbackCount() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/llm.fallbacks"))
+            .timeout(Duration.ofSeconds(10))
+            .build();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                // The meter is registered with the first fallback
+                return 0;
+            }
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if ("COUNT".equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asLong();
+                }
+            }
+            return 0;
+        } catch (IOException e) {
+            return 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+    }
+    
+    private static String invoice(long number) {
+        return "Invoice INV-" + number + " issued to ACME Corp. Consulting services, 12 hours at 75.00. "
+            + "Total amount 900.00 EUR, due within 30 days.";
+    }
+    
+    private static class Recorder {
+        
+        private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        private final Map<String, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> providers = new ConcurrentHashMap<>();
+        
+        void record(long nanos, String status, String provider) {
+            latencies.add(nanos / 1_000_000);
+            statuses.computeIfAbsent(status, k -> new LongAdder()).increment();
+            if (provider != null) {
+                providers.computeIfAbsent(provider, k -> new LongAdder()).increment();
+            }
+        }
+        
+        long[] sortedLatencies() {
+            List<Long> copy = new ArrayList<>(latencies);
+            return copy.stream().mapToLong(Long::longValue).sorted().toArray();
+        }
+        
+        Map<String, Long> statuses() {
+            return sums(statuses);
+        }
+        
+        Map<String, Long> providers() {
+            return sums(providers);
+        }
+        
+        private static Map<String, Long> sums(Map<String, LongAdder> counters) {
+            Map<String, Long> sums = new TreeMap<>();
+            counters.forEach((key, counter) -> sums.put(key, counter.sum()));
+            return sums;
+        }
+    }
+}
\ No newline at end of file
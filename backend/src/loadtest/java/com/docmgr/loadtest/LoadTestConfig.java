@@ -0,0 +1,80 @@
+package com.docmgr.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Harness options, given as key=value arguments, e.g. "concurrency=1,8,32 ollama.error-rate=0.05".
+ * Arguments starting with "--" are passed to the application unchanged.
+ * @param options all key=value options, including the mock profile overrides
+ * @param applicationArgs arguments for the embedded application
+ */
+record LoadTestConfig(Map<String, String> options, List<String> applicationArgs) {
+    
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            options.put(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+        }
+        return new LoadTestConfig(options, applicationArgs);
+    }
+    
+    /**
+     * Concurrency levels to run, one after the other
+     */
+    List<Integer> concurrencyLevels() {
+        return Arrays.stream(option("concurrency", "1,4,16").split(","))
+            .map(String::trim)
+            .map(Integer::parseInt)
+            .toList();
+    }
+    
+    int durationSeconds() {
+        return Integer.parseInt(option("duration-seconds", "30"));
+    }
+    
+    int warmupSeconds() {
+        return Integer.parseInt(option("warmup-seconds", "5"));
+    }
+    
+    /**
+     * Endpoints to drive: "complete", "analyze" or "both", alternating requests
+     */
+    String operation() {
+        return option("operation", "both");
+    }
+    
+    /**
+     * Provider activated before the run; the other one serves fallbacks
+     */
+    String provider() {
+        return option("provider", "ollama");
+    }
+    
+    /**
+     * Base URL of an already running application; the embedded application is not started when set
+     */
+    String target() {
+        return options.get("target");
+    }
+    
+    String output() {
+        return option("output", "build/reports/loadtest/results.json");
+    }
+    
+    String option(String key, String defaultValue) {
+        return options.getOrDefault(key, defaultValue);
+    }
+}
\ No newline at end of file
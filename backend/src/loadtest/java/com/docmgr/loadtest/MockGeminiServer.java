@@ -0,0 +1,110 @@
+package com.docmgr.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulated Gemini API: generateContent, streamGenerateContent (as server-sent events) and the models list.
+ * Quota and injected 429s are answered with Gemini's RESOURCE_EXHAUSTED error.
+ */
+class MockGeminiServer extends MockServer {
+    
+    private static final int STREAM_CHUNKS = 4;
+    private static final String RESOURCE_EXHAUSTED =
+        "{\"error\":{\"code\":429,\"message\":\"Resource has been exhausted (e.g. check quota).\",\"status\":\"RESOURCE_EXHAUSTED\"}}";
+    private static final String INTERNAL =
+        "{\"error\":{\"code\":500,\"message\":\"An internal error has occurred.\",\"status\":\"INTERNAL\"}}";
+    
+    MockGeminiServer(MockProfile profile) throws IOException {
+        super(profile);
+    }
+    
+    @Override
+    String name() {
+        return "gemini";
+    }
+    
+    @Override
+    protected void registerHandlers(HttpServer server) {
+        server.createContext("/v1beta/models", this::handle);
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        if (path.endsWith(":generateContent")) {
+            generate(exchange, false);
+        } else if (path.endsWith(":streamGenerateContent")) {
+            generate(exchange, true);
+        } else {
+            sendJson(exchange, 200, models());
+        }
+    }
+    
+    private void generate(HttpExchange exchange, boolean stream) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        if (rejected(exchange, RESOURCE_EXHAUSTED, INTERNAL)) {
+            return;
+        }
+        int promptTokens = Math.max(1, request.path("contents").toString().length() / 4);
+        JsonNode schema = request.path("generationConfig").get("responseSchema");
+        String text = completion(schema);
+        
+        sleep(profile.sampleLatencyMs());
+        long generationMs = profile.generationMs(profile.completionTokens());
+        
+        if (!stream) {
+            sleep(generationMs);
+            sendJson(exchange, 200, objectMapper.writeValueAsString(response(text, promptTokens, "STOP")));
+            return;
+        }
+        
+        try (OutputStream out = startStream(exchange, "text/event-stream")) {
+            int chunkLength = Math.max(1, (text.length() + STREAM_CHUNKS - 1) / STREAM_CHUNKS);
+            for (int start = 0; start < text.length(); start += chunkLength) {
+                sleep(generationMs / STREAM_CHUNKS);
+                int end = Math.min(text.length(), start + chunkLength);
+                Map<String, Object> event = response(text.substring(start, end), promptTokens, end == text.length() ? "STOP" : null);
+                out.write(("data: " + objectMapper.writeValueAsString(event) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+        }
+    }
+    
+    private Map<String, Object> response(String text, int promptTokens, String finishReason) {
+        Map<String, Object> candidate = new LinkedHashMap<>();
+        candidate.put("content", Map.of("role", "model", "parts", List.of(Map.of("text", text))));
+        if (finishReason != null) {
+            candidate.put("finishReason", finishReason);
+        }
+        candidate.put("index", 0);
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("candidates", List.of(candidate));
+        response.put("usageMetadata", Map.of(
+            "promptTokenCount", promptTokens,
+            "candidatesTokenCount", profile.completionTokens(),
+            "totalTokenCount", promptTokens + profile.completionTokens()));
+        return response;
+    }
+    
+    private String models() throws IOException {
+        List<Map<String, Object>> models = List.of("gemini-1.5-flash-latest", "gemini-1.5-flash", "gemini-1.5-pro").stream()
+            .map(id -> Map.<String, Object>of(
+                "name", "models/" + id,
+                "version", "001",
+                "displayName", id,
+                "inputTokenLimit", 1_048_576,
+                "outputTokenLimit", 8192,
+                "supportedGenerationMethods", List.of("generateContent", "countTokens")))
+            .toList();
+        return objectMapper.writeValueAsString(Map.of("models", models));
+    }
+}
\ No newline at end of file
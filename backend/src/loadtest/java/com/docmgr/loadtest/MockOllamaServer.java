@@ -0,0 +1,112 @@
+package com.docmgr.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Simulated Ollama server: /api/generate (streamed as NDJSON or not), /api/tags, /api/show and /api/pull.
+ * Reports the phase timings Ollama reports, derived from the simulated delays.
+ */
+class MockOllamaServer extends MockServer {
+    
+    private static final int STREAM_CHUNKS = 10;
+    
+    private final String model;
+    
+    MockOllamaServer(MockProfile profile, String model) throws IOException {
+        super(profile);
+        this.model = model;
+    }
+    
+    @Override
+    String name() {
+        return "ollama";
+    }
+    
+    @Override
+    protected void registerHandlers(HttpServer server) {
+        server.createContext("/api/generate", this::generate);
+        server.createContext("/api/tags", exchange -> sendJson(exchange, 200, tags()));
+        server.createContext("/api/show", exchange -> sendJson(exchange, 200,
+            "{\"details\":{\"family\":\"llama\",\"parameter_size\":\"8B\"},\"model_info\":{\"llama.context_length\":8192}}"));
+        server.createContext("/api/pull", exchange -> sendJson(exchange, 200, "{\"status\":\"success\"}"));
+    }
+    
+    private void generate(HttpExchange exchange) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        if (rejected(exchange, "{\"error\":\"server busy, please try again\"}", "{\"error\":\"simulated inference failure\"}")) {
+            return;
+        }
+        String requestedModel = request.path("model").asText(model);
+        int promptTokens = Math.max(1, request.path("prompt").asText().length() / 4);
+        JsonNode format = request.get("format");
+        String text = completion(format != null && format.isObject() ? format : null);
+        
+        long firstTokenMs = profile.sampleLatencyMs();
+        long generationMs = profile.generationMs(profile.completionTokens());
+        sleep(firstTokenMs);
+        
+        if (!request.path("stream").asBoolean(false)) {
+            sleep(generationMs);
+            sendJson(exchange, 200, objectMapper.writeValueAsString(
+                finalChunk(requestedModel, text, promptTokens, firstTokenMs, generationMs)));
+            return;
+        }
+        
+        try (OutputStream out = startStream(exchange, "application/x-ndjson")) {
+            int chunkLength = Math.max(1, (text.length() + STREAM_CHUNKS - 1) / STREAM_CHUNKS);
+            for (int start = 0; start < text.length(); start += chunkLength) {
+                sleep(generationMs / STREAM_CHUNKS);
+                Map<String, Object> chunk = chunk(requestedModel, text.substring(start, Math.min(text.length(), start + chunkLength)));
+                chunk.put("done", false);
+                writeLine(out, chunk);
+            }
+            writeLine(out, finalChunk(requestedModel, "", promptTokens, firstTokenMs, generationMs));
+        }
+    }
+    
+    private Map<String, Object> finalChunk(String requestedModel, String text, int promptTokens, long firstTokenMs, long generationMs) {
+        Map<String, Object> chunk = chunk(requestedModel, text);
+        chunk.put("done", true);
+        chunk.put("done_reason", "stop");
+        chunk.put("total_duration", (firstTokenMs + generationMs) * 1_000_000);
+        chunk.put("load_duration", 2_000_000L);
+        chunk.put("prompt_eval_count", promptTokens);
+        chunk.put("prompt_eval_duration", firstTokenMs * 1_000_000);
+        chunk.put("eval_count", profile.completionTokens());
+        chunk.put("eval_duration", generationMs * 1_000_000);
+        return chunk;
+    }
+    
+    private static Map<String, Object> chunk(String requestedModel, String text) {
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("model", requestedModel);
+        chunk.put("created_at", Instant.now().toString());
+        chunk.put("response", text);
+        return chunk;
+    }
+    
+    private void writeLine(OutputStream out, Object chunk) throws IOException {
+        out.write((objectMapper.writeValueAsString(chunk) + "\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+    
+    private String tags() throws IOException {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("name", model.contains(":") ? model : model + ":latest");
+        entry.put("size", 4_920_753_328L);
+        entry.put("digest", "loadtest0000000000000000000000000000000000000000000000000000");
+        entry.put("modified_at", "2024-01-01T00:00:00Z");
+        entry.put("details", Map.of("format", "gguf", "family", "llama", "parameter_size", "8B", "quantization_level", "Q4_0"));
+        return objectMapper.writeValueAsString(Map.of("models", List.of(entry)));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.docmgr.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Behavior of a simulated LLM server
+ * @param medianLatencyMs median time before the first token, i.e. queueing and prompt evaluation
+ * @param latencySigma spread of the log-normal latency distribution; 0 makes every request take the median
+ * @param tokensPerSecond generation speed, which also paces streamed chunks
+ * @param completionTokens tokens generated per response
+ * @param errorRate share of requests answered with HTTP 500
+ * @param rateLimitRate share of requests answered with HTTP 429 regardless of load
+ * @param requestsPerMinute quota after which requests are answered with HTTP 429, 0 for none
+ * @param retryAfterSeconds Retry-After sent with 429 responses
+ */
+public record MockProfile(double medianLatencyMs, double latencySigma, double tokensPerSecond, int completionTokens,
+                          double errorRate, double rateLimitRate, int requestsPerMinute, int retryAfterSeconds) {
+    
+    /** A local GPU box: slower generation, no quota */
+    static final MockProfile OLLAMA = new MockProfile(300, 0.5, 40, 120, 0, 0, 0, 0);
+    /** A hosted API: faster generation, free-tier quota */
+    static final MockProfile GEMINI = new MockProfile(400, 0.4, 150, 120, 0, 0, 15, 10);
+    
+    /**
+     * Override defaults from harness options prefixed with the server name, e.g. "ollama.median-ms=800"
+     */
+    static MockProfile from(String name, Map<String, String> options, MockProfile defaults) {
+        return new MockProfile(
+            number(options, name + ".median-ms", defaults.medianLatencyMs()),
+            number(options, name + ".sigma", defaults.latencySigma()),
+            number(options, name + ".tokens-per-second", defaults.tokensPerSecond()),
+            (int) number(options, name + ".completion-tokens", defaults.completionTokens()),
+            number(options, name + ".error-rate", defaults.errorRate()),
+            number(options, name + ".429-rate", defaults.rateLimitRate()),
+            (int) number(options, name + ".rpm", defaults.requestsPerMinute()),
+            (int) number(options, name + ".retry-after-seconds", defaults.retryAfterSeconds()));
+    }
+    
+    /**
+     * Draw the time to first token from the log-normal distribution
+     */
+    long sampleLatencyMs() {
+        double gaussian = ThreadLocalRandom.current().nextGaussian();
+        return Math.round(medianLatencyMs * Math.exp(latencySigma * gaussian));
+    }
+    
+    /**
+     * Time to generate the given number of tokens
+     */
+    long generationMs(int tokens) {
+        return tokensPerSecond > 0 ? Math.round(tokens * 1000 / tokensPerSecond) : 0;
+    }
+    
+    private static double number(Map<String, String> options, String key, double defaultValue) {
+        String value = options.get(key);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
\ No newline at end of file
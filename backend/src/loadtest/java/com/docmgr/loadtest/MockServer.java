@@ -0,0 +1,177 @@
+package com.docmgr.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulated LLM server on a local port. Responses are delayed by the profile's latency and generation speed;
+ * injected errors and 429s are decided before any delay, as a real server rejects before doing the work.
+ */
+abstract class MockServer implements AutoCloseable {
+    
+    private static final String[] WORDS = {"invoice", "total", "amount", "due", "customer", "service", "payment", "date"};
+    
+    protected final ObjectMapper objectMapper = new ObjectMapper();
+    protected final MockProfile profile;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Deque<Long> recentRequests = new ArrayDeque<>();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    
+    protected MockServer(MockProfile profile) throws IOException {
+        this.profile = profile;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        // Handlers sleep to simulate inference, so every request gets its own thread
+        server.setExecutor(executor);
+        registerHandlers(server);
+        server.start();
+    }
+    
+    protected abstract void registerHandlers(HttpServer server);
+    
+    /**
+     * Name of the simulated provider, as used in the harness options
+     */
+    abstract String name();
+    
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    /**
+     * Counters since the last reset: requests received, injected 500s and 429s sent
+     */
+    Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.sum());
+        stats.put("injected_errors", injectedErrors.sum());
+        stats.put("rate_limited", rateLimited.sum());
+        return stats;
+    }
+    
+    void resetStats() {
+        requests.reset();
+        injectedErrors.reset();
+        rateLimited.reset();
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Count a generation request and answer it with a failure if one is due
+     * @return true if a failure was sent and the request is done
+     */
+    protected boolean rejected(HttpExchange exchange, String rateLimitBody, String errorBody) throws IOException {
+        requests.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (overQuota() || random.nextDouble() < profile.rateLimitRate()) {
+            rateLimited.increment();
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(profile.retryAfterSeconds()));
+            sendJson(exchange, 429, rateLimitBody);
+            return true;
+        }
+        if (random.nextDouble() < profile.errorRate()) {
+            injectedErrors.increment();
+            sendJson(exchange, 500, errorBody);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * Completion text: a JSON object matching the requested schema, or plain words
+     * @param schema JSON schema of the expected output, null for free text
+     */
+    protected String completion(JsonNode schema) throws IOException {
+        if (schema != null && schema.has("properties")) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            schema.get("properties").fields().forEachRemaining(field -> values.put(field.getKey(), sampleValue(field.getValue())));
+            return objectMapper.writeValueAsString(values);
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < profile.completionTokens(); i++) {
+            text.append(i > 0 ? " " : "").append(WORDS[i % WORDS.length]);
+        }
+        return text.toString();
+    }
+    
+    protected static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    protected static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    /**
+     * Start a chunked response; each chunk written to the returned stream should be flushed to reach the client
+     */
+    protected static OutputStream startStream(HttpExchange exchange, String contentType) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, 0);
+        return exchange.getResponseBody();
+    }
+    
+    private synchronized boolean overQuota() {
+        if (profile.requestsPerMinute() <= 0) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        for (Iterator<Long> it = recentRequests.iterator(); it.hasNext() && it.next() < now - 60_000; ) {
+            it.remove();
+        }
+        if (recentRequests.size() >= profile.requestsPerMinute()) {
+            return true;
+        }
+        recentRequests.addLast(now);
+        return false;
+    }
+    
+    private static Object sampleValue(JsonNode schema) {
+        JsonNode type = schema.path("type");
+        String name = (type.isArray() ? type.path(0) : type).asText("string").toLowerCase(Locale.ROOT);
+        return switch (name) {
+            case "number" -> 89.5;
+            case "integer" -> 4711;
+            case "boolean" -> true;
+            case "array" -> new String[] {"item"};
+            case "object" -> Map.of();
+            default -> "date".equals(schema.path("format").asText()) ? "2024-03-12" : "LOAD-TEST";
+        };
+    }
+}
\ No newline at end of file
@@ -10,6 +10,9 @@ import java.util.Map;
  */
 public class AnalysisRequest {
     
+    @Size(max = 200, message = "Id cannot exceed 200 characters")
+    private String id;
+    
     @NotBlank(message = "Text cannot be empty")
     @Size(max = 100000, message = "Text cannot exceed 100,000 characters")
     private String text;
@@ -21,6 +24,17 @@ public class AnalysisRequest {
     
     private String instructions;
     
+    /**
+     * Optional client-supplied identifier, echoed back in batch results
+     */
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
     public String getText() {
         return text;
     }
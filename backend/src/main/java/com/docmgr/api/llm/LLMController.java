@@ -1,23 +1,59 @@
 package com.docmgr.api.llm;
 
 import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.analysis.AnalysisOrchestrator;
+import com.docmgr.llm.analysis.BatchAnalyzer;
+import com.docmgr.llm.analysis.ModelCascade;
+import com.docmgr.llm.catalog.ModelCatalogService;
+import com.docmgr.llm.jobs.AnalysisJobQueue;
 import com.docmgr.llm.model.*;
+import com.docmgr.llm.overview.OverviewService;
+import com.docmgr.llm.prompt.TextCompactor;
+import com.docmgr.llm.providers.ollama.OllamaPerformanceTracker;
 import com.docmgr.llm.service.LLMService;
+import com.docmgr.llm.service.RequestCoalescer;
+import com.docmgr.llm.tracing.LLMTracing;
+import com.docmgr.llm.usage.CostTracker;
+import com.docmgr.llm.usage.UsageGranularity;
+import com.docmgr.llm.usage.UsageHistoryService;
+import com.docmgr.llm.usage.UsageRecorder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -33,9 +69,55 @@ public class LLMController {
     private static final Logger logger = LoggerFactory.getLogger(LLMController.class);
     
     private final LLMService llmService;
+    private final RequestCoalescer requestCoalescer;
+    private final ModelCatalogService modelCatalog;
+    private final AnalysisOrchestrator analysisOrchestrator;
+    private final BatchAnalyzer batchAnalyzer;
+    private final ModelCascade modelCascade;
+    private final TextCompactor textCompactor;
+    /** Absent while app.llm.jobs.enabled is off */
+    private final ObjectProvider<AnalysisJobQueue> jobQueue;
+    private final UsageRecorder usageRecorder;
+    private final UsageHistoryService usageHistory;
+    private final CostTracker costTracker;
+    private final LLMTracing tracing;
+    private final OllamaPerformanceTracker ollamaPerformance;
+    private final OverviewService overviewService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
     
-    public LLMController(LLMService llmService) {
+    public LLMController(LLMService llmService,
+                        RequestCoalescer requestCoalescer,
+                        ModelCatalogService modelCatalog,
+                        AnalysisOrchestrator analysisOrchestrator,
+                        BatchAnalyzer batchAnalyzer,
+                        ModelCascade modelCascade,
+                        TextCompactor textCompactor,
+                        ObjectProvider<AnalysisJobQueue> jobQueue,
+                        UsageRecorder usageRecorder,
+                        UsageHistoryService usageHistory,
+                        CostTracker costTracker,
+                        LLMTracing tracing,
+                        OllamaPerformanceTracker ollamaPerformance,
+                        OverviewService overviewService,
+                        ObjectMapper objectMapper,
+                        Validator validator) {
         this.llmService = llmService;
+        this.requestCoalescer = requestCoalescer;
+        this.modelCatalog = modelCatalog;
+        this.analysisOrchestrator = analysisOrchestrator;
+        this.batchAnalyzer = batchAnalyzer;
+        this.modelCascade = modelCascade;
+        this.textCompactor = textCompactor;
+        this.jobQueue = jobQueue;
+        this.usageRecorder = usageRecorder;
+        this.usageHistory = usageHistory;
+        this.costTracker = costTracker;
+        this.tracing = tracing;
+        this.ollamaPerformance = ollamaPerformance;
+        this.overviewService = overviewService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
     
     @Operation(
@@ -59,7 +141,9 @@ public class LLMController {
             .model(request.getModel())
             .build();
             
-        return llmService.complete(request.getPrompt(), options)
+        Observation span = tracing.start("llm.controller.request", "endpoint", "complete");
+        span.highCardinalityKeyValue("llm.text_length", String.valueOf(request.getPrompt().length()));
+        return tracing.observe(span, () -> llmService.complete(request.getPrompt(), options))
             .thenApply(response -> {
                 logger.debug("Completion successful, tokens used: {}", response.getTokensUsed());
                 return ResponseEntity.ok(response);
@@ -72,7 +156,8 @@ public class LLMController {
     
     @Operation(
         summary = "Analyze document text",
-        description = "Extract structured information from document text using LLM analysis"
+        description = "Extract structured information from document text using LLM analysis; "
+            + "long documents are split into overlapping chunks that are analyzed in parallel and merged"
     )
     @ApiResponses({
         @ApiResponse(responseCode = "200", description = "Document analyzed successfully"),
@@ -85,16 +170,11 @@ public class LLMController {
         
         logger.info("Received analysis request for text length: {}", request.getText().length());
         
-        AnalysisSchema schema = AnalysisSchema.forDocumentType(request.getDocumentType());
-        if (request.getFields() != null) {
-            request.getFields().forEach((name, field) -> 
-                schema.addField(name, field.getType(), field.isRequired(), field.getDescription()));
-        }
-        if (request.getInstructions() != null) {
-            schema.withInstructions(request.getInstructions());
-        }
+        AnalysisSchema schema = buildSchema(request);
         
-        return llmService.analyze(request.getText(), schema)
+        Observation span = tracing.start("llm.controller.request", "endpoint", "analyze");
+        span.highCardinalityKeyValue("llm.text_length", String.valueOf(request.getText().length()));
+        return tracing.observe(span, () -> analysisOrchestrator.analyze(request.getText(), schema))
             .thenApply(response -> {
                 logger.debug("Analysis successful, extracted {} fields", response.getData().size());
                 return ResponseEntity.ok(response);
@@ -105,6 +185,185 @@ public class LLMController {
             });
     }
     
+    @Operation(
+        summary = "Analyze document text with streaming fields",
+        description = "Extract structured information and stream each field as a server-sent event as soon as it is complete; "
+            + "the final 'complete' event carries the full structured response"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Event stream started"),
+        @ApiResponse(responseCode = "400", description = "Invalid document text or schema")
+    })
+    @PostMapping(value = "/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AnalysisFieldEvent>> analyzeStream(
+            @Valid @RequestBody AnalysisRequest request) {
+        
+        logger.info("Received streaming analysis request for text length: {}", request.getText().length());
+        
+        AnalysisSchema schema = buildSchema(request);
+        
+        return Flux.defer(() -> llmService.analyzeStream(textCompactor.compact(request.getText()).text(), schema))
+            .onErrorResume(throwable -> {
+                logger.error("Streaming analysis failed", throwable);
+                return Flux.just(AnalysisFieldEvent.error("Analysis failed: " + throwable.getMessage()));
+            })
+            .map(event -> ServerSentEvent.builder(event)
+                .event(event.getType().name().toLowerCase())
+                .build());
+    }
+    
+    @Operation(
+        summary = "Analyze document text with progress events",
+        description = "Extract structured information like /analyze, streaming a 'progress' event as each chunk of a long document "
+            + "completes; the final 'complete' event carries the merged structured response"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Event stream started"),
+        @ApiResponse(responseCode = "400", description = "Invalid document text or schema")
+    })
+    @PostMapping(value = "/analyze/chunked", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AnalysisFieldEvent>> analyzeChunked(
+            @Valid @RequestBody AnalysisRequest request) {
+        
+        logger.info("Received chunked analysis request for text length: {}", request.getText().length());
+        
+        AnalysisSchema schema = buildSchema(request);
+        
+        return Flux.<AnalysisFieldEvent>create(sink -> analysisOrchestrator
+                .analyze(request.getText(), schema, progress -> sink.next(AnalysisFieldEvent.progress(progress)))
+                .whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        logger.error("Chunked analysis failed", throwable);
+                        sink.next(AnalysisFieldEvent.error("Analysis failed: " + throwable.getMessage()));
+                    } else {
+                        sink.next(AnalysisFieldEvent.complete(response));
+                    }
+                    sink.complete();
+                }), FluxSink.OverflowStrategy.BUFFER)
+            .map(event -> ServerSentEvent.builder(event)
+                .event(event.getType().name().toLowerCase())
+                .build());
+    }
+    
+    @Operation(
+        summary = "Analyze a batch of documents",
+        description = "Analyze many documents in one request, sent as a JSON array or as NDJSON (one AnalysisRequest per line). "
+            + "Documents are processed with bounded concurrency and each result is streamed back as an NDJSON line as soon as it "
+            + "finishes; a failing document yields a result with success=false instead of aborting the batch"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Result stream started"),
+        @ApiResponse(responseCode = "413", description = "Too many documents in one batch")
+    })
+    @PostMapping(value = "/analyze/batch",
+                 consumes = MediaType.APPLICATION_JSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchAnalysisResult> analyzeBatch(@RequestBody List<AnalysisRequest> requests) {
+        logger.info("Received batch analysis request with {} documents", requests.size());
+        
+        List<BatchAnalyzer.BatchItem> items = new ArrayList<>();
+        List<BatchAnalysisResult> rejected = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            addBatchItem(index, requests.get(index), items, rejected);
+        }
+        return runBatch(items, rejected);
+    }
+    
+    @Operation(
+        summary = "Analyze a batch of documents sent as NDJSON",
+        description = "Same as the JSON variant, with one AnalysisRequest per line; lines that are not valid JSON yield failure results"
+    )
+    @PostMapping(value = "/analyze/batch",
+                 consumes = MediaType.APPLICATION_NDJSON_VALUE,
+                 produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BatchAnalysisResult> analyzeBatchNdjson(InputStream body) throws IOException {
+        List<BatchAnalyzer.BatchItem> items = new ArrayList<>();
+        List<BatchAnalysisResult> rejected = new ArrayList<>();
+        int maxItems = batchAnalyzer.getMaxItems();
+        int index = 0;
+        // Lines are parsed as they arrive, so an oversized upload is rejected without reading the rest of it
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (index == maxItems) {
+                throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Batch exceeds the limit of " + maxItems + " documents");
+            }
+            try {
+                addBatchItem(index, objectMapper.readValue(line, AnalysisRequest.class), items, rejected);
+            } catch (JsonProcessingException e) {
+                rejected.add(BatchAnalysisResult.failure(index, null, "Invalid JSON: " + e.getOriginalMessage()));
+            }
+            index++;
+        }
+        
+        logger.info("Received NDJSON batch analysis request with {} documents", index);
+        return runBatch(items, rejected);
+    }
+    
+    @Operation(
+        summary = "Submit an analysis job",
+        description = "Queue a document for asynchronous analysis and return immediately with the job ID; "
+            + "follow the job with GET /jobs/{jobId} or the /jobs/{jobId}/events stream"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "202", description = "Job queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid document text or schema"),
+        @ApiResponse(responseCode = "503", description = "Analysis jobs are disabled")
+    })
+    @PostMapping("/jobs")
+    public ResponseEntity<AnalysisJob> submitJob(@Valid @RequestBody AnalysisRequest request) {
+        AnalysisJob job = jobQueue().submit(request.getText(), buildSchema(request));
+        logger.info("Queued analysis job {} for text length: {}", job.getId(), request.getText().length());
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/v1/llm/jobs/" + job.getId()))
+            .body(job);
+    }
+    
+    @Operation(
+        summary = "Get an analysis job",
+        description = "Get the status of an analysis job and, once it has completed, its result"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Job found"),
+        @ApiResponse(responseCode = "404", description = "Unknown job or result expired"),
+        @ApiResponse(responseCode = "503", description = "Analysis jobs are disabled")
+    })
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<AnalysisJob> getJob(
+            @Parameter(description = "ID returned when the job was submitted") @PathVariable String jobId) {
+        return jobQueue().getJob(jobId)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @Operation(
+        summary = "Follow an analysis job",
+        description = "Stream the job's current state and every state change as server-sent events; "
+            + "the stream ends with the 'completed' or 'failed' event"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Event stream started"),
+        @ApiResponse(responseCode = "404", description = "Unknown job or result expired"),
+        @ApiResponse(responseCode = "503", description = "Analysis jobs are disabled")
+    })
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<AnalysisJob>> getJobEvents(
+            @Parameter(description = "ID returned when the job was submitted") @PathVariable String jobId) {
+        AnalysisJobQueue queue = jobQueue();
+        if (queue.getJob(jobId).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown job " + jobId);
+        }
+        return queue.updates(jobId)
+            .map(job -> ServerSentEvent.builder(job)
+                .id(job.getId())
+                .event(job.getStatus().name().toLowerCase())
+                .build());
+    }
+    
     @Operation(
         summary = "List available LLM providers",
         description = "Get information about all available LLM providers and their health status"
@@ -152,6 +411,53 @@ public class LLMController {
         }
     }
     
+    @Operation(
+        summary = "Get service overview",
+        description = "Provider health, active provider, usage, throughput, latency percentiles, job queue depth "
+            + "and budget in one snapshot shared by all callers. Send the ETag back in If-None-Match to get 304 "
+            + "while nothing has changed"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Overview retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Overview unchanged since the given ETag")
+    })
+    @GetMapping("/overview")
+    public ResponseEntity<String> getOverview() {
+        // ETag matching and the 304 response are handled by Spring MVC for ResponseEntity
+        OverviewService.Snapshot snapshot = overviewService.getSnapshot();
+        return ResponseEntity.ok()
+            .eTag(snapshot.etag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(snapshot.json());
+    }
+    
+    @Operation(
+        summary = "Follow the service overview",
+        description = "Server-sent events: a 'snapshot' event with the full overview, then 'delta' events with only "
+            + "the sections that changed. Events carry a version; deltas not newer than the snapshot can be ignored"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Event stream started")
+    })
+    @GetMapping(value = "/overview/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> streamOverview() {
+        return overviewService.events();
+    }
+    
+    @Operation(
+        summary = "Get Ollama inference performance",
+        description = "Prompt evaluation and generation throughput, model load times and the share of time "
+            + "spent in each phase per local model since startup"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Performance per model retrieved successfully")
+    })
+    @GetMapping("/providers/ollama/performance")
+    public ResponseEntity<List<ModelPerformance>> getOllamaPerformance() {
+        return ResponseEntity.ok(ollamaPerformance.getPerformance());
+    }
+    
     @Operation(
         summary = "Activate LLM provider",
         description = "Switch to a specific LLM provider (gemini or ollama)"
@@ -181,17 +487,91 @@ public class LLMController {
     
     @Operation(
         summary = "Get LLM usage statistics",
-        description = "Get aggregated usage statistics including token counts and request metrics"
+        description = "Get aggregated usage statistics including token counts and request metrics. "
+            + "With a time range or granularity, returns usage per provider, model and operation in time buckets"
     )
     @ApiResponses({
-        @ApiResponse(responseCode = "200", description = "Usage statistics retrieved successfully")
+        @ApiResponse(responseCode = "200", description = "Usage statistics retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid range or granularity")
     })
     @GetMapping("/usage")
-    public ResponseEntity<UsageStats> getUsageStats() {
-        UsageStats stats = llmService.getAggregatedUsage();
+    public ResponseEntity<?> getUsageStats(
+            @Parameter(description = "Start of the range (ISO-8601), defaults to one window before 'to'", example = "2025-01-01T00:00:00Z")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "End of the range (ISO-8601), defaults to now")
+            @RequestParam(required = false) Instant to,
+            @Parameter(description = "Bucket size: minute, hour or day", example = "hour")
+            @RequestParam(required = false) String granularity) {
+        
+        if (from == null && to == null && granularity == null) {
+            UsageSnapshot stats = llmService.getAggregatedUsage();
+            return ResponseEntity.ok(stats);
+        }
+        
+        try {
+            UsageGranularity bucketSize = granularity != null ? UsageGranularity.parse(granularity) : UsageGranularity.HOUR;
+            Instant end = to != null ? to : Instant.now();
+            Instant start = from != null ? from : end.minus(bucketSize.getDefaultWindow());
+            return ResponseEntity.ok(usageHistory.query(start, end, bucketSize));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    @Operation(
+        summary = "Get budget status",
+        description = "Get today's and this month's spending against the configured budgets, "
+            + "and whether requests are currently routed to the local provider"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Budget status retrieved successfully")
+    })
+    @GetMapping("/usage/budget")
+    public ResponseEntity<Map<String, Object>> getBudgetStatus() {
+        return ResponseEntity.ok(costTracker.getBudgetStatus());
+    }
+    
+    @Operation(
+        summary = "Get request coalescing statistics",
+        description = "Get counters for identical in-flight requests that were served by a single upstream call"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Coalescing statistics retrieved successfully")
+    })
+    @GetMapping("/metrics/coalescing")
+    public ResponseEntity<Map<String, Object>> getCoalescingStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("upstream_calls", requestCoalescer.getUpstreamCount());
+        stats.put("coalesced_calls", requestCoalescer.getCoalescedCount());
+        stats.put("cancelled_upstream_calls", requestCoalescer.getCancelledCount());
+        stats.put("in_flight", requestCoalescer.getInFlightCount());
         return ResponseEntity.ok(stats);
     }
     
+    @Operation(
+        summary = "Get usage persistence statistics",
+        description = "Get counters for the batched flushes of usage counters to the state store"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Flush statistics retrieved successfully")
+    })
+    @GetMapping("/metrics/usage-flush")
+    public ResponseEntity<Map<String, Object>> getUsageFlushStats() {
+        return ResponseEntity.ok(usageRecorder.getFlushStats());
+    }
+    
+    @Operation(
+        summary = "Get model cascade statistics",
+        description = "Get per-level counts of analyses resolved, escalated to the next model, or failed"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Cascade statistics retrieved successfully")
+    })
+    @GetMapping("/metrics/cascade")
+    public ResponseEntity<Map<String, Map<String, Long>>> getCascadeStats() {
+        return ResponseEntity.ok(modelCascade.getLevelStats());
+    }
+    
     @Operation(
         summary = "Get provider health status",
         description = "Check health status of all LLM providers"
@@ -266,22 +646,46 @@ public class LLMController {
             @Parameter(description = "Provider name to get models for (gemini or ollama). If not specified, uses active provider", example = "ollama")
             @RequestParam(required = false) String providerName) {
         
+        return getModelDetails(providerName)
+            .thenApply(response -> {
+                if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                    return ResponseEntity.status(response.getStatusCode()).<List<String>>build();
+                }
+                return ResponseEntity.ok(response.getBody().stream()
+                    .map(ModelInfo::getName)
+                    .collect(Collectors.toList()));
+            });
+    }
+    
+    @Operation(
+        summary = "Get supported models with metadata",
+        description = "Get cached model metadata (size, family, quantization, context length) for a specific provider or the active provider"
+    )
+    @ApiResponses({
+        @ApiResponse(responseCode = "200", description = "Model metadata retrieved successfully"),
+        @ApiResponse(responseCode = "400", description = "Provider not found"),
+        @ApiResponse(responseCode = "500", description = "Failed to retrieve models")
+    })
+    @GetMapping("/models/details")
+    public CompletableFuture<ResponseEntity<List<ModelInfo>>> getModelDetails(
+            @Parameter(description = "Provider name to get models for (gemini or ollama). If not specified, uses active provider", example = "ollama")
+            @RequestParam(required = false) String providerName) {
+        
         try {
-            LLMProvider provider;
+            String targetProvider;
             if (providerName != null) {
-                provider = llmService.getAvailableProviders().stream()
-                    .filter(p -> p.getName().equals(providerName))
-                    .findFirst()
-                    .orElse(null);
-                if (provider == null) {
+                boolean known = llmService.getAvailableProviders().stream()
+                    .anyMatch(p -> p.getName().equals(providerName));
+                if (!known) {
                     return CompletableFuture.completedFuture(
                         ResponseEntity.badRequest().build());
                 }
+                targetProvider = providerName;
             } else {
-                provider = llmService.getActiveProvider();
+                targetProvider = llmService.getActiveProvider().getName();
             }
             
-            return provider.getSupportedModels()
+            return modelCatalog.loadModels(targetProvider)
                 .thenApply(ResponseEntity::ok)
                 .exceptionally(throwable -> {
                     logger.error("Failed to get supported models", throwable);
@@ -294,4 +698,51 @@ public class LLMController {
                 ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
         }
     }
+    
+    private void addBatchItem(int index, AnalysisRequest request,
+                              List<BatchAnalyzer.BatchItem> items, List<BatchAnalysisResult> rejected) {
+        if (request == null) {
+            rejected.add(BatchAnalysisResult.failure(index, null, "Empty batch entry"));
+            return;
+        }
+        Set<ConstraintViolation<AnalysisRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            String message = violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+            rejected.add(BatchAnalysisResult.failure(index, request.getId(), message));
+            return;
+        }
+        items.add(new BatchAnalyzer.BatchItem(index, request.getId(), request.getText(), buildSchema(request)));
+    }
+    
+    private Flux<BatchAnalysisResult> runBatch(List<BatchAnalyzer.BatchItem> items, List<BatchAnalysisResult> rejected) {
+        int total = items.size() + rejected.size();
+        if (total > batchAnalyzer.getMaxItems()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "Batch of " + total + " documents exceeds the limit of " + batchAnalyzer.getMaxItems());
+        }
+        return Flux.fromIterable(rejected).concatWith(batchAnalyzer.analyze(items));
+    }
+    
+    private AnalysisJobQueue jobQueue() {
+        AnalysisJobQueue queue = jobQueue.getIfAvailable();
+        if (queue == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Analysis jobs are disabled");
+        }
+        return queue;
+    }
+
+    private AnalysisSchema buildSchema(AnalysisRequest request) {
+        AnalysisSchema schema = AnalysisSchema.forDocumentType(request.getDocumentType());
+        if (request.getFields() != null) {
+            request.getFields().forEach((name, field) -> 
+                schema.addField(name, field.getType(), field.isRequired(), field.getDescription()));
+        }
+        if (request.getInstructions() != null) {
+            schema.withInstructions(request.getInstructions());
+        }
+        return schema;
+    }
 }
\ No newline at end of file
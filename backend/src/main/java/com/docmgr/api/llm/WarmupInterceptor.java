@@ -0,0 +1,48 @@
+package com.docmgr.api.llm;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.service.LLMWarmup;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Holds LLM requests that arrive before the warm-up has finished, and rejects them with 503 and Retry-After
+ * if it does not finish within the configured wait. Reads (GET) are served right away.
+ */
+@Component
+public class WarmupInterceptor implements HandlerInterceptor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(WarmupInterceptor.class);
+    
+    private final LLMWarmup warmup;
+    private final LLMProperties properties;
+    
+    public WarmupInterceptor(LLMWarmup warmup, LLMProperties properties) {
+        this.warmup = warmup;
+        this.properties = properties;
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (warmup.isReady() || HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        LLMProperties.Startup startup = properties.getStartup();
+        if (warmup.awaitReady(Duration.ofSeconds(startup.getRequestWaitSeconds()))) {
+            return true;
+        }
+        logger.info("Rejecting {} {}, LLM warm-up has not finished", request.getMethod(), request.getRequestURI());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(startup.getRetryIntervalSeconds()));
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "LLM service is starting");
+        return false;
+    }
+}
\ No newline at end of file
@@ -1,16 +1,20 @@
 package com.docmgr.config;
 
+import io.micrometer.observation.ObservationRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.reactive.function.client.WebClient;
 
 /**
  * Configuration for LLM service dependencies
  */
 @Configuration
+@EnableScheduling
 public class LLMConfiguration {
     
     @Bean
@@ -26,7 +30,15 @@ public class LLMConfiguration {
     }
     
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+    
+    @Bean
+    public WebClient.Builder webClientBuilder(ObservationRegistry observationRegistry) {
+        // Provider calls become client spans of the request that made them
+        return WebClient.builder().observationRegistry(observationRegistry);
     }
 }
\ No newline at end of file
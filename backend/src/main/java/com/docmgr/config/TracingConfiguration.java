@@ -0,0 +1,41 @@
+package com.docmgr.config;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.tracing.NdjsonSpanExporter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.lettuce.core.tracing.MicrometerTracing;
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.data.redis.ClientResourcesBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Local export of trace spans. Spans are sampled with management.tracing.sampling.probability
+ * and written as JSON lines, so latency can be profiled in production without a collector.
+ */
+@Configuration
+public class TracingConfiguration {
+    
+    @Bean
+    @ConditionalOnExpression("'${app.llm.tracing.exporter:log}' != 'none'")
+    public SpanExporter ndjsonSpanExporter(LLMProperties properties, ObjectMapper objectMapper) {
+        LLMProperties.Tracing tracing = properties.getTracing();
+        if ("file".equals(tracing.getExporter())) {
+            return NdjsonSpanExporter.toFile(objectMapper, Path.of(tracing.getFile()),
+                tracing.getMaxFileSizeMb() * 1024L * 1024L);
+        }
+        return NdjsonSpanExporter.toLog(objectMapper);
+    }
+    
+    /**
+     * Redis commands become spans of the request that issued them
+     */
+    @Bean
+    public ClientResourcesBuilderCustomizer redisTracingCustomizer(ObservationRegistry observationRegistry) {
+        return builder -> builder.tracing(new MicrometerTracing(observationRegistry, "redis"));
+    }
+}
\ No newline at end of file
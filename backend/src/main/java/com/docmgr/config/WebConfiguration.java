@@ -0,0 +1,24 @@
+package com.docmgr.config;
+
+import com.docmgr.api.llm.WarmupInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration
+ */
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+    
+    private final WarmupInterceptor warmupInterceptor;
+    
+    public WebConfiguration(WarmupInterceptor warmupInterceptor) {
+        this.warmupInterceptor = warmupInterceptor;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(warmupInterceptor).addPathPatterns("/api/v1/llm/**");
+    }
+}
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.docmgr.llm;
 
 import com.docmgr.llm.model.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -43,6 +46,45 @@ public interface LLMProvider {
      */
     CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema);
     
+    /**
+     * Analyze text with structured output schema using a specific model
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @param model model to use, or null for the provider's default; ignored by providers with a single model
+     * @return future containing structured analysis response
+     */
+    default CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema, String model) {
+        return analyze(text, schema);
+    }
+    
+    /**
+     * Generate text completion as a stream of text deltas.
+     * The last element carries the token count and response metadata.
+     * @param prompt the input text prompt
+     * @param options completion configuration options
+     * @return stream of partial responses
+     */
+    default Flux<LLMResponse> streamComplete(String prompt, CompletionOptions options) {
+        return Mono.fromFuture(() -> complete(prompt, options)).flux();
+    }
+    
+    /**
+     * Analyze text with structured output, emitting each field as soon as it is complete
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @return stream of field events followed by a completion event with the full response
+     */
+    default Flux<AnalysisFieldEvent> analyzeStream(String text, AnalysisSchema schema) {
+        return Mono.fromFuture(() -> analyze(text, schema))
+            .flatMapMany(response -> {
+                java.util.List<AnalysisFieldEvent> events = new java.util.ArrayList<>();
+                response.getData().forEach((field, value) ->
+                    events.add(AnalysisFieldEvent.field(field, value, response.getConfidenceScore(field))));
+                events.add(AnalysisFieldEvent.complete(response));
+                return Flux.fromIterable(events);
+            });
+    }
+    
     /**
      * Get current usage statistics for this provider
      * @return usage statistics
@@ -60,4 +102,16 @@ public interface LLMProvider {
      * @return future containing list of available model names
      */
     CompletableFuture<java.util.List<String>> getSupportedModels();
+    
+    /**
+     * Fetch supported models with their metadata directly from the provider.
+     * Request-path lookups should go through the model catalogue instead.
+     * @return future containing the provider's models
+     */
+    default CompletableFuture<java.util.List<ModelInfo>> fetchModelDetails() {
+        return getSupportedModels()
+            .thenApply(names -> names.stream()
+                .map(name -> new ModelInfo(name, getName()))
+                .collect(java.util.stream.Collectors.toList()));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,299 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.exception.LLMException;
+import com.docmgr.llm.extraction.ExtractedValue;
+import com.docmgr.llm.extraction.RuleBasedExtractor;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.model.AnalysisProgress;
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.StructuredResponse;
+import com.docmgr.llm.prompt.AnalysisPromptBuilder;
+import com.docmgr.llm.prompt.TextCompactor;
+import com.docmgr.llm.schema.SchemaValidator;
+import com.docmgr.llm.service.Futures;
+import com.docmgr.llm.service.LLMService;
+import com.docmgr.llm.tokens.PromptBudgeter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Entry point for document analysis. Fields that deterministic rules can answer are filled without a model;
+ * the rest go to the LLM service with the text compacted first. Short documents are sent as a single request;
+ * long documents, or documents that would not fit the model's context window, are split into chunks
+ * that are analyzed concurrently and merged by per-field confidence.
+ * Wide schemas are additionally split into field groups that run as parallel requests over the same text.
+ * Each request goes through the {@link ModelCascade}, which escalates low-confidence fields to larger models
+ * and bounds the requests in flight per provider across all fan-outs with the {@link ProviderConcurrencyLimiter}.
+ */
+@Service
+public class AnalysisOrchestrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisOrchestrator.class);
+    /** Largest output budget any provider requests for an analysis */
+    private static final int ANALYSIS_OUTPUT_TOKENS = 1500;
+
+    private final LLMService llmService;
+    private final LLMProperties properties;
+    private final PromptBudgeter promptBudgeter;
+    private final RuleBasedExtractor ruleExtractor;
+    private final ModelCascade modelCascade;
+    private final TextCompactor textCompactor;
+    private final LLMMetrics metrics;
+
+    public AnalysisOrchestrator(LLMService llmService, LLMProperties properties,
+                                PromptBudgeter promptBudgeter, RuleBasedExtractor ruleExtractor,
+                                ModelCascade modelCascade, TextCompactor textCompactor, LLMMetrics metrics) {
+        this.llmService = llmService;
+        this.properties = properties;
+        this.promptBudgeter = promptBudgeter;
+        this.ruleExtractor = ruleExtractor;
+        this.modelCascade = modelCascade;
+        this.textCompactor = textCompactor;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Analyze a document of any supported length
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @param progressListener receives progress updates while parts complete
+     * @return future containing the merged structured response
+     */
+    public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema,
+                                                         Consumer<AnalysisProgress> progressListener) {
+        if (!properties.getRules().isEnabled() || schema.getFields().isEmpty()) {
+            return analyzeCompacted(text, schema, progressListener);
+        }
+
+        Map<String, ExtractedValue> candidates = ruleExtractor.extract(text, schema);
+        double minConfidence = properties.getRules().getMinConfidence();
+        Map<String, ExtractedValue> accepted = new LinkedHashMap<>();
+        Map<String, ExtractedValue> hints = new LinkedHashMap<>();
+        candidates.forEach((field, value) -> (value.confidence() > minConfidence ? accepted : hints).put(field, value));
+
+        if (accepted.size() == schema.getFields().size()) {
+            logger.debug("All {} fields extracted by rules, skipping the model", accepted.size());
+            StructuredResponse response = new StructuredResponse();
+            response.setProviderId("rules");
+            return CompletableFuture.completedFuture(withRuleValues(response, accepted, hints, schema));
+        }
+
+        AnalysisSchema remaining = schema.subset(schema.getFields().keySet().stream()
+            .filter(field -> !accepted.containsKey(field))
+            .collect(Collectors.toList()));
+        if (!hints.isEmpty()) {
+            // Uncertain rule matches become a verification hint instead of being dropped
+            String hintText = hints.entrySet().stream()
+                .map(hint -> hint.getKey() + " = " + hint.getValue().value())
+                .collect(Collectors.joining("; ", "Candidate values found by pattern matching, verify before using them: ", ""));
+            remaining.setInstructions(remaining.getInstructions() != null
+                ? remaining.getInstructions() + "\n" + hintText : hintText);
+        }
+
+        CompletableFuture<StructuredResponse> analysis = analyzeCompacted(text, remaining, progressListener);
+        return Futures.propagateCancellation(analysis,
+            analysis.thenApply(response -> withRuleValues(response, accepted, hints, schema)));
+    }
+
+    /**
+     * Compact the text before it is sent to a model and record the saved tokens in the response metadata
+     */
+    private CompletableFuture<StructuredResponse> analyzeCompacted(String text, AnalysisSchema schema,
+                                                                   Consumer<AnalysisProgress> progressListener) {
+        TextCompactor.CompactedText compacted = textCompactor.compact(text);
+        if (compacted.removedLines() == 0 && compacted.savedChars() == 0) {
+            return analyzeWithModel(text, schema, progressListener);
+        }
+
+        String model = promptBudgeter.getDefaultModel(llmService.getActiveProvider().getName());
+        int originalTokens = promptBudgeter.getTokenCounter().count(text, model);
+        int compactedTokens = promptBudgeter.getTokenCounter().count(compacted.text(), model);
+        logger.debug("Compacted input from {} to {} tokens ({} lines removed)",
+                    originalTokens, compactedTokens, compacted.removedLines());
+
+        Map<String, Object> compaction = new LinkedHashMap<>();
+        compaction.put("original_tokens", originalTokens);
+        compaction.put("compacted_tokens", compactedTokens);
+        compaction.put("tokens_saved", originalTokens - compactedTokens);
+        compaction.put("chars_saved", compacted.savedChars());
+        compaction.put("lines_removed", compacted.removedLines());
+        CompletableFuture<StructuredResponse> analysis = analyzeWithModel(compacted.text(), schema, progressListener);
+        return Futures.propagateCancellation(analysis, analysis.thenApply(response -> {
+            response.addMetadata("compaction", compaction);
+            return response;
+        }));
+    }
+
+    private CompletableFuture<StructuredResponse> analyzeWithModel(String text, AnalysisSchema schema,
+                                                                   Consumer<AnalysisProgress> progressListener) {
+        LLMProperties.Chunking chunking = properties.getChunking();
+        if (!chunking.isEnabled()) {
+            return analyzePart(text, schema, progressListener);
+        }
+
+        int fittingChars = fittingChunkChars(text, schema, chunking);
+        if (text.length() <= chunking.getThresholdChars() && fittingChars == Integer.MAX_VALUE) {
+            return analyzePart(text, schema, progressListener);
+        }
+
+        int maxChunkChars = Math.min(chunking.getMaxChunkChars(), fittingChars);
+        List<String> chunks = DocumentChunker.split(text, maxChunkChars, chunking.getOverlapChars());
+        if (chunks.size() == 1) {
+            return analyzePart(chunks.get(0), schema, progressListener);
+        }
+
+        int total = chunks.size();
+        logger.info("Analyzing document in {} chunks", total);
+        CompletableFuture<StructuredResponse> merging = fanOut("chunks", total,
+            index -> analyzePart(chunks.get(index), chunkSchema(schema, index, total), progress -> {}),
+            schema, progressListener);
+        return Futures.propagateCancellation(merging, merging.thenApply(merged -> {
+            merged.addMetadata("chunk_count", total);
+            return merged;
+        }));
+    }
+
+    /**
+     * Analyze a document without progress reporting
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @return future containing the structured response
+     */
+    public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema) {
+        return analyze(text, schema, progress -> {});
+    }
+
+    /**
+     * Analyze text that fits into one request, splitting wide schemas into field groups
+     */
+    private CompletableFuture<StructuredResponse> analyzePart(String text, AnalysisSchema schema,
+                                                              Consumer<AnalysisProgress> progressListener) {
+        LLMProperties.FieldGroups fieldGroups = properties.getFieldGroups();
+        if (!fieldGroups.isEnabled() || schema.getFields().size() <= fieldGroups.getMaxFieldsPerGroup()) {
+            return modelCascade.analyze(text, schema);
+        }
+
+        // Every group prompt starts with the same document text, so providers with prompt caching reuse that prefix
+        List<AnalysisSchema> groups = FieldGroupPartitioner.partition(schema, fieldGroups.getMaxFieldsPerGroup());
+        logger.debug("Analyzing {} fields in {} field groups", schema.getFields().size(), groups.size());
+        CompletableFuture<StructuredResponse> merging = fanOut("field_groups", groups.size(),
+            index -> modelCascade.analyze(text, groups.get(index)),
+            schema, progressListener);
+        return Futures.propagateCancellation(merging, merging.thenApply(merged -> {
+            merged.addMetadata("field_group_count", groups.size());
+            return merged;
+        }));
+    }
+
+    /**
+     * Run parts concurrently and merge the results. The parts' model requests share the per-provider
+     * {@link ProviderConcurrencyLimiter}, so no bound is applied here that nested fan-outs would multiply.
+     * Rate-limited parts are retried; other failures are tolerated unless every part fails.
+     */
+    private CompletableFuture<StructuredResponse> fanOut(String stage, int total,
+                                                         IntFunction<CompletableFuture<StructuredResponse>> part,
+                                                         AnalysisSchema schema,
+                                                         Consumer<AnalysisProgress> progressListener) {
+        StructuredResponse[] results = new StructuredResponse[total];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+        progressListener.accept(new AnalysisProgress(stage, 0, total, 0));
+
+        return Flux.range(0, total)
+            .flatMap(index -> Mono.fromFuture(() -> part.apply(index))
+                .retryWhen(RateLimitRetry.onRateLimit(metrics))
+                .doOnNext(result -> results[index] = result)
+                .then(Mono.fromRunnable(() -> completed.incrementAndGet()))
+                .onErrorResume(error -> {
+                    logger.warn("Part {}/{} of {} failed: {}", index + 1, total, stage, error.getMessage());
+                    firstError.compareAndSet(null, error);
+                    failed.incrementAndGet();
+                    completed.incrementAndGet();
+                    return Mono.empty();
+                })
+                .doFinally(signal -> progressListener.accept(
+                    new AnalysisProgress(stage, completed.get(), total, failed.get()))))
+            .then(Mono.fromCallable(() -> {
+                if (failed.get() == total) {
+                    throw new LLMException("All " + total + " parts of " + stage + " failed", null,
+                        "PARTIAL_ANALYSIS_FAILED", firstError.get());
+                }
+                StructuredResponse merged = ResultMerger.merge(new ArrayList<>(Arrays.asList(results)), schema);
+                merged.addMetadata("failed_parts", failed.get());
+                return merged;
+            }))
+            .toFuture();
+    }
+
+    /**
+     * Add rule results to a response: accepted values always, hints only where the model found nothing
+     */
+    private StructuredResponse withRuleValues(StructuredResponse response, Map<String, ExtractedValue> accepted,
+                                              Map<String, ExtractedValue> hints, AnalysisSchema schema) {
+        accepted.forEach((field, value) -> response.addExtractedData(field, value.value(), value.confidence()));
+        hints.forEach((field, value) -> {
+            if (response.getData().get(field) == null) {
+                response.addExtractedData(field, value.value(), value.confidence());
+            }
+        });
+        response.addMetadata("rule_extracted_fields", new ArrayList<>(accepted.keySet()));
+        SchemaValidator.validate(response, schema);
+        return response;
+    }
+
+    /**
+     * Chunk size that keeps each chunk's prompt within the active model's context window
+     * @return Integer.MAX_VALUE if the whole text fits
+     */
+    private int fittingChunkChars(String text, AnalysisSchema schema, LLMProperties.Chunking chunking) {
+        String providerName = llmService.getActiveProvider().getName();
+        String model = promptBudgeter.getDefaultModel(providerName);
+        int available = promptBudgeter.getAvailablePromptTokens(providerName, model, ANALYSIS_OUTPUT_TOKENS);
+        if (available == Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+
+        int promptOverhead = promptBudgeter.getTokenCounter().count(AnalysisPromptBuilder.build("", schema, false), model);
+        int textTokens = promptBudgeter.getTokenCounter().count(text, model);
+        // Keep 10% headroom for chunk-level instructions and counting error
+        int textBudget = (available - promptOverhead) * 9 / 10;
+        if (textTokens <= textBudget || textTokens == 0) {
+            return Integer.MAX_VALUE;
+        }
+
+        double charsPerToken = (double) text.length() / textTokens;
+        int fitting = Math.max(chunking.getOverlapChars() * 2 + 1, (int) (textBudget * charsPerToken));
+        logger.info("Document of ~{} tokens exceeds the {} token budget of {}, chunking at {} chars",
+                   textTokens, textBudget, model, fitting);
+        return fitting;
+    }
+
+    private AnalysisSchema chunkSchema(AnalysisSchema schema, int index, int total) {
+        // A field missing from one part is expected, so it is neither demanded nor escalated by the cascade;
+        // required fields are checked once the parts are merged
+        AnalysisSchema chunkSchema = schema.asOptional();
+        String partNote = "This text is part " + (index + 1) + " of " + total
+            + " of a longer document. Return null for fields that do not appear in this part.";
+        chunkSchema.setInstructions(schema.getInstructions() != null
+            ? schema.getInstructions() + "\n" + partNote : partNote);
+        return chunkSchema;
+    }
+}
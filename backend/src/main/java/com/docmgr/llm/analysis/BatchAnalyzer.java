@@ -0,0 +1,80 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.BatchAnalysisResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs many analyses as one job: documents are processed concurrently, with their model requests bounded by the
+ * per-provider {@link ProviderConcurrencyLimiter} that chunk and field-group fan-outs share,
+ * rate-limit rejections are waited out, and each result is emitted as soon as it is ready.
+ * A failing document produces a failure result instead of ending the batch.
+ */
+@Service
+public class BatchAnalyzer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BatchAnalyzer.class);
+    
+    private final AnalysisOrchestrator orchestrator;
+    private final LLMProperties properties;
+    private final LLMMetrics metrics;
+    
+    public BatchAnalyzer(AnalysisOrchestrator orchestrator, LLMProperties properties, LLMMetrics metrics) {
+        this.orchestrator = orchestrator;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Analyze a batch of documents
+     * @param items documents to analyze
+     * @return one result per item, in completion order
+     */
+    public Flux<BatchAnalysisResult> analyze(List<BatchItem> items) {
+        return Flux.defer(() -> {
+            logger.info("Starting batch analysis of {} documents", items.size());
+            return Flux.fromIterable(items).flatMap(this::analyzeItem);
+        });
+    }
+    
+    /**
+     * Maximum number of documents accepted in one batch
+     */
+    public int getMaxItems() {
+        return properties.getBatch().getMaxItems();
+    }
+    
+    private Mono<BatchAnalysisResult> analyzeItem(BatchItem item) {
+        long startTime = System.currentTimeMillis();
+        return Mono.fromFuture(() -> orchestrator.analyze(item.text(), item.schema()))
+            .retryWhen(RateLimitRetry.onRateLimit(metrics))
+            .map(result -> BatchAnalysisResult.success(item.index(), item.id(), result,
+                System.currentTimeMillis() - startTime))
+            .onErrorResume(error -> {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+                logger.warn("Batch item {} failed: {}", item.index(), cause.getMessage());
+                BatchAnalysisResult failure = BatchAnalysisResult.failure(item.index(), item.id(), cause.getMessage());
+                failure.setDurationMs(System.currentTimeMillis() - startTime);
+                return Mono.just(failure);
+            });
+    }
+    
+    /**
+     * A document submitted as part of a batch
+     * @param index position in the batch
+     * @param id client-supplied identifier, may be null
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     */
+    public record BatchItem(int index, String id, String text, AnalysisSchema schema) {}
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.docmgr.llm.analysis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long documents into overlapping chunks on structural boundaries
+ * (paragraphs, then lines, then sentences) so that no chunk cuts through a clause if avoidable
+ */
+public final class DocumentChunker {
+    
+    private DocumentChunker() {}
+    
+    /**
+     * Split text into chunks of at most maxChars characters
+     * @param text the document text
+     * @param maxChars maximum chunk length
+     * @param overlapChars number of characters repeated at the start of the next chunk
+     * @return chunks in document order; a single chunk if the text already fits
+     */
+    public static List<String> split(String text, int maxChars, int overlapChars) {
+        List<String> chunks = new ArrayList<>();
+        if (text.length() <= maxChars) {
+            chunks.add(text);
+            return chunks;
+        }
+        
+        int overlap = Math.max(0, Math.min(overlapChars, maxChars / 2));
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(start + maxChars, text.length());
+            if (end < text.length()) {
+                end = findBoundary(text, start + maxChars / 2, end);
+            }
+            
+            String chunk = text.substring(start, end).strip();
+            if (!chunk.isEmpty()) {
+                chunks.add(chunk);
+            }
+            if (end >= text.length()) {
+                break;
+            }
+            
+            int next = Math.max(end - overlap, start + 1);
+            // Start the overlap on a word boundary
+            while (next < end && !Character.isWhitespace(text.charAt(next - 1))) {
+                next++;
+            }
+            start = next;
+        }
+        return chunks;
+    }
+    
+    private static int findBoundary(String text, int min, int max) {
+        int paragraph = text.lastIndexOf("\n\n", max);
+        if (paragraph >= min) {
+            return paragraph + 2;
+        }
+        int line = text.lastIndexOf('\n', max);
+        if (line >= min) {
+            return line + 1;
+        }
+        int sentence = Math.max(text.lastIndexOf(". ", max), Math.max(text.lastIndexOf("! ", max), text.lastIndexOf("? ", max)));
+        if (sentence >= min) {
+            return sentence + 2;
+        }
+        int word = text.lastIndexOf(' ', max);
+        if (word >= min) {
+            return word + 1;
+        }
+        return max;
+    }
+}
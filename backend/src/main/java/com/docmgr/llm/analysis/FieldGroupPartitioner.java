@@ -0,0 +1,39 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.model.AnalysisSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a wide schema into field groups of similar size that can be extracted by parallel requests
+ */
+public final class FieldGroupPartitioner {
+    
+    private FieldGroupPartitioner() {}
+    
+    /**
+     * Partition a schema's fields into the smallest number of groups with at most maxFieldsPerGroup fields each.
+     * Groups are balanced so that the largest group, which bounds the wall-clock time, is as small as possible;
+     * fields stay in schema order so related fields usually end up in the same group.
+     * @param schema the full expected output structure
+     * @param maxFieldsPerGroup maximum number of fields per group
+     * @return sub-schemas covering every field exactly once
+     */
+    public static List<AnalysisSchema> partition(AnalysisSchema schema, int maxFieldsPerGroup) {
+        List<String> names = new ArrayList<>(schema.getFields().keySet());
+        int limit = Math.max(1, maxFieldsPerGroup);
+        int groupCount = Math.max(1, (names.size() + limit - 1) / limit);
+        int baseSize = names.size() / groupCount;
+        int larger = names.size() % groupCount;
+        
+        List<AnalysisSchema> groups = new ArrayList<>(groupCount);
+        int start = 0;
+        for (int group = 0; group < groupCount; group++) {
+            int size = baseSize + (group < larger ? 1 : 0);
+            groups.add(schema.subset(names.subList(start, start + size)));
+            start += size;
+        }
+        return groups;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,249 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.catalog.ModelCatalogService;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.StructuredResponse;
+import com.docmgr.llm.schema.SchemaValidator;
+import com.docmgr.llm.service.LLMService;
+import com.docmgr.llm.usage.CostTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Runs an analysis through a cascade of models, cheapest first.
+ * Each level keeps the fields it is confident about; only the remaining fields are sent to the next level.
+ * Models are asked to state a confidence for every field, and that stated confidence (capped by how well the
+ * value matched its declared type) decides whether a field is escalated.
+ * Fields the model reports as absent (null) are only escalated if the schema requires them.
+ * Levels whose model the provider's catalogue does not list are skipped.
+ * Every model request waits for a slot of its provider in the {@link ProviderConcurrencyLimiter}.
+ */
+@Component
+public class ModelCascade {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ModelCascade.class);
+    
+    private final LLMService llmService;
+    private final LLMProperties properties;
+    private final CostTracker costTracker;
+    private final ProviderConcurrencyLimiter concurrencyLimiter;
+    private final ModelCatalogService modelCatalog;
+    private final Map<String, LongAdder> resolvedByLevel = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> escalationsByLevel = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failuresByLevel = new ConcurrentHashMap<>();
+    
+    public ModelCascade(LLMService llmService, LLMProperties properties, CostTracker costTracker,
+                        ProviderConcurrencyLimiter concurrencyLimiter, ModelCatalogService modelCatalog) {
+        this.llmService = llmService;
+        this.properties = properties;
+        this.costTracker = costTracker;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.modelCatalog = modelCatalog;
+    }
+    
+    /**
+     * Analyze text through the configured cascade, or with the active provider if the cascade is disabled
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @return future containing the combined structured response
+     */
+    public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema) {
+        List<LLMProperties.Cascade.Level> levels = availableLevels();
+        if (!properties.getCascade().isEnabled() || levels.isEmpty() || schema.getFields().isEmpty()) {
+            return concurrencyLimiter.submit(llmService.getActiveProvider().getName(),
+                () -> llmService.analyze(text, schema));
+        }
+        AnalysisSchema pending = schema.subset(schema.getFields().keySet());
+        pending.setConfidenceRequested(true);
+        
+        // Each level's request replaces the previous one, so cancelling the result cancels whichever is running
+        CompletableFuture<StructuredResponse> result = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<?>> current = new AtomicReference<>();
+        result.whenComplete((response, throwable) -> {
+            CompletableFuture<?> running = current.get();
+            if (result.isCancelled() && running != null) {
+                running.cancel(false);
+            }
+        });
+        attempt(levels, 0, text, schema, pending, null, new ArrayList<>(), result, current);
+        return result;
+    }
+    
+    /**
+     * Requests resolved, escalated and failed per cascade level
+     * @return counters keyed by level label ("provider/model")
+     */
+    public Map<String, Map<String, Long>> getLevelStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        for (LLMProperties.Cascade.Level level : properties.getCascade().getLevels()) {
+            String label = label(level);
+            Map<String, Long> counters = new LinkedHashMap<>();
+            counters.put("resolved", count(resolvedByLevel, label));
+            counters.put("escalated", count(escalationsByLevel, label));
+            counters.put("failed", count(failuresByLevel, label));
+            stats.put(label, counters);
+        }
+        return stats;
+    }
+    
+    private void attempt(List<LLMProperties.Cascade.Level> levels, int index, String text,
+                         AnalysisSchema fullSchema, AnalysisSchema pending, StructuredResponse combined,
+                         List<String> path, CompletableFuture<StructuredResponse> result,
+                         AtomicReference<CompletableFuture<?>> current) {
+        LLMProperties.Cascade.Level level = levels.get(index);
+        String label = label(level);
+        boolean last = index == levels.size() - 1;
+        path.add(label);
+        
+        CompletableFuture<StructuredResponse> request = concurrencyLimiter.submit(level.getProvider(),
+            () -> llmService.analyze(text, pending, level.getProvider(), level.getModel()));
+        current.set(request);
+        if (result.isCancelled()) {
+            request.cancel(false);
+            return;
+        }
+        request.whenComplete((response, throwable) -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                if (throwable != null) {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause() : throwable;
+                    if (cause instanceof CancellationException) {
+                        result.cancel(false);
+                        return;
+                    }
+                    increment(failuresByLevel, label);
+                    if (last) {
+                        if (combined != null) {
+                            result.complete(finish(combined, fullSchema, index, path));
+                        } else {
+                            result.completeExceptionally(cause);
+                        }
+                        return;
+                    }
+                    logger.warn("Cascade level {} failed, escalating: {}", label, cause.getMessage());
+                    attempt(levels, index + 1, text, fullSchema, pending, combined, path, result, current);
+                    return;
+                }
+                
+                // Checked before merging, which drops the raw output once earlier levels produced fields
+                boolean unparsed = response.getData().containsKey("raw_response");
+                StructuredResponse merged = mergeInto(combined, response);
+                List<String> unresolved = unresolvedFields(merged, pending, level.getMinConfidence(), unparsed);
+                if (unresolved.isEmpty() || last) {
+                    increment(resolvedByLevel, label);
+                    result.complete(finish(merged, fullSchema, index, path));
+                    return;
+                }
+                
+                increment(escalationsByLevel, label);
+                logger.debug("Cascade level {} left {} of {} fields below {}, escalating",
+                            label, unresolved.size(), pending.getFields().size(), level.getMinConfidence());
+                attempt(levels, index + 1, text, fullSchema, pending.subset(unresolved), merged, path, result, current);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+    
+    /**
+     * Later levels are larger models, so their non-null answers replace earlier ones
+     */
+    private StructuredResponse mergeInto(StructuredResponse combined, StructuredResponse response) {
+        if (combined == null) {
+            StructuredResponse first = new StructuredResponse();
+            first.setProviderId(response.getProviderId());
+            first.setRawText(response.getRawText());
+            first.setTokensUsed(response.getTokensUsed());
+            response.getData().forEach((field, value) ->
+                first.addExtractedData(field, value, response.getConfidenceScore(field)));
+            return first;
+        }
+        
+        combined.setTokensUsed(combined.getTokensUsed() + response.getTokensUsed());
+        combined.setProviderId(response.getProviderId());
+        response.getData().forEach((field, value) -> {
+            if (value != null || combined.getData().get(field) == null) {
+                combined.addExtractedData(field, value, response.getConfidenceScore(field));
+            }
+        });
+        // Output that could not be parsed as JSON is only kept if no level produced fields
+        if (combined.getData().size() > 1) {
+            combined.getData().remove("raw_response");
+            combined.getConfidenceScores().remove("raw_response");
+        }
+        return combined;
+    }
+    
+    private List<String> unresolvedFields(StructuredResponse response, AnalysisSchema pending, double minConfidence,
+                                          boolean unparsed) {
+        return pending.getFields().entrySet().stream()
+            .filter(entry -> {
+                if (unparsed) {
+                    return true;
+                }
+                Object value = response.getData().get(entry.getKey());
+                if (value == null) {
+                    return entry.getValue().isRequired();
+                }
+                Double confidence = response.getConfidenceScore(entry.getKey());
+                return confidence == null || confidence < minConfidence;
+            })
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+    
+    private StructuredResponse finish(StructuredResponse response, AnalysisSchema schema, int levelIndex, List<String> path) {
+        response.addMetadata("cascade_level", levelIndex);
+        response.addMetadata("cascade_path", List.copyOf(path));
+        SchemaValidator.validate(response, schema);
+        return response;
+    }
+    
+    private List<LLMProperties.Cascade.Level> availableLevels() {
+        Set<String> available = llmService.getAvailableProviders().stream()
+            .map(LLMProvider::getName)
+            .collect(Collectors.toSet());
+        List<LLMProperties.Cascade.Level> levels = properties.getCascade().getLevels().stream()
+            .filter(level -> available.contains(level.getProvider()))
+            // A model that is not installed would fail every request and count against the provider's health
+            .filter(level -> !modelCatalog.isModelMissing(level.getProvider(), level.getModel()))
+            .collect(Collectors.toList());
+        // While a budget is nearly spent, paid levels are skipped instead of being rerouted to repeat a local level
+        List<LLMProperties.Cascade.Level> withinBudget = levels.stream()
+            .filter(level -> !costTracker.shouldRouteLocal(level.getProvider()))
+            .collect(Collectors.toList());
+        return withinBudget.isEmpty() ? levels : withinBudget;
+    }
+    
+    private static String label(LLMProperties.Cascade.Level level) {
+        return level.getModel() != null ? level.getProvider() + "/" + level.getModel() : level.getProvider();
+    }
+    
+    private static void increment(Map<String, LongAdder> counters, String label) {
+        counters.computeIfAbsent(label, key -> new LongAdder()).increment();
+    }
+    
+    private static long count(Map<String, LongAdder> counters, String label) {
+        LongAdder counter = counters.get(label);
+        return counter != null ? counter.sum() : 0;
+    }
+}
\ No newline at end of file
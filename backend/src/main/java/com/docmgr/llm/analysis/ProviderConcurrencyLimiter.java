@@ -0,0 +1,116 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.service.Futures;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounds the number of analysis requests in flight per provider, shared by every fan-out:
+ * batch items, document chunks and field groups all acquire a slot here for each model request they make,
+ * so nested fan-outs cannot multiply the provider's concurrency limit.
+ * Requests over the limit wait in submission order without blocking a thread.
+ */
+@Component
+public class ProviderConcurrencyLimiter {
+
+    private final LLMProperties properties;
+    private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+    public ProviderConcurrencyLimiter(LLMProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Run a provider request once a slot for the provider is free
+     * @param providerName provider the request goes to
+     * @param call starts the request
+     * @return future completing with the request's result; cancelling it skips a waiting request
+     *         and cancels a running one
+     */
+    public <T> CompletableFuture<T> submit(String providerName, Supplier<CompletableFuture<T>> call) {
+        Lane lane = lanes.computeIfAbsent(providerName,
+            name -> new Lane(properties.getMaxConcurrentRequests(name)));
+        CompletableFuture<T> result = new CompletableFuture<>();
+        lane.enqueue(() -> {
+            if (result.isDone()) {
+                lane.release();
+                return;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                lane.release();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            Futures.propagateCancellation(future, result);
+        });
+        return result;
+    }
+
+    private static final class Lane {
+
+        private final int limit;
+        private final Queue<Runnable> waiting = new ArrayDeque<>();
+        private int active;
+        private boolean draining;
+
+        Lane(int limit) {
+            this.limit = limit;
+        }
+
+        void enqueue(Runnable task) {
+            synchronized (this) {
+                waiting.add(task);
+            }
+            drain();
+        }
+
+        void release() {
+            synchronized (this) {
+                active--;
+            }
+            drain();
+        }
+
+        /**
+         * Start waiting requests while slots are free. Only one thread drains at a time, and a request that
+         * completes synchronously releases its slot into the running loop instead of recursing into a new one,
+         * so a long queue of failing requests cannot overflow the stack.
+         */
+        private void drain() {
+            synchronized (this) {
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    next = active < limit ? waiting.poll() : null;
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                    active++;
+                }
+                next.run();
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.exception.RateLimitExceededException;
+import com.docmgr.llm.metrics.LLMMetrics;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Retry policy for fan-out operations: wait out provider rate limits instead of failing the part
+ */
+public final class RateLimitRetry {
+    
+    private static final int MAX_RETRIES = 3;
+    private static final long MAX_WAIT_SECONDS = 60;
+    
+    private RateLimitRetry() {}
+    
+    /**
+     * Retry after the provider's advertised wait time when a rate limit is hit; other errors pass through
+     * @param metrics records the time spent waiting
+     * @return retry specification for {@link reactor.core.publisher.Mono#retryWhen(Retry)}
+     */
+    public static Retry onRateLimit(LLMMetrics metrics) {
+        return Retry.from(signals -> signals.concatMap(signal -> {
+            Throwable failure = signal.failure();
+            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+            if (cause instanceof RateLimitExceededException rateLimit && signal.totalRetries() < MAX_RETRIES) {
+                Duration wait = Duration.ofSeconds(Math.min(Math.max(1, rateLimit.getRetryAfterSeconds()), MAX_WAIT_SECONDS));
+                metrics.recordRateLimitWait(rateLimit.getProviderId(), wait);
+                return Mono.delay(wait);
+            }
+            return Mono.error(failure);
+        }));
+    }
+}
@@ -0,0 +1,88 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.StructuredResponse;
+import com.docmgr.llm.schema.SchemaValidator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Merges partial structured responses (from chunks or field groups) into one response,
+ * keeping the highest-confidence value for each field
+ */
+public final class ResultMerger {
+    
+    private ResultMerger() {}
+    
+    /**
+     * Merge partial responses field by field.
+     * Scalar fields take the non-null value with the highest confidence (earliest part wins ties);
+     * list fields are unioned across parts.
+     * @param parts partial responses in document order
+     * @param schema the full expected output structure
+     * @return merged and validated response
+     */
+    public static StructuredResponse merge(List<StructuredResponse> parts, AnalysisSchema schema) {
+        StructuredResponse merged = new StructuredResponse();
+        Map<String, Integer> sources = new LinkedHashMap<>();
+        Map<String, Set<Object>> listValues = new LinkedHashMap<>();
+        List<String> rawTexts = new ArrayList<>();
+        int tokensUsed = 0;
+        
+        for (int index = 0; index < parts.size(); index++) {
+            StructuredResponse part = parts.get(index);
+            if (part == null) {
+                continue;
+            }
+            if (merged.getProviderId() == null) {
+                merged.setProviderId(part.getProviderId());
+            }
+            tokensUsed += part.getTokensUsed();
+            if (part.getRawText() != null) {
+                rawTexts.add(part.getRawText());
+            }
+            
+            for (Map.Entry<String, Object> entry : part.getData().entrySet()) {
+                String field = entry.getKey();
+                Object value = entry.getValue();
+                double confidence = part.getConfidenceScore(field) != null ? part.getConfidenceScore(field) : 0.0;
+                
+                if (value instanceof List<?> list) {
+                    listValues.computeIfAbsent(field, key -> new LinkedHashSet<>()).addAll(list);
+                    Double current = merged.getConfidenceScore(field);
+                    merged.getConfidenceScores().put(field, current != null ? Math.max(current, confidence) : confidence);
+                    sources.putIfAbsent(field, index);
+                    continue;
+                }
+                
+                Double current = merged.getConfidenceScore(field);
+                boolean better = !merged.getData().containsKey(field)
+                    || (merged.getData().get(field) == null && value != null)
+                    || (value != null && current != null && confidence > current);
+                if (better) {
+                    merged.addExtractedData(field, value, confidence);
+                    sources.put(field, index);
+                }
+            }
+        }
+        
+        listValues.forEach((field, values) -> merged.getData().put(field, new ArrayList<>(values)));
+        // A placeholder "raw_response" is only meaningful if no part produced real fields
+        if (merged.getData().size() > 1) {
+            merged.getData().remove("raw_response");
+            merged.getConfidenceScores().remove("raw_response");
+        }
+        
+        merged.setTokensUsed(tokensUsed);
+        merged.setRawText(String.join("\n---\n", rawTexts));
+        merged.addMetadata("part_count", parts.size());
+        merged.addMetadata("field_sources", sources);
+        SchemaValidator.validate(merged, schema);
+        return merged;
+    }
+}
@@ -0,0 +1,33 @@
+package com.docmgr.llm.catalog;
+
+import com.docmgr.llm.model.ModelInfo;
+
+import java.util.List;
+
+/**
+ * Published when models appear in or disappear from a provider's catalogue
+ */
+public class ModelCatalogChangedEvent {
+    
+    private final String providerName;
+    private final List<ModelInfo> addedModels;
+    private final List<ModelInfo> removedModels;
+    
+    public ModelCatalogChangedEvent(String providerName, List<ModelInfo> addedModels, List<ModelInfo> removedModels) {
+        this.providerName = providerName;
+        this.addedModels = List.copyOf(addedModels);
+        this.removedModels = List.copyOf(removedModels);
+    }
+    
+    public String getProviderName() {
+        return providerName;
+    }
+    
+    public List<ModelInfo> getAddedModels() {
+        return addedModels;
+    }
+    
+    public List<ModelInfo> getRemovedModels() {
+        return removedModels;
+    }
+}
@@ -0,0 +1,232 @@
+package com.docmgr.llm.catalog;
+
+import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.model.ModelInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cached catalogue of the models offered by each provider.
+ * Lookups are served from memory; the provider APIs are only queried by the background refresh
+ * or when an entry is older than the configured TTL.
+ */
+@Service
+public class ModelCatalogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelCatalogService.class);
+    private static final String DEFAULT_TAG = ":latest";
+
+    private final Map<String, LLMProvider> providers;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LLMProperties properties;
+    private final Map<String, CatalogEntry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<ModelInfo>>> pendingRefreshes = new ConcurrentHashMap<>();
+
+    public ModelCatalogService(List<LLMProvider> providerList,
+                              ApplicationEventPublisher eventPublisher,
+                              LLMProperties properties) {
+        this.providers = providerList.stream()
+            .collect(Collectors.toMap(LLMProvider::getName, Function.identity()));
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+    }
+
+    /**
+     * Get cached models for a provider
+     * @param providerName name of the provider
+     * @return cached models, empty if the catalogue has not been loaded yet
+     */
+    public List<ModelInfo> getModels(String providerName) {
+        CatalogEntry entry = entries.get(providerName);
+        if (entry == null || entry.isExpired(ttl())) {
+            refresh(providerName);
+        }
+        return entry != null ? new ArrayList<>(entry.models.values()) : List.of();
+    }
+
+    /**
+     * Get models for a provider, loading the catalogue first if it was never loaded
+     * @param providerName name of the provider
+     * @return future containing the provider's models
+     */
+    public CompletableFuture<List<ModelInfo>> loadModels(String providerName) {
+        if (entries.containsKey(providerName)) {
+            return CompletableFuture.completedFuture(getModels(providerName));
+        }
+        return refresh(providerName);
+    }
+    
+    /**
+     * Get cached metadata for a single model
+     * @param providerName name of the provider
+     * @param modelName model name, with or without the default tag
+     * @return model metadata if the model is known
+     */
+    public Optional<ModelInfo> getModel(String providerName, String modelName) {
+        if (modelName == null) {
+            return Optional.empty();
+        }
+        CatalogEntry entry = entries.get(providerName);
+        if (entry == null || entry.isExpired(ttl())) {
+            refresh(providerName);
+        }
+        if (entry == null) {
+            return Optional.empty();
+        }
+        ModelInfo model = entry.models.get(modelName);
+        if (model == null && !modelName.contains(":")) {
+            model = entry.models.get(modelName + DEFAULT_TAG);
+        }
+        return Optional.ofNullable(model);
+    }
+
+    /**
+     * Check model availability, loading the catalogue first if it was never loaded
+     * @param providerName name of the provider
+     * @param modelName model name, with or without the default tag
+     * @return future containing true if the provider offers the model
+     */
+    public CompletableFuture<Boolean> isModelAvailable(String providerName, String modelName) {
+        if (entries.containsKey(providerName)) {
+            return CompletableFuture.completedFuture(getModel(providerName, modelName).isPresent());
+        }
+        return refresh(providerName)
+            .thenApply(models -> getModel(providerName, modelName).isPresent());
+    }
+
+    /**
+     * Check a model against the cached catalogue without loading it
+     * @param providerName name of the provider
+     * @param modelName model name, with or without the default tag
+     * @return true only if the provider's catalogue has been loaded and does not list the model
+     */
+    public boolean isModelMissing(String providerName, String modelName) {
+        return modelName != null && entries.containsKey(providerName) && getModel(providerName, modelName).isEmpty();
+    }
+
+    /**
+     * Reload a provider's models, publishing a change event if models appeared or disappeared.
+     * Concurrent refreshes for the same provider share one upstream call.
+     * @param providerName name of the provider
+     * @return future containing the refreshed models
+     */
+    public CompletableFuture<List<ModelInfo>> refresh(String providerName) {
+        LLMProvider provider = providers.get(providerName);
+        if (provider == null) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        CompletableFuture<List<ModelInfo>> refreshed = new CompletableFuture<>();
+        CompletableFuture<List<ModelInfo>> pending = pendingRefreshes.putIfAbsent(providerName, refreshed);
+        if (pending != null) {
+            return pending;
+        }
+
+        CompletableFuture<List<ModelInfo>> fetch;
+        try {
+            fetch = provider.fetchModelDetails();
+        } catch (Exception e) {
+            fetch = CompletableFuture.failedFuture(e);
+        }
+
+        fetch.whenComplete((models, throwable) -> {
+            List<ModelInfo> result;
+            if (throwable != null) {
+                logger.warn("Failed to refresh model catalogue for {}: {}", providerName, throwable.getMessage());
+                CatalogEntry previous = entries.get(providerName);
+                result = previous != null ? new ArrayList<>(previous.models.values()) : List.of();
+            } else {
+                update(providerName, models);
+                result = models;
+            }
+            pendingRefreshes.remove(providerName, refreshed);
+            refreshed.complete(result);
+        });
+        return refreshed;
+    }
+
+    @Scheduled(fixedDelayString = "${app.llm.catalog.refresh-interval-seconds:300}",
+               initialDelayString = "${app.llm.catalog.refresh-interval-seconds:300}",
+               timeUnit = TimeUnit.SECONDS)
+    public void refreshAll() {
+        providers.keySet().forEach(this::refresh);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        logger.info("Loading model catalogue for providers: {}", providers.keySet());
+        refreshAll();
+    }
+
+    private void update(String providerName, List<ModelInfo> models) {
+        Map<String, ModelInfo> current = new LinkedHashMap<>();
+        for (ModelInfo model : models) {
+            current.put(model.getName(), model);
+        }
+
+        CatalogEntry previous = entries.put(providerName, new CatalogEntry(current, Instant.now()));
+        Map<String, ModelInfo> previousModels = previous != null ? previous.models : Collections.emptyMap();
+
+        List<ModelInfo> added = new ArrayList<>();
+        List<ModelInfo> removed = new ArrayList<>();
+        current.forEach((name, model) -> {
+            ModelInfo old = previousModels.get(name);
+            if (old == null) {
+                added.add(model);
+            } else if (!Objects.equals(old.getDigest(), model.getDigest())) {
+                // Same name, different content: the model was re-pulled
+                removed.add(old);
+                added.add(model);
+            }
+        });
+        previousModels.forEach((name, model) -> {
+            if (!current.containsKey(name)) {
+                removed.add(model);
+            }
+        });
+
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            logger.info("Model catalogue for {} changed: {} added, {} removed", providerName, added.size(), removed.size());
+            eventPublisher.publishEvent(new ModelCatalogChangedEvent(providerName, added, removed));
+        }
+    }
+
+    private Duration ttl() {
+        return Duration.ofSeconds(properties.getCatalog().getTtlSeconds());
+    }
+
+    private static final class CatalogEntry {
+        private final Map<String, ModelInfo> models;
+        private final Instant refreshedAt;
+
+        private CatalogEntry(Map<String, ModelInfo> models, Instant refreshedAt) {
+            this.models = Collections.unmodifiableMap(models);
+            this.refreshedAt = refreshedAt;
+        }
+
+        private boolean isExpired(Duration ttl) {
+            return refreshedAt.plus(ttl).isBefore(Instant.now());
+        }
+    }
+}
@@ -3,6 +3,11 @@ package com.docmgr.llm.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Configuration properties for LLM providers
  */
@@ -14,9 +19,27 @@ public class LLMProperties {
     private boolean fallbackEnabled = true;
     private int defaultMaxTokens = 1000;
     private double defaultTemperature = 0.7;
+    private boolean coalescingEnabled = true;
+    private boolean nativeStructuredOutput = true;
     
     private final Gemini gemini = new Gemini();
     private final Ollama ollama = new Ollama();
+    private final Catalog catalog = new Catalog();
+    private final Chunking chunking = new Chunking();
+    private final Tokenizer tokenizer = new Tokenizer();
+    private final Batch batch = new Batch();
+    private final FieldGroups fieldGroups = new FieldGroups();
+    private final Rules rules = new Rules();
+    private final Cascade cascade = new Cascade();
+    private final Compaction compaction = new Compaction();
+    private final Jobs jobs = new Jobs();
+    private final Usage usage = new Usage();
+    private final Cost cost = new Cost();
+    private final Tracing tracing = new Tracing();
+    private final Overview overview = new Overview();
+    private final Replay replay = new Replay();
+    private final State state = new State();
+    private final Startup startup = new Startup();
     
     public String getDefaultProvider() {
         return defaultProvider;
@@ -50,6 +73,22 @@ public class LLMProperties {
         this.defaultTemperature = defaultTemperature;
     }
     
+    public boolean isCoalescingEnabled() {
+        return coalescingEnabled;
+    }
+    
+    public void setCoalescingEnabled(boolean coalescingEnabled) {
+        this.coalescingEnabled = coalescingEnabled;
+    }
+    
+    public boolean isNativeStructuredOutput() {
+        return nativeStructuredOutput;
+    }
+    
+    public void setNativeStructuredOutput(boolean nativeStructuredOutput) {
+        this.nativeStructuredOutput = nativeStructuredOutput;
+    }
+    
     public Gemini getGemini() {
         return gemini;
     }
@@ -58,6 +97,86 @@ public class LLMProperties {
         return ollama;
     }
     
+    public Catalog getCatalog() {
+        return catalog;
+    }
+    
+    public Chunking getChunking() {
+        return chunking;
+    }
+    
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+    
+    public Batch getBatch() {
+        return batch;
+    }
+    
+    public FieldGroups getFieldGroups() {
+        return fieldGroups;
+    }
+    
+    public Rules getRules() {
+        return rules;
+    }
+    
+    public Cascade getCascade() {
+        return cascade;
+    }
+    
+    public Compaction getCompaction() {
+        return compaction;
+    }
+    
+    public Jobs getJobs() {
+        return jobs;
+    }
+    
+    public Usage getUsage() {
+        return usage;
+    }
+    
+    public Cost getCost() {
+        return cost;
+    }
+    
+    public Tracing getTracing() {
+        return tracing;
+    }
+    
+    public Overview getOverview() {
+        return overview;
+    }
+    
+    public Replay getReplay() {
+        return replay;
+    }
+    
+    public State getState() {
+        return state;
+    }
+    
+    public Startup getStartup() {
+        return startup;
+    }
+    
+    /**
+     * Maximum number of concurrent requests a provider should receive from fan-out operations
+     * @param providerName name of the provider
+     * @return concurrency limit, at least 1
+     */
+    public int getMaxConcurrentRequests(String providerName) {
+        int limit = switch (providerName) {
+            case "gemini" -> gemini.getMaxConcurrentRequests();
+            case "ollama" -> ollama.getMaxConcurrentRequests();
+            // Replayed traffic keeps the concurrency of the provider it was recorded from
+            case "replay" -> "replay".equals(replay.getSource()) ? 1 : getMaxConcurrentRequests(replay.getSource());
+            default -> 1;
+        };
+        return Math.max(1, limit);
+    }
+    
     public static class Gemini {
         private boolean enabled = true;
         private String apiKey;
@@ -66,6 +185,7 @@ public class LLMProperties {
         private int rateLimitPerMinute = 15;
         private int maxRetries = 3;
         private long timeoutSeconds = 30;
+        private int maxConcurrentRequests = 4;
         
         public boolean isEnabled() {
             return enabled;
@@ -122,6 +242,14 @@ public class LLMProperties {
         public void setTimeoutSeconds(long timeoutSeconds) {
             this.timeoutSeconds = timeoutSeconds;
         }
+        
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+        
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
     }
     
     public static class Ollama {
@@ -130,6 +258,9 @@ public class LLMProperties {
         private String defaultModel = "llama3.1";
         private long timeoutSeconds = 30;
         private boolean autoModelPull = true;
+        private int numCtx = 8192;
+        private int maxConcurrentRequests = 2;
+        private long availabilityCacheSeconds = 10;
         
         public boolean isEnabled() {
             return enabled;
@@ -170,5 +301,761 @@ public class LLMProperties {
         public void setAutoModelPull(boolean autoModelPull) {
             this.autoModelPull = autoModelPull;
         }
+        
+        /**
+         * Upper bound for the per-request context window; requests are sized to their prompt below this
+         */
+        public int getNumCtx() {
+            return numCtx;
+        }
+        
+        public void setNumCtx(int numCtx) {
+            this.numCtx = numCtx;
+        }
+        
+        public int getMaxConcurrentRequests() {
+            return maxConcurrentRequests;
+        }
+        
+        public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+            this.maxConcurrentRequests = maxConcurrentRequests;
+        }
+        
+        /**
+         * How long a connectivity probe answers availability checks; older results are refreshed in the background
+         */
+        public long getAvailabilityCacheSeconds() {
+            return availabilityCacheSeconds;
+        }
+        
+        public void setAvailabilityCacheSeconds(long availabilityCacheSeconds) {
+            this.availabilityCacheSeconds = availabilityCacheSeconds;
+        }
+    }
+    
+    public static class Catalog {
+        private long refreshIntervalSeconds = 300;
+        private long ttlSeconds = 600;
+        
+        public long getRefreshIntervalSeconds() {
+            return refreshIntervalSeconds;
+        }
+        
+        public void setRefreshIntervalSeconds(long refreshIntervalSeconds) {
+            this.refreshIntervalSeconds = refreshIntervalSeconds;
+        }
+        
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+        
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+    }
+    
+    public static class Chunking {
+        private boolean enabled = true;
+        private int thresholdChars = 12000;
+        private int maxChunkChars = 8000;
+        private int overlapChars = 400;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getThresholdChars() {
+            return thresholdChars;
+        }
+        
+        public void setThresholdChars(int thresholdChars) {
+            this.thresholdChars = thresholdChars;
+        }
+        
+        public int getMaxChunkChars() {
+            return maxChunkChars;
+        }
+        
+        public void setMaxChunkChars(int maxChunkChars) {
+            this.maxChunkChars = maxChunkChars;
+        }
+        
+        public int getOverlapChars() {
+            return overlapChars;
+        }
+        
+        public void setOverlapChars(int overlapChars) {
+            this.overlapChars = overlapChars;
+        }
+    }
+    
+    public static class Tokenizer {
+        private String vocabularyDir;
+        private Map<String, String> aliases = new HashMap<>();
+        
+        /**
+         * Directory with Hugging Face tokenizer.json files, named after the model prefix they serve (e.g. llama3.json)
+         */
+        public String getVocabularyDir() {
+            return vocabularyDir;
+        }
+        
+        public void setVocabularyDir(String vocabularyDir) {
+            this.vocabularyDir = vocabularyDir;
+        }
+        
+        /**
+         * Model name prefix to vocabulary name, for models without a vocabulary of their own name
+         */
+        public Map<String, String> getAliases() {
+            return aliases;
+        }
+        
+        public void setAliases(Map<String, String> aliases) {
+            this.aliases = aliases;
+        }
+    }
+    
+    public static class Batch {
+        private int maxItems = 5000;
+        
+        public int getMaxItems() {
+            return maxItems;
+        }
+        
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+    }
+    
+    public static class FieldGroups {
+        private boolean enabled = true;
+        private int maxFieldsPerGroup = 8;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxFieldsPerGroup() {
+            return maxFieldsPerGroup;
+        }
+        
+        public void setMaxFieldsPerGroup(int maxFieldsPerGroup) {
+            this.maxFieldsPerGroup = maxFieldsPerGroup;
+        }
+    }
+    
+    public static class Rules {
+        private boolean enabled = true;
+        private double minConfidence = 0.85;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        /**
+         * Rule results above this confidence are used as-is; lower ones are passed to the model as hints
+         */
+        public double getMinConfidence() {
+            return minConfidence;
+        }
+        
+        public void setMinConfidence(double minConfidence) {
+            this.minConfidence = minConfidence;
+        }
+    }
+    
+    public static class Cascade {
+        private boolean enabled = false;
+        private List<Level> levels = new ArrayList<>();
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        /**
+         * Models to try in order, cheapest first
+         */
+        public List<Level> getLevels() {
+            return levels;
+        }
+        
+        public void setLevels(List<Level> levels) {
+            this.levels = levels;
+        }
+        
+        public static class Level {
+            private String provider;
+            private String model;
+            private double minConfidence = 0.8;
+            
+            public String getProvider() {
+                return provider;
+            }
+            
+            public void setProvider(String provider) {
+                this.provider = provider;
+            }
+            
+            public String getModel() {
+                return model;
+            }
+            
+            public void setModel(String model) {
+                this.model = model;
+            }
+            
+            /**
+             * Fields below this confidence are escalated to the next level
+             */
+            public double getMinConfidence() {
+                return minConfidence;
+            }
+            
+            public void setMinConfidence(double minConfidence) {
+                this.minConfidence = minConfidence;
+            }
+        }
+    }
+    
+    public static class Compaction {
+        private boolean enabled = true;
+        private boolean dropBoilerplate = false;
+        private List<String> boilerplatePatterns = new ArrayList<>();
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public boolean isDropBoilerplate() {
+            return dropBoilerplate;
+        }
+        
+        public void setDropBoilerplate(boolean dropBoilerplate) {
+            this.dropBoilerplate = dropBoilerplate;
+        }
+        
+        /**
+         * Regular expressions (case-insensitive) identifying paragraphs that are dropped when drop-boilerplate is on
+         */
+        public List<String> getBoilerplatePatterns() {
+            return boilerplatePatterns;
+        }
+        
+        public void setBoilerplatePatterns(List<String> boilerplatePatterns) {
+            this.boilerplatePatterns = boilerplatePatterns;
+        }
+    }
+    
+    public static class Jobs {
+        private boolean enabled = true;
+        private int workers = 2;
+        private int maxAttempts = 3;
+        private int timeoutSeconds = 240;
+        private int visibilityTimeoutSeconds = 300;
+        private int retryDelaySeconds = 30;
+        private int resultTtlHours = 24;
+        private int deadLetterMaxLength = 10000;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        /**
+         * Number of jobs this instance processes concurrently
+         */
+        public int getWorkers() {
+            return workers;
+        }
+        
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+        
+        /**
+         * Attempts before a job is moved to the dead-letter stream
+         */
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+        
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+        
+        /**
+         * Maximum time one attempt may take
+         */
+        public int getTimeoutSeconds() {
+            return timeoutSeconds;
+        }
+        
+        public void setTimeoutSeconds(int timeoutSeconds) {
+            this.timeoutSeconds = timeoutSeconds;
+        }
+        
+        /**
+         * Time after which a job taken by a worker that has not acknowledged it is handed to another worker.
+         * Must be longer than timeout-seconds.
+         */
+        public int getVisibilityTimeoutSeconds() {
+            return visibilityTimeoutSeconds;
+        }
+        
+        public void setVisibilityTimeoutSeconds(int visibilityTimeoutSeconds) {
+            this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        }
+        
+        /**
+         * Delay before a failed attempt is retried
+         */
+        public int getRetryDelaySeconds() {
+            return retryDelaySeconds;
+        }
+        
+        public void setRetryDelaySeconds(int retryDelaySeconds) {
+            this.retryDelaySeconds = retryDelaySeconds;
+        }
+        
+        /**
+         * How long finished jobs and their results are kept
+         */
+        public int getResultTtlHours() {
+            return resultTtlHours;
+        }
+        
+        public void setResultTtlHours(int resultTtlHours) {
+            this.resultTtlHours = resultTtlHours;
+        }
+        
+        public int getDeadLetterMaxLength() {
+            return deadLetterMaxLength;
+        }
+        
+        public void setDeadLetterMaxLength(int deadLetterMaxLength) {
+            this.deadLetterMaxLength = deadLetterMaxLength;
+        }
+    }
+    
+    public static class Usage {
+        private int flushIntervalSeconds = 5;
+        private int minuteRetentionHours = 48;
+        private int hourRetentionDays = 35;
+        private int dayRetentionDays = 400;
+        private int maxQueryBuckets = 2000;
+        
+        /**
+         * Interval between write-behind flushes of usage counters to the state store
+         */
+        public int getFlushIntervalSeconds() {
+            return flushIntervalSeconds;
+        }
+        
+        public void setFlushIntervalSeconds(int flushIntervalSeconds) {
+            this.flushIntervalSeconds = flushIntervalSeconds;
+        }
+        
+        public int getMinuteRetentionHours() {
+            return minuteRetentionHours;
+        }
+        
+        public void setMinuteRetentionHours(int minuteRetentionHours) {
+            this.minuteRetentionHours = minuteRetentionHours;
+        }
+        
+        public int getHourRetentionDays() {
+            return hourRetentionDays;
+        }
+        
+        public void setHourRetentionDays(int hourRetentionDays) {
+            this.hourRetentionDays = hourRetentionDays;
+        }
+        
+        /**
+         * Retention of daily buckets
+         */
+        public int getDayRetentionDays() {
+            return dayRetentionDays;
+        }
+        
+        public void setDayRetentionDays(int dayRetentionDays) {
+            this.dayRetentionDays = dayRetentionDays;
+        }
+        
+        /**
+         * Largest number of buckets a single usage query may span
+         */
+        public int getMaxQueryBuckets() {
+            return maxQueryBuckets;
+        }
+        
+        public void setMaxQueryBuckets(int maxQueryBuckets) {
+            this.maxQueryBuckets = maxQueryBuckets;
+        }
+    }
+    
+    public static class Cost {
+        private String currency = "USD";
+        private Map<String, Price> prices = new HashMap<>();
+        private double dailyBudget = 0;
+        private double monthlyBudget = 0;
+        private double routeLocalThreshold = 0.9;
+        private String localProvider = "ollama";
+        private int refreshIntervalSeconds = 30;
+        
+        public String getCurrency() {
+            return currency;
+        }
+        
+        public void setCurrency(String currency) {
+            this.currency = currency;
+        }
+        
+        /**
+         * Price per model name prefix; the longest matching prefix applies, models without a price cost nothing
+         */
+        public Map<String, Price> getPrices() {
+            return prices;
+        }
+        
+        public void setPrices(Map<String, Price> prices) {
+            this.prices = prices;
+        }
+        
+        /**
+         * Spending limit per UTC day, 0 for no limit
+         */
+        public double getDailyBudget() {
+            return dailyBudget;
+        }
+        
+        public void setDailyBudget(double dailyBudget) {
+            this.dailyBudget = dailyBudget;
+        }
+        
+        /**
+         * Spending limit per UTC calendar month, 0 for no limit
+         */
+        public double getMonthlyBudget() {
+            return monthlyBudget;
+        }
+        
+        public void setMonthlyBudget(double monthlyBudget) {
+            this.monthlyBudget = monthlyBudget;
+        }
+        
+        /**
+         * Share of a budget after which requests are routed to the local provider
+         */
+        public double getRouteLocalThreshold() {
+            return routeLocalThreshold;
+        }
+        
+        public void setRouteLocalThreshold(double routeLocalThreshold) {
+            this.routeLocalThreshold = routeLocalThreshold;
+        }
+        
+        public String getLocalProvider() {
+            return localProvider;
+        }
+        
+        public void setLocalProvider(String localProvider) {
+            this.localProvider = localProvider;
+        }
+        
+        /**
+         * Interval between reads of the spending of all instances from the state store
+         */
+        public int getRefreshIntervalSeconds() {
+            return refreshIntervalSeconds;
+        }
+        
+        public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
+            this.refreshIntervalSeconds = refreshIntervalSeconds;
+        }
+        
+        public static class Price {
+            private double inputPerMillion;
+            private double outputPerMillion;
+            
+            /**
+             * Price of one million prompt tokens
+             */
+            public double getInputPerMillion() {
+                return inputPerMillion;
+            }
+            
+            public void setInputPerMillion(double inputPerMillion) {
+                this.inputPerMillion = inputPerMillion;
+            }
+            
+            /**
+             * Price of one million generated tokens
+             */
+            public double getOutputPerMillion() {
+                return outputPerMillion;
+            }
+            
+            public void setOutputPerMillion(double outputPerMillion) {
+                this.outputPerMillion = outputPerMillion;
+            }
+        }
+    }
+    
+    public static class Tracing {
+        private String exporter = "log";
+        private String file = "logs/traces.ndjson";
+        private int maxFileSizeMb = 50;
+        
+        /**
+         * Where sampled spans are written: "log" (the llm.traces logger), "file" or "none"
+         */
+        public String getExporter() {
+            return exporter;
+        }
+        
+        public void setExporter(String exporter) {
+            this.exporter = exporter;
+        }
+        
+        /**
+         * Span file of the "file" exporter, one JSON object per line
+         */
+        public String getFile() {
+            return file;
+        }
+        
+        public void setFile(String file) {
+            this.file = file;
+        }
+        
+        public int getMaxFileSizeMb() {
+            return maxFileSizeMb;
+        }
+        
+        public void setMaxFileSizeMb(int maxFileSizeMb) {
+            this.maxFileSizeMb = maxFileSizeMb;
+        }
+    }
+    
+    public static class Overview {
+        private int refreshIntervalSeconds = 5;
+        private int healthIntervalSeconds = 30;
+        private int healthTimeoutSeconds = 5;
+        private int heartbeatSeconds = 15;
+        
+        /**
+         * How often the shared dashboard snapshot is recomputed while it is being watched
+         */
+        public int getRefreshIntervalSeconds() {
+            return refreshIntervalSeconds;
+        }
+        
+        public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
+            this.refreshIntervalSeconds = refreshIntervalSeconds;
+        }
+        
+        /**
+         * How often provider health is probed for the snapshot; probes call the providers, so this is slower
+         */
+        public int getHealthIntervalSeconds() {
+            return healthIntervalSeconds;
+        }
+        
+        public void setHealthIntervalSeconds(int healthIntervalSeconds) {
+            this.healthIntervalSeconds = healthIntervalSeconds;
+        }
+        
+        /**
+         * Longest wait for one provider's health probe before it is shown as unknown
+         */
+        public int getHealthTimeoutSeconds() {
+            return healthTimeoutSeconds;
+        }
+        
+        public void setHealthTimeoutSeconds(int healthTimeoutSeconds) {
+            this.healthTimeoutSeconds = healthTimeoutSeconds;
+        }
+        
+        /**
+         * Interval of keep-alive comments on the event stream when nothing changes
+         */
+        public int getHeartbeatSeconds() {
+            return heartbeatSeconds;
+        }
+        
+        public void setHeartbeatSeconds(int heartbeatSeconds) {
+            this.heartbeatSeconds = heartbeatSeconds;
+        }
+    }
+    
+    public static class Replay {
+        private boolean enabled = false;
+        private String mode = "replay";
+        private String source = "ollama";
+        private String directory = "replay";
+        private String timing = "original";
+        private double speed = 1.0;
+        private boolean includePrompts = false;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        /**
+         * "record" passes requests to the source provider and appends them to the recording,
+         * "replay" answers them from the recording
+         */
+        public String getMode() {
+            return mode;
+        }
+        
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+        
+        /**
+         * Provider whose traffic is recorded; also part of the request key, so a recording replays under the same source
+         */
+        public String getSource() {
+            return source;
+        }
+        
+        public void setSource(String source) {
+            this.source = source;
+        }
+        
+        /**
+         * Directory of the recording files, one NDJSON file per source and day
+         */
+        public String getDirectory() {
+            return directory;
+        }
+        
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+        
+        /**
+         * "original" answers after the recorded latency divided by the speed, "fast" answers immediately
+         */
+        public String getTiming() {
+            return timing;
+        }
+        
+        public void setTiming(String timing) {
+            this.timing = timing;
+        }
+        
+        public double getSpeed() {
+            return speed;
+        }
+        
+        public void setSpeed(double speed) {
+            this.speed = speed;
+        }
+        
+        /**
+         * Store prompts in the recording; off by default as prompts contain document text and dominate the file size
+         */
+        public boolean isIncludePrompts() {
+            return includePrompts;
+        }
+        
+        public void setIncludePrompts(boolean includePrompts) {
+            this.includePrompts = includePrompts;
+        }
+    }
+    
+    public static class State {
+        private String store = "redis";
+        private String snapshotFile = "";
+        private int snapshotIntervalSeconds = 60;
+        
+        /**
+         * Where the active provider, rate limits, failure and usage counters are kept: "redis", shared by all
+         * instances, or "memory", in this process only
+         */
+        public String getStore() {
+            return store;
+        }
+        
+        public void setStore(String store) {
+            this.store = store;
+        }
+        
+        /**
+         * File the in-memory store is snapshotted to and restored from; empty for no snapshots
+         */
+        public String getSnapshotFile() {
+            return snapshotFile;
+        }
+        
+        public void setSnapshotFile(String snapshotFile) {
+            this.snapshotFile = snapshotFile;
+        }
+        
+        public int getSnapshotIntervalSeconds() {
+            return snapshotIntervalSeconds;
+        }
+        
+        public void setSnapshotIntervalSeconds(int snapshotIntervalSeconds) {
+            this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        }
+    }
+    
+    public static class Startup {
+        private int requestWaitSeconds = 10;
+        private int retryIntervalSeconds = 5;
+        
+        /**
+         * How long an LLM request that arrives during the warm-up is held before it is rejected with 503
+         */
+        public int getRequestWaitSeconds() {
+            return requestWaitSeconds;
+        }
+        
+        public void setRequestWaitSeconds(int requestWaitSeconds) {
+            this.requestWaitSeconds = requestWaitSeconds;
+        }
+        
+        /**
+         * Delay before the warm-up is retried when the state store could not be reached
+         */
+        public int getRetryIntervalSeconds() {
+            return retryIntervalSeconds;
+        }
+        
+        public void setRetryIntervalSeconds(int retryIntervalSeconds) {
+            this.retryIntervalSeconds = retryIntervalSeconds;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.docmgr.llm.exception;
+
+/**
+ * Exception thrown when a prompt plus the requested output does not fit into the model's context window
+ */
+public class ContextWindowExceededException extends LLMException {
+    
+    private final String model;
+    private final int promptTokens;
+    private final int maxOutputTokens;
+    private final int contextLength;
+    
+    public ContextWindowExceededException(String providerId, String model, int promptTokens,
+                                          int maxOutputTokens, int contextLength) {
+        super("Prompt of ~" + promptTokens + " tokens plus " + maxOutputTokens + " output tokens exceeds the "
+              + contextLength + " token context window of " + providerId + " model " + model,
+              providerId, "CONTEXT_WINDOW_EXCEEDED");
+        this.model = model;
+        this.promptTokens = promptTokens;
+        this.maxOutputTokens = maxOutputTokens;
+        this.contextLength = contextLength;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+    
+    public int getMaxOutputTokens() {
+        return maxOutputTokens;
+    }
+    
+    public int getContextLength() {
+        return contextLength;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.docmgr.llm.extraction;
+
+/**
+ * A field value found by a deterministic rule
+ * @param value typed value (BigDecimal, LocalDate, String or List)
+ * @param confidence how reliable the rule considers the match, 0.0 to 1.0
+ * @param rule name of the rule that produced the value
+ */
+public record ExtractedValue(Object value, double confidence, String rule) {}
\ No newline at end of file
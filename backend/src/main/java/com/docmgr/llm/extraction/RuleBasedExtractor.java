@@ -0,0 +1,410 @@
+package com.docmgr.llm.extraction;
+
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.parsing.ValueParsers;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts fields that follow fixed formats (IBAN, BIC, EUR amounts, dates, reference numbers, company names)
+ * from German and English documents without calling a model.
+ * Fields are matched to rules by name and declared type; a rule only answers when its label or format
+ * makes the value unambiguous enough, and reports how confident it is. Dates and amounts are only reported
+ * with high confidence when they follow a label specific to the field; a lone date or amount is just a hint.
+ */
+@Component
+public class RuleBasedExtractor {
+    
+    static final double LABELLED_CONFIDENCE = 0.9;
+    static final double CHECKSUM_CONFIDENCE = 0.98;
+    static final double SINGLE_CANDIDATE_CONFIDENCE = 0.75;
+    static final double AMBIGUOUS_CONFIDENCE = 0.6;
+    
+    private static final Pattern IBAN = Pattern.compile("\\b[A-Z]{2}\\d{2}(?: ?[A-Z0-9]){11,30}");
+    private static final Pattern BIC = Pattern.compile("\\b(?i:BIC|SWIFT)(?:-Code)?\\s*[:.]?\\s*([A-Z]{6}[A-Z0-9]{2}(?:[A-Z0-9]{3})?)\\b");
+    private static final Pattern AMOUNT = Pattern.compile(
+        "(?<![\\d.,])-?(?:\\d{1,3}(?:[.\\u00A0 ]\\d{3})+|\\d+)[.,]\\d{2}(?!\\.?\\d)");
+    private static final Pattern CURRENCY = Pattern.compile("(?i)EUR|€|Euro");
+    private static final Pattern DATE = Pattern.compile(
+        "\\b\\d{4}-\\d{2}-\\d{2}\\b"
+        + "|\\b\\d{1,2}\\.\\s?\\d{1,2}\\.\\s?(?:\\d{4}|\\d{2})\\b"
+        + "|\\b\\d{1,2}\\.\\s?(?:Januar|Februar|März|April|Mai|Juni|Juli|August|September|Oktober|November|Dezember)\\s\\d{4}\\b"
+        + "|\\b\\d{1,2}\\s(?:January|February|March|April|May|June|July|August|September|October|November|December)\\s\\d{4}\\b"
+        + "|\\b(?:January|February|March|April|May|June|July|August|September|October|November|December)\\s\\d{1,2},\\s\\d{4}\\b");
+    private static final Pattern NUMERIC_DATE = Pattern.compile("\\d{1,2}\\.\\s?\\d{1,2}\\.\\s?\\d{2,4}");
+    private static final Pattern COMPANY = Pattern.compile(
+        "\\b([A-ZÄÖÜ][\\wÄÖÜäöüß&.\\-]*(?:[ \\t][\\wÄÖÜäöüß&.\\-]+){0,5}?[ \\t](?:GmbH & Co\\. KG|GmbH|AG|KG|SE|UG|e\\.V\\.|Ltd\\.?|Inc\\.?|LLC))(?![\\wÄÖÜäöüß])");
+    private static final Map<String, Integer> IBAN_LENGTHS = Map.of(
+        "DE", 22, "AT", 20, "CH", 21, "NL", 18, "BE", 16, "LU", 20, "FR", 27, "IT", 27, "ES", 24, "GB", 22);
+    
+    private static final String TOTAL_LABELS = "gesamt\\w*|summe|rechnungsbetrag|endbetrag|zahlbetrag|zu zahlen|total|amount due|brutto\\w*";
+    /** "id" and "no" only mark a reference as a word of their own: "customer_id", "policyNo", but not "paid" */
+    private static final Pattern REFERENCE_SUFFIX = Pattern.compile("(?:^|[_\\-\\s])(?i:id|no)$|[a-z](?:Id|ID|No)$");
+    
+    private enum Kind { IBAN, BIC, REFERENCE, DATE, AMOUNT, PARTY }
+    
+    /**
+     * Extract every schema field a rule can answer
+     * @param text the document text
+     * @param schema the expected output structure
+     * @return extracted values by field name, in schema order; fields without a match are absent
+     */
+    public Map<String, ExtractedValue> extract(String text, AnalysisSchema schema) {
+        Map<String, ExtractedValue> extracted = new LinkedHashMap<>();
+        if (text == null || text.isBlank()) {
+            return extracted;
+        }
+        String[] lines = text.split("\\r?\\n");
+        
+        schema.getFields().forEach((name, definition) -> {
+            String key = normalize(name);
+            String type = definition.getType() != null ? definition.getType().toLowerCase(Locale.ROOT) : "string";
+            Kind kind = classify(name, key, type);
+            if (kind == null) {
+                return;
+            }
+            Optional<ExtractedValue> value = switch (kind) {
+                case IBAN -> extractIban(text);
+                case BIC -> extractBic(text);
+                case REFERENCE -> extractReference(lines, key);
+                case DATE -> extractDate(text, lines, key);
+                case AMOUNT -> extractAmount(text, lines, key);
+                case PARTY -> extractParties(text, type);
+            };
+            value.map(found -> asType(found, type)).ifPresent(found -> extracted.put(name, found));
+        });
+        return extracted;
+    }
+    
+    private Kind classify(String name, String key, String type) {
+        // Flags and counts are never filled by a rule, whatever their name mentions
+        if (type.equals("integer") || type.equals("int") || type.equals("long") || type.equals("boolean")) {
+            return null;
+        }
+        if (key.contains("iban")) {
+            return Kind.IBAN;
+        }
+        if (key.contains("bic") || key.contains("swift")) {
+            return Kind.BIC;
+        }
+        if (referenceLabels(key) != null && (key.contains("number") || key.contains("nummer") || key.endsWith("nr")
+                || REFERENCE_SUFFIX.matcher(name.trim()).find() || key.contains("referen"))) {
+            return Kind.REFERENCE;
+        }
+        if (type.startsWith("date") || type.equals("timestamp")) {
+            return Kind.DATE;
+        }
+        boolean numeric = type.equals("number") || type.equals("decimal") || type.equals("double") || type.equals("float")
+            || type.equals("currency") || type.equals("amount") || type.equals("money");
+        if (!numeric && containsAny(key, "date", "datum", "frist", "deadline")) {
+            return Kind.DATE;
+        }
+        // Quantities and durations are numbers too, but no amount rule can tell them apart from a price
+        if (containsAny(key, "verbrauch", "consumption", "zählerstand", "zaehlerstand", "laufzeit")
+                || endsWithAny(key, "kwh", "months", "monate", "years", "jahre", "days", "tage", "term",
+                "anzahl", "quantity", "menge", "percent", "prozent", "satz")
+                || key.endsWith("rate") && !containsAny(key, "monat", "month")) {
+            return null;
+        }
+        // The declared type alone does not make a field an amount, its name has to say so
+        if (containsAny(key, "amount", "betrag", "total", "summe", "price", "preis", "cost", "kosten",
+                "fee", "gebühr", "gebuehr", "netto", "brutto", "mwst", "vat", "tax", "abschlag")) {
+            return Kind.AMOUNT;
+        }
+        if (containsAny(key, "due", "fällig", "faellig")) {
+            return Kind.DATE;
+        }
+        if (containsAny(key, "parties", "party", "partner", "sender", "absender", "recipient", "empfänger", "creditor",
+                "gläubiger", "glaeubiger", "company", "firma", "provider", "anbieter", "vendor", "lieferant", "issuer")) {
+            return Kind.PARTY;
+        }
+        return null;
+    }
+    
+    private Optional<ExtractedValue> extractIban(String text) {
+        Set<String> ibans = new LinkedHashSet<>();
+        Matcher matcher = IBAN.matcher(text);
+        while (matcher.find()) {
+            validIban(matcher.group().replace(" ", "")).ifPresent(ibans::add);
+        }
+        if (ibans.isEmpty()) {
+            return Optional.empty();
+        }
+        double confidence = ibans.size() == 1 ? CHECKSUM_CONFIDENCE : AMBIGUOUS_CONFIDENCE;
+        return Optional.of(new ExtractedValue(ibans.iterator().next(), confidence, "iban"));
+    }
+    
+    /**
+     * The pattern may swallow characters that follow the IBAN, so try the known country length first
+     * and otherwise shorten the candidate until the ISO 7064 mod-97 check passes
+     */
+    private Optional<String> validIban(String candidate) {
+        Integer expected = IBAN_LENGTHS.get(candidate.substring(0, 2));
+        if (expected != null) {
+            return candidate.length() >= expected && mod97(candidate.substring(0, expected))
+                ? Optional.of(candidate.substring(0, expected)) : Optional.empty();
+        }
+        for (int length = Math.min(candidate.length(), 34); length >= 15; length--) {
+            if (mod97(candidate.substring(0, length))) {
+                return Optional.of(candidate.substring(0, length));
+            }
+        }
+        return Optional.empty();
+    }
+    
+    static boolean mod97(String iban) {
+        String rearranged = iban.substring(4) + iban.substring(0, 4);
+        StringBuilder digits = new StringBuilder(rearranged.length() * 2);
+        for (char c : rearranged.toCharArray()) {
+            if (Character.isDigit(c)) {
+                digits.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                digits.append(c - 'A' + 10);
+            } else {
+                return false;
+            }
+        }
+        return new BigInteger(digits.toString()).mod(BigInteger.valueOf(97)).intValue() == 1;
+    }
+    
+    private Optional<ExtractedValue> extractBic(String text) {
+        Matcher matcher = BIC.matcher(text);
+        return matcher.find()
+            ? Optional.of(new ExtractedValue(matcher.group(1).toUpperCase(Locale.ROOT), LABELLED_CONFIDENCE, "bic"))
+            : Optional.empty();
+    }
+    
+    private Optional<ExtractedValue> extractReference(String[] lines, String key) {
+        Pattern pattern = Pattern.compile("(?i:" + referenceLabels(key) + ")\\s*[:#.]?\\s*([A-Z0-9][A-Z0-9\\-/.]*[A-Z0-9])");
+        for (String line : lines) {
+            Matcher matcher = pattern.matcher(line);
+            while (matcher.find()) {
+                String value = matcher.group(1);
+                if (value.chars().anyMatch(Character::isDigit)) {
+                    return Optional.of(new ExtractedValue(value, LABELLED_CONFIDENCE, "reference"));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    private String referenceLabels(String key) {
+        if (containsAny(key, "contract", "vertrag")) {
+            return "vertragsnummer|vertrags-nr\\.?|vertragskonto(?:nummer)?|contract (?:no\\.?|number|id)";
+        }
+        if (containsAny(key, "customer", "kunde", "client")) {
+            return "kundennummer|kunden-nr\\.?|kd\\.?-nr\\.?|customer (?:no\\.?|number|id)";
+        }
+        if (containsAny(key, "invoice", "rechnung", "bill")) {
+            return "rechnungsnummer|rechnungs-nr\\.?|rechnung nr\\.?|invoice (?:no\\.?|number|#)";
+        }
+        if (containsAny(key, "policy", "police", "versicherung", "insurance")) {
+            return "versicherungsnummer|versicherungsschein-nr\\.?|policennummer|vers\\.-nr\\.?|policy (?:no\\.?|number)";
+        }
+        if (containsAny(key, "mandate", "mandat")) {
+            return "mandatsreferenz|mandate reference";
+        }
+        if (containsAny(key, "account", "konto")) {
+            return "kontonummer|konto-nr\\.?|account (?:no\\.?|number)";
+        }
+        return null;
+    }
+    
+    private Optional<ExtractedValue> extractDate(String text, String[] lines, String key) {
+        String labels = dateLabels(key);
+        // A generic "Datum" label may belong to any date in the document, so it only narrows down a hint
+        double labelledConfidence = labels != null ? LABELLED_CONFIDENCE : SINGLE_CANDIDATE_CONFIDENCE;
+        Pattern label = Pattern.compile("(?i)" + (labels != null ? labels : "datum|date"));
+        for (int i = 0; i < lines.length; i++) {
+            if (!label.matcher(lines[i]).find()) {
+                continue;
+            }
+            // The date usually follows the label on the same line, sometimes on the next one
+            Optional<LocalDate> date = firstDate(lines[i]);
+            if (date.isEmpty() && i + 1 < lines.length) {
+                date = firstDate(lines[i + 1]);
+            }
+            if (date.isPresent()) {
+                return Optional.of(new ExtractedValue(date.get(), labelledConfidence, "date"));
+            }
+        }
+        
+        Set<LocalDate> dates = new LinkedHashSet<>();
+        Matcher matcher = DATE.matcher(text);
+        while (matcher.find()) {
+            LocalDate date = parseDate(matcher.group());
+            if (date != null) {
+                dates.add(date);
+            }
+        }
+        if (dates.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ExtractedValue(dates.iterator().next(),
+            dates.size() == 1 ? SINGLE_CANDIDATE_CONFIDENCE : AMBIGUOUS_CONFIDENCE, "date"));
+    }
+    
+    private String dateLabels(String key) {
+        if (containsAny(key, "due", "fällig", "faellig", "zahlbar", "payment", "zahlung")) {
+            return "fällig|faellig|zahlbar bis|zahlungsziel|due|payable by|bitte (?:zahlen|überweisen) bis";
+        }
+        if (containsAny(key, "cancel", "kündig", "kuendig", "termination", "notice")) {
+            return "kündig\\w*|kuendig\\w*|cancel\\w*|termination|notice";
+        }
+        if (containsAny(key, "start", "beginn", "begin", "from")) {
+            return "vertragsbeginn|beginn|start|gültig ab|valid from";
+        }
+        if (containsAny(key, "end", "ende", "expir", "until")) {
+            return "vertragsende|ende|laufzeit bis|gültig bis|valid until|expires";
+        }
+        if (containsAny(key, "invoice", "rechnung", "bill")) {
+            return "rechnungsdatum|invoice date";
+        }
+        return null;
+    }
+    
+    private Optional<LocalDate> firstDate(String line) {
+        Matcher matcher = DATE.matcher(line);
+        while (matcher.find()) {
+            LocalDate date = parseDate(matcher.group());
+            if (date != null) {
+                return Optional.of(date);
+            }
+        }
+        return Optional.empty();
+    }
+    
+    private LocalDate parseDate(String text) {
+        // "01. 02. 2024" is written with spaces in some letters
+        return ValueParsers.parseDate(NUMERIC_DATE.matcher(text).matches() ? text.replace(" ", "") : text);
+    }
+    
+    private Optional<ExtractedValue> extractAmount(String text, String[] lines, String key) {
+        String labels = amountLabels(key);
+        // Whole words only: "ust" must not match "August", nor "rate" "Berater"
+        Pattern label = labels != null ? Pattern.compile("(?i)\\b(?:" + labels + ")\\b") : null;
+        BigDecimal labelled = null;
+        for (String line : lines) {
+            if (label != null && label.matcher(line).find()) {
+                List<BigDecimal> amounts = amounts(line);
+                if (!amounts.isEmpty()) {
+                    // Totals are right-aligned and repeated towards the end of a bill: the last labelled amount wins
+                    labelled = amounts.get(amounts.size() - 1);
+                }
+            }
+        }
+        if (labelled != null) {
+            return Optional.of(new ExtractedValue(labelled, LABELLED_CONFIDENCE, "amount"));
+        }
+        
+        Set<BigDecimal> distinct = new LinkedHashSet<>();
+        amounts(text).forEach(amount -> distinct.add(amount.stripTrailingZeros()));
+        if (distinct.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new ExtractedValue(distinct.iterator().next(),
+            distinct.size() == 1 ? SINGLE_CANDIDATE_CONFIDENCE : AMBIGUOUS_CONFIDENCE, "amount"));
+    }
+    
+    private String amountLabels(String key) {
+        if (key.startsWith("net") || key.contains("netto")) {
+            return "netto\\w*|net amount|subtotal|zwischensumme";
+        }
+        if (containsAny(key, "mwst", "ust", "vat", "tax", "steuer")) {
+            return "mwst|ust\\.?|umsatzsteuer|mehrwertsteuer|vat|tax";
+        }
+        if (containsAny(key, "monthly", "monat", "abschlag", "rate", "beitrag", "premium")) {
+            return "monatlich\\w*|monthly|abschlag\\w*|rate|beitrag";
+        }
+        if (containsAny(key, "amount", "betrag", "total", "gesamt", "summe", "brutto", "due", "zahlen")) {
+            return TOTAL_LABELS;
+        }
+        // Prices, fees and costs have no label that tells them apart from other amounts on the page
+        return null;
+    }
+    
+    /**
+     * Amounts with a currency marker directly before or after them
+     */
+    private List<BigDecimal> amounts(String text) {
+        List<BigDecimal> amounts = new ArrayList<>();
+        Matcher matcher = AMOUNT.matcher(text);
+        while (matcher.find()) {
+            String before = text.substring(Math.max(0, matcher.start() - 5), matcher.start());
+            String after = text.substring(matcher.end(), Math.min(text.length(), matcher.end() + 6));
+            if (CURRENCY.matcher(before).find() || CURRENCY.matcher(after).find()) {
+                BigDecimal amount = ValueParsers.parseDecimal(matcher.group());
+                if (amount != null) {
+                    amounts.add(amount);
+                }
+            }
+        }
+        return amounts;
+    }
+    
+    private Optional<ExtractedValue> extractParties(String text, String type) {
+        Set<String> companies = new LinkedHashSet<>();
+        Matcher matcher = COMPANY.matcher(text);
+        while (matcher.find()) {
+            companies.add(matcher.group(1).trim());
+        }
+        if (companies.isEmpty()) {
+            return Optional.empty();
+        }
+        // Company names are found reliably, but which one fills the role is for the model to confirm
+        boolean list = type.equals("array") || type.equals("list");
+        return Optional.of(list
+            ? new ExtractedValue(new ArrayList<>(companies), AMBIGUOUS_CONFIDENCE, "party")
+            : new ExtractedValue(companies.iterator().next(), AMBIGUOUS_CONFIDENCE, "party"));
+    }
+    
+    /**
+     * Convert a rule result to the field's declared type; values that cannot be represented are dropped
+     */
+    private ExtractedValue asType(ExtractedValue found, String type) {
+        Object value = found.value();
+        return switch (type) {
+            case "string", "text" -> value instanceof BigDecimal amount
+                ? new ExtractedValue(amount.toPlainString(), found.confidence(), found.rule())
+                : new ExtractedValue(String.valueOf(value), found.confidence(), found.rule());
+            case "datetime", "date-time", "timestamp" -> value instanceof LocalDate date
+                ? new ExtractedValue(date.atStartOfDay(), found.confidence(), found.rule()) : found;
+            default -> found;
+        };
+    }
+    
+    private static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT).replace("_", "").replace("-", "").replace(" ", "");
+    }
+    
+    private static boolean containsAny(String key, String... words) {
+        for (String word : words) {
+            if (key.contains(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static boolean endsWithAny(String key, String... words) {
+        for (String word : words) {
+            if (key.endsWith(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
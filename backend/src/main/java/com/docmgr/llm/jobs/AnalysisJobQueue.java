@@ -0,0 +1,250 @@
+package com.docmgr.llm.jobs;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.exception.LLMException;
+import com.docmgr.llm.model.AnalysisJob;
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.StructuredResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Durable queue for asynchronous analysis jobs.
+ * Job state and input live in a Redis hash per job; the job IDs are queued on a Redis Stream
+ * that {@link AnalysisJobWorker}s on every instance consume as one consumer group.
+ * State changes are announced on a pub/sub channel so that clients can follow a job on any instance.
+ * Only created while {@code app.llm.jobs.enabled} is set.
+ */
+@Service
+@ConditionalOnProperty(name = "app.llm.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalysisJobQueue {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobQueue.class);
+    static final String STREAM_KEY = "llm:jobs";
+    static final String DEAD_LETTER_KEY = "llm:jobs:dead";
+    static final String CONSUMER_GROUP = "analysis-workers";
+    static final String JOB_ID_FIELD = "job_id";
+    private static final String JOB_KEY_PREFIX = "llm:job:";
+    private static final String EVENTS_CHANNEL = "llm:jobs:events";
+    
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final LLMProperties properties;
+    private final Sinks.Many<AnalysisJob> jobEvents = Sinks.many().multicast().directBestEffort();
+    
+    public AnalysisJobQueue(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                            LLMProperties properties, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        listenerContainer.addMessageListener(this::onJobEvent, new ChannelTopic(EVENTS_CHANNEL));
+    }
+    
+    /**
+     * Queue a document for analysis
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @return the queued job
+     */
+    public AnalysisJob submit(String text, AnalysisSchema schema) {
+        String jobId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("status", AnalysisJob.Status.QUEUED.name());
+        fields.put("attempts", "0");
+        fields.put("text", text);
+        fields.put("schema", toJson(schema));
+        fields.put("submitted_at", now.toString());
+        fields.put("updated_at", now.toString());
+        redisTemplate.opsForHash().putAll(jobKey(jobId), fields);
+        redisTemplate.opsForStream().add(STREAM_KEY, Map.of(JOB_ID_FIELD, jobId));
+        logger.debug("Queued analysis job {}", jobId);
+        
+        AnalysisJob job = new AnalysisJob(jobId, AnalysisJob.Status.QUEUED);
+        job.setSubmittedAt(now);
+        job.setUpdatedAt(now);
+        return job;
+    }
+    
+    /**
+     * Look up a job
+     * @param jobId ID returned by {@link #submit}
+     * @return the job, empty if it is unknown or its result has expired
+     */
+    public Optional<AnalysisJob> getJob(String jobId) {
+        Map<Object, Object> fields = redisTemplate.opsForHash().entries(jobKey(jobId));
+        if (fields.isEmpty()) {
+            return Optional.empty();
+        }
+        
+        AnalysisJob job = new AnalysisJob(jobId, AnalysisJob.Status.valueOf((String) fields.get("status")));
+        job.setAttempts(Integer.parseInt((String) fields.getOrDefault("attempts", "0")));
+        job.setError((String) fields.get("error"));
+        job.setSubmittedAt(parseTime(fields.get("submitted_at")));
+        job.setUpdatedAt(parseTime(fields.get("updated_at")));
+        String result = (String) fields.get("result");
+        if (result != null) {
+            try {
+                job.setResult(objectMapper.readValue(result, StructuredResponse.class));
+            } catch (JsonProcessingException e) {
+                logger.warn("Stored result of job {} could not be read: {}", jobId, e.getMessage());
+            }
+        }
+        return Optional.of(job);
+    }
+    
+    /**
+     * Follow a job until it completes or fails
+     * @param jobId ID returned by {@link #submit}
+     * @return the current state followed by every change, ending with the terminal state
+     */
+    public Flux<AnalysisJob> updates(String jobId) {
+        // Subscribe to changes before reading the current state so that no transition is missed
+        Flux<AnalysisJob> changes = jobEvents.asFlux().filter(job -> job.getId().equals(jobId));
+        Mono<AnalysisJob> current = Mono.fromCallable(() -> getJob(jobId).orElse(null));
+        return Flux.merge(changes, current)
+            .takeUntil(job -> job.getStatus().isTerminal());
+    }
+    
+    /**
+     * Mark a job as running and load its input
+     * @return the job input, empty if the job no longer exists or has already finished
+     */
+    Optional<JobInput> startAttempt(String jobId) {
+        String key = jobKey(jobId);
+        Object status = redisTemplate.opsForHash().get(key, "status");
+        if (status == null || AnalysisJob.Status.valueOf((String) status).isTerminal()) {
+            return Optional.empty();
+        }
+        
+        long attempt = redisTemplate.opsForHash().increment(key, "attempts", 1);
+        redisTemplate.opsForHash().putAll(key, Map.of(
+            "status", AnalysisJob.Status.RUNNING.name(),
+            "updated_at", LocalDateTime.now().toString()));
+        publish(jobId);
+        
+        String text = (String) redisTemplate.opsForHash().get(key, "text");
+        String schema = (String) redisTemplate.opsForHash().get(key, "schema");
+        try {
+            return Optional.of(new JobInput(jobId, text, objectMapper.readValue(schema, AnalysisSchema.class), (int) attempt));
+        } catch (JsonProcessingException e) {
+            throw new LLMException("Job " + jobId + " has an unreadable schema", null, "INVALID_JOB", e);
+        }
+    }
+    
+    /**
+     * Store a job's result; the input is dropped and the job expires after the result TTL
+     */
+    void complete(String jobId, StructuredResponse result) {
+        finish(jobId, AnalysisJob.Status.COMPLETED, Map.of("result", toJson(result)));
+    }
+    
+    /**
+     * Record a failed attempt that will be retried
+     */
+    void markForRetry(String jobId, String error) {
+        redisTemplate.opsForHash().putAll(jobKey(jobId), Map.of(
+            "status", AnalysisJob.Status.RETRYING.name(),
+            "error", error,
+            "updated_at", LocalDateTime.now().toString()));
+        publish(jobId);
+    }
+    
+    /**
+     * Give up on a job: it is recorded on the dead-letter stream and marked as failed
+     */
+    void deadLetter(String jobId, String error, int attempts) {
+        redisTemplate.opsForStream().add(DEAD_LETTER_KEY, Map.of(
+            JOB_ID_FIELD, jobId,
+            "error", error,
+            "attempts", String.valueOf(attempts),
+            "failed_at", LocalDateTime.now().toString()));
+        redisTemplate.opsForStream().trim(DEAD_LETTER_KEY, properties.getJobs().getDeadLetterMaxLength(), true);
+        finish(jobId, AnalysisJob.Status.FAILED, Map.of("error", error));
+        logger.warn("Analysis job {} failed after {} attempts: {}", jobId, attempts, error);
+    }
+    
+    /**
+     * Current job status without loading the result
+     */
+    Optional<AnalysisJob.Status> getStatus(String jobId) {
+        Object status = redisTemplate.opsForHash().get(jobKey(jobId), "status");
+        return Optional.ofNullable(status).map(value -> AnalysisJob.Status.valueOf((String) value));
+    }
+    
+    int getAttempts(String jobId) {
+        Object attempts = redisTemplate.opsForHash().get(jobKey(jobId), "attempts");
+        return attempts != null ? Integer.parseInt((String) attempts) : 0;
+    }
+    
+    private void finish(String jobId, AnalysisJob.Status status, Map<String, String> values) {
+        String key = jobKey(jobId);
+        Map<String, String> fields = new LinkedHashMap<>(values);
+        fields.put("status", status.name());
+        fields.put("updated_at", LocalDateTime.now().toString());
+        redisTemplate.opsForHash().putAll(key, fields);
+        redisTemplate.opsForHash().delete(key, "text", "schema");
+        redisTemplate.expire(key, Duration.ofHours(properties.getJobs().getResultTtlHours()));
+        publish(jobId);
+    }
+    
+    private void publish(String jobId) {
+        try {
+            redisTemplate.convertAndSend(EVENTS_CHANNEL, jobId);
+        } catch (Exception e) {
+            // Followers fall back to the state they read when subscribing; polling still works
+            logger.warn("Failed to publish update for job {}: {}", jobId, e.getMessage());
+        }
+    }
+    
+    private void onJobEvent(Message message, byte[] pattern) {
+        if (jobEvents.currentSubscriberCount() == 0) {
+            return;
+        }
+        String jobId = new String(message.getBody(), StandardCharsets.UTF_8);
+        getJob(jobId).ifPresent(job ->
+            jobEvents.emitNext(job, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100))));
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new LLMException("Failed to serialize job data", e);
+        }
+    }
+    
+    private static LocalDateTime parseTime(Object value) {
+        return value != null ? LocalDateTime.parse((String) value) : null;
+    }
+    
+    private static String jobKey(String jobId) {
+        return JOB_KEY_PREFIX + jobId;
+    }
+    
+    /**
+     * Input of one job attempt
+     * @param attempt 1-based number of this attempt
+     */
+    record JobInput(String jobId, String text, AnalysisSchema schema, int attempt) {}
+}
\ No newline at end of file
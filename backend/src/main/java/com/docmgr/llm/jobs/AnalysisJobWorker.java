@@ -0,0 +1,286 @@
+package com.docmgr.llm.jobs;
+
+import com.docmgr.llm.analysis.AnalysisOrchestrator;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.exception.ContextWindowExceededException;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.model.AnalysisJob;
+import com.docmgr.llm.model.StructuredResponse;
+import com.docmgr.llm.service.LLMWarmup;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessagesSummary;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Processes queued analysis jobs. Each worker is a consumer in the shared consumer group, so jobs are spread
+ * over all instances. A job is acknowledged only once it has completed or been dead-lettered; failed attempts
+ * stay pending and are re-queued after the retry delay, and jobs held by a worker that stopped responding
+ * are re-queued once the visibility timeout has passed.
+ */
+@Component
+@ConditionalOnProperty(name = "app.llm.jobs.enabled", havingValue = "true", matchIfMissing = true)
+public class AnalysisJobWorker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AnalysisJobWorker.class);
+    private static final int RECLAIM_BATCH_SIZE = 100;
+    
+    private final AnalysisJobQueue jobQueue;
+    private final AnalysisOrchestrator orchestrator;
+    private final RedisTemplate<String, String> redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final LLMProperties properties;
+    private final LLMMetrics metrics;
+    private final LLMWarmup warmup;
+    /** Unique per process so that a restarted instance does not inherit the pending jobs of its predecessor */
+    private final String consumerPrefix = ManagementFactory.getRuntimeMXBean().getName();
+    private volatile StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+    /** Set on shutdown so that a scheduled reclaim or a late warm-up cannot start the workers again */
+    private volatile boolean stopped;
+    
+    public AnalysisJobWorker(AnalysisJobQueue jobQueue, AnalysisOrchestrator orchestrator,
+                             RedisTemplate<String, String> redisTemplate, RedisConnectionFactory connectionFactory,
+                             LLMProperties properties, LLMMetrics metrics, LLMWarmup warmup) {
+        this.jobQueue = jobQueue;
+        this.orchestrator = orchestrator;
+        this.redisTemplate = redisTemplate;
+        this.connectionFactory = connectionFactory;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.warmup = warmup;
+    }
+    
+    /**
+     * Start consuming once the warm-up has chosen the active provider
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnStartup() {
+        warmup.whenReady().thenRun(this::start);
+    }
+    
+    /**
+     * Re-queue pending jobs whose retry delay or visibility timeout has passed.
+     * Also starts the workers if Redis was not reachable at startup.
+     */
+    @Scheduled(fixedDelayString = "${app.llm.jobs.retry-delay-seconds:30}",
+               initialDelayString = "${app.llm.jobs.retry-delay-seconds:30}",
+               timeUnit = TimeUnit.SECONDS)
+    public void reclaim() {
+        if (stopped) {
+            return;
+        }
+        if (container == null && (!warmup.isReady() || !start())) {
+            return;
+        }
+        
+        LLMProperties.Jobs jobs = properties.getJobs();
+        Duration retryDelay = Duration.ofSeconds(jobs.getRetryDelaySeconds());
+        Duration visibilityTimeout = Duration.ofSeconds(jobs.getVisibilityTimeoutSeconds());
+        try {
+            for (PendingMessage pending : redisTemplate.opsForStream().pending(AnalysisJobQueue.STREAM_KEY,
+                    AnalysisJobQueue.CONSUMER_GROUP, Range.unbounded(), RECLAIM_BATCH_SIZE)) {
+                Duration idle = pending.getElapsedTimeSinceLastDelivery();
+                if (idle.compareTo(retryDelay) < 0) {
+                    continue;
+                }
+                if (idle.compareTo(visibilityTimeout) < 0 && !retrying(pending.getId())) {
+                    continue;
+                }
+                requeue(pending.getId(), idle);
+            }
+            updateQueueDepth();
+        } catch (Exception e) {
+            logger.warn("Failed to reclaim pending analysis jobs: {}", e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public synchronized void stop() {
+        stopped = true;
+        if (container != null) {
+            // Jobs in progress stay pending and are picked up by another instance after the visibility timeout
+            container.stop();
+            container = null;
+        }
+    }
+    
+    private synchronized boolean start() {
+        LLMProperties.Jobs jobs = properties.getJobs();
+        if (stopped) {
+            return false;
+        }
+        if (container != null) {
+            return true;
+        }
+        try {
+            redisTemplate.opsForStream().createGroup(AnalysisJobQueue.STREAM_KEY, ReadOffset.from("0"),
+                AnalysisJobQueue.CONSUMER_GROUP);
+        } catch (RedisSystemException e) {
+            if (e.getMessage() == null || !e.getMessage().contains("BUSYGROUP")) {
+                logger.warn("Analysis job workers not started, Redis is not available: {}", e.getMessage());
+                return false;
+            }
+        } catch (Exception e) {
+            logger.warn("Analysis job workers not started, Redis is not available: {}", e.getMessage());
+            return false;
+        }
+        
+        StreamMessageListenerContainer.StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+            StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                .batchSize(1)
+                .pollTimeout(Duration.ofSeconds(2))
+                .executor(new SimpleAsyncTaskExecutor("llm-job-worker-"))
+                .errorHandler(error -> logger.warn("Analysis job worker error: {}", error.getMessage()))
+                .build();
+        StreamMessageListenerContainer<String, MapRecord<String, String, String>> newContainer =
+            StreamMessageListenerContainer.create(connectionFactory, options);
+        for (int i = 0; i < jobs.getWorkers(); i++) {
+            newContainer.register(StreamMessageListenerContainer.StreamReadRequest
+                    .builder(StreamOffset.create(AnalysisJobQueue.STREAM_KEY, ReadOffset.lastConsumed()))
+                    .consumer(Consumer.from(AnalysisJobQueue.CONSUMER_GROUP, consumerPrefix + "-" + i))
+                    .autoAcknowledge(false)
+                    .cancelOnError(error -> false)
+                    .build(),
+                this::process);
+        }
+        newContainer.start();
+        container = newContainer;
+        logger.info("Started {} analysis job workers as {}", jobs.getWorkers(), consumerPrefix);
+        return true;
+    }
+    
+    private void process(MapRecord<String, String, String> record) {
+        String jobId = record.getValue().get(AnalysisJobQueue.JOB_ID_FIELD);
+        AnalysisJobQueue.JobInput input = jobId != null ? jobQueue.startAttempt(jobId).orElse(null) : null;
+        if (input == null) {
+            // Unknown, expired or already finished (e.g. re-queued while the first attempt completed)
+            acknowledge(record.getId());
+            return;
+        }
+        
+        LLMProperties.Jobs jobs = properties.getJobs();
+        long startTime = System.currentTimeMillis();
+        CompletableFuture<StructuredResponse> analysis = null;
+        try {
+            analysis = orchestrator.analyze(input.text(), input.schema());
+            StructuredResponse result = analysis.get(jobs.getTimeoutSeconds(), TimeUnit.SECONDS);
+            jobQueue.complete(jobId, result);
+            acknowledge(record.getId());
+            logger.debug("Analysis job {} completed in {}ms (attempt {})",
+                        jobId, System.currentTimeMillis() - startTime, input.attempt());
+        } catch (InterruptedException e) {
+            // Shutting down: leave the job pending for another worker
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (e instanceof TimeoutException && analysis != null) {
+                // Stop the provider requests of the abandoned attempt instead of letting them run on
+                analysis.cancel(true);
+            }
+            Throwable cause = e;
+            while ((cause instanceof ExecutionException || cause instanceof CompletionException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            String error = cause instanceof TimeoutException
+                ? "Timed out after " + jobs.getTimeoutSeconds() + "s" : String.valueOf(cause.getMessage());
+            if (input.attempt() >= jobs.getMaxAttempts() || causedBy(cause, ContextWindowExceededException.class)) {
+                jobQueue.deadLetter(jobId, error, input.attempt());
+                acknowledge(record.getId());
+            } else {
+                logger.info("Analysis job {} attempt {} failed, retrying: {}", jobId, input.attempt(), error);
+                jobQueue.markForRetry(jobId, error);
+            }
+        }
+    }
+    
+    /**
+     * Whether the failure or any of its causes is of the given type, e.g. a context window error wrapped
+     * by a fan-out that failed in every part
+     */
+    private static boolean causedBy(Throwable failure, Class<? extends Throwable> type) {
+        for (Throwable current = failure; current != null; current = current.getCause()) {
+            if (type.isInstance(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Take over a pending entry and queue it again. Claiming with the idle time as minimum
+     * ensures only one instance re-queues an entry, even if several reclaim at the same time.
+     */
+    private void requeue(RecordId recordId, Duration idle) {
+        List<MapRecord<String, Object, Object>> claimed = redisTemplate.opsForStream().claim(
+            AnalysisJobQueue.STREAM_KEY, AnalysisJobQueue.CONSUMER_GROUP, consumerPrefix + "-reclaim",
+            RedisStreamCommands.XClaimOptions.minIdle(idle).ids(recordId));
+        for (MapRecord<String, Object, Object> record : claimed) {
+            Object jobId = record.getValue().get(AnalysisJobQueue.JOB_ID_FIELD);
+            Optional<AnalysisJob.Status> status = jobId != null ? jobQueue.getStatus(jobId.toString()) : Optional.empty();
+            if (status.isPresent() && !status.get().isTerminal()) {
+                int maxAttempts = properties.getJobs().getMaxAttempts();
+                if (status.get() == AnalysisJob.Status.RUNNING && jobQueue.getAttempts(jobId.toString()) >= maxAttempts) {
+                    jobQueue.deadLetter(jobId.toString(), "Worker stopped responding", maxAttempts);
+                } else {
+                    redisTemplate.opsForStream().add(AnalysisJobQueue.STREAM_KEY, Map.of(AnalysisJobQueue.JOB_ID_FIELD, jobId));
+                    logger.debug("Re-queued analysis job {} after {}s", jobId, idle.toSeconds());
+                }
+            }
+            acknowledge(record.getId());
+        }
+    }
+    
+    private void updateQueueDepth() {
+        Long length = redisTemplate.opsForStream().size(AnalysisJobQueue.STREAM_KEY);
+        PendingMessagesSummary summary = redisTemplate.opsForStream().pending(AnalysisJobQueue.STREAM_KEY,
+            AnalysisJobQueue.CONSUMER_GROUP);
+        long pending = summary != null ? summary.getTotalPendingMessages() : 0;
+        // Entries are deleted on acknowledgement, so the stream holds the queued and the pending jobs
+        metrics.updateJobQueueDepth(Math.max(0, (length != null ? length : 0) - pending), pending);
+    }
+    
+    private boolean retrying(RecordId recordId) {
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream()
+            .range(AnalysisJobQueue.STREAM_KEY, Range.closed(recordId.getValue(), recordId.getValue()));
+        if (records == null || records.isEmpty()) {
+            return true;
+        }
+        Object jobId = records.get(0).getValue().get(AnalysisJobQueue.JOB_ID_FIELD);
+        return jobId == null || jobQueue.getStatus(jobId.toString())
+            .map(status -> status != AnalysisJob.Status.RUNNING)
+            .orElse(true);
+    }
+    
+    private void acknowledge(RecordId recordId) {
+        redisTemplate.opsForStream().acknowledge(AnalysisJobQueue.STREAM_KEY, AnalysisJobQueue.CONSUMER_GROUP, recordId);
+        redisTemplate.opsForStream().delete(AnalysisJobQueue.STREAM_KEY, recordId);
+    }
+}
\ No newline at end of file
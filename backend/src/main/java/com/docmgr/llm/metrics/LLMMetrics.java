@@ -0,0 +1,268 @@
+package com.docmgr.llm.metrics;
+
+import com.docmgr.llm.service.RequestCoalescer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer meters of the LLM layer, scraped by Prometheus at /actuator/prometheus.
+ * Latencies are published as histograms so that percentiles can be aggregated across instances.
+ * Redis command latencies are recorded by the Lettuce client itself ({@code lettuce_command_*}).
+ */
+@Component
+public class LLMMetrics {
+    
+    private static final String UNKNOWN = "unknown";
+    /** Recent percentiles cover between four and five minutes: five buffers, one rotated out per minute */
+    private static final Duration RECENT_WINDOW = Duration.ofMinutes(5);
+    private static final int RECENT_BUFFERS = 5;
+    
+    private final MeterRegistry registry;
+    private final AtomicLong queuedJobs = new AtomicLong();
+    private final AtomicLong pendingJobs = new AtomicLong();
+    
+    public LLMMetrics(MeterRegistry registry, RequestCoalescer coalescer) {
+        this.registry = registry;
+        
+        FunctionCounter.builder("llm.coalescing.calls", coalescer, RequestCoalescer::getUpstreamCount)
+            .description("Calls sent upstream (miss) or served by an identical in-flight call (hit)")
+            .tag("result", "miss")
+            .register(registry);
+        FunctionCounter.builder("llm.coalescing.calls", coalescer, RequestCoalescer::getCoalescedCount)
+            .description("Calls sent upstream (miss) or served by an identical in-flight call (hit)")
+            .tag("result", "hit")
+            .register(registry);
+        Gauge.builder("llm.requests.in_flight", coalescer, RequestCoalescer::getInFlightCount)
+            .description("Distinct upstream requests in flight")
+            .register(registry);
+        Gauge.builder("llm.jobs.queue.depth", queuedJobs, AtomicLong::get)
+            .description("Analysis jobs on the stream, refreshed on every reclaim run")
+            .tag("state", "queued")
+            .register(registry);
+        Gauge.builder("llm.jobs.queue.depth", pendingJobs, AtomicLong::get)
+            .description("Analysis jobs on the stream, refreshed on every reclaim run")
+            .tag("state", "pending")
+            .register(registry);
+    }
+    
+    /**
+     * Record a finished provider call
+     * @param operation how the provider was called, e.g. "complete" or "stream"
+     * @param outcome "success" or "error"
+     */
+    public void recordRequest(String provider, String model, String operation, String outcome, long durationMs) {
+        Timer.builder("llm.requests")
+            .description("Latency of provider calls")
+            .tags("provider", provider, "model", tag(model), "operation", operation, "outcome", outcome)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+        // Percentiles of the last minutes per provider, computed in-process for the dashboard
+        Timer.builder("llm.requests.recent")
+            .description("Latency of provider calls over the last minutes")
+            .tags("provider", provider)
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .distributionStatisticExpiry(RECENT_WINDOW)
+            .distributionStatisticBufferLength(RECENT_BUFFERS)
+            .register(registry)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Recent latency percentiles of provider calls
+     * @return provider name to percentile ("p50", "p95", "p99") to latency in milliseconds
+     */
+    public Map<String, Map<String, Long>> getRecentLatencyPercentiles() {
+        Map<String, Map<String, Long>> latencies = new TreeMap<>();
+        for (Timer timer : registry.find("llm.requests.recent").timers()) {
+            Map<String, Long> percentiles = new LinkedHashMap<>();
+            for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+                percentiles.put("p" + Math.round(value.percentile() * 100), Math.round(value.value(TimeUnit.MILLISECONDS)));
+            }
+            latencies.put(timer.getId().getTag("provider"), percentiles);
+        }
+        return latencies;
+    }
+    
+    /**
+     * Record the time from sending a streaming request to its first generated text
+     */
+    public void recordTimeToFirstToken(String provider, String model, long durationMs) {
+        Timer.builder("llm.stream.time_to_first_token")
+            .description("Time from sending a streaming request to its first generated text")
+            .tags("provider", provider, "model", tag(model))
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Record generated tokens and the generation rate of a finished call
+     * @param completionTokens tokens generated by the model
+     * @param durationMs time spent on the call
+     */
+    public void recordTokens(String provider, String model, long completionTokens, long durationMs) {
+        Counter.builder("llm.tokens.generated")
+            .tags("provider", provider, "model", tag(model))
+            .register(registry)
+            .increment(completionTokens);
+        if (durationMs > 0 && completionTokens > 0) {
+            DistributionSummary.builder("llm.tokens.per_second")
+                .description("Generated tokens per second of wall-clock time")
+                .tags("provider", provider, "model", tag(model))
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(completionTokens * 1000.0 / durationMs);
+        }
+    }
+    
+    /**
+     * Record the phases of a generation as reported by the inference server
+     * @param promptTokens prompt tokens evaluated, 0 if the prompt was cached
+     * @param promptEvalNanos time spent evaluating the prompt
+     * @param generatedTokens tokens generated
+     * @param generationNanos time spent generating
+     * @param loadNanos time spent loading the model into memory
+     */
+    public void recordInferencePhases(String provider, String model, long promptTokens, long promptEvalNanos,
+                                      long generatedTokens, long generationNanos, long loadNanos) {
+        phaseTimer(provider, model, "model_load").record(loadNanos, TimeUnit.NANOSECONDS);
+        phaseTimer(provider, model, "prompt_eval").record(promptEvalNanos, TimeUnit.NANOSECONDS);
+        phaseTimer(provider, model, "generation").record(generationNanos, TimeUnit.NANOSECONDS);
+        if (promptTokens > 0 && promptEvalNanos > 0) {
+            phaseThroughput(provider, model, "prompt_eval").record(promptTokens * 1e9 / promptEvalNanos);
+        }
+        if (generatedTokens > 0 && generationNanos > 0) {
+            phaseThroughput(provider, model, "generation").record(generatedTokens * 1e9 / generationNanos);
+        }
+    }
+    
+    /**
+     * Record the cost of a priced request
+     */
+    public void recordCost(String provider, String model, double cost) {
+        Counter.builder("llm.cost")
+            .description("Cost of requests in the configured currency")
+            .tags("provider", provider, "model", tag(model))
+            .register(registry)
+            .increment(cost);
+    }
+    
+    /**
+     * Record a request routed to the local provider because a budget is nearly spent
+     */
+    public void recordBudgetReroute(String fromProvider) {
+        Counter.builder("llm.budget.reroutes")
+            .tags("from", fromProvider)
+            .register(registry)
+            .increment();
+    }
+    
+    /**
+     * Record a request that was retried on another provider
+     */
+    public void recordFallback(String fromProvider, String toProvider, String operation) {
+        Counter.builder("llm.fallbacks")
+            .description("Requests retried on another provider after a failure")
+            .tags("from", fromProvider, "to", toProvider, "operation", operation)
+            .register(registry)
+            .increment();
+    }
+    
+    /**
+     * Record a request rejected by the local rate limiter
+     */
+    public void recordRateLimitRejection(String provider) {
+        Counter.builder("llm.ratelimit.rejections")
+            .tags("provider", tag(provider))
+            .register(registry)
+            .increment();
+    }
+    
+    /**
+     * Record time spent waiting for a rate limit before retrying
+     */
+    public void recordRateLimitWait(String provider, Duration wait) {
+        Timer.builder("llm.ratelimit.wait")
+            .description("Time spent waiting out rate limits before retrying")
+            .tags("provider", tag(provider))
+            .register(registry)
+            .record(wait);
+    }
+    
+    /**
+     * Record a lookup in an in-process cache
+     */
+    public void recordCacheLookup(String cache, boolean hit) {
+        Counter.builder("llm.cache.lookups")
+            .tags("cache", cache, "result", hit ? "hit" : "miss")
+            .register(registry)
+            .increment();
+    }
+    
+    /**
+     * Record the duration of a pipelined Redis write
+     */
+    public void recordRedisPipeline(String operation, long durationMs, int commands) {
+        Timer.builder("llm.redis.pipeline")
+            .description("Latency of pipelined Redis writes")
+            .tags("operation", operation)
+            .register(registry)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+        Counter.builder("llm.redis.pipeline.commands")
+            .tags("operation", operation)
+            .register(registry)
+            .increment(commands);
+    }
+    
+    /**
+     * Update the analysis job queue depth
+     * @param queued entries on the stream
+     * @param pending entries delivered to a worker but not yet acknowledged
+     */
+    public void updateJobQueueDepth(long queued, long pending) {
+        queuedJobs.set(queued);
+        pendingJobs.set(pending);
+    }
+    
+    public long getQueuedJobs() {
+        return queuedJobs.get();
+    }
+    
+    public long getPendingJobs() {
+        return pendingJobs.get();
+    }
+    
+    private Timer phaseTimer(String provider, String model, String phase) {
+        return Timer.builder("llm.inference.phase")
+            .description("Time spent per inference phase: model_load, prompt_eval or generation")
+            .tags("provider", provider, "model", tag(model), "phase", phase)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+    
+    private DistributionSummary phaseThroughput(String provider, String model, String phase) {
+        return DistributionSummary.builder("llm.inference.tokens_per_second")
+            .description("Tokens per second of prompt evaluation or generation time")
+            .tags("provider", provider, "model", tag(model), "phase", phase)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+    
+    private static String tag(String value) {
+        return value != null ? value : UNKNOWN;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.docmgr.llm.model;
+
+/**
+ * Event emitted while a structured analysis is streaming: completed fields or progress updates, then a final result
+ */
+public class AnalysisFieldEvent {
+
+    public enum EventType {
+        FIELD,
+        PROGRESS,
+        COMPLETE,
+        ERROR
+    }
+
+    private EventType type;
+    private String field;
+    private Object value;
+    private Double confidence;
+    private String message;
+    private StructuredResponse result;
+    private AnalysisProgress progress;
+
+    public AnalysisFieldEvent() {}
+
+    public AnalysisFieldEvent(EventType type) {
+        this.type = type;
+    }
+
+    public static AnalysisFieldEvent field(String field, Object value, Double confidence) {
+        AnalysisFieldEvent event = new AnalysisFieldEvent(EventType.FIELD);
+        event.setField(field);
+        event.setValue(value);
+        event.setConfidence(confidence);
+        return event;
+    }
+
+    public static AnalysisFieldEvent progress(AnalysisProgress progress) {
+        AnalysisFieldEvent event = new AnalysisFieldEvent(EventType.PROGRESS);
+        event.setProgress(progress);
+        return event;
+    }
+
+    public static AnalysisFieldEvent complete(StructuredResponse result) {
+        AnalysisFieldEvent event = new AnalysisFieldEvent(EventType.COMPLETE);
+        event.setResult(result);
+        return event;
+    }
+
+    public static AnalysisFieldEvent error(String message) {
+        AnalysisFieldEvent event = new AnalysisFieldEvent(EventType.ERROR);
+        event.setMessage(message);
+        return event;
+    }
+
+    public EventType getType() {
+        return type;
+    }
+
+    public void setType(EventType type) {
+        this.type = type;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public Double getConfidence() {
+        return confidence;
+    }
+
+    public void setConfidence(Double confidence) {
+        this.confidence = confidence;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public StructuredResponse getResult() {
+        return result;
+    }
+
+    public void setResult(StructuredResponse result) {
+        this.result = result;
+    }
+
+    public AnalysisProgress getProgress() {
+        return progress;
+    }
+
+    public void setProgress(AnalysisProgress progress) {
+        this.progress = progress;
+    }
+}
@@ -0,0 +1,101 @@
+package com.docmgr.llm.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an asynchronous analysis job as returned by the job API
+ */
+public class AnalysisJob {
+    
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        RETRYING,
+        COMPLETED,
+        FAILED;
+        
+        public boolean isTerminal() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+    
+    private String id;
+    private Status status;
+    private int attempts;
+    private String error;
+    private StructuredResponse result;
+    private LocalDateTime submittedAt;
+    private LocalDateTime updatedAt;
+    
+    public AnalysisJob() {}
+    
+    public AnalysisJob(String id, Status status) {
+        this.id = id;
+        this.status = status;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    /**
+     * @return number of times a worker has started processing the job
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    /**
+     * @return error of the last failed attempt, if any
+     */
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    /**
+     * @return analysis result once the job has completed
+     */
+    public StructuredResponse getResult() {
+        return result;
+    }
+    
+    public void setResult(StructuredResponse result) {
+        this.result = result;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
\ No newline at end of file
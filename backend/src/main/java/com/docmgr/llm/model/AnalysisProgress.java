@@ -0,0 +1,66 @@
+package com.docmgr.llm.model;
+
+/**
+ * Progress of a multi-part analysis (chunks, field groups or cascade levels)
+ */
+public class AnalysisProgress {
+    
+    private String stage;
+    private int completed;
+    private int total;
+    private int failed;
+    private String message;
+    
+    public AnalysisProgress() {}
+    
+    public AnalysisProgress(String stage, int completed, int total, int failed) {
+        this.stage = stage;
+        this.completed = completed;
+        this.total = total;
+        this.failed = failed;
+    }
+    
+    public String getStage() {
+        return stage;
+    }
+    
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+    
+    public int getCompleted() {
+        return completed;
+    }
+    
+    public void setCompleted(int completed) {
+        this.completed = completed;
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public int getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public double getPercentComplete() {
+        return total > 0 ? 100.0 * completed / total : 0.0;
+    }
+}
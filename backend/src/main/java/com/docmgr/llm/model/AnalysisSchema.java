@@ -1,6 +1,7 @@
 package com.docmgr.llm.model;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -9,8 +10,9 @@ import java.util.Map;
 public class AnalysisSchema {
     
     private String schemaType;
-    private Map<String, FieldDefinition> fields = new HashMap<>();
+    private Map<String, FieldDefinition> fields = new LinkedHashMap<>();
     private String instructions;
+    private boolean confidenceRequested;
     
     public AnalysisSchema() {}
     
@@ -46,6 +48,17 @@ public class AnalysisSchema {
         this.instructions = instructions;
     }
     
+    /**
+     * True if the model is asked to state its confidence for every field, as {"value": ..., "confidence": ...}
+     */
+    public boolean isConfidenceRequested() {
+        return confidenceRequested;
+    }
+    
+    public void setConfidenceRequested(boolean confidenceRequested) {
+        this.confidenceRequested = confidenceRequested;
+    }
+    
     public AnalysisSchema addField(String name, String type, boolean required) {
         this.fields.put(name, new FieldDefinition(type, required));
         return this;
@@ -61,6 +74,35 @@ public class AnalysisSchema {
         return this;
     }
     
+    /**
+     * Create a schema with the same type, instructions and confidence request but only the given fields, in schema order
+     * @param fieldNames fields to keep
+     * @return new schema sharing the field definitions
+     */
+    public AnalysisSchema subset(Collection<String> fieldNames) {
+        AnalysisSchema subset = new AnalysisSchema(schemaType);
+        subset.setInstructions(instructions);
+        subset.setConfidenceRequested(confidenceRequested);
+        fields.forEach((name, field) -> {
+            if (fieldNames.contains(name)) {
+                subset.getFields().put(name, field);
+            }
+        });
+        return subset;
+    }
+    
+    /**
+     * Create a copy in which every field is optional, for a request that only sees part of the document
+     * @return new schema with the same type, instructions and confidence request
+     */
+    public AnalysisSchema asOptional() {
+        AnalysisSchema optional = new AnalysisSchema(schemaType);
+        optional.setInstructions(instructions);
+        optional.setConfidenceRequested(confidenceRequested);
+        fields.forEach((name, field) -> optional.addField(name, field.getType(), false, field.getDescription()));
+        return optional;
+    }
+    
     public static class FieldDefinition {
         private String type;
         private boolean required;
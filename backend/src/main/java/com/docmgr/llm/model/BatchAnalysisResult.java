@@ -0,0 +1,89 @@
+package com.docmgr.llm.model;
+
+/**
+ * Outcome of a single document in a batch analysis, streamed as one NDJSON line
+ */
+public class BatchAnalysisResult {
+    
+    private int index;
+    private String id;
+    private boolean success;
+    private StructuredResponse result;
+    private String error;
+    private long durationMs;
+    
+    public BatchAnalysisResult() {}
+    
+    public BatchAnalysisResult(int index, String id, boolean success) {
+        this.index = index;
+        this.id = id;
+        this.success = success;
+    }
+    
+    public static BatchAnalysisResult success(int index, String id, StructuredResponse result, long durationMs) {
+        BatchAnalysisResult batchResult = new BatchAnalysisResult(index, id, true);
+        batchResult.setResult(result);
+        batchResult.setDurationMs(durationMs);
+        return batchResult;
+    }
+    
+    public static BatchAnalysisResult failure(int index, String id, String error) {
+        BatchAnalysisResult batchResult = new BatchAnalysisResult(index, id, false);
+        batchResult.setError(error);
+        return batchResult;
+    }
+    
+    /**
+     * @return position of the document in the submitted batch (0-based)
+     */
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    /**
+     * @return client-supplied identifier of the document, if any
+     */
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public StructuredResponse getResult() {
+        return result;
+    }
+    
+    public void setResult(StructuredResponse result) {
+        this.result = result;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    public long getDurationMs() {
+        return durationMs;
+    }
+    
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+}
\ No newline at end of file
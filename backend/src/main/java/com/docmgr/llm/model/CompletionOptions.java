@@ -1,5 +1,7 @@
 package com.docmgr.llm.model;
 
+import java.util.Map;
+
 /**
  * Configuration options for LLM text completion requests
  */
@@ -9,6 +11,7 @@ public class CompletionOptions {
     private double temperature = 0.7;
     private String model;
     private boolean stream = false;
+    private Map<String, Object> responseSchema;
     
     public CompletionOptions() {}
     
@@ -53,6 +56,28 @@ public class CompletionOptions {
         this.stream = stream;
     }
     
+    /**
+     * JSON Schema the provider should constrain its output to, or null for free text
+     */
+    public Map<String, Object> getResponseSchema() {
+        return responseSchema;
+    }
+    
+    public void setResponseSchema(Map<String, Object> responseSchema) {
+        this.responseSchema = responseSchema;
+    }
+    
+    /**
+     * Copy that leaves the model to the provider's default, for requests sent to a different provider
+     * than the one the model was chosen for
+     */
+    public CompletionOptions withoutModel() {
+        CompletionOptions copy = new CompletionOptions(maxTokens, temperature);
+        copy.setStream(stream);
+        copy.setResponseSchema(responseSchema);
+        return copy;
+    }
+    
     public static class Builder {
         private final CompletionOptions options = new CompletionOptions();
         
@@ -76,6 +101,11 @@ public class CompletionOptions {
             return this;
         }
         
+        public Builder responseSchema(Map<String, Object> responseSchema) {
+            options.setResponseSchema(responseSchema);
+            return this;
+        }
+        
         public CompletionOptions build() {
             return options;
         }
@@ -80,4 +80,14 @@ public class LLMResponse {
     public void addMetadata(String key, Object value) {
         this.metadata.put(key, value);
     }
+    
+    /**
+     * Copy with its own metadata map, so that callers sharing one upstream response can annotate theirs
+     */
+    public LLMResponse copy() {
+        LLMResponse copy = new LLMResponse(text, tokensUsed, providerId);
+        copy.setTimestamp(timestamp);
+        copy.setMetadata(new HashMap<>(metadata));
+        return copy;
+    }
 }
\ No newline at end of file
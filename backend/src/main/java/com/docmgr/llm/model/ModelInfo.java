@@ -0,0 +1,99 @@
+package com.docmgr.llm.model;
+
+/**
+ * Metadata about a model offered by an LLM provider
+ */
+public class ModelInfo {
+
+    private String name;
+    private String providerId;
+    private Long sizeBytes;
+    private String family;
+    private String parameterSize;
+    private String quantizationLevel;
+    private Integer contextLength;
+    private Integer maxOutputTokens;
+    private String digest;
+
+    public ModelInfo() {}
+
+    public ModelInfo(String name, String providerId) {
+        this.name = name;
+        this.providerId = providerId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getProviderId() {
+        return providerId;
+    }
+
+    public void setProviderId(String providerId) {
+        this.providerId = providerId;
+    }
+
+    public Long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(Long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public String getFamily() {
+        return family;
+    }
+
+    public void setFamily(String family) {
+        this.family = family;
+    }
+
+    public String getParameterSize() {
+        return parameterSize;
+    }
+
+    public void setParameterSize(String parameterSize) {
+        this.parameterSize = parameterSize;
+    }
+
+    public String getQuantizationLevel() {
+        return quantizationLevel;
+    }
+
+    public void setQuantizationLevel(String quantizationLevel) {
+        this.quantizationLevel = quantizationLevel;
+    }
+
+    public Integer getContextLength() {
+        return contextLength;
+    }
+
+    public void setContextLength(Integer contextLength) {
+        this.contextLength = contextLength;
+    }
+
+    public Integer getMaxOutputTokens() {
+        return maxOutputTokens;
+    }
+
+    public void setMaxOutputTokens(Integer maxOutputTokens) {
+        this.maxOutputTokens = maxOutputTokens;
+    }
+
+    /**
+     * Content digest, changes when a model with the same name is re-pulled
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    public void setDigest(String digest) {
+        this.digest = digest;
+    }
+}
@@ -0,0 +1,145 @@
+package com.docmgr.llm.model;
+
+/**
+ * Inference performance of one local model, aggregated since startup.
+ * Shares split the time spent inside the inference server into model loading, prompt evaluation and generation,
+ * so the largest share names the phase to optimize.
+ */
+public class ModelPerformance {
+    
+    private String model;
+    private long requests;
+    private long promptTokens;
+    private double promptTokensPerSecond;
+    private long generatedTokens;
+    private double generationTokensPerSecond;
+    private double averageLoadMs;
+    private double maxLoadMs;
+    private long coldLoads;
+    private double loadShare;
+    private double promptEvalShare;
+    private double generationShare;
+    private String bottleneck;
+    
+    public ModelPerformance() {}
+    
+    public ModelPerformance(String model) {
+        this.model = model;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public void setModel(String model) {
+        this.model = model;
+    }
+    
+    public long getRequests() {
+        return requests;
+    }
+    
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+    
+    public long getPromptTokens() {
+        return promptTokens;
+    }
+    
+    public void setPromptTokens(long promptTokens) {
+        this.promptTokens = promptTokens;
+    }
+    
+    /**
+     * Prompt tokens evaluated per second of prompt evaluation time
+     */
+    public double getPromptTokensPerSecond() {
+        return promptTokensPerSecond;
+    }
+    
+    public void setPromptTokensPerSecond(double promptTokensPerSecond) {
+        this.promptTokensPerSecond = promptTokensPerSecond;
+    }
+    
+    public long getGeneratedTokens() {
+        return generatedTokens;
+    }
+    
+    public void setGeneratedTokens(long generatedTokens) {
+        this.generatedTokens = generatedTokens;
+    }
+    
+    /**
+     * Tokens generated per second of generation time
+     */
+    public double getGenerationTokensPerSecond() {
+        return generationTokensPerSecond;
+    }
+    
+    public void setGenerationTokensPerSecond(double generationTokensPerSecond) {
+        this.generationTokensPerSecond = generationTokensPerSecond;
+    }
+    
+    public double getAverageLoadMs() {
+        return averageLoadMs;
+    }
+    
+    public void setAverageLoadMs(double averageLoadMs) {
+        this.averageLoadMs = averageLoadMs;
+    }
+    
+    public double getMaxLoadMs() {
+        return maxLoadMs;
+    }
+    
+    public void setMaxLoadMs(double maxLoadMs) {
+        this.maxLoadMs = maxLoadMs;
+    }
+    
+    /**
+     * Requests that had to load the model into memory first, i.e. the model was swapped in
+     */
+    public long getColdLoads() {
+        return coldLoads;
+    }
+    
+    public void setColdLoads(long coldLoads) {
+        this.coldLoads = coldLoads;
+    }
+    
+    public double getLoadShare() {
+        return loadShare;
+    }
+    
+    public void setLoadShare(double loadShare) {
+        this.loadShare = loadShare;
+    }
+    
+    public double getPromptEvalShare() {
+        return promptEvalShare;
+    }
+    
+    public void setPromptEvalShare(double promptEvalShare) {
+        this.promptEvalShare = promptEvalShare;
+    }
+    
+    public double getGenerationShare() {
+        return generationShare;
+    }
+    
+    public void setGenerationShare(double generationShare) {
+        this.generationShare = generationShare;
+    }
+    
+    /**
+     * Phase with the largest share: "model_load", "prompt_eval" or "generation"
+     */
+    public String getBottleneck() {
+        return bottleneck;
+    }
+    
+    public void setBottleneck(String bottleneck) {
+        this.bottleneck = bottleneck;
+    }
+}
\ No newline at end of file
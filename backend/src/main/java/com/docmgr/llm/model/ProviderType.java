@@ -12,5 +12,10 @@ public enum ProviderType {
     /**
      * Ollama provider (local container)
      */
-    OLLAMA_LOCAL
+    OLLAMA_LOCAL,
+    
+    /**
+     * Recorded provider traffic replayed from files
+     */
+    REPLAY
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.docmgr.llm.model;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -15,6 +17,8 @@ public class StructuredResponse {
     private String providerId;
     private LocalDateTime timestamp;
     private int tokensUsed;
+    private List<String> validationErrors = new ArrayList<>();
+    private Map<String, Object> metadata = new HashMap<>();
     
     public StructuredResponse() {
         this.timestamp = LocalDateTime.now();
@@ -74,6 +78,30 @@ public class StructuredResponse {
         this.tokensUsed = tokensUsed;
     }
     
+    public List<String> getValidationErrors() {
+        return validationErrors;
+    }
+    
+    public void setValidationErrors(List<String> validationErrors) {
+        this.validationErrors = validationErrors;
+    }
+    
+    public boolean isValid() {
+        return validationErrors.isEmpty();
+    }
+    
+    public Map<String, Object> getMetadata() {
+        return metadata;
+    }
+    
+    public void setMetadata(Map<String, Object> metadata) {
+        this.metadata = metadata;
+    }
+    
+    public void addMetadata(String key, Object value) {
+        this.metadata.put(key, value);
+    }
+    
     public void addExtractedData(String key, Object value, Double confidence) {
         this.data.put(key, value);
         if (confidence != null) {
@@ -93,4 +121,19 @@ public class StructuredResponse {
     public Double getConfidenceScore(String key) {
         return confidenceScores.get(key);
     }
+    
+    /**
+     * Copy with its own data, confidence, validation error and metadata collections,
+     * so that callers sharing one upstream response can each add to theirs
+     */
+    public StructuredResponse copy() {
+        StructuredResponse copy = new StructuredResponse(new HashMap<>(data), providerId);
+        copy.setConfidenceScores(new HashMap<>(confidenceScores));
+        copy.setRawText(rawText);
+        copy.setTimestamp(timestamp);
+        copy.setTokensUsed(tokensUsed);
+        copy.setValidationErrors(new ArrayList<>(validationErrors));
+        copy.setMetadata(new HashMap<>(metadata));
+        return copy;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.docmgr.llm.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Usage over a time range, in buckets per provider, model and operation
+ */
+public class UsageSeries {
+    
+    private String granularity;
+    private Instant from;
+    private Instant to;
+    private long totalRequests;
+    private long totalTokens;
+    private double totalCost;
+    private List<Bucket> buckets = new ArrayList<>();
+    
+    public UsageSeries() {}
+    
+    public UsageSeries(String granularity, Instant from, Instant to) {
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+    }
+    
+    public void addBucket(Bucket bucket) {
+        buckets.add(bucket);
+        totalRequests += bucket.requests();
+        totalTokens += bucket.tokens();
+        totalCost += bucket.cost();
+    }
+    
+    public String getGranularity() {
+        return granularity;
+    }
+    
+    public void setGranularity(String granularity) {
+        this.granularity = granularity;
+    }
+    
+    public Instant getFrom() {
+        return from;
+    }
+    
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+    
+    public Instant getTo() {
+        return to;
+    }
+    
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+    
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+    
+    public long getTotalTokens() {
+        return totalTokens;
+    }
+    
+    public double getTotalCost() {
+        return totalCost;
+    }
+    
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+    
+    public void setBuckets(List<Bucket> buckets) {
+        this.buckets = new ArrayList<>();
+        this.totalRequests = 0;
+        this.totalTokens = 0;
+        this.totalCost = 0;
+        buckets.forEach(this::addBucket);
+    }
+    
+    /**
+     * Counts of one provider, model and operation within one bucket
+     * @param start start of the bucket
+     * @param model model name, "-" if the provider did not report one
+     * @param cost cost in the configured currency
+     */
+    public record Bucket(Instant start, String provider, String model, String operation,
+                         long requests, long tokens, double cost) {}
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.docmgr.llm.model;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Point-in-time usage statistics, taken from {@link UsageStats} or merged across providers
+ */
+public class UsageSnapshot {
+    
+    private final long totalRequests;
+    private final long totalTokens;
+    private final LocalDateTime lastRequest;
+    private final Map<String, Long> dailyUsage;
+    private final Map<String, Long> modelUsage;
+    private final double totalCost;
+    
+    public UsageSnapshot(long totalRequests, long totalTokens, LocalDateTime lastRequest,
+                         Map<String, Long> dailyUsage, Map<String, Long> modelUsage, double totalCost) {
+        this.totalRequests = totalRequests;
+        this.totalTokens = totalTokens;
+        this.lastRequest = lastRequest;
+        this.dailyUsage = Collections.unmodifiableMap(dailyUsage);
+        this.modelUsage = Collections.unmodifiableMap(modelUsage);
+        this.totalCost = totalCost;
+    }
+    
+    public static UsageSnapshot empty() {
+        return new UsageSnapshot(0, 0, null, Map.of(), Map.of(), 0.0);
+    }
+    
+    /**
+     * Combine two snapshots, e.g. of different providers
+     * @param other snapshot to add
+     * @return new snapshot with summed counters and the later last request
+     */
+    public UsageSnapshot merge(UsageSnapshot other) {
+        Map<String, Long> daily = new TreeMap<>(dailyUsage);
+        other.dailyUsage.forEach((date, tokens) -> daily.merge(date, tokens, Long::sum));
+        Map<String, Long> models = new TreeMap<>(modelUsage);
+        other.modelUsage.forEach((model, tokens) -> models.merge(model, tokens, Long::sum));
+        
+        LocalDateTime latest = lastRequest == null
+            || (other.lastRequest != null && other.lastRequest.isAfter(lastRequest)) ? other.lastRequest : lastRequest;
+        return new UsageSnapshot(totalRequests + other.totalRequests, totalTokens + other.totalTokens, latest,
+            daily, models, totalCost + other.totalCost);
+    }
+    
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+    
+    public long getTotalTokens() {
+        return totalTokens;
+    }
+    
+    public LocalDateTime getLastRequest() {
+        return lastRequest;
+    }
+    
+    /**
+     * @return tokens per day, keyed by ISO date
+     */
+    public Map<String, Long> getDailyUsage() {
+        return dailyUsage;
+    }
+    
+    /**
+     * @return tokens per model
+     */
+    public Map<String, Long> getModelUsage() {
+        return modelUsage;
+    }
+    
+    public double getTotalCost() {
+        return totalCost;
+    }
+    
+    public double getAverageTokensPerRequest() {
+        return totalRequests > 0 ? (double) totalTokens / totalRequests : 0.0;
+    }
+}
\ No newline at end of file
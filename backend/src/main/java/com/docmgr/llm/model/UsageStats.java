@@ -1,98 +1,137 @@
 package com.docmgr.llm.model;
 
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.ZoneId;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Usage statistics for LLM provider tracking
+ * Live usage counters for an LLM provider.
+ * Recording never blocks: counters are striped adders, so concurrent response threads do not contend.
+ * Use {@link #snapshot()} to read the counters.
+ * Daily counters are kept for {@link #DAILY_RETENTION_DAYS} days; longer ranges are answered from the
+ * persisted usage time series.
  */
 public class UsageStats {
     
-    private int totalRequests;
-    private int totalTokens;
-    private LocalDateTime lastRequest;
-    private Map<String, Integer> dailyUsage = new HashMap<>();
-    private Map<String, Integer> modelUsage = new HashMap<>();
-    private double totalCost = 0.0;
-    
-    public UsageStats() {}
-    
-    public UsageStats(int totalRequests, int totalTokens) {
-        this.totalRequests = totalRequests;
-        this.totalTokens = totalTokens;
-    }
-    
-    public int getTotalRequests() {
-        return totalRequests;
-    }
-    
-    public void setTotalRequests(int totalRequests) {
-        this.totalRequests = totalRequests;
-    }
-    
-    public int getTotalTokens() {
-        return totalTokens;
-    }
-    
-    public void setTotalTokens(int totalTokens) {
-        this.totalTokens = totalTokens;
-    }
-    
-    public LocalDateTime getLastRequest() {
-        return lastRequest;
-    }
-    
-    public void setLastRequest(LocalDateTime lastRequest) {
-        this.lastRequest = lastRequest;
-    }
-    
-    public Map<String, Integer> getDailyUsage() {
-        return dailyUsage;
-    }
-    
-    public void setDailyUsage(Map<String, Integer> dailyUsage) {
-        this.dailyUsage = dailyUsage;
-    }
-    
-    public Map<String, Integer> getModelUsage() {
-        return modelUsage;
-    }
-    
-    public void setModelUsage(Map<String, Integer> modelUsage) {
-        this.modelUsage = modelUsage;
-    }
-    
-    public double getTotalCost() {
-        return totalCost;
-    }
-    
-    public void setTotalCost(double totalCost) {
-        this.totalCost = totalCost;
-    }
-    
-    public void incrementRequests() {
-        this.totalRequests++;
-        this.lastRequest = LocalDateTime.now();
-    }
-    
-    public void addTokens(int tokens) {
-        this.totalTokens += tokens;
-    }
-    
-    public void addDailyUsage(String date, int tokens) {
-        this.dailyUsage.merge(date, tokens, Integer::sum);
-    }
-    
-    public void addModelUsage(String model, int tokens) {
-        this.modelUsage.merge(model, tokens, Integer::sum);
-    }
-    
-    public void addCost(double cost) {
-        this.totalCost += cost;
-    }
-    
-    public double getAverageTokensPerRequest() {
-        return totalRequests > 0 ? (double) totalTokens / totalRequests : 0.0;
+    /** Snapshot attempts before a snapshot taken during concurrent recording is accepted as is */
+    private static final int SNAPSHOT_ATTEMPTS = 3;
+    public static final int DAILY_RETENTION_DAYS = 90;
+    
+    private final LongAdder startedRequests = new LongAdder();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder totalTokens = new LongAdder();
+    private final DoubleAdder totalCost = new DoubleAdder();
+    private final LongAccumulator lastRequestMillis = new LongAccumulator(Math::max, 0);
+    private final ConcurrentMap<LocalDate, LongAdder> dailyUsage = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> modelUsage = new ConcurrentHashMap<>();
+    
+    /**
+     * Record one completed request
+     * @param model model that served the request, may be null
+     * @param tokens tokens used by the request
+     */
+    public void recordRequest(String model, long tokens) {
+        recordRequest(model, tokens, 0.0);
+    }
+    
+    /**
+     * Record one completed request
+     * @param model model that served the request, may be null
+     * @param tokens tokens used by the request
+     * @param cost cost of the request
+     */
+    public void recordRequest(String model, long tokens, double cost) {
+        // The request counter is incremented last; snapshot() uses the pair to detect recordings in progress
+        startedRequests.increment();
+        long now = System.currentTimeMillis();
+        totalTokens.add(tokens);
+        dailyCounter(LocalDate.now()).add(tokens);
+        if (model != null) {
+            counter(modelUsage, model).add(tokens);
+        }
+        if (cost != 0.0) {
+            totalCost.add(cost);
+        }
+        lastRequestMillis.accumulate(now);
+        totalRequests.increment();
+    }
+    
+    /**
+     * Add previously persisted counts, e.g. after a restart. Days outside the retention are ignored.
+     * @param requests completed requests
+     * @param tokens total tokens
+     * @param daily tokens per day
+     * @param models tokens per model
+     * @param cost total cost
+     */
+    public void restore(long requests, long tokens, Map<LocalDate, Long> daily, Map<String, Long> models, double cost) {
+        startedRequests.add(requests);
+        totalTokens.add(tokens);
+        totalCost.add(cost);
+        LocalDate oldest = LocalDate.now().minusDays(DAILY_RETENTION_DAYS);
+        daily.forEach((date, dayTokens) -> {
+            if (!date.isBefore(oldest)) {
+                counter(dailyUsage, date).add(dayTokens);
+            }
+        });
+        models.forEach((model, modelTokens) -> counter(modelUsage, model).add(modelTokens));
+        totalRequests.add(requests);
+    }
+    
+    /**
+     * Read all counters. Every request is either fully included or not at all, unless recording is so
+     * frequent that no quiet moment is found within a few attempts.
+     * @return point-in-time copy of the counters
+     */
+    public UsageSnapshot snapshot() {
+        UsageSnapshot snapshot = null;
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+            long completed = totalRequests.sum();
+            snapshot = read(completed);
+            if (startedRequests.sum() == completed) {
+                break;
+            }
+        }
+        return snapshot;
+    }
+    
+    private UsageSnapshot read(long requests) {
+        Map<String, Long> daily = new TreeMap<>();
+        dailyUsage.forEach((date, tokens) -> daily.put(date.toString(), tokens.sum()));
+        Map<String, Long> models = new TreeMap<>();
+        modelUsage.forEach((model, tokens) -> models.put(model, tokens.sum()));
+        
+        long lastMillis = lastRequestMillis.get();
+        LocalDateTime lastRequest = lastMillis > 0
+            ? LocalDateTime.ofInstant(Instant.ofEpochMilli(lastMillis), ZoneId.systemDefault()) : null;
+        return new UsageSnapshot(requests, totalTokens.sum(), lastRequest, daily, models, totalCost.sum());
+    }
+    
+    /**
+     * Counter of a day; days that fell out of the retention are dropped when a new day starts,
+     * so the map stays bounded without work on the recording path
+     */
+    private LongAdder dailyCounter(LocalDate date) {
+        LongAdder counter = dailyUsage.get(date);
+        if (counter != null) {
+            return counter;
+        }
+        LocalDate oldest = date.minusDays(DAILY_RETENTION_DAYS);
+        dailyUsage.keySet().removeIf(day -> day.isBefore(oldest));
+        return counter(dailyUsage, date);
+    }
+    
+    private static <K> LongAdder counter(ConcurrentMap<K, LongAdder> counters, K key) {
+        // get() first: computeIfAbsent may lock the bin even when the key exists
+        LongAdder counter = counters.get(key);
+        return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
     }
 }
\ No newline at end of file
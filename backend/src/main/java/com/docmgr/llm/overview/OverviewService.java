@@ -0,0 +1,293 @@
+package com.docmgr.llm.overview;
+
+import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.model.ProviderHealth;
+import com.docmgr.llm.model.UsageSnapshot;
+import com.docmgr.llm.service.LLMService;
+import com.docmgr.llm.service.RequestCoalescer;
+import com.docmgr.llm.usage.CostTracker;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dashboard snapshot shared by all viewers. Provider health, usage, throughput, latency percentiles, job queue
+ * depth and budget are computed once per refresh interval, however many dashboards are open, and serialized once.
+ * The snapshot is recomputed on a schedule only while someone follows the event stream; otherwise a request
+ * recomputes it when it is older than the refresh interval. Provider health probes call the providers and
+ * therefore run on the slower health interval, in the background with a timeout per provider, so that a hung
+ * provider cannot hold up the snapshot or the scheduler thread it is refreshed on.
+ */
+@Service
+public class OverviewService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OverviewService.class);
+    private static final ServerSentEvent<String> KEEP_ALIVE = ServerSentEvent.<String>builder().comment("keep-alive").build();
+    
+    private final LLMService llmService;
+    private final List<LLMProvider> registeredProviders;
+    private final LLMMetrics metrics;
+    private final RequestCoalescer coalescer;
+    private final CostTracker costTracker;
+    private final LLMProperties properties;
+    private final ObjectMapper objectMapper;
+    private final Sinks.Many<ServerSentEvent<String>> deltas = Sinks.many().multicast().directBestEffort();
+    
+    private volatile Snapshot current;
+    private volatile List<Map<String, Object>> providers;
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private Instant lastHealthCheck = Instant.EPOCH;
+    private UsageSnapshot lastUsage;
+    private Instant lastUsageTime;
+    
+    public OverviewService(LLMService llmService, List<LLMProvider> registeredProviders, LLMMetrics metrics,
+                           RequestCoalescer coalescer, CostTracker costTracker, LLMProperties properties,
+                           ObjectMapper objectMapper) {
+        this.llmService = llmService;
+        this.registeredProviders = registeredProviders;
+        this.metrics = metrics;
+        this.coalescer = coalescer;
+        this.costTracker = costTracker;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.providers = registeredProviders.stream()
+            .map(provider -> unprobed(provider, "Health probe pending"))
+            .toList();
+    }
+    
+    /**
+     * Current snapshot, recomputed first if it is older than the refresh interval
+     */
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current;
+        return snapshot != null && !isStale(snapshot) ? snapshot : refreshIfStale();
+    }
+    
+    /**
+     * Follow the overview: a "snapshot" event with the full state, then a "delta" event with the changed sections
+     * after every refresh that changed something. Both carry a version; deltas not newer than the snapshot
+     * can be ignored.
+     */
+    public Flux<ServerSentEvent<String>> events() {
+        Duration heartbeat = Duration.ofSeconds(properties.getOverview().getHeartbeatSeconds());
+        // Subscribe to deltas before reading the snapshot so that no change is missed
+        Mono<ServerSentEvent<String>> snapshot = Mono.fromSupplier(this::getSnapshot)
+            .map(latest -> event("snapshot", latest.version(), latest.json()))
+            .subscribeOn(Schedulers.boundedElastic());
+        return Flux.merge(deltas.asFlux(), snapshot, Flux.interval(heartbeat).map(tick -> KEEP_ALIVE));
+    }
+    
+    /**
+     * Recompute the snapshot for the event stream and push the changes
+     */
+    @Scheduled(fixedDelayString = "${app.llm.overview.refresh-interval-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public void pushUpdates() {
+        if (deltas.currentSubscriberCount() > 0) {
+            refresh();
+        }
+    }
+    
+    private synchronized Snapshot refreshIfStale() {
+        Snapshot snapshot = current;
+        return snapshot != null && !isStale(snapshot) ? snapshot : refresh();
+    }
+    
+    private synchronized Snapshot refresh() {
+        Snapshot previous = current;
+        Map<String, Object> sections = computeSections();
+        Map<String, JsonNode> trees = new LinkedHashMap<>();
+        sections.forEach((name, section) -> trees.put(name, objectMapper.valueToTree(section)));
+        
+        Map<String, JsonNode> changed = new LinkedHashMap<>();
+        trees.forEach((name, tree) -> {
+            if (previous == null || !tree.equals(previous.sections().get(name))) {
+                changed.put(name, tree);
+            }
+        });
+        
+        long version = previous == null ? 1 : changed.isEmpty() ? previous.version() : previous.version() + 1;
+        Instant generatedAt = Instant.now();
+        String etag = previous != null && changed.isEmpty() ? previous.etag()
+            : "\"" + DigestUtils.md5DigestAsHex(toJson(trees).getBytes(StandardCharsets.UTF_8)) + "\"";
+        Snapshot snapshot = new Snapshot(version, generatedAt, trees, toJson(document(version, generatedAt, trees)), etag);
+        current = snapshot;
+        
+        if (previous != null && !changed.isEmpty()) {
+            deltas.tryEmitNext(event("delta", version, toJson(document(version, generatedAt, changed))));
+        }
+        return snapshot;
+    }
+    
+    private Map<String, Object> computeSections() {
+        Instant now = Instant.now();
+        if (Duration.between(lastHealthCheck, now).getSeconds() >= properties.getOverview().getHealthIntervalSeconds()
+                && probing.compareAndSet(false, true)) {
+            lastHealthCheck = now;
+            probeProviders();
+        }
+        
+        Map<String, Object> sections = new LinkedHashMap<>();
+        sections.put("providers", providers);
+        sections.put("active_provider", activeProviderName());
+        
+        UsageSnapshot usage = llmService.getAggregatedUsage();
+        Map<String, Object> usageSection = new LinkedHashMap<>();
+        usageSection.put("total_requests", usage.getTotalRequests());
+        usageSection.put("total_tokens", usage.getTotalTokens());
+        usageSection.put("total_cost", usage.getTotalCost());
+        usageSection.put("active_days", usage.getDailyUsage().size());
+        usageSection.put("last_request", usage.getLastRequest());
+        sections.put("usage", usageSection);
+        sections.put("throughput", throughput(usage, now));
+        
+        sections.put("latency_ms", metrics.getRecentLatencyPercentiles());
+        
+        Map<String, Object> queue = new LinkedHashMap<>();
+        queue.put("queued_jobs", metrics.getQueuedJobs());
+        queue.put("pending_jobs", metrics.getPendingJobs());
+        queue.put("in_flight_requests", coalescer.getInFlightCount());
+        sections.put("queue", queue);
+        
+        sections.put("budget", costTracker.getBudgetStatus());
+        return sections;
+    }
+    
+    /**
+     * Probe every registered provider, including unavailable ones, which are shown as unhealthy rather than left out.
+     * The result replaces the provider section once all probes have answered or timed out, and is pushed
+     * to the event stream right away.
+     */
+    private void probeProviders() {
+        Duration timeout = Duration.ofSeconds(properties.getOverview().getHealthTimeoutSeconds());
+        Flux.fromIterable(registeredProviders)
+            .flatMapSequential(provider -> Mono.fromCallable(() -> probe(provider))
+                .subscribeOn(Schedulers.boundedElastic())
+                .timeout(timeout)
+                .onErrorResume(error -> {
+                    String message = error instanceof TimeoutException
+                        ? "Health probe timed out after " + timeout.toSeconds() + "s" : error.getMessage();
+                    logger.warn("Health probe of provider {} failed: {}", provider.getName(), message);
+                    return Mono.just(unprobed(provider, message));
+                }))
+            .collectList()
+            .doFinally(signal -> probing.set(false))
+            .subscribe(probed -> {
+                providers = probed;
+                if (deltas.currentSubscriberCount() > 0) {
+                    refresh();
+                }
+            });
+    }
+    
+    private static Map<String, Object> probe(LLMProvider provider) {
+        ProviderHealth health = provider.getHealth();
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("name", provider.getName());
+        entry.put("type", provider.getType());
+        entry.put("available", provider.isAvailable());
+        entry.put("status", health.getStatus());
+        entry.put("message", health.getMessage());
+        entry.put("response_time_ms", health.getResponseTimeMs());
+        return entry;
+    }
+    
+    private static Map<String, Object> unprobed(LLMProvider provider, String message) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("name", provider.getName());
+        entry.put("type", provider.getType());
+        entry.put("available", false);
+        entry.put("status", ProviderHealth.HealthStatus.UNKNOWN);
+        entry.put("message", message);
+        entry.put("response_time_ms", -1);
+        return entry;
+    }
+    
+    private String activeProviderName() {
+        try {
+            return llmService.getActiveProvider().getName();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Requests and tokens per second since the previous snapshot
+     */
+    private Map<String, Object> throughput(UsageSnapshot usage, Instant now) {
+        Map<String, Object> throughput = new LinkedHashMap<>();
+        double seconds = lastUsage != null ? Duration.between(lastUsageTime, now).toMillis() / 1000.0 : 0;
+        if (seconds > 0) {
+            throughput.put("requests_per_second", round((usage.getTotalRequests() - lastUsage.getTotalRequests()) / seconds));
+            throughput.put("tokens_per_second", round((usage.getTotalTokens() - lastUsage.getTotalTokens()) / seconds));
+        } else {
+            throughput.put("requests_per_second", 0.0);
+            throughput.put("tokens_per_second", 0.0);
+        }
+        lastUsage = usage;
+        lastUsageTime = now;
+        return throughput;
+    }
+    
+    private boolean isStale(Snapshot snapshot) {
+        return Duration.between(snapshot.generatedAt(), Instant.now()).getSeconds()
+            >= properties.getOverview().getRefreshIntervalSeconds();
+    }
+    
+    private static Map<String, Object> document(long version, Instant generatedAt, Map<String, JsonNode> sections) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("version", version);
+        document.put("generated_at", generatedAt.toString());
+        document.putAll(sections);
+        return document;
+    }
+    
+    private static ServerSentEvent<String> event(String name, long version, String json) {
+        return ServerSentEvent.builder(json)
+            .id(String.valueOf(version))
+            .event(name)
+            .build();
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize overview", e);
+        }
+    }
+    
+    /**
+     * A computed overview
+     * @param version increases whenever a section changes
+     * @param sections each section as JSON
+     * @param json the full document: version, generation time and all sections
+     * @param etag hash of the sections, equal on every instance for equal content
+     */
+    public record Snapshot(long version, Instant generatedAt, Map<String, JsonNode> sections, String json, String etag) {}
+}
\ No newline at end of file
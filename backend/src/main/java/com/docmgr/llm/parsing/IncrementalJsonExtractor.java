@@ -0,0 +1,162 @@
+package com.docmgr.llm.parsing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incremental extractor for the top-level fields of a JSON object embedded in LLM output.
+ * Text before the object (prose, code fences) is skipped; a '{' only starts the object when the next
+ * non-blank character is a '"' or '}', so braces in prose are ignored. Each field is returned as soon
+ * as the delimiter that ends it has been fed. Not thread-safe; use one instance per response.
+ */
+public class IncrementalJsonExtractor {
+    
+    private final ObjectMapper objectMapper;
+    private final StringBuilder segment = new StringBuilder();
+    
+    private boolean opening;
+    private boolean started;
+    private boolean finished;
+    private boolean inString;
+    private boolean escaped;
+    private int depth;
+    private int malformedSegments;
+    
+    public IncrementalJsonExtractor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Feed the next chunk of generated text
+     * @param chunk text delta from the model
+     * @return fields completed by this chunk, in output order
+     */
+    public List<Map.Entry<String, JsonNode>> feed(CharSequence chunk) {
+        List<Map.Entry<String, JsonNode>> fields = new ArrayList<>();
+        
+        for (int i = 0; i < chunk.length() && !finished; i++) {
+            char c = chunk.charAt(i);
+            
+            if (!started) {
+                // A '{' may be the last character of a chunk, so the character deciding whether it opens
+                // the object can arrive with the next chunk
+                if (opening && Character.isWhitespace(c)) {
+                    continue;
+                }
+                if (!opening || (c != '"' && c != '}')) {
+                    opening = c == '{';
+                    continue;
+                }
+                opening = false;
+                started = true;
+                depth = 1;
+            }
+            
+            if (inString) {
+                segment.append(c);
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            
+            switch (c) {
+                case '"' -> {
+                    inString = true;
+                    segment.append(c);
+                }
+                case '{', '[' -> {
+                    depth++;
+                    segment.append(c);
+                }
+                case '}', ']' -> {
+                    depth--;
+                    if (depth == 0) {
+                        emitSegment(fields);
+                        finished = true;
+                    } else {
+                        segment.append(c);
+                    }
+                }
+                case ',' -> {
+                    if (depth == 1) {
+                        emitSegment(fields);
+                    } else {
+                        segment.append(c);
+                    }
+                }
+                default -> segment.append(c);
+            }
+        }
+        
+        return fields;
+    }
+    
+    /**
+     * Flush any pending field when the output ended without closing the object (e.g. truncated by max tokens)
+     * @return fields that could still be recovered
+     */
+    public List<Map.Entry<String, JsonNode>> finish() {
+        List<Map.Entry<String, JsonNode>> fields = new ArrayList<>();
+        if (started && !finished) {
+            if (depth == 1 && !inString) {
+                emitSegment(fields);
+            } else if (segment.length() > 0) {
+                malformedSegments++;
+                segment.setLength(0);
+            }
+            finished = true;
+        }
+        return fields;
+    }
+    
+    /**
+     * @return true once a JSON object was found in the output
+     */
+    public boolean hasObject() {
+        return started;
+    }
+    
+    /**
+     * @return true once the top-level object was closed
+     */
+    public boolean isComplete() {
+        return finished;
+    }
+    
+    /**
+     * @return number of field segments that could not be parsed as JSON
+     */
+    public int getMalformedSegments() {
+        return malformedSegments;
+    }
+    
+    private void emitSegment(List<Map.Entry<String, JsonNode>> fields) {
+        String text = segment.toString().trim();
+        segment.setLength(0);
+        if (text.isEmpty()) {
+            return;
+        }
+        
+        try {
+            JsonNode node = objectMapper.readTree("{" + text + "}");
+            Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> field = iterator.next();
+                fields.add(Map.entry(field.getKey(), field.getValue()));
+            }
+        } catch (JsonProcessingException e) {
+            malformedSegments++;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.docmgr.llm.parsing;
+
+import com.docmgr.llm.model.AnalysisFieldEvent;
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.LLMResponse;
+import com.docmgr.llm.model.StructuredResponse;
+import com.docmgr.llm.schema.SchemaValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Turns raw model output into typed {@link StructuredResponse} data with per-field confidence scores,
+ * validated against the schema
+ */
+@Component
+public class StructuredOutputParser {
+
+    /** Confidence for a value that already had the declared JSON type */
+    static final double NATIVE_CONFIDENCE = 0.9;
+    /** Confidence for a value that had to be converted (e.g. "12,50" for a number field) */
+    static final double COERCED_CONFIDENCE = 0.7;
+    /** Confidence for a value that does not match the declared type at all */
+    static final double MISMATCH_CONFIDENCE = 0.3;
+    /** Confidence for a field the schema did not ask for */
+    static final double UNDECLARED_CONFIDENCE = 0.5;
+    /** Highest confidence for a value given without the confidence the schema asked the model to state */
+    static final double UNSTATED_CONFIDENCE = 0.5;
+
+    private final ObjectMapper objectMapper;
+
+    public StructuredOutputParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public IncrementalJsonExtractor newExtractor() {
+        return new IncrementalJsonExtractor(objectMapper);
+    }
+
+    /**
+     * Parse a complete model output into the response's data and confidence scores.
+     * If no JSON object can be found, the raw text is kept under "raw_response" with zero confidence.
+     * @param response response to populate
+     * @param rawText complete model output
+     * @param schema the expected output structure
+     */
+    public void populate(StructuredResponse response, String rawText, AnalysisSchema schema) {
+        response.setRawText(rawText);
+
+        IncrementalJsonExtractor extractor = newExtractor();
+        List<Map.Entry<String, JsonNode>> fields = new ArrayList<>(extractor.feed(rawText != null ? rawText : ""));
+        fields.addAll(extractor.finish());
+
+        if (!extractor.hasObject() || fields.isEmpty()) {
+            response.addExtractedData("raw_response", rawText, 0.0);
+        } else {
+            for (Map.Entry<String, JsonNode> field : fields) {
+                TypedValue typed = convert(field.getKey(), field.getValue(), schema);
+                response.addExtractedData(field.getKey(), typed.value(), typed.confidence());
+            }
+            addMissingFields(response, schema);
+        }
+        if (schema != null) {
+            SchemaValidator.validate(response, schema);
+        }
+    }
+
+    /**
+     * Extract fields from a stream of completion chunks as soon as each one is complete
+     * @param chunks text deltas from the provider; token counts are taken from the last chunk that reports them
+     * @param schema the expected output structure
+     * @param providerId provider producing the output
+     * @return one FIELD event per extracted field followed by a COMPLETE event with the full response
+     */
+    public Flux<AnalysisFieldEvent> streamFields(Flux<LLMResponse> chunks, AnalysisSchema schema, String providerId) {
+        return Flux.defer(() -> {
+            IncrementalJsonExtractor extractor = newExtractor();
+            StructuredResponse result = new StructuredResponse();
+            result.setProviderId(providerId);
+            StringBuilder rawText = new StringBuilder();
+
+            Flux<AnalysisFieldEvent> fieldEvents = chunks.concatMapIterable(chunk -> {
+                if (chunk.getTokensUsed() > 0) {
+                    result.setTokensUsed(chunk.getTokensUsed());
+                }
+                if (chunk.getText() == null || chunk.getText().isEmpty()) {
+                    return List.<AnalysisFieldEvent>of();
+                }
+                rawText.append(chunk.getText());
+                return toEvents(extractor.feed(chunk.getText()), schema, result);
+            });
+
+            Flux<AnalysisFieldEvent> completion = Flux.defer(() -> {
+                List<AnalysisFieldEvent> events = toEvents(extractor.finish(), schema, result);
+                result.setRawText(rawText.toString());
+                if (!extractor.hasObject()) {
+                    result.addExtractedData("raw_response", rawText.toString(), 0.0);
+                } else {
+                    addMissingFields(result, schema);
+                }
+                if (schema != null) {
+                    SchemaValidator.validate(result, schema);
+                }
+                events.add(AnalysisFieldEvent.complete(result));
+                return Flux.fromIterable(events);
+            });
+
+            return fieldEvents.concatWith(completion);
+        });
+    }
+
+    /**
+     * Convert a JSON value to the Java type declared for the field.
+     * Models may answer with {"value": ..., "confidence": ...}; the stated confidence then caps the score.
+     * If the schema asked for a stated confidence and the model gave none, the score is capped at {@link #UNSTATED_CONFIDENCE}.
+     * @param name field name
+     * @param node JSON value produced by the model
+     * @param schema the expected output structure
+     * @return typed value and confidence
+     */
+    public TypedValue convert(String name, JsonNode node, AnalysisSchema schema) {
+        AnalysisSchema.FieldDefinition definition = schema != null ? schema.getFields().get(name) : null;
+        String type = definition != null && definition.getType() != null
+            ? definition.getType().toLowerCase(Locale.ROOT) : null;
+
+        boolean confidenceRequested = schema != null && schema.isConfidenceRequested();
+        Double statedConfidence = null;
+        if (node != null && node.isObject() && node.has("value") && node.has("confidence")
+                && (confidenceRequested || !"object".equals(type) && !"map".equals(type))) {
+            statedConfidence = node.get("confidence").asDouble();
+            node = node.get("value");
+        } else if (confidenceRequested) {
+            statedConfidence = UNSTATED_CONFIDENCE;
+        }
+
+        TypedValue typed = convertValue(node, type, definition != null);
+        if (statedConfidence != null && typed.value() != null) {
+            double capped = Math.max(0.0, Math.min(typed.confidence(), statedConfidence));
+            typed = new TypedValue(typed.value(), capped);
+        }
+        return typed;
+    }
+
+    private TypedValue convertValue(JsonNode node, String type, boolean declared) {
+        if (node == null || node.isNull() || node.isMissingNode()
+                || (node.isTextual() && node.asText().isBlank())) {
+            return new TypedValue(null, 0.0);
+        }
+
+        if (!declared) {
+            return new TypedValue(objectMapper.convertValue(node, Object.class), UNDECLARED_CONFIDENCE);
+        }
+        if (type == null) {
+            return new TypedValue(objectMapper.convertValue(node, Object.class), COERCED_CONFIDENCE);
+        }
+
+        switch (type) {
+            case "string", "text" -> {
+                return node.isTextual()
+                    ? new TypedValue(node.asText(), NATIVE_CONFIDENCE)
+                    : new TypedValue(node.isValueNode() ? node.asText() : node.toString(), COERCED_CONFIDENCE);
+            }
+            case "number", "decimal", "double", "float", "currency", "amount", "money" -> {
+                if (node.isNumber()) {
+                    return new TypedValue(node.decimalValue(), NATIVE_CONFIDENCE);
+                }
+                BigDecimal parsed = node.isTextual() ? ValueParsers.parseDecimal(node.asText()) : null;
+                return parsed != null
+                    ? new TypedValue(parsed, COERCED_CONFIDENCE)
+                    : new TypedValue(node.asText(), MISMATCH_CONFIDENCE);
+            }
+            case "integer", "int", "long" -> {
+                if (node.isIntegralNumber()) {
+                    return new TypedValue(node.longValue(), NATIVE_CONFIDENCE);
+                }
+                BigDecimal parsed = node.isNumber() ? node.decimalValue()
+                    : node.isTextual() ? ValueParsers.parseDecimal(node.asText()) : null;
+                return parsed != null
+                    ? new TypedValue(parsed.longValue(), COERCED_CONFIDENCE)
+                    : new TypedValue(node.asText(), MISMATCH_CONFIDENCE);
+            }
+            case "boolean", "bool" -> {
+                if (node.isBoolean()) {
+                    return new TypedValue(node.booleanValue(), NATIVE_CONFIDENCE);
+                }
+                Boolean parsed = ValueParsers.parseBoolean(node.asText());
+                return parsed != null
+                    ? new TypedValue(parsed, COERCED_CONFIDENCE)
+                    : new TypedValue(node.asText(), MISMATCH_CONFIDENCE);
+            }
+            case "date" -> {
+                String text = node.asText();
+                LocalDate parsed = ValueParsers.parseDate(text);
+                if (parsed == null) {
+                    return new TypedValue(text, MISMATCH_CONFIDENCE);
+                }
+                boolean iso = text.trim().length() == 10 && text.trim().charAt(4) == '-';
+                return new TypedValue(parsed, iso ? NATIVE_CONFIDENCE : COERCED_CONFIDENCE);
+            }
+            case "datetime", "date-time", "timestamp" -> {
+                String text = node.asText().trim();
+                try {
+                    return new TypedValue(LocalDateTime.parse(text), NATIVE_CONFIDENCE);
+                } catch (DateTimeParseException e) {
+                    LocalDate date = ValueParsers.parseDate(text);
+                    return date != null
+                        ? new TypedValue(date.atStartOfDay(), COERCED_CONFIDENCE)
+                        : new TypedValue(text, MISMATCH_CONFIDENCE);
+                }
+            }
+            case "array", "list" -> {
+                return node.isArray()
+                    ? new TypedValue(objectMapper.convertValue(node, List.class), NATIVE_CONFIDENCE)
+                    : new TypedValue(List.of(objectMapper.convertValue(node, Object.class)), COERCED_CONFIDENCE);
+            }
+            case "object", "map" -> {
+                if (node.isObject()) {
+                    return new TypedValue(objectMapper.convertValue(node, Map.class), NATIVE_CONFIDENCE);
+                }
+                // Gemini's response schema cannot describe objects without properties, so it is asked for a JSON string
+                JsonNode decoded = node.isTextual() ? decodeJson(node.asText()) : null;
+                return decoded != null && decoded.isObject()
+                    ? new TypedValue(objectMapper.convertValue(decoded, Map.class), NATIVE_CONFIDENCE)
+                    : new TypedValue(node.asText(), MISMATCH_CONFIDENCE);
+            }
+            default -> {
+                return new TypedValue(objectMapper.convertValue(node, Object.class), COERCED_CONFIDENCE);
+            }
+        }
+    }
+
+    private JsonNode decodeJson(String text) {
+        try {
+            return objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private List<AnalysisFieldEvent> toEvents(List<Map.Entry<String, JsonNode>> fields,
+                                              AnalysisSchema schema, StructuredResponse result) {
+        List<AnalysisFieldEvent> events = new ArrayList<>(fields.size() + 1);
+        for (Map.Entry<String, JsonNode> field : fields) {
+            TypedValue typed = convert(field.getKey(), field.getValue(), schema);
+            result.addExtractedData(field.getKey(), typed.value(), typed.confidence());
+            events.add(AnalysisFieldEvent.field(field.getKey(), typed.value(), typed.confidence()));
+        }
+        return events;
+    }
+
+    private void addMissingFields(StructuredResponse response, AnalysisSchema schema) {
+        if (schema == null) {
+            return;
+        }
+        schema.getFields().keySet().forEach(name -> {
+            if (!response.getData().containsKey(name)) {
+                response.addExtractedData(name, null, 0.0);
+            }
+        });
+    }
+
+    /**
+     * A converted field value with its confidence score
+     */
+    public record TypedValue(Object value, double confidence) {}
+}
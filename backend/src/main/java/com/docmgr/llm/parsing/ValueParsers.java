@@ -0,0 +1,118 @@
+package com.docmgr.llm.parsing;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lenient parsers for values as they appear in documents and model output (German and English formats)
+ */
+public final class ValueParsers {
+
+    private static final List<DateTimeFormatter> DATE_FORMATS = List.of(
+        DateTimeFormatter.ISO_LOCAL_DATE,
+        DateTimeFormatter.ofPattern("d.M.uuuu"),
+        DateTimeFormatter.ofPattern("d.M.uu"),
+        DateTimeFormatter.ofPattern("d/M/uuuu"),
+        DateTimeFormatter.ofPattern("d. MMMM uuuu", Locale.GERMAN),
+        DateTimeFormatter.ofPattern("d MMMM uuuu", Locale.ENGLISH),
+        DateTimeFormatter.ofPattern("MMMM d, uuuu", Locale.ENGLISH)
+    );
+
+    private ValueParsers() {}
+
+    /**
+     * Parse a decimal amount such as "1.234,56 €", "EUR 1,234.56" or "12,50".
+     * A single separator followed by anything other than exactly three digits is treated as the decimal separator;
+     * a lone comma is always treated as decimal separator (German convention).
+     * @param text the text to parse
+     * @return parsed amount, or null if the text contains no number
+     */
+    public static BigDecimal parseDecimal(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        StringBuilder cleaned = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isDigit(c) || c == ',' || c == '.' || (c == '-' && cleaned.length() == 0)) {
+                cleaned.append(c);
+            }
+        }
+        String number = cleaned.toString();
+        if (number.isEmpty() || number.equals("-")) {
+            return null;
+        }
+
+        int lastComma = number.lastIndexOf(',');
+        int lastDot = number.lastIndexOf('.');
+
+        if (lastComma >= 0 && lastDot >= 0) {
+            // Both present: the later one is the decimal separator
+            if (lastComma > lastDot) {
+                number = number.replace(".", "").replace(',', '.');
+            } else {
+                number = number.replace(",", "");
+            }
+        } else if (lastComma >= 0) {
+            number = number.indexOf(',') != lastComma
+                ? number.replace(",", "")
+                : number.replace(',', '.');
+        } else if (lastDot >= 0 && number.indexOf('.') != lastDot) {
+            number = number.replace(".", "");
+        } else if (lastDot >= 0 && number.length() - lastDot - 1 == 3 && lastDot > 0) {
+            // "1.234" in a German document is a thousands separator
+            number = number.replace(".", "");
+        }
+
+        try {
+            return new BigDecimal(number);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parse a date in ISO, German (dd.MM.yyyy, "1. März 2024") or common English formats
+     * @param text the text to parse
+     * @return parsed date, or null if no supported format matches
+     */
+    public static LocalDate parseDate(String text) {
+        if (text == null) {
+            return null;
+        }
+        String trimmed = text.trim();
+        if (trimmed.length() > 10 && trimmed.charAt(4) == '-' && trimmed.charAt(10) == 'T') {
+            // ISO date-time, keep the date part
+            trimmed = trimmed.substring(0, 10);
+        }
+        for (DateTimeFormatter format : DATE_FORMATS) {
+            try {
+                return LocalDate.parse(trimmed, format);
+            } catch (DateTimeParseException e) {
+                // try next format
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parse a boolean from English or German yes/no words
+     * @param text the text to parse
+     * @return parsed value, or null if the text is not a recognised boolean
+     */
+    public static Boolean parseBoolean(String text) {
+        if (text == null) {
+            return null;
+        }
+        return switch (text.trim().toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "ja", "1" -> Boolean.TRUE;
+            case "false", "no", "n", "nein", "0" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+}
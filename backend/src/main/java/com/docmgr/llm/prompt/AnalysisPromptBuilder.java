@@ -0,0 +1,54 @@
+package com.docmgr.llm.prompt;
+
+import com.docmgr.llm.model.AnalysisSchema;
+
+/**
+ * Builds the analysis prompt shared by all providers.
+ * The document text comes first so that requests over the same document share a prompt prefix.
+ */
+public final class AnalysisPromptBuilder {
+    
+    private AnalysisPromptBuilder() {}
+    
+    /**
+     * Build an analysis prompt
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @param schemaEnforced true if the provider constrains output to the schema natively,
+     *                       in which case the JSON formatting instructions are left out
+     * @return prompt text
+     */
+    public static String build(String text, AnalysisSchema schema, boolean schemaEnforced) {
+        StringBuilder prompt = new StringBuilder(text.length() + 128 + schema.getFields().size() * 64);
+        prompt.append("Analyze the following text and extract structured information in JSON format.\n\n");
+        prompt.append("Text to analyze:\n").append(text).append("\n\n");
+        prompt.append("Extract the following fields:\n");
+        
+        schema.getFields().forEach((fieldName, fieldDef) -> {
+            prompt.append("- ").append(fieldName).append(" (").append(fieldDef.getType()).append(")");
+            if (fieldDef.isRequired()) {
+                prompt.append(" [REQUIRED]");
+            }
+            if (fieldDef.getDescription() != null) {
+                prompt.append(": ").append(fieldDef.getDescription());
+            }
+            prompt.append("\n");
+        });
+        
+        if (schema.getInstructions() != null) {
+            prompt.append("\nAdditional instructions: ").append(schema.getInstructions());
+        }
+        
+        if (schema.isConfidenceRequested()) {
+            prompt.append("\nAnswer every field as an object {\"value\": ..., \"confidence\": ...} where confidence is ")
+                .append("a number from 0.0 to 1.0 stating how certain you are that the value is stated in the text as given. ")
+                .append("Use a null value with confidence 1.0 if the text does not contain the field.");
+        }
+        
+        if (!schemaEnforced) {
+            prompt.append("\nRespond ONLY with valid JSON containing the extracted fields. Do not include any explanatory text.");
+        }
+        
+        return prompt.toString();
+    }
+}
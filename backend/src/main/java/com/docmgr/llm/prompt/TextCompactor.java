@@ -0,0 +1,204 @@
+package com.docmgr.llm.prompt;
+
+import com.docmgr.llm.config.LLMProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Removes text that costs prompt tokens without carrying information: page headers and footers repeated on
+ * every page, page numbers, table borders, dot leaders, whitespace runs and duplicated lines.
+ * Known boilerplate paragraphs can optionally be dropped as well.
+ * Repeated headers and footers keep their first occurrence, since they often hold the only copy of
+ * sender details such as the IBAN.
+ */
+@Component
+public class TextCompactor {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TextCompactor.class);
+    /** Lines at the top and bottom of a page that are checked for headers and footers */
+    private static final int EDGE_LINES = 3;
+    private static final int MAX_HEADER_LENGTH = 160;
+    private static final Pattern PAGE_LABEL = Pattern.compile(
+        "(?i)^[-–\\s]*(?:(?:seite|page|blatt|s\\.|p\\.)\\s*)?\\d{1,4}(?:\\s*(?:von|of|/)\\s*\\d{1,4})?[-–\\s]*$");
+    /** Page counter inside a longer header line, e.g. "Kontoauszug 3/2024 – Seite 2 von 5" */
+    private static final Pattern PAGE_COUNTER = Pattern.compile(
+        "(?i)\\b(?:seite|page|blatt)\\s*\\d{1,4}(?:\\s*(?:von|of|/)\\s*\\d{1,4})?\\b");
+    private static final Pattern BORDER_LINE = Pattern.compile("^[\\s|+\\-=_.:*~#•·\\u2500-\\u257F]+$");
+    private static final Pattern LEADER = Pattern.compile("[.\\-_=·•~]{4,}|[\\u2500-\\u257F]+");
+    /** Runs of spaces are capped at two so table columns stay apart */
+    private static final Pattern SPACE_RUN = Pattern.compile("[ \\t\\u00A0]{2,}");
+    private static final Pattern SPACE_CHAR = Pattern.compile("[\\t\\u00A0]");
+    
+    private final LLMProperties properties;
+    private final List<Pattern> boilerplate = new ArrayList<>();
+    
+    public TextCompactor(LLMProperties properties) {
+        this.properties = properties;
+        for (String pattern : properties.getCompaction().getBoilerplatePatterns()) {
+            try {
+                boilerplate.add(Pattern.compile(pattern, Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE));
+            } catch (PatternSyntaxException e) {
+                logger.warn("Ignoring invalid boilerplate pattern '{}': {}", pattern, e.getDescription());
+            }
+        }
+    }
+    
+    /**
+     * Compact extracted document text. Pages are expected to be separated by form feeds, as PDF text extraction emits them.
+     * @param text extracted document text
+     * @return compacted text with the number of removed lines
+     */
+    public CompactedText compact(String text) {
+        if (!properties.getCompaction().isEnabled() || text == null || text.isEmpty()) {
+            return new CompactedText(text, text != null ? text.length() : 0, 0);
+        }
+        
+        String[] pages = text.replace("\r\n", "\n").replace('\r', '\n').split("\f");
+        Set<String> repeated = pages.length > 1 ? repeatedEdgeLines(pages) : Set.of();
+        Set<String> emitted = new HashSet<>();
+        
+        List<String> lines = new ArrayList<>();
+        int removed = 0;
+        for (String page : pages) {
+            long pageLines = page.lines().filter(line -> !line.isBlank()).count();
+            int position = 0;
+            for (String rawLine : page.split("\n", -1)) {
+                String line = rawLine.strip();
+                if (line.isEmpty()) {
+                    addBlank(lines);
+                    continue;
+                }
+                boolean edge = position < EDGE_LINES || position >= pageLines - EDGE_LINES;
+                position++;
+                // Bare numbers are only page numbers at the top or bottom of a page; elsewhere they may be table cells
+                if (edge && pages.length > 1 && PAGE_LABEL.matcher(line).matches()) {
+                    removed++;
+                    continue;
+                }
+                String key = headerKey(line);
+                if (edge && repeated.contains(key) && !emitted.add(key)) {
+                    removed++;
+                    continue;
+                }
+                if (BORDER_LINE.matcher(line).matches()) {
+                    removed++;
+                    continue;
+                }
+                
+                line = SPACE_RUN.matcher(LEADER.matcher(line).replaceAll("  ")).replaceAll("  ");
+                line = SPACE_CHAR.matcher(line).replaceAll(" ").strip();
+                // Repeated lines with numbers may be identical line items, only repeated text lines are duplicates
+                boolean duplicate = !lines.isEmpty() && line.equals(lines.get(lines.size() - 1))
+                    && line.chars().noneMatch(Character::isDigit);
+                if (line.isEmpty() || duplicate) {
+                    removed++;
+                    continue;
+                }
+                lines.add(line);
+            }
+            addBlank(lines);
+        }
+        
+        if (properties.getCompaction().isDropBoilerplate() && !boilerplate.isEmpty()) {
+            removed += dropBoilerplate(lines);
+        }
+        
+        String compacted = String.join("\n", lines).strip();
+        return new CompactedText(compacted, text.length(), removed);
+    }
+    
+    /**
+     * Lines near the top or bottom of at least half of the pages (and at least two) are headers or footers.
+     * Page numbers are ignored when comparing, so "Page 2" and "Page 3" count as the same line; other digits are
+     * compared as they are, so carried totals such as "Übertrag 1.234,56 €" are kept on every page.
+     */
+    private Set<String> repeatedEdgeLines(String[] pages) {
+        Map<String, Integer> pageCounts = new HashMap<>();
+        for (String page : pages) {
+            List<String> nonBlank = page.lines().map(String::strip).filter(line -> !line.isEmpty()).toList();
+            Set<String> edges = new HashSet<>();
+            for (int i = 0; i < nonBlank.size(); i++) {
+                if ((i < EDGE_LINES || i >= nonBlank.size() - EDGE_LINES) && nonBlank.get(i).length() <= MAX_HEADER_LENGTH) {
+                    edges.add(headerKey(nonBlank.get(i)));
+                }
+            }
+            edges.forEach(key -> pageCounts.merge(key, 1, Integer::sum));
+        }
+        
+        int threshold = Math.max(2, (pages.length + 1) / 2);
+        Set<String> repeated = new HashSet<>();
+        pageCounts.forEach((key, count) -> {
+            if (count >= threshold) {
+                repeated.add(key);
+            }
+        });
+        return repeated;
+    }
+    
+    /**
+     * Remove paragraphs matching a boilerplate pattern
+     * @return number of removed non-blank lines
+     */
+    private int dropBoilerplate(List<String> lines) {
+        List<String> kept = new ArrayList<>(lines.size());
+        List<String> paragraph = new ArrayList<>();
+        int removed = 0;
+        for (int i = 0; i <= lines.size(); i++) {
+            String line = i < lines.size() ? lines.get(i) : "";
+            if (!line.isEmpty()) {
+                paragraph.add(line);
+                continue;
+            }
+            String joined = String.join(" ", paragraph);
+            if (!paragraph.isEmpty() && boilerplate.stream().anyMatch(pattern -> pattern.matcher(joined).find())) {
+                removed += paragraph.size();
+            } else {
+                kept.addAll(paragraph);
+                if (i < lines.size()) {
+                    addBlank(kept);
+                }
+            }
+            paragraph.clear();
+        }
+        lines.clear();
+        lines.addAll(kept);
+        return removed;
+    }
+    
+    private static String headerKey(String line) {
+        String key = PAGE_LABEL.matcher(line).matches()
+            ? line.replaceAll("\\d", "#")
+            : PAGE_COUNTER.matcher(line).replaceAll(counter -> counter.group().replaceAll("\\d", "#"));
+        return key.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    private static void addBlank(List<String> lines) {
+        if (!lines.isEmpty() && !lines.get(lines.size() - 1).isEmpty()) {
+            lines.add("");
+        }
+    }
+    
+    /**
+     * Result of compacting a text
+     * @param text compacted text
+     * @param originalChars length of the text before compaction
+     * @param removedLines number of non-blank lines that were dropped
+     */
+    public record CompactedText(String text, int originalChars, int removedLines) {
+        
+        public int savedChars() {
+            return text != null ? originalChars - text.length() : 0;
+        }
+    }
+}
\ No newline at end of file
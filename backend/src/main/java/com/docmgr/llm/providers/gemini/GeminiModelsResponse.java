@@ -0,0 +1,101 @@
+package com.docmgr.llm.providers.gemini;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Response model for Gemini models list API
+ */
+public class GeminiModelsResponse {
+    
+    @JsonProperty("models")
+    private List<Model> models;
+    
+    @JsonProperty("nextPageToken")
+    private String nextPageToken;
+    
+    public List<Model> getModels() {
+        return models;
+    }
+    
+    public void setModels(List<Model> models) {
+        this.models = models;
+    }
+    
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+    
+    public void setNextPageToken(String nextPageToken) {
+        this.nextPageToken = nextPageToken;
+    }
+    
+    public static class Model {
+        @JsonProperty("name")
+        private String name;
+        
+        @JsonProperty("version")
+        private String version;
+        
+        @JsonProperty("displayName")
+        private String displayName;
+        
+        @JsonProperty("inputTokenLimit")
+        private Integer inputTokenLimit;
+        
+        @JsonProperty("outputTokenLimit")
+        private Integer outputTokenLimit;
+        
+        @JsonProperty("supportedGenerationMethods")
+        private List<String> supportedGenerationMethods;
+        
+        public String getName() {
+            return name;
+        }
+        
+        public void setName(String name) {
+            this.name = name;
+        }
+        
+        public String getVersion() {
+            return version;
+        }
+        
+        public void setVersion(String version) {
+            this.version = version;
+        }
+        
+        public String getDisplayName() {
+            return displayName;
+        }
+        
+        public void setDisplayName(String displayName) {
+            this.displayName = displayName;
+        }
+        
+        public Integer getInputTokenLimit() {
+            return inputTokenLimit;
+        }
+        
+        public void setInputTokenLimit(Integer inputTokenLimit) {
+            this.inputTokenLimit = inputTokenLimit;
+        }
+        
+        public Integer getOutputTokenLimit() {
+            return outputTokenLimit;
+        }
+        
+        public void setOutputTokenLimit(Integer outputTokenLimit) {
+            this.outputTokenLimit = outputTokenLimit;
+        }
+        
+        public List<String> getSupportedGenerationMethods() {
+            return supportedGenerationMethods;
+        }
+        
+        public void setSupportedGenerationMethods(List<String> supportedGenerationMethods) {
+            this.supportedGenerationMethods = supportedGenerationMethods;
+        }
+    }
+}
@@ -2,26 +2,42 @@ package com.docmgr.llm.providers.gemini;
 
 import com.docmgr.llm.LLMProvider;
 import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.exception.ContextWindowExceededException;
 import com.docmgr.llm.exception.LLMException;
 import com.docmgr.llm.exception.ProviderNotAvailableException;
+import com.docmgr.llm.metrics.LLMMetrics;
 import com.docmgr.llm.model.*;
+import com.docmgr.llm.parsing.StructuredOutputParser;
+import com.docmgr.llm.prompt.AnalysisPromptBuilder;
+import com.docmgr.llm.schema.JsonSchemaCompiler;
 import com.docmgr.llm.ratelimit.RateLimited;
+import com.docmgr.llm.state.LLMStateStore;
+import com.docmgr.llm.tokens.PromptBudgeter;
+import com.docmgr.llm.tokens.TokenBudget;
+import com.docmgr.llm.tracing.LLMTracing;
+import com.docmgr.llm.usage.CostTracker;
+import com.docmgr.llm.usage.UsageRecorder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 /**
  * Google Gemini LLM provider implementation with rate limiting and retry logic
@@ -34,18 +50,42 @@ public class GeminiProvider implements LLMProvider {
     private static final String PROVIDER_NAME = "gemini";
     
     private final WebClient webClient;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final LLMStateStore stateStore;
     private final LLMProperties properties;
     private final ObjectMapper objectMapper;
     private final UsageStats usageStats;
+    private final StructuredOutputParser outputParser;
+    private final PromptBudgeter promptBudgeter;
+    private final UsageRecorder usageRecorder;
+    private final LLMMetrics metrics;
+    private final CostTracker costTracker;
+    private final LLMTracing tracing;
+    /** This bean's proxy, so that analyses go through the rate limit and retry of complete and streamComplete */
+    private final ObjectProvider<GeminiProvider> self;
+    /** Set once the model list has been fetched, after which failed refreshes keep the catalogue's previous entry */
+    private volatile boolean modelsListed;
     
     public GeminiProvider(WebClient.Builder webClientBuilder,
-                         RedisTemplate<String, String> redisTemplate,
+                         LLMStateStore stateStore,
                          LLMProperties properties,
-                         ObjectMapper objectMapper) {
+                         ObjectMapper objectMapper,
+                         StructuredOutputParser outputParser,
+                         PromptBudgeter promptBudgeter,
+                         UsageRecorder usageRecorder,
+                         LLMMetrics metrics,
+                         CostTracker costTracker,
+                         LLMTracing tracing,
+                         ObjectProvider<GeminiProvider> self) {
         this.properties = properties;
-        this.redisTemplate = redisTemplate;
+        this.stateStore = stateStore;
         this.objectMapper = objectMapper;
+        this.outputParser = outputParser;
+        this.promptBudgeter = promptBudgeter;
+        this.usageRecorder = usageRecorder;
+        this.metrics = metrics;
+        this.costTracker = costTracker;
+        this.tracing = tracing;
+        this.self = self;
         this.usageStats = new UsageStats();
         
         LLMProperties.Gemini geminiConfig = properties.getGemini();
@@ -88,16 +128,25 @@ public class GeminiProvider implements LLMProvider {
     @RateLimited(provider = PROVIDER_NAME, requestsPerMinute = 15)
     @Retryable(value = {WebClientResponseException.class}, maxAttempts = 3, backoff = @Backoff(delay = 1000))
     public CompletableFuture<LLMResponse> complete(String prompt, CompletionOptions options) {
+        LLMProperties.Gemini config = properties.getGemini();
+        String model = options.getModel() != null ? options.getModel() : config.getModel();
+        Observation span = tracing.start("llm.provider.request",
+            "provider", PROVIDER_NAME, "model", model, "operation", "complete");
+        return tracing.observe(span, () -> sendCompletion(prompt, options, model, span));
+    }
+    
+    private CompletableFuture<LLMResponse> sendCompletion(String prompt, CompletionOptions options, String model,
+                                                          Observation span) {
         if (!isAvailable()) {
             return CompletableFuture.failedFuture(
                 new ProviderNotAvailableException(PROVIDER_NAME, "Provider not properly configured"));
         }
         
         LLMProperties.Gemini config = properties.getGemini();
-        
         try {
+            TokenBudget budget = promptBudgeter.plan(PROVIDER_NAME, model, prompt, options.getMaxTokens());
             GeminiRequest request = buildGeminiRequest(prompt, options);
-            String uri = "/v1beta/models/" + config.getModel() + ":generateContent?key=" + config.getApiKey();
+            String uri = "/v1beta/models/" + model + ":generateContent?key=" + config.getApiKey();
             
             long startTime = System.currentTimeMillis();
             
@@ -113,12 +162,23 @@ public class GeminiProvider implements LLMProvider {
                 .bodyToMono(GeminiResponse.class)
                 .map(response -> {
                     long duration = System.currentTimeMillis() - startTime;
-                    return mapToLLMResponse(response, duration);
+                    LLMResponse llmResponse = mapToLLMResponse(response, duration, model);
+                    llmResponse.addMetadata("prompt_tokens_estimated", budget.getPromptTokens());
+                    return llmResponse;
+                })
+                .doOnSuccess(response -> {
+                    recordUsage(response, "complete");
+                    tracing.recordResponse(span, response);
+                })
+                .doOnError(error -> {
+                    logger.error("Gemini completion failed", error);
+                    recordFailure(model, "complete", startTime);
                 })
-                .doOnSuccess(response -> recordUsage(response))
-                .doOnError(error -> logger.error("Gemini completion failed", error))
                 .toFuture();
                 
+        } catch (ContextWindowExceededException e) {
+            logger.warn("Rejected Gemini request before sending: {}", e.getMessage());
+            return CompletableFuture.failedFuture(e);
         } catch (Exception e) {
             logger.error("Failed to create Gemini request", e);
             return CompletableFuture.failedFuture(
@@ -126,30 +186,115 @@ public class GeminiProvider implements LLMProvider {
         }
     }
     
+    @Override
+    @RateLimited(provider = PROVIDER_NAME, requestsPerMinute = 15)
+    public Flux<LLMResponse> streamComplete(String prompt, CompletionOptions options) {
+        String model = options.getModel() != null ? options.getModel() : properties.getGemini().getModel();
+        Observation span = tracing.start("llm.provider.request",
+            "provider", PROVIDER_NAME, "model", model, "operation", "stream");
+        return tracing.observe(span, Flux.defer(() -> sendStream(prompt, options, model, span)));
+    }
+    
+    private Flux<LLMResponse> sendStream(String prompt, CompletionOptions options, String model, Observation span) {
+        if (!isAvailable()) {
+            return Flux.error(new ProviderNotAvailableException(PROVIDER_NAME, "Provider not properly configured"));
+        }
+        
+        LLMProperties.Gemini config = properties.getGemini();
+        try {
+            promptBudgeter.plan(PROVIDER_NAME, model, prompt, options.getMaxTokens());
+        } catch (ContextWindowExceededException e) {
+            logger.warn("Rejected Gemini request before sending: {}", e.getMessage());
+            return Flux.error(e);
+        }
+        
+        GeminiRequest request = buildGeminiRequest(prompt, options);
+        String uri = "/v1beta/models/" + model + ":streamGenerateContent?alt=sse&key=" + config.getApiKey();
+        
+        long startTime = System.currentTimeMillis();
+        AtomicReference<LLMResponse> lastWithUsage = new AtomicReference<>();
+        AtomicBoolean firstToken = new AtomicBoolean();
+        
+        return webClient.post()
+            .uri(uri)
+            .accept(MediaType.TEXT_EVENT_STREAM)
+            .bodyValue(request)
+            .retrieve()
+            .onStatus(status -> status.isError(), response -> {
+                logger.error("Gemini API error: {}", response.statusCode());
+                return response.bodyToMono(String.class)
+                    .map(body -> new LLMException("Gemini API error: " + body, PROVIDER_NAME, "API_ERROR"));
+            })
+            .bodyToFlux(GeminiResponse.class)
+            .map(chunk -> {
+                LLMResponse response = mapToLLMResponse(chunk, System.currentTimeMillis() - startTime, model);
+                if (response.getTokensUsed() > 0) {
+                    lastWithUsage.set(response);
+                }
+                if (!response.getText().isEmpty() && firstToken.compareAndSet(false, true)) {
+                    metrics.recordTimeToFirstToken(PROVIDER_NAME, model, System.currentTimeMillis() - startTime);
+                    span.event(Observation.Event.of("llm.first_token"));
+                }
+                return response;
+            })
+            .doOnComplete(() -> {
+                // Usage metadata is cumulative, so only the last reported value is recorded
+                if (lastWithUsage.get() != null) {
+                    recordUsage(lastWithUsage.get(), "stream");
+                    tracing.recordResponse(span, lastWithUsage.get());
+                }
+            })
+            .doOnError(error -> {
+                logger.error("Gemini streaming completion failed", error);
+                recordFailure(model, "stream", startTime);
+            });
+    }
+    
     @Override
     public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema) {
+        return analyze(text, schema, null);
+    }
+    
+    @Override
+    public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema, String model) {
         String prompt = buildAnalysisPrompt(text, schema);
-        CompletionOptions options = CompletionOptions.builder()
-            .maxTokens(1000)
-            .temperature(0.1) // Lower temperature for structured output
-            .build();
             
-        return complete(prompt, options)
+        return self.getObject().complete(prompt, analysisOptions(schema, model))
             .thenApply(llmResponse -> {
                 StructuredResponse structured = new StructuredResponse();
-                structured.setRawText(llmResponse.getText());
                 structured.setProviderId(llmResponse.getProviderId());
                 structured.setTimestamp(llmResponse.getTimestamp());
                 structured.setTokensUsed(llmResponse.getTokensUsed());
-                
-                // TODO: Parse JSON response into structured data
-                // For now, just return the raw text
-                structured.addExtractedData("raw_response", llmResponse.getText(), 1.0);
+                outputParser.populate(structured, llmResponse.getText(), schema);
                 
                 return structured;
             });
     }
     
+    @Override
+    public Flux<AnalysisFieldEvent> analyzeStream(String text, AnalysisSchema schema) {
+        String prompt = buildAnalysisPrompt(text, schema);
+        return outputParser.streamFields(self.getObject().streamComplete(prompt, analysisOptions(schema, null)),
+            schema, PROVIDER_NAME);
+    }
+    
+    private String buildAnalysisPrompt(String text, AnalysisSchema schema) {
+        return AnalysisPromptBuilder.build(text, schema, useNativeSchema(schema));
+    }
+    
+    private boolean useNativeSchema(AnalysisSchema schema) {
+        return properties.isNativeStructuredOutput() && !schema.getFields().isEmpty();
+    }
+    
+    private CompletionOptions analysisOptions(AnalysisSchema schema, String model) {
+        return CompletionOptions.builder()
+            .model(model)
+            .responseSchema(useNativeSchema(schema) ? JsonSchemaCompiler.compile(schema) : null)
+            .maxTokens(1000)
+            .temperature(0.1) // Lower temperature for structured output
+            .build();
+    }
+    
     @Override
     public UsageStats getUsageStats() {
         return usageStats;
@@ -162,9 +307,8 @@ public class GeminiProvider implements LLMProvider {
                 return ProviderHealth.unhealthy("Provider not configured or API key missing");
             }
             
-            // Check recent failures from Redis
-            String failureKey = "health:" + PROVIDER_NAME + ":failures";
-            String failures = redisTemplate.opsForValue().get(failureKey);
+            // Check recent failures
+            String failures = stateStore.get(UsageRecorder.failureKey(PROVIDER_NAME));
             int recentFailures = failures != null ? Integer.parseInt(failures) : 0;
             
             if (recentFailures > 5) {
@@ -181,12 +325,65 @@ public class GeminiProvider implements LLMProvider {
     
     @Override
     public CompletableFuture<List<String>> getSupportedModels() {
-        // Gemini models are predefined
-        return CompletableFuture.completedFuture(List.of(
-            "gemini-1.5-flash-latest",
-            "gemini-1.5-pro-latest",
-            "gemini-1.0-pro"
-        ));
+        return fetchModelDetails()
+            .thenApply(models -> models.stream()
+                .map(ModelInfo::getName)
+                .collect(Collectors.toList()));
+    }
+    
+    @Override
+    public CompletableFuture<List<ModelInfo>> fetchModelDetails() {
+        if (!isAvailable()) {
+            return CompletableFuture.completedFuture(defaultModels());
+        }
+        
+        return webClient.get()
+            .uri("/v1beta/models?pageSize=100&key=" + properties.getGemini().getApiKey())
+            .retrieve()
+            .bodyToMono(GeminiModelsResponse.class)
+            .map(response -> response.getModels() == null ? defaultModels() : response.getModels().stream()
+                .filter(model -> model.getSupportedGenerationMethods() != null
+                    && model.getSupportedGenerationMethods().contains("generateContent"))
+                .map(this::toModelInfo)
+                .collect(Collectors.toList()))
+            .doOnNext(models -> modelsListed = true)
+            .onErrorResume(error -> {
+                if (modelsListed) {
+                    return Mono.error(error);
+                }
+                logger.warn("Failed to list Gemini models, using defaults: {}", error.getMessage());
+                return Mono.just(defaultModels());
+            })
+            .toFuture();
+    }
+    
+    private ModelInfo toModelInfo(GeminiModelsResponse.Model model) {
+        // API names are "models/<id>", the generateContent URI expects the bare id
+        String name = model.getName() != null && model.getName().startsWith("models/")
+            ? model.getName().substring("models/".length()) : model.getName();
+        ModelInfo info = new ModelInfo(name, PROVIDER_NAME);
+        info.setFamily("gemini");
+        info.setContextLength(model.getInputTokenLimit());
+        info.setMaxOutputTokens(model.getOutputTokenLimit());
+        info.setDigest(model.getVersion());
+        return info;
+    }
+    
+    private List<ModelInfo> defaultModels() {
+        // Known models, used when the models API cannot be queried
+        return List.of(
+            defaultModel("gemini-1.5-flash-latest", 1048576, 8192),
+            defaultModel("gemini-1.5-pro-latest", 2097152, 8192),
+            defaultModel("gemini-1.0-pro", 30720, 2048)
+        );
+    }
+    
+    private ModelInfo defaultModel(String name, int contextLength, int maxOutputTokens) {
+        ModelInfo info = new ModelInfo(name, PROVIDER_NAME);
+        info.setFamily("gemini");
+        info.setContextLength(contextLength);
+        info.setMaxOutputTokens(maxOutputTokens);
+        return info;
     }
     
     private GeminiRequest buildGeminiRequest(String prompt, CompletionOptions options) {
@@ -197,6 +394,11 @@ public class GeminiProvider implements LLMProvider {
         config.setMaxOutputTokens(options.getMaxTokens());
         config.setTemperature(options.getTemperature());
         
+        if (options.getResponseSchema() != null) {
+            config.setResponseMimeType("application/json");
+            config.setResponseSchema(JsonSchemaCompiler.toGeminiSchema(options.getResponseSchema()));
+        }
+        
         GeminiRequest request = new GeminiRequest();
         request.setContents(List.of(content));
         request.setGenerationConfig(config);
@@ -204,72 +406,55 @@ public class GeminiProvider implements LLMProvider {
         return request;
     }
     
-    private LLMResponse mapToLLMResponse(GeminiResponse geminiResponse, long durationMs) {
+    // Package-private for the response mapping benchmark in src/jmh
+    LLMResponse mapToLLMResponse(GeminiResponse geminiResponse, long durationMs, String model) {
         String text = "";
         int tokensUsed = 0;
+        int promptTokens = 0;
+        int completionTokens = 0;
         
         if (geminiResponse.getCandidates() != null && !geminiResponse.getCandidates().isEmpty()) {
             GeminiResponse.Candidate candidate = geminiResponse.getCandidates().get(0);
             if (candidate.getContent() != null && candidate.getContent().getParts() != null) {
                 text = candidate.getContent().getParts().stream()
                     .map(GeminiResponse.Part::getText)
+                    .filter(partText -> partText != null)
                     .reduce("", String::concat);
             }
         }
         
-        if (geminiResponse.getUsageMetadata() != null) {
-            tokensUsed = geminiResponse.getUsageMetadata().getTotalTokenCount();
+        GeminiResponse.UsageMetadata usage = geminiResponse.getUsageMetadata();
+        if (usage != null) {
+            // Input and output tokens are priced differently, so the split is kept
+            promptTokens = usage.getPromptTokenCount() != null ? usage.getPromptTokenCount() : 0;
+            completionTokens = usage.getCandidatesTokenCount() != null ? usage.getCandidatesTokenCount() : 0;
+            tokensUsed = usage.getTotalTokenCount() != null ? usage.getTotalTokenCount() : promptTokens + completionTokens;
         }
         
         LLMResponse response = new LLMResponse(text, tokensUsed, PROVIDER_NAME);
         response.addMetadata("response_time_ms", durationMs);
-        response.addMetadata("model", properties.getGemini().getModel());
+        response.addMetadata("model", model);
+        response.addMetadata("prompt_tokens", promptTokens);
+        response.addMetadata("completion_tokens", completionTokens);
         
         return response;
     }
     
-    private void recordUsage(LLMResponse response) {
-        usageStats.incrementRequests();
-        usageStats.addTokens(response.getTokensUsed());
+    private void recordUsage(LLMResponse response, String operation) {
+        String model = (String) response.getMetadata().get("model");
+        long promptTokens = ((Number) response.getMetadata().get("prompt_tokens")).longValue();
+        long completionTokens = ((Number) response.getMetadata().get("completion_tokens")).longValue();
+        long costMicros = costTracker.record(PROVIDER_NAME, model, promptTokens, completionTokens);
+        usageStats.recordRequest(model, response.getTokensUsed(), CostTracker.toCurrency(costMicros));
+        // Persisted to the state store by the next flush, off the response path
+        usageRecorder.recordRequest(PROVIDER_NAME, model, operation, response.getTokensUsed(), costMicros);
         
-        String today = LocalDateTime.now().toLocalDate().toString();
-        usageStats.addDailyUsage(today, response.getTokensUsed());
-        
-        // Store in Redis for persistence
-        try {
-            String usageKey = "usage:" + PROVIDER_NAME;
-            redisTemplate.opsForHash().increment(usageKey, "total_requests", 1);
-            redisTemplate.opsForHash().increment(usageKey, "total_tokens", response.getTokensUsed());
-            redisTemplate.opsForHash().increment(usageKey, "daily:" + today, response.getTokensUsed());
-            redisTemplate.expire(usageKey, Duration.ofDays(30));
-        } catch (Exception e) {
-            logger.warn("Failed to record usage stats in Redis", e);
-        }
+        long durationMs = ((Number) response.getMetadata().get("response_time_ms")).longValue();
+        metrics.recordRequest(PROVIDER_NAME, model, operation, "success", durationMs);
+        metrics.recordTokens(PROVIDER_NAME, model, completionTokens, durationMs);
     }
     
-    private String buildAnalysisPrompt(String text, AnalysisSchema schema) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Analyze the following text and extract structured information.\n\n");
-        prompt.append("Text to analyze:\n").append(text).append("\n\n");
-        prompt.append("Please extract the following fields:\n");
-        
-        schema.getFields().forEach((fieldName, fieldDef) -> {
-            prompt.append("- ").append(fieldName).append(" (").append(fieldDef.getType()).append(")");
-            if (fieldDef.isRequired()) {
-                prompt.append(" [REQUIRED]");
-            }
-            if (fieldDef.getDescription() != null) {
-                prompt.append(": ").append(fieldDef.getDescription());
-            }
-            prompt.append("\n");
-        });
-        
-        if (schema.getInstructions() != null) {
-            prompt.append("\nAdditional instructions: ").append(schema.getInstructions());
-        }
-        
-        prompt.append("\nPlease respond with valid JSON containing the extracted fields.");
-        
-        return prompt.toString();
+    private void recordFailure(String model, String operation, long startTime) {
+        metrics.recordRequest(PROVIDER_NAME, model, operation, "error", System.currentTimeMillis() - startTime);
     }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.docmgr.llm.providers.gemini;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Request model for Gemini API calls
@@ -87,6 +89,14 @@ public class GeminiRequest {
         @JsonProperty("topK")
         private Integer topK;
         
+        @JsonProperty("responseMimeType")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private String responseMimeType;
+        
+        @JsonProperty("responseSchema")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Map<String, Object> responseSchema;
+        
         public Integer getMaxOutputTokens() {
             return maxOutputTokens;
         }
@@ -118,5 +128,21 @@ public class GeminiRequest {
         public void setTopK(Integer topK) {
             this.topK = topK;
         }
+        
+        public String getResponseMimeType() {
+            return responseMimeType;
+        }
+        
+        public void setResponseMimeType(String responseMimeType) {
+            this.responseMimeType = responseMimeType;
+        }
+        
+        public Map<String, Object> getResponseSchema() {
+            return responseSchema;
+        }
+        
+        public void setResponseSchema(Map<String, Object> responseSchema) {
+            this.responseSchema = responseSchema;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.docmgr.llm.providers.ollama;
+
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.model.ModelPerformance;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregates Ollama's phase timings per model: prompt evaluation and generation throughput and model load time.
+ * Each finished generation is also published as metrics, see {@link LLMMetrics#recordInferencePhases}.
+ */
+@Component
+public class OllamaPerformanceTracker {
+    
+    /** A loaded model reports a load time of a few milliseconds; anything longer means the model was swapped in */
+    static final Duration COLD_LOAD_THRESHOLD = Duration.ofMillis(500);
+    private static final String PROVIDER_NAME = "ollama";
+    
+    private final LLMMetrics metrics;
+    private final ConcurrentMap<String, ModelTotals> totals = new ConcurrentHashMap<>();
+    
+    public OllamaPerformanceTracker(LLMMetrics metrics) {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Record the timings of a finished generation
+     * @param model model that served the request
+     * @param timings timings reported by Ollama
+     */
+    public void record(String model, OllamaTimings timings) {
+        ModelTotals modelTotals = totals.get(model);
+        if (modelTotals == null) {
+            modelTotals = totals.computeIfAbsent(model, k -> new ModelTotals());
+        }
+        modelTotals.add(timings);
+        metrics.recordInferencePhases(PROVIDER_NAME, model, timings.promptTokens(), timings.promptEvalNanos(),
+            timings.generatedTokens(), timings.generationNanos(), timings.loadNanos());
+    }
+    
+    /**
+     * Performance of every model that served a request since startup, ordered by model name
+     */
+    public List<ModelPerformance> getPerformance() {
+        return totals.entrySet().stream()
+            .map(entry -> entry.getValue().toPerformance(entry.getKey()))
+            .sorted(Comparator.comparing(ModelPerformance::getModel))
+            .toList();
+    }
+    
+    private static class ModelTotals {
+        
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder promptEvalNanos = new LongAdder();
+        private final LongAdder generatedTokens = new LongAdder();
+        private final LongAdder generationNanos = new LongAdder();
+        private final LongAdder loadNanos = new LongAdder();
+        private final LongAccumulator maxLoadNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder coldLoads = new LongAdder();
+        
+        void add(OllamaTimings timings) {
+            requests.increment();
+            promptTokens.add(timings.promptTokens());
+            promptEvalNanos.add(timings.promptEvalNanos());
+            generatedTokens.add(timings.generatedTokens());
+            generationNanos.add(timings.generationNanos());
+            loadNanos.add(timings.loadNanos());
+            maxLoadNanos.accumulate(timings.loadNanos());
+            if (timings.loadNanos() >= COLD_LOAD_THRESHOLD.toNanos()) {
+                coldLoads.increment();
+            }
+        }
+        
+        ModelPerformance toPerformance(String model) {
+            long requestCount = requests.sum();
+            long load = loadNanos.sum();
+            long promptEval = promptEvalNanos.sum();
+            long generation = generationNanos.sum();
+            long phases = load + promptEval + generation;
+            
+            ModelPerformance performance = new ModelPerformance(model);
+            performance.setRequests(requestCount);
+            performance.setPromptTokens(promptTokens.sum());
+            performance.setPromptTokensPerSecond(OllamaTimings.rate(promptTokens.sum(), promptEval));
+            performance.setGeneratedTokens(generatedTokens.sum());
+            performance.setGenerationTokensPerSecond(OllamaTimings.rate(generatedTokens.sum(), generation));
+            performance.setAverageLoadMs(requestCount > 0 ? OllamaTimings.millis(load) / requestCount : 0);
+            performance.setMaxLoadMs(OllamaTimings.millis(maxLoadNanos.get()));
+            performance.setColdLoads(coldLoads.sum());
+            if (phases > 0) {
+                performance.setLoadShare((double) load / phases);
+                performance.setPromptEvalShare((double) promptEval / phases);
+                performance.setGenerationShare((double) generation / phases);
+                performance.setBottleneck(load >= promptEval && load >= generation ? "model_load"
+                    : promptEval >= generation ? "prompt_eval" : "generation");
+            }
+            return performance;
+        }
+    }
+}
\ No newline at end of file
@@ -1,23 +1,39 @@
 package com.docmgr.llm.providers.ollama;
 
 import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.catalog.ModelCatalogService;
 import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.exception.ContextWindowExceededException;
 import com.docmgr.llm.exception.LLMException;
 import com.docmgr.llm.exception.ProviderNotAvailableException;
+import com.docmgr.llm.metrics.LLMMetrics;
 import com.docmgr.llm.model.*;
+import com.docmgr.llm.parsing.StructuredOutputParser;
+import com.docmgr.llm.prompt.AnalysisPromptBuilder;
+import com.docmgr.llm.schema.JsonSchemaCompiler;
+import com.docmgr.llm.state.LLMStateStore;
+import com.docmgr.llm.tokens.PromptBudgeter;
+import com.docmgr.llm.tokens.TokenBudget;
+import com.docmgr.llm.tracing.LLMTracing;
+import com.docmgr.llm.usage.CostTracker;
+import com.docmgr.llm.usage.UsageRecorder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.observation.Observation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
-import java.time.Duration;
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 /**
@@ -31,18 +47,46 @@ public class OllamaProvider implements LLMProvider {
     private static final String PROVIDER_NAME = "ollama";
     
     private final WebClient webClient;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final LLMStateStore stateStore;
     private final LLMProperties properties;
     private final ObjectMapper objectMapper;
     private final UsageStats usageStats;
+    private final ModelCatalogService modelCatalog;
+    private final StructuredOutputParser outputParser;
+    private final PromptBudgeter promptBudgeter;
+    private final UsageRecorder usageRecorder;
+    private final LLMMetrics metrics;
+    private final CostTracker costTracker;
+    private final LLMTracing tracing;
+    private final OllamaPerformanceTracker performanceTracker;
+    private final Map<String, OllamaShowResponse> modelDetailsByDigest = new ConcurrentHashMap<>();
+    private final AtomicBoolean probing = new AtomicBoolean();
+    private volatile Boolean lastProbe;
+    private volatile long lastProbeAt;
     
     public OllamaProvider(WebClient.Builder webClientBuilder,
-                         RedisTemplate<String, String> redisTemplate,
+                         LLMStateStore stateStore,
                          LLMProperties properties,
-                         ObjectMapper objectMapper) {
+                         ObjectMapper objectMapper,
+                         @Lazy ModelCatalogService modelCatalog,
+                         StructuredOutputParser outputParser,
+                         PromptBudgeter promptBudgeter,
+                         UsageRecorder usageRecorder,
+                         LLMMetrics metrics,
+                         CostTracker costTracker,
+                         LLMTracing tracing,
+                         OllamaPerformanceTracker performanceTracker) {
         this.properties = properties;
-        this.redisTemplate = redisTemplate;
+        this.stateStore = stateStore;
         this.objectMapper = objectMapper;
+        this.modelCatalog = modelCatalog;
+        this.outputParser = outputParser;
+        this.promptBudgeter = promptBudgeter;
+        this.usageRecorder = usageRecorder;
+        this.metrics = metrics;
+        this.costTracker = costTracker;
+        this.tracing = tracing;
+        this.performanceTracker = performanceTracker;
         this.usageStats = new UsageStats();
         
         LLMProperties.Ollama ollamaConfig = properties.getOllama();
@@ -66,6 +110,10 @@ public class OllamaProvider implements LLMProvider {
         return ProviderType.OLLAMA_LOCAL;
     }
     
+    /**
+     * Availability from the last connectivity probe. Only the very first check waits for a probe;
+     * afterwards a stale result is returned while a new probe runs, so request threads are never blocked.
+     */
     @Override
     public boolean isAvailable() {
         try {
@@ -74,26 +122,54 @@ public class OllamaProvider implements LLMProvider {
                 return false;
             }
             
-            // Test connectivity to Ollama
-            return testConnectivity().join();
+            Boolean available = lastProbe;
+            if (available == null) {
+                return probe().join();
+            }
+            if (System.currentTimeMillis() - lastProbeAt > config.getAvailabilityCacheSeconds() * 1000) {
+                probe();
+            }
+            return available;
         } catch (Exception e) {
             logger.warn("Error checking Ollama availability", e);
             return false;
         }
     }
     
+    /**
+     * Test connectivity to Ollama and remember the result; concurrent callers share one probe
+     */
+    private CompletableFuture<Boolean> probe() {
+        if (!probing.compareAndSet(false, true)) {
+            Boolean available = lastProbe;
+            return available != null ? CompletableFuture.completedFuture(available) : testConnectivity();
+        }
+        return testConnectivity().whenComplete((available, error) -> {
+            lastProbe = available != null && available;
+            lastProbeAt = System.currentTimeMillis();
+            probing.set(false);
+        });
+    }
+    
     @Override
     public CompletableFuture<LLMResponse> complete(String prompt, CompletionOptions options) {
+        LLMProperties.Ollama config = properties.getOllama();
+        String model = options.getModel() != null ? options.getModel() : config.getDefaultModel();
+        Observation span = tracing.start("llm.provider.request",
+            "provider", PROVIDER_NAME, "model", model, "operation", "complete");
+        return tracing.observe(span, () -> sendCompletion(prompt, options, model, span));
+    }
+    
+    private CompletableFuture<LLMResponse> sendCompletion(String prompt, CompletionOptions options, String model,
+                                                          Observation span) {
         if (!isAvailable()) {
             return CompletableFuture.failedFuture(
                 new ProviderNotAvailableException(PROVIDER_NAME, "Ollama service not available"));
         }
         
-        LLMProperties.Ollama config = properties.getOllama();
-        String model = options.getModel() != null ? options.getModel() : config.getDefaultModel();
-        
         try {
-            OllamaRequest request = buildOllamaRequest(prompt, options, model);
+            TokenBudget budget = promptBudgeter.plan(PROVIDER_NAME, model, prompt, options.getMaxTokens());
+            OllamaRequest request = buildOllamaRequest(prompt, options, model, budget);
             
             long startTime = System.currentTimeMillis();
             
@@ -109,15 +185,22 @@ public class OllamaProvider implements LLMProvider {
                 .bodyToMono(OllamaResponse.class)
                 .map(response -> {
                     long duration = System.currentTimeMillis() - startTime;
-                    return mapToLLMResponse(response, duration, model);
+                    recordTimings(response, model);
+                    return mapToLLMResponse(response, duration, model, budget);
+                })
+                .doOnSuccess(response -> {
+                    recordUsage(response, "complete");
+                    tracing.recordResponse(span, response);
                 })
-                .doOnSuccess(response -> recordUsage(response))
                 .doOnError(error -> {
                     logger.error("Ollama completion failed", error);
-                    recordFailure();
+                    recordFailure(model, "complete", startTime);
                 })
                 .toFuture();
                 
+        } catch (ContextWindowExceededException e) {
+            logger.warn("Rejected Ollama request before sending: {}", e.getMessage());
+            return CompletableFuture.failedFuture(e);
         } catch (Exception e) {
             logger.error("Failed to create Ollama request", e);
             return CompletableFuture.failedFuture(
@@ -125,30 +208,109 @@ public class OllamaProvider implements LLMProvider {
         }
     }
     
+    @Override
+    public Flux<LLMResponse> streamComplete(String prompt, CompletionOptions options) {
+        LLMProperties.Ollama config = properties.getOllama();
+        String model = options.getModel() != null ? options.getModel() : config.getDefaultModel();
+        Observation span = tracing.start("llm.provider.request",
+            "provider", PROVIDER_NAME, "model", model, "operation", "stream");
+        return tracing.observe(span, Flux.defer(() -> sendStream(prompt, options, model, span)));
+    }
+    
+    private Flux<LLMResponse> sendStream(String prompt, CompletionOptions options, String model, Observation span) {
+        if (!isAvailable()) {
+            return Flux.error(new ProviderNotAvailableException(PROVIDER_NAME, "Ollama service not available"));
+        }
+        
+        TokenBudget budget;
+        try {
+            budget = promptBudgeter.plan(PROVIDER_NAME, model, prompt, options.getMaxTokens());
+        } catch (ContextWindowExceededException e) {
+            logger.warn("Rejected Ollama request before sending: {}", e.getMessage());
+            return Flux.error(e);
+        }
+        
+        OllamaRequest request = buildOllamaRequest(prompt, options, model, budget);
+        request.setStream(true);
+        
+        long startTime = System.currentTimeMillis();
+        AtomicBoolean firstToken = new AtomicBoolean();
+        
+        return webClient.post()
+            .uri("/api/generate")
+            .bodyValue(request)
+            .retrieve()
+            .onStatus(status -> status.isError(), response -> {
+                logger.error("Ollama API error: {}", response.statusCode());
+                return response.bodyToMono(String.class)
+                    .map(body -> new LLMException("Ollama API error: " + body, PROVIDER_NAME, "API_ERROR"));
+            })
+            .bodyToFlux(OllamaResponse.class)
+            .map(chunk -> {
+                if (Boolean.TRUE.equals(chunk.getDone())) {
+                    // The final chunk carries the counters for the whole generation
+                    recordTimings(chunk, model);
+                    LLMResponse last = mapToLLMResponse(chunk, System.currentTimeMillis() - startTime, model, budget);
+                    recordUsage(last, "stream");
+                    tracing.recordResponse(span, last);
+                    return last;
+                }
+                if (chunk.getResponse() != null && !chunk.getResponse().isEmpty() && firstToken.compareAndSet(false, true)) {
+                    metrics.recordTimeToFirstToken(PROVIDER_NAME, model, System.currentTimeMillis() - startTime);
+                    span.event(Observation.Event.of("llm.first_token"));
+                }
+                return new LLMResponse(chunk.getResponse() != null ? chunk.getResponse() : "", 0, PROVIDER_NAME);
+            })
+            .doOnError(error -> {
+                logger.error("Ollama streaming completion failed", error);
+                recordFailure(model, "stream", startTime);
+            });
+    }
+    
     @Override
     public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema) {
+        return analyze(text, schema, null);
+    }
+    
+    @Override
+    public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema, String model) {
         String prompt = buildAnalysisPrompt(text, schema);
-        CompletionOptions options = CompletionOptions.builder()
-            .maxTokens(1500)
-            .temperature(0.2) // Lower temperature for structured output
-            .build();
             
-        return complete(prompt, options)
+        return complete(prompt, analysisOptions(schema, model))
             .thenApply(llmResponse -> {
                 StructuredResponse structured = new StructuredResponse();
-                structured.setRawText(llmResponse.getText());
                 structured.setProviderId(llmResponse.getProviderId());
                 structured.setTimestamp(llmResponse.getTimestamp());
                 structured.setTokensUsed(llmResponse.getTokensUsed());
-                
-                // TODO: Parse JSON response into structured data
-                // For now, just return the raw text
-                structured.addExtractedData("raw_response", llmResponse.getText(), 1.0);
+                outputParser.populate(structured, llmResponse.getText(), schema);
                 
                 return structured;
             });
     }
     
+    @Override
+    public Flux<AnalysisFieldEvent> analyzeStream(String text, AnalysisSchema schema) {
+        String prompt = buildAnalysisPrompt(text, schema);
+        return outputParser.streamFields(streamComplete(prompt, analysisOptions(schema, null)), schema, PROVIDER_NAME);
+    }
+    
+    private String buildAnalysisPrompt(String text, AnalysisSchema schema) {
+        return AnalysisPromptBuilder.build(text, schema, useNativeSchema(schema));
+    }
+    
+    private boolean useNativeSchema(AnalysisSchema schema) {
+        return properties.isNativeStructuredOutput() && !schema.getFields().isEmpty();
+    }
+    
+    private CompletionOptions analysisOptions(AnalysisSchema schema, String model) {
+        return CompletionOptions.builder()
+            .model(model)
+            .responseSchema(useNativeSchema(schema) ? JsonSchemaCompiler.compile(schema) : null)
+            .maxTokens(1500)
+            .temperature(0.2) // Lower temperature for structured output
+            .build();
+    }
+    
     @Override
     public UsageStats getUsageStats() {
         return usageStats;
@@ -170,8 +332,7 @@ public class OllamaProvider implements LLMProvider {
                 health.setResponseTimeMs(responseTime);
                 
                 // Check for recent failures
-                String failureKey = "health:" + PROVIDER_NAME + ":failures";
-                String failures = redisTemplate.opsForValue().get(failureKey);
+                String failures = stateStore.get(UsageRecorder.failureKey(PROVIDER_NAME));
                 int recentFailures = failures != null ? Integer.parseInt(failures) : 0;
                 
                 if (recentFailures > 3) {
@@ -206,6 +367,19 @@ public class OllamaProvider implements LLMProvider {
             .toFuture();
     }
     
+    @Override
+    public CompletableFuture<List<ModelInfo>> fetchModelDetails() {
+        return webClient.get()
+            .uri("/api/tags")
+            .retrieve()
+            .bodyToMono(OllamaModelsResponse.class)
+            .flatMapMany(response -> Flux.fromIterable(
+                response.getModels() != null ? response.getModels() : List.<OllamaModel>of()))
+            .concatMap(this::toModelInfo)
+            .collectList()
+            .toFuture();
+    }
+    
     public CompletableFuture<Void> pullModel(String modelName) {
         OllamaPullRequest pullRequest = new OllamaPullRequest();
         pullRequest.setName(modelName);
@@ -220,8 +394,7 @@ public class OllamaProvider implements LLMProvider {
     }
     
     public CompletableFuture<Boolean> isModelAvailable(String modelName) {
-        return getSupportedModels()
-            .thenApply(models -> models.contains(modelName));
+        return modelCatalog.isModelAvailable(PROVIDER_NAME, modelName);
     }
     
     public CompletableFuture<Void> ensureModelAvailable(String modelName) {
@@ -229,12 +402,52 @@ public class OllamaProvider implements LLMProvider {
             .thenCompose(available -> {
                 if (!available && properties.getOllama().isAutoModelPull()) {
                     logger.info("Model {} not available, attempting to pull", modelName);
-                    return pullModel(modelName);
+                    return pullModel(modelName)
+                        .thenCompose(pulled -> modelCatalog.refresh(PROVIDER_NAME))
+                        .thenApply(models -> (Void) null);
                 }
                 return CompletableFuture.completedFuture(null);
             });
     }
     
+    private Mono<ModelInfo> toModelInfo(OllamaModel model) {
+        ModelInfo info = new ModelInfo(model.getName(), PROVIDER_NAME);
+        info.setSizeBytes(model.getSize());
+        info.setDigest(model.getDigest());
+        if (model.getDetails() != null) {
+            info.setFamily(model.getDetails().getFamily());
+            info.setParameterSize(model.getDetails().getParameterSize());
+            info.setQuantizationLevel(model.getDetails().getQuantizationLevel());
+        }
+        
+        // Context length is only reported by /api/show; a digest never changes its details, so cache by digest
+        OllamaShowResponse cached = model.getDigest() != null ? modelDetailsByDigest.get(model.getDigest()) : null;
+        if (model.getDigest() != null) {
+            metrics.recordCacheLookup("ollama_model_details", cached != null);
+        }
+        Mono<OllamaShowResponse> details = cached != null ? Mono.just(cached) : webClient.post()
+            .uri("/api/show")
+            .bodyValue(new OllamaShowRequest(model.getName()))
+            .retrieve()
+            .bodyToMono(OllamaShowResponse.class)
+            .doOnNext(show -> {
+                if (model.getDigest() != null) {
+                    modelDetailsByDigest.put(model.getDigest(), show);
+                }
+            });
+        
+        return details
+            .map(show -> {
+                info.setContextLength(show.getContextLength());
+                return info;
+            })
+            .onErrorResume(error -> {
+                logger.debug("Could not load details for Ollama model {}: {}", model.getName(), error.getMessage());
+                return Mono.just(info);
+            })
+            .defaultIfEmpty(info);
+    }
+    
     private CompletableFuture<Boolean> testConnectivity() {
         return webClient.get()
             .uri("/api/tags")
@@ -245,7 +458,7 @@ public class OllamaProvider implements LLMProvider {
             .toFuture();
     }
     
-    private OllamaRequest buildOllamaRequest(String prompt, CompletionOptions options, String model) {
+    private OllamaRequest buildOllamaRequest(String prompt, CompletionOptions options, String model, TokenBudget budget) {
         OllamaRequest request = new OllamaRequest();
         request.setModel(model);
         request.setPrompt(prompt);
@@ -254,92 +467,72 @@ public class OllamaProvider implements LLMProvider {
         OllamaRequest.Options ollamaOptions = new OllamaRequest.Options();
         ollamaOptions.setTemperature(options.getTemperature());
         ollamaOptions.setNumPredict(options.getMaxTokens());
+        // Without num_ctx Ollama uses its small default window and silently truncates long prompts;
+        // sizing it to the prompt avoids reserving KV memory that short requests never use
+        ollamaOptions.setNumCtx(budget.getNumCtx());
         request.setOptions(ollamaOptions);
         
+        if (options.getResponseSchema() != null) {
+            // Grammar-constrained decoding: the model can only emit JSON matching the schema
+            request.setFormat(options.getResponseSchema());
+        }
+        
         return request;
     }
     
-    private LLMResponse mapToLLMResponse(OllamaResponse ollamaResponse, long durationMs, String model) {
+    // Package-private for the response mapping benchmark in src/jmh
+    LLMResponse mapToLLMResponse(OllamaResponse ollamaResponse, long durationMs, String model, TokenBudget budget) {
         String text = ollamaResponse.getResponse() != null ? ollamaResponse.getResponse() : "";
         
-        // Estimate token count (Ollama doesn't always provide exact counts)
-        int tokensUsed = ollamaResponse.getEvalCount() != null ? 
-            ollamaResponse.getEvalCount() : estimateTokenCount(text);
+        // Ollama omits prompt_eval_count when the prompt was served from its cache; fall back to our own counts
+        int promptTokens = ollamaResponse.getPromptEvalCount() != null ?
+            ollamaResponse.getPromptEvalCount() : budget.getPromptTokens();
+        int completionTokens = ollamaResponse.getEvalCount() != null ?
+            ollamaResponse.getEvalCount() : promptBudgeter.getTokenCounter().count(text, model);
         
-        LLMResponse response = new LLMResponse(text, tokensUsed, PROVIDER_NAME);
+        LLMResponse response = new LLMResponse(text, promptTokens + completionTokens, PROVIDER_NAME);
         response.addMetadata("response_time_ms", durationMs);
         response.addMetadata("model", model);
-        response.addMetadata("eval_duration", ollamaResponse.getEvalDuration());
-        response.addMetadata("total_duration", ollamaResponse.getTotalDuration());
+        response.addMetadata("prompt_tokens", promptTokens);
+        response.addMetadata("completion_tokens", completionTokens);
+        response.addMetadata("prompt_tokens_estimated", budget.getPromptTokens());
+        response.addMetadata("num_ctx", budget.getNumCtx());
+        OllamaTimings timings = OllamaTimings.from(ollamaResponse);
+        if (timings != null) {
+            response.addMetadata("load_duration_ms", OllamaTimings.millis(timings.loadNanos()));
+            response.addMetadata("prompt_eval_duration_ms", OllamaTimings.millis(timings.promptEvalNanos()));
+            response.addMetadata("eval_duration_ms", OllamaTimings.millis(timings.generationNanos()));
+            response.addMetadata("total_duration_ms", OllamaTimings.millis(timings.totalNanos()));
+            response.addMetadata("prompt_tokens_per_second", timings.promptTokensPerSecond());
+            response.addMetadata("eval_tokens_per_second", timings.generationTokensPerSecond());
+        }
         
         return response;
     }
     
-    private int estimateTokenCount(String text) {
-        // Rough estimation: 1 token ≈ 4 characters for English text
-        return text.length() / 4;
+    private void recordTimings(OllamaResponse response, String model) {
+        OllamaTimings timings = OllamaTimings.from(response);
+        if (timings != null) {
+            performanceTracker.record(model, timings);
+        }
     }
     
-    private void recordUsage(LLMResponse response) {
-        usageStats.incrementRequests();
-        usageStats.addTokens(response.getTokensUsed());
-        
-        String today = LocalDateTime.now().toLocalDate().toString();
-        usageStats.addDailyUsage(today, response.getTokensUsed());
-        
+    private void recordUsage(LLMResponse response, String operation) {
         String model = (String) response.getMetadata().get("model");
-        if (model != null) {
-            usageStats.addModelUsage(model, response.getTokensUsed());
-        }
+        long promptTokens = ((Number) response.getMetadata().get("prompt_tokens")).longValue();
+        long completionTokens = ((Number) response.getMetadata().get("completion_tokens")).longValue();
+        long costMicros = costTracker.record(PROVIDER_NAME, model, promptTokens, completionTokens);
+        usageStats.recordRequest(model, response.getTokensUsed(), CostTracker.toCurrency(costMicros));
+        // Persisted to the state store by the next flush, off the response path
+        usageRecorder.recordRequest(PROVIDER_NAME, model, operation, response.getTokensUsed(), costMicros);
         
-        // Store in Redis for persistence
-        try {
-            String usageKey = "usage:" + PROVIDER_NAME;
-            redisTemplate.opsForHash().increment(usageKey, "total_requests", 1);
-            redisTemplate.opsForHash().increment(usageKey, "total_tokens", response.getTokensUsed());
-            redisTemplate.opsForHash().increment(usageKey, "daily:" + today, response.getTokensUsed());
-            if (model != null) {
-                redisTemplate.opsForHash().increment(usageKey, "model:" + model, response.getTokensUsed());
-            }
-            redisTemplate.expire(usageKey, Duration.ofDays(30));
-        } catch (Exception e) {
-            logger.warn("Failed to record usage stats in Redis", e);
-        }
-    }
-    
-    private void recordFailure() {
-        try {
-            String failureKey = "health:" + PROVIDER_NAME + ":failures";
-            redisTemplate.opsForValue().increment(failureKey);
-            redisTemplate.expire(failureKey, Duration.ofMinutes(10)); // Failures expire after 10 minutes
-        } catch (Exception e) {
-            logger.warn("Failed to record failure in Redis", e);
-        }
+        long durationMs = ((Number) response.getMetadata().get("response_time_ms")).longValue();
+        metrics.recordRequest(PROVIDER_NAME, model, operation, "success", durationMs);
+        metrics.recordTokens(PROVIDER_NAME, model, completionTokens, durationMs);
     }
     
-    private String buildAnalysisPrompt(String text, AnalysisSchema schema) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("Analyze the following text and extract structured information in JSON format.\n\n");
-        prompt.append("Text to analyze:\n").append(text).append("\n\n");
-        prompt.append("Extract the following fields:\n");
-        
-        schema.getFields().forEach((fieldName, fieldDef) -> {
-            prompt.append("- ").append(fieldName).append(" (").append(fieldDef.getType()).append(")");
-            if (fieldDef.isRequired()) {
-                prompt.append(" [REQUIRED]");
-            }
-            if (fieldDef.getDescription() != null) {
-                prompt.append(": ").append(fieldDef.getDescription());
-            }
-            prompt.append("\n");
-        });
-        
-        if (schema.getInstructions() != null) {
-            prompt.append("\nAdditional instructions: ").append(schema.getInstructions());
-        }
-        
-        prompt.append("\nRespond ONLY with valid JSON containing the extracted fields. Do not include any explanatory text.");
-        
-        return prompt.toString();
+    private void recordFailure(String model, String operation, long startTime) {
+        usageRecorder.recordFailure(PROVIDER_NAME);
+        metrics.recordRequest(PROVIDER_NAME, model, operation, "error", System.currentTimeMillis() - startTime);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.docmgr.llm.providers.ollama;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -28,6 +29,10 @@ public class OllamaRequest {
     @JsonProperty("context")
     private int[] context;
     
+    @JsonProperty("format")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object format;
+    
     public String getModel() {
         return model;
     }
@@ -84,6 +89,17 @@ public class OllamaRequest {
         this.context = context;
     }
     
+    /**
+     * Output format: "json" or a JSON Schema object for grammar-constrained decoding
+     */
+    public Object getFormat() {
+        return format;
+    }
+    
+    public void setFormat(Object format) {
+        this.format = format;
+    }
+    
     public static class Options {
         @JsonProperty("temperature")
         private Double temperature;
@@ -97,6 +113,10 @@ public class OllamaRequest {
         @JsonProperty("num_predict")
         private Integer numPredict;
         
+        @JsonProperty("num_ctx")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer numCtx;
+        
         @JsonProperty("stop")
         private String[] stop;
         
@@ -138,6 +158,14 @@ public class OllamaRequest {
             this.numPredict = numPredict;
         }
         
+        public Integer getNumCtx() {
+            return numCtx;
+        }
+        
+        public void setNumCtx(Integer numCtx) {
+            this.numCtx = numCtx;
+        }
+        
         public String[] getStop() {
             return stop;
         }
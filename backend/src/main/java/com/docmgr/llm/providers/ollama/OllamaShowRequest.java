@@ -0,0 +1,26 @@
+package com.docmgr.llm.providers.ollama;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Request model for Ollama model details API
+ */
+public class OllamaShowRequest {
+    
+    @JsonProperty("model")
+    private String model;
+    
+    public OllamaShowRequest() {}
+    
+    public OllamaShowRequest(String model) {
+        this.model = model;
+    }
+    
+    public String getModel() {
+        return model;
+    }
+    
+    public void setModel(String model) {
+        this.model = model;
+    }
+}
@@ -0,0 +1,61 @@
+package com.docmgr.llm.providers.ollama;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Response model for Ollama model details API
+ */
+public class OllamaShowResponse {
+    
+    @JsonProperty("parameters")
+    private String parameters;
+    
+    @JsonProperty("details")
+    private OllamaModel.Details details;
+    
+    @JsonProperty("model_info")
+    private Map<String, Object> modelInfo;
+    
+    public String getParameters() {
+        return parameters;
+    }
+    
+    public void setParameters(String parameters) {
+        this.parameters = parameters;
+    }
+    
+    public OllamaModel.Details getDetails() {
+        return details;
+    }
+    
+    public void setDetails(OllamaModel.Details details) {
+        this.details = details;
+    }
+    
+    public Map<String, Object> getModelInfo() {
+        return modelInfo;
+    }
+    
+    public void setModelInfo(Map<String, Object> modelInfo) {
+        this.modelInfo = modelInfo;
+    }
+    
+    /**
+     * Get the model's trained context length from the architecture specific metadata key
+     * (e.g. "llama.context_length")
+     * @return context length in tokens, or null if not reported
+     */
+    public Integer getContextLength() {
+        if (modelInfo == null) {
+            return null;
+        }
+        for (Map.Entry<String, Object> entry : modelInfo.entrySet()) {
+            if (entry.getKey().endsWith(".context_length") && entry.getValue() instanceof Number) {
+                return ((Number) entry.getValue()).intValue();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,59 @@
+package com.docmgr.llm.providers.ollama;
+
+/**
+ * Phase timings Ollama reports with a finished generation.
+ * Ollama measures in nanoseconds: loading the model, evaluating the prompt and generating the completion.
+ * Prompt evaluation is reported as zero tokens when the prompt was served from Ollama's cache.
+ * @param promptTokens prompt tokens evaluated
+ * @param promptEvalNanos time spent evaluating the prompt
+ * @param generatedTokens tokens generated
+ * @param generationNanos time spent generating
+ * @param loadNanos time spent loading the model, close to zero when it was already in memory
+ * @param totalNanos time for the whole request within Ollama
+ */
+public record OllamaTimings(long promptTokens, long promptEvalNanos, long generatedTokens, long generationNanos,
+                            long loadNanos, long totalNanos) {
+    
+    /**
+     * Read the timings of a final response
+     * @return the timings, null if the response carries none (e.g. an intermediate stream chunk)
+     */
+    public static OllamaTimings from(OllamaResponse response) {
+        if (response.getTotalDuration() == null) {
+            return null;
+        }
+        return new OllamaTimings(
+            value(response.getPromptEvalCount()),
+            value(response.getPromptEvalDuration()),
+            value(response.getEvalCount()),
+            value(response.getEvalDuration()),
+            value(response.getLoadDuration()),
+            response.getTotalDuration());
+    }
+    
+    /**
+     * @return prompt tokens evaluated per second, 0 if no prompt was evaluated
+     */
+    public double promptTokensPerSecond() {
+        return rate(promptTokens, promptEvalNanos);
+    }
+    
+    /**
+     * @return tokens generated per second, 0 if nothing was generated
+     */
+    public double generationTokensPerSecond() {
+        return rate(generatedTokens, generationNanos);
+    }
+    
+    static double rate(long tokens, long nanos) {
+        return tokens > 0 && nanos > 0 ? tokens * 1_000_000_000.0 / nanos : 0;
+    }
+    
+    static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+    
+    private static long value(Number number) {
+        return number != null ? number.longValue() : 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package com.docmgr.llm.providers.replay;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One recorded provider call, stored as a line of a recording file
+ * @param key request key, see {@link com.docmgr.llm.service.RequestKeys}
+ * @param operation "complete" or "analyze"
+ * @param provider provider that served the call
+ * @param model model that served the call, if reported
+ * @param latencyMs time until the call completed
+ * @param recordedAt when the call completed
+ * @param text completion text, for analyses the raw model output
+ * @param tokensUsed tokens reported by the provider
+ * @param metadata response metadata reported by the provider
+ * @param error message of the failure, null for successful calls
+ * @param errorType simple class name of the failure's {@link com.docmgr.llm.exception.LLMException}, if it was one
+ * @param errorCode error code of that exception
+ * @param errorDetails fields needed to rebuild that exception, e.g. the retry-after of a rate limit
+ * @param prompt the prompt, only when prompts are recorded
+ * @param options request options that are part of the key
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record ReplayEntry(String key, String operation, String provider, String model, long latencyMs,
+                          Instant recordedAt, String text, int tokensUsed, Map<String, Object> metadata,
+                          String error, String errorType, String errorCode, Map<String, Object> errorDetails,
+                          String prompt, Map<String, Object> options) {
+    
+    @JsonIgnore
+    public boolean isFailure() {
+        return error != null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,305 @@
+package com.docmgr.llm.providers.replay;
+
+import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.exception.ContextWindowExceededException;
+import com.docmgr.llm.exception.LLMException;
+import com.docmgr.llm.exception.ProviderNotAvailableException;
+import com.docmgr.llm.exception.RateLimitExceededException;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.model.*;
+import com.docmgr.llm.parsing.StructuredOutputParser;
+import com.docmgr.llm.service.RequestKeys;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Provider that records another provider's traffic and replays it offline.
+ * In record mode every call is passed to the source provider and appended to the recording with its response
+ * and latency, failures included with the details needed to throw the same exception again. In replay mode calls are answered from the recording by request key, after
+ * the recorded latency or immediately, so the pipeline runs without a model and without model variance.
+ * Analyses replay the raw model output through the same parser the live providers use.
+ */
+@Component("replayProvider")
+@ConditionalOnProperty(name = "app.llm.replay.enabled", havingValue = "true")
+public class ReplayProvider implements LLMProvider {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayProvider.class);
+    private static final String PROVIDER_NAME = "replay";
+    
+    private final LLMProperties.Replay config;
+    private final ObjectProvider<LLMProvider> providers;
+    private final StructuredOutputParser outputParser;
+    private final LLMMetrics metrics;
+    private final ReplayRecording recording;
+    private final UsageStats usageStats = new UsageStats();
+    
+    public ReplayProvider(LLMProperties properties,
+                          ObjectProvider<LLMProvider> providers,
+                          StructuredOutputParser outputParser,
+                          LLMMetrics metrics,
+                          ObjectMapper objectMapper) {
+        this.config = properties.getReplay();
+        this.providers = providers;
+        this.outputParser = outputParser;
+        this.metrics = metrics;
+        if (PROVIDER_NAME.equals(config.getSource())) {
+            throw new IllegalStateException("app.llm.replay.source must name another provider");
+        }
+        this.recording = new ReplayRecording(objectMapper, Path.of(config.getDirectory()), config.getSource());
+        
+        if (isRecording()) {
+            logger.info("Recording {} traffic to {}", config.getSource(), config.getDirectory());
+        } else {
+            try {
+                logger.info("Loaded {} recorded {} calls from {}", recording.load(), config.getSource(), config.getDirectory());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load recordings from " + config.getDirectory(), e);
+            }
+        }
+    }
+    
+    @Override
+    public String getName() {
+        return PROVIDER_NAME;
+    }
+    
+    @Override
+    public ProviderType getType() {
+        return ProviderType.REPLAY;
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        if (isRecording()) {
+            LLMProvider source = findSource();
+            return source != null && source.isAvailable();
+        }
+        return !recording.isEmpty();
+    }
+    
+    @Override
+    public CompletableFuture<LLMResponse> complete(String prompt, CompletionOptions options) {
+        String key = RequestKeys.completionKey(config.getSource(), prompt, options);
+        if (isRecording()) {
+            Map<String, Object> recordedOptions = new LinkedHashMap<>();
+            recordedOptions.put("model", options.getModel());
+            recordedOptions.put("max_tokens", options.getMaxTokens());
+            recordedOptions.put("temperature", options.getTemperature());
+            return record(key, "complete", prompt, recordedOptions, source -> source.complete(prompt, options),
+                response -> response);
+        }
+        return replay(key, "complete", entry -> {
+            LLMResponse response = new LLMResponse(entry.text(), entry.tokensUsed(), PROVIDER_NAME);
+            response.setMetadata(replayedMetadata(entry));
+            return response;
+        });
+    }
+    
+    @Override
+    public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema) {
+        String key = RequestKeys.analysisKey(config.getSource(), text, schema);
+        if (isRecording()) {
+            Map<String, Object> recordedOptions = new LinkedHashMap<>();
+            recordedOptions.put("schema_type", schema.getSchemaType());
+            recordedOptions.put("fields", schema.getFields().size());
+            return record(key, "analyze", text, recordedOptions, source -> source.analyze(text, schema),
+                structured -> {
+                    LLMResponse response = new LLMResponse(structured.getRawText(), structured.getTokensUsed(),
+                        structured.getProviderId());
+                    response.setMetadata(structured.getMetadata());
+                    return response;
+                });
+        }
+        return replay(key, "analyze", entry -> {
+            StructuredResponse structured = new StructuredResponse();
+            structured.setProviderId(PROVIDER_NAME);
+            structured.setTokensUsed(entry.tokensUsed());
+            structured.setMetadata(replayedMetadata(entry));
+            outputParser.populate(structured, entry.text(), schema);
+            return structured;
+        });
+    }
+    
+    @Override
+    public UsageStats getUsageStats() {
+        return usageStats;
+    }
+    
+    @Override
+    public ProviderHealth getHealth() {
+        if (isRecording()) {
+            LLMProvider source = findSource();
+            return source != null
+                ? new ProviderHealth(source.getHealth().getStatus(), "Recording " + config.getSource() + " traffic")
+                : ProviderHealth.unhealthy("Source provider not available: " + config.getSource());
+        }
+        Map<String, Object> stats = recording.getStats();
+        return recording.isEmpty()
+            ? ProviderHealth.unhealthy("No recordings of " + config.getSource() + " in " + config.getDirectory())
+            : ProviderHealth.healthy("Replaying " + stats.get("entries") + " recorded calls, "
+                + stats.get("hits") + " hits, " + stats.get("misses") + " misses");
+    }
+    
+    @Override
+    public CompletableFuture<List<String>> getSupportedModels() {
+        if (isRecording()) {
+            LLMProvider source = findSource();
+            return source != null ? source.getSupportedModels() : CompletableFuture.completedFuture(List.of());
+        }
+        return CompletableFuture.completedFuture(recording.models());
+    }
+    
+    private boolean isRecording() {
+        return "record".equalsIgnoreCase(config.getMode());
+    }
+    
+    private <T> CompletableFuture<T> record(String key, String operation, String prompt, Map<String, Object> options,
+                                            Function<LLMProvider, CompletableFuture<T>> call,
+                                            Function<T, LLMResponse> asResponse) {
+        LLMProvider source = findSource();
+        if (source == null) {
+            return CompletableFuture.failedFuture(
+                new ProviderNotAvailableException(config.getSource(), "Source provider not available: " + config.getSource()));
+        }
+        String recordedPrompt = config.isIncludePrompts() ? prompt : null;
+        long startTime = System.currentTimeMillis();
+        return call.apply(source).whenComplete((result, throwable) -> {
+            long latencyMs = System.currentTimeMillis() - startTime;
+            ReplayEntry entry;
+            if (throwable != null) {
+                LLMException failure = llmException(throwable);
+                String message = failure != null && failure.getMessage() != null ? failure.getMessage() : rootMessage(throwable);
+                entry = new ReplayEntry(key, operation, source.getName(), null, latencyMs, Instant.now(),
+                    null, 0, null, message, failure != null ? failure.getClass().getSimpleName() : null,
+                    failure != null ? failure.getErrorCode() : null, errorDetails(failure), recordedPrompt, options);
+            } else {
+                LLMResponse response = asResponse.apply(result);
+                Object model = response.getMetadata() != null ? response.getMetadata().get("model") : null;
+                entry = new ReplayEntry(key, operation, response.getProviderId(), model != null ? model.toString() : null,
+                    latencyMs, Instant.now(), response.getText(), response.getTokensUsed(), response.getMetadata(),
+                    null, null, null, null, recordedPrompt, options);
+            }
+            recording.append(entry);
+        });
+    }
+    
+    private <T> CompletableFuture<T> replay(String key, String operation, Function<ReplayEntry, T> toResponse) {
+        ReplayEntry entry = recording.next(key);
+        if (entry == null) {
+            metrics.recordRequest(PROVIDER_NAME, null, operation, "error", 0);
+            return CompletableFuture.failedFuture(
+                new LLMException("No recorded " + operation + " call for request " + key, PROVIDER_NAME, "REPLAY_MISS"));
+        }
+        
+        CompletableFuture<ReplayEntry> delayed = "fast".equalsIgnoreCase(config.getTiming()) || config.getSpeed() <= 0
+            ? CompletableFuture.completedFuture(entry)
+            : CompletableFuture.supplyAsync(() -> entry, CompletableFuture.delayedExecutor(
+                Math.round(entry.latencyMs() / config.getSpeed()), TimeUnit.MILLISECONDS));
+        long startTime = System.currentTimeMillis();
+        return delayed.thenApply(recorded -> {
+            long durationMs = System.currentTimeMillis() - startTime;
+            if (recorded.isFailure()) {
+                metrics.recordRequest(PROVIDER_NAME, recorded.model(), operation, "error", durationMs);
+                throw replayedFailure(recorded);
+            }
+            metrics.recordRequest(PROVIDER_NAME, recorded.model(), operation, "success", durationMs);
+            usageStats.recordRequest(recorded.model(), recorded.tokensUsed());
+            return toResponse.apply(recorded);
+        });
+    }
+    
+    private Map<String, Object> replayedMetadata(ReplayEntry entry) {
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        if (entry.metadata() != null) {
+            metadata.putAll(entry.metadata());
+        }
+        metadata.put("replayed_from", entry.provider());
+        metadata.put("recorded_latency_ms", entry.latencyMs());
+        metadata.put("recorded_at", entry.recordedAt());
+        return metadata;
+    }
+    
+    /**
+     * Rebuild the recorded exception, so that retries, fallbacks and dead-lettering react as they did live.
+     * Failures recorded without a type are replayed as a generic LLMException.
+     */
+    private LLMException replayedFailure(ReplayEntry entry) {
+        Map<String, Object> details = entry.errorDetails() != null ? entry.errorDetails() : Map.of();
+        String type = entry.errorType() != null ? entry.errorType() : "";
+        return switch (type) {
+            case "RateLimitExceededException" -> new RateLimitExceededException(entry.provider(),
+                intDetail(details, "requests_per_minute", -1), longDetail(details, "retry_after_seconds", 60));
+            case "ContextWindowExceededException" -> new ContextWindowExceededException(entry.provider(),
+                (String) details.get("model"), intDetail(details, "prompt_tokens", 0),
+                intDetail(details, "max_output_tokens", 0), intDetail(details, "context_length", 0));
+            case "ProviderNotAvailableException" -> new ProviderNotAvailableException(entry.provider(), entry.error());
+            default -> new LLMException(entry.error(), entry.provider(),
+                entry.errorCode() != null ? entry.errorCode() : "REPLAYED_ERROR");
+        };
+    }
+    
+    private static Map<String, Object> errorDetails(LLMException failure) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        if (failure instanceof RateLimitExceededException rateLimit) {
+            details.put("requests_per_minute", rateLimit.getRequestsPerMinute());
+            details.put("retry_after_seconds", rateLimit.getRetryAfterSeconds());
+        } else if (failure instanceof ContextWindowExceededException contextWindow) {
+            details.put("model", contextWindow.getModel());
+            details.put("prompt_tokens", contextWindow.getPromptTokens());
+            details.put("max_output_tokens", contextWindow.getMaxOutputTokens());
+            details.put("context_length", contextWindow.getContextLength());
+        }
+        return details;
+    }
+    
+    private static int intDetail(Map<String, Object> details, String name, int defaultValue) {
+        return details.get(name) instanceof Number number ? number.intValue() : defaultValue;
+    }
+    
+    private static long longDetail(Map<String, Object> details, String name, long defaultValue) {
+        return details.get(name) instanceof Number number ? number.longValue() : defaultValue;
+    }
+    
+    private LLMProvider findSource() {
+        return providers.orderedStream()
+            .filter(provider -> config.getSource().equals(provider.getName()))
+            .findFirst()
+            .orElse(null);
+    }
+    
+    /**
+     * The outermost LLMException in the cause chain, unwrapping the CompletionException of the future
+     */
+    private static LLMException llmException(Throwable throwable) {
+        for (Throwable cause = throwable; cause != null; cause = cause.getCause()) {
+            if (cause instanceof LLMException llmException) {
+                return llmException;
+            }
+        }
+        return null;
+    }
+    
+    private static String rootMessage(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null && cause != cause.getCause()) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+}
\ No newline at end of file
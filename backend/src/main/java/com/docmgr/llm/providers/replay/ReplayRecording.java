@@ -0,0 +1,148 @@
+package com.docmgr.llm.providers.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Recorded provider calls in append-only NDJSON files, one file per source provider and day.
+ * Loading indexes every file in the directory by request key; a key recorded several times is replayed
+ * round-robin, so repeated requests reproduce the recorded latency spread rather than one sample.
+ */
+class ReplayRecording {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayRecording.class);
+    private static final String EXTENSION = ".ndjson";
+    
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final String source;
+    private final ConcurrentMap<String, List<ReplayEntry>> entries = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    
+    ReplayRecording(ObjectMapper objectMapper, Path directory, String source) {
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.source = source;
+    }
+    
+    /**
+     * Index all recording files of the source provider; malformed lines, e.g. from an interrupted write, are skipped
+     * @return number of entries loaded
+     */
+    int load() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return 0;
+        }
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing
+                .filter(file -> file.getFileName().toString().startsWith(source + "-"))
+                .filter(file -> file.getFileName().toString().endsWith(EXTENSION))
+                .sorted()
+                .toList();
+        }
+        
+        int loaded = 0;
+        int skipped = 0;
+        for (Path file : files) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ReplayEntry entry = objectMapper.readValue(line, ReplayEntry.class);
+                    entries.computeIfAbsent(entry.key(), k -> new ArrayList<>()).add(entry);
+                    loaded++;
+                } catch (IOException e) {
+                    skipped++;
+                }
+            }
+        }
+        if (skipped > 0) {
+            logger.warn("Skipped {} malformed lines in recordings of {}", skipped, source);
+        }
+        return loaded;
+    }
+    
+    /**
+     * Next recorded call for a request key
+     * @return the entry, null if the key was never recorded
+     */
+    ReplayEntry next(String key) {
+        List<ReplayEntry> recordedCalls = entries.get(key);
+        if (recordedCalls == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        int index = cursors.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        return recordedCalls.get(Math.floorMod(index, recordedCalls.size()));
+    }
+    
+    /**
+     * Append a call to today's file. Writes are serialized and each line is written whole,
+     * so concurrent calls never interleave.
+     */
+    synchronized void append(ReplayEntry entry) {
+        try {
+            Files.createDirectories(directory);
+            Path file = directory.resolve(source + "-" + LocalDate.now() + EXTENSION);
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.write('\n');
+            }
+            recorded.increment();
+        } catch (IOException e) {
+            logger.warn("Failed to record {} call: {}", entry.operation(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Distinct models in the loaded recording
+     */
+    List<String> models() {
+        return entries.values().stream()
+            .flatMap(List::stream)
+            .map(ReplayEntry::model)
+            .filter(model -> model != null)
+            .distinct()
+            .sorted()
+            .toList();
+    }
+    
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+    
+    Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("keys", entries.size());
+        stats.put("entries", entries.values().stream().mapToInt(List::size).sum());
+        stats.put("recorded", recorded.sum());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        return stats;
+    }
+}
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.docmgr.llm.ratelimit;
 
 import com.docmgr.llm.exception.RateLimitExceededException;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.state.LLMStateStore;
+import com.docmgr.llm.tracing.LLMTracing;
+import io.micrometer.observation.Observation;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
@@ -14,7 +17,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 /**
- * Aspect for enforcing rate limits on LLM provider operations using Redis
+ * Aspect for enforcing rate limits on LLM provider operations, counted per minute in the {@link LLMStateStore}
  */
 @Aspect
 @Component
@@ -23,10 +26,14 @@ public class RateLimitingAspect {
     private static final Logger logger = LoggerFactory.getLogger(RateLimitingAspect.class);
     private static final DateTimeFormatter MINUTE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH-mm");
     
-    private final RedisTemplate<String, String> redisTemplate;
+    private final LLMStateStore stateStore;
+    private final LLMMetrics metrics;
+    private final LLMTracing tracing;
     
-    public RateLimitingAspect(RedisTemplate<String, String> redisTemplate) {
-        this.redisTemplate = redisTemplate;
+    public RateLimitingAspect(LLMStateStore stateStore, LLMMetrics metrics, LLMTracing tracing) {
+        this.stateStore = stateStore;
+        this.metrics = metrics;
+        this.tracing = tracing;
     }
     
     @Around("@annotation(rateLimited)")
@@ -34,41 +41,55 @@ public class RateLimitingAspect {
         String provider = rateLimited.provider();
         int requestsPerMinute = rateLimited.requestsPerMinute();
         
+        Observation span = tracing.start("llm.ratelimit", "provider", provider);
+        boolean allowed;
+        try (Observation.Scope scope = span.openScope()) {
+            allowed = tryAcquire(provider, requestsPerMinute, span);
+        } finally {
+            span.stop();
+        }
+        
+        if (!allowed) {
+            if (rateLimited.throwOnExceeded()) {
+                throw new RateLimitExceededException(provider, requestsPerMinute, getSecondsUntilNextMinute());
+            }
+            return null;
+        }
+        // Proceed outside the check so that a failing call is not retried as if the state store had failed
+        return joinPoint.proceed();
+    }
+    
+    /**
+     * Count a request against the provider's limit for the current minute
+     * @return false if the limit is reached; true if counted or if the state store is not available
+     */
+    private boolean tryAcquire(String provider, int requestsPerMinute, Observation span) {
         String currentMinute = getCurrentMinute();
         String key = "rate_limit:" + provider + ":" + currentMinute;
         
         try {
-            String currentCountStr = redisTemplate.opsForValue().get(key);
-            int currentCount = currentCountStr != null ? Integer.parseInt(currentCountStr) : 0;
+            // Count first and compare after: one atomic operation, so concurrent requests cannot both take the last slot
+            long count = stateStore.increment(key, 1, Duration.ofMinutes(1));
             
-            if (currentCount >= requestsPerMinute) {
-                long secondsUntilNextMinute = getSecondsUntilNextMinute();
+            if (count > requestsPerMinute) {
                 logger.warn("Rate limit exceeded for provider: {} (current: {}, limit: {})", 
-                           provider, currentCount, requestsPerMinute);
-                
-                if (rateLimited.throwOnExceeded()) {
-                    throw new RateLimitExceededException(provider, requestsPerMinute, secondsUntilNextMinute);
-                } else {
-                    return null;
-                }
+                           provider, count - 1, requestsPerMinute);
+                metrics.recordRateLimitRejection(provider);
+                span.lowCardinalityKeyValue("outcome", "rejected");
+                return false;
             }
             
-            // Increment counter and set expiration
-            redisTemplate.opsForValue().increment(key);
-            redisTemplate.expire(key, Duration.ofMinutes(1));
-            
             logger.debug("Rate limit check passed for provider: {} ({}/{})", 
-                        provider, currentCount + 1, requestsPerMinute);
-            
-            return joinPoint.proceed();
+                        provider, count, requestsPerMinute);
+            span.lowCardinalityKeyValue("outcome", "allowed");
+            return true;
             
         } catch (Exception e) {
-            if (e instanceof RateLimitExceededException) {
-                throw e;
-            }
             logger.error("Error checking rate limit for provider: " + provider, e);
-            // If Redis is down, allow the request to proceed
-            return joinPoint.proceed();
+            // If the state store is down, allow the request to proceed
+            span.lowCardinalityKeyValue("outcome", "store_error");
+            span.error(e);
+            return true;
         }
     }
     
@@ -0,0 +1,168 @@
+package com.docmgr.llm.schema;
+
+import com.docmgr.llm.model.AnalysisSchema;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiles an {@link AnalysisSchema} into a JSON Schema that providers can enforce natively
+ * (Ollama "format", Gemini "responseSchema")
+ */
+public final class JsonSchemaCompiler {
+    
+    private JsonSchemaCompiler() {}
+    
+    /**
+     * Compile to a standard JSON Schema object. Optional fields are nullable so the model can
+     * say "not found" without inventing a value.
+     * @param schema the analysis schema
+     * @return JSON Schema as a map, ready for serialization
+     */
+    public static Map<String, Object> compile(AnalysisSchema schema) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        List<String> required = new ArrayList<>();
+        
+        schema.getFields().forEach((name, field) -> {
+            Map<String, Object> property = new LinkedHashMap<>();
+            String jsonType = jsonType(field.getType());
+            property.put("type", field.isRequired() ? jsonType : List.of(jsonType, "null"));
+            
+            String format = format(field.getType());
+            if (format != null) {
+                property.put("format", format);
+            }
+            if ("array".equals(jsonType)) {
+                property.put("items", Map.of("type", "string"));
+            }
+            if (field.getDescription() != null) {
+                property.put("description", field.getDescription());
+            }
+            
+            properties.put(name, schema.isConfidenceRequested() ? withConfidence(property) : property);
+            if (field.isRequired()) {
+                required.add(name);
+            }
+        });
+        
+        Map<String, Object> jsonSchema = new LinkedHashMap<>();
+        jsonSchema.put("type", "object");
+        jsonSchema.put("properties", properties);
+        jsonSchema.put("required", required);
+        return jsonSchema;
+    }
+    
+    /**
+     * Wrap a field's schema so the model states its confidence next to the value
+     */
+    private static Map<String, Object> withConfidence(Map<String, Object> property) {
+        Map<String, Object> wrapperProperties = new LinkedHashMap<>();
+        wrapperProperties.put("value", property);
+        wrapperProperties.put("confidence", Map.of("type", "number"));
+        
+        Map<String, Object> wrapper = new LinkedHashMap<>();
+        wrapper.put("type", "object");
+        wrapper.put("properties", wrapperProperties);
+        wrapper.put("required", List.of("value", "confidence"));
+        return wrapper;
+    }
+    
+    /**
+     * Translate a standard JSON Schema into the OpenAPI subset accepted by Gemini's responseSchema:
+     * upper-case types, "nullable" instead of type unions, only the "date-time" format, and
+     * "propertyOrdering" so fields are generated (and streamed) in schema order.
+     * @param jsonSchema schema produced by {@link #compile(AnalysisSchema)}
+     * @return Gemini response schema
+     */
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> toGeminiSchema(Map<String, Object> jsonSchema) {
+        Map<String, Object> gemini = new LinkedHashMap<>();
+        
+        Object type = jsonSchema.get("type");
+        String baseType = "string";
+        if (type instanceof List<?> types) {
+            for (Object candidate : types) {
+                if ("null".equals(candidate)) {
+                    gemini.put("nullable", true);
+                } else {
+                    baseType = String.valueOf(candidate);
+                }
+            }
+        } else if (type != null) {
+            baseType = type.toString();
+        }
+        
+        Map<String, Object> properties = (Map<String, Object>) jsonSchema.get("properties");
+        boolean encodedObject = "object".equals(baseType) && (properties == null || properties.isEmpty());
+        if (encodedObject) {
+            // Gemini rejects objects without properties, accept a JSON encoded string instead;
+            // the output parser decodes it back into an object
+            baseType = "string";
+        }
+        gemini.put("type", baseType.toUpperCase(Locale.ROOT));
+        
+        if ("date-time".equals(jsonSchema.get("format"))) {
+            gemini.put("format", "date-time");
+        }
+        
+        String description = (String) jsonSchema.get("description");
+        if (encodedObject) {
+            description = description != null ? description + " (JSON object encoded as a string)" : "JSON object encoded as a string";
+        }
+        if ("date".equals(jsonSchema.get("format"))) {
+            description = description != null ? description + " (ISO-8601 date, YYYY-MM-DD)" : "ISO-8601 date, YYYY-MM-DD";
+        }
+        if (description != null) {
+            gemini.put("description", description);
+        }
+        
+        if ("object".equals(baseType)) {
+            Map<String, Object> geminiProperties = new LinkedHashMap<>();
+            properties.forEach((name, property) ->
+                geminiProperties.put(name, toGeminiSchema((Map<String, Object>) property)));
+            gemini.put("properties", geminiProperties);
+            gemini.put("propertyOrdering", new ArrayList<>(properties.keySet()));
+            Object required = jsonSchema.get("required");
+            if (required instanceof List<?> requiredFields && !requiredFields.isEmpty()) {
+                gemini.put("required", requiredFields);
+            }
+        }
+        
+        if ("array".equals(baseType)) {
+            Object items = jsonSchema.get("items");
+            gemini.put("items", items instanceof Map<?, ?>
+                ? toGeminiSchema((Map<String, Object>) items)
+                : Map.of("type", "STRING"));
+        }
+        
+        return gemini;
+    }
+    
+    static String jsonType(String fieldType) {
+        if (fieldType == null) {
+            return "string";
+        }
+        return switch (fieldType.toLowerCase(Locale.ROOT)) {
+            case "number", "decimal", "double", "float", "currency", "amount", "money" -> "number";
+            case "integer", "int", "long" -> "integer";
+            case "boolean", "bool" -> "boolean";
+            case "array", "list" -> "array";
+            case "object", "map" -> "object";
+            default -> "string";
+        };
+    }
+    
+    private static String format(String fieldType) {
+        if (fieldType == null) {
+            return null;
+        }
+        return switch (fieldType.toLowerCase(Locale.ROOT)) {
+            case "date" -> "date";
+            case "datetime", "date-time", "timestamp" -> "date-time";
+            default -> null;
+        };
+    }
+}
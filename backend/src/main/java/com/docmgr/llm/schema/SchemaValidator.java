@@ -0,0 +1,67 @@
+package com.docmgr.llm.schema;
+
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.StructuredResponse;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates parsed analysis data against its {@link AnalysisSchema} in a single pass over the fields
+ */
+public final class SchemaValidator {
+    
+    private SchemaValidator() {}
+    
+    /**
+     * Validate the response data and record any violations on the response
+     * @param response parsed response, typed by the structured output parser
+     * @param schema the expected output structure
+     * @return list of violations, empty if the response is valid
+     */
+    public static List<String> validate(StructuredResponse response, AnalysisSchema schema) {
+        List<String> violations = new ArrayList<>();
+        Map<String, Object> data = response.getData();
+        
+        for (Map.Entry<String, AnalysisSchema.FieldDefinition> entry : schema.getFields().entrySet()) {
+            String name = entry.getKey();
+            AnalysisSchema.FieldDefinition field = entry.getValue();
+            Object value = data.get(name);
+            
+            if (value == null) {
+                if (field.isRequired()) {
+                    violations.add("Missing required field: " + name);
+                }
+                continue;
+            }
+            
+            if (!matchesType(value, field.getType())) {
+                violations.add("Field " + name + " expected " + field.getType()
+                    + " but was " + value.getClass().getSimpleName());
+            }
+        }
+        
+        response.setValidationErrors(violations);
+        return violations;
+    }
+    
+    private static boolean matchesType(Object value, String fieldType) {
+        if (fieldType == null) {
+            return true;
+        }
+        return switch (fieldType.toLowerCase(java.util.Locale.ROOT)) {
+            case "date" -> value instanceof LocalDate;
+            case "datetime", "date-time", "timestamp" -> value instanceof LocalDateTime;
+            default -> switch (JsonSchemaCompiler.jsonType(fieldType)) {
+                case "number", "integer" -> value instanceof Number;
+                case "boolean" -> value instanceof Boolean;
+                case "array" -> value instanceof List<?>;
+                case "object" -> value instanceof Map<?, ?>;
+                default -> value instanceof String;
+            };
+        };
+    }
+}
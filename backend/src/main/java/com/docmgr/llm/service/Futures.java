@@ -0,0 +1,27 @@
+package com.docmgr.llm.service;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Helpers for the CompletableFuture chains that analyses are built from
+ */
+public final class Futures {
+
+    private Futures() {}
+
+    /**
+     * Cancel the upstream future when the derived one is cancelled. Dependent stages do not forward
+     * cancellation by themselves, so without this a caller giving up would leave the provider call running.
+     * @param upstream future the result was derived from
+     * @param result future handed to the caller
+     * @return the result future
+     */
+    public static <T> CompletableFuture<T> propagateCancellation(CompletableFuture<?> upstream, CompletableFuture<T> result) {
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                upstream.cancel(false);
+            }
+        });
+        return result;
+    }
+}
\ No newline at end of file
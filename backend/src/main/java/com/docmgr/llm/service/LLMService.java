@@ -2,6 +2,7 @@ package com.docmgr.llm.service;
 
 import com.docmgr.llm.LLMProvider;
 import com.docmgr.llm.model.*;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
@@ -27,6 +28,24 @@ public interface LLMService {
      */
     CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema);
     
+    /**
+     * Analyze text with structured output using a specific provider and model, without fallback
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @param providerName provider to use
+     * @param model model to use, or null for the provider's default
+     * @return future containing structured analysis response
+     */
+    CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema, String providerName, String model);
+    
+    /**
+     * Analyze text with structured output, emitting each field as soon as the model has produced it
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @return stream of field events followed by a completion event with the full response
+     */
+    Flux<AnalysisFieldEvent> analyzeStream(String text, AnalysisSchema schema);
+    
     /**
      * Get the currently active LLM provider
      * @return the active provider instance
@@ -48,9 +67,9 @@ public interface LLMService {
     
     /**
      * Get aggregated usage statistics across all providers
-     * @return combined usage statistics
+     * @return snapshot of the combined usage statistics
      */
-    UsageStats getAggregatedUsage();
+    UsageSnapshot getAggregatedUsage();
     
     /**
      * Get health status for a specific provider
@@ -77,4 +96,12 @@ public interface LLMService {
      * @return future containing test result
      */
     CompletableFuture<Boolean> testActiveProvider();
+    
+    /**
+     * Store the default provider, or the first available one, as active unless one is stored already.
+     * Probes provider availability, which can take up to a provider's timeout, so it runs during the warm-up
+     * after startup rather than while the application context is created.
+     * @throws RuntimeException if the state store cannot be reached
+     */
+    void initializeActiveProvider();
 }
\ No newline at end of file
@@ -4,11 +4,16 @@ import com.docmgr.llm.LLMProvider;
 import com.docmgr.llm.config.LLMProperties;
 import com.docmgr.llm.exception.LLMException;
 import com.docmgr.llm.exception.ProviderNotAvailableException;
+import com.docmgr.llm.metrics.LLMMetrics;
 import com.docmgr.llm.model.*;
+import com.docmgr.llm.state.LLMStateStore;
+import com.docmgr.llm.tracing.LLMTracing;
+import com.docmgr.llm.usage.CostTracker;
+import io.micrometer.observation.Observation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
@@ -16,7 +21,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 
 /**
@@ -29,39 +37,64 @@ public class LLMServiceImpl implements LLMService {
     private static final String ACTIVE_PROVIDER_KEY = "llm:active_provider";
     
     private final Map<String, LLMProvider> providers;
-    private final RedisTemplate<String, String> redisTemplate;
+    private final LLMStateStore stateStore;
     private final LLMProperties properties;
+    private final RequestCoalescer coalescer;
+    private final LLMMetrics metrics;
+    private final CostTracker costTracker;
+    private final LLMTracing tracing;
     
     public LLMServiceImpl(List<LLMProvider> providerList,
-                         RedisTemplate<String, String> redisTemplate,
-                         LLMProperties properties) {
+                         LLMStateStore stateStore,
+                         LLMProperties properties,
+                         RequestCoalescer coalescer,
+                         LLMMetrics metrics,
+                         CostTracker costTracker,
+                         LLMTracing tracing) {
         this.providers = providerList.stream()
             .collect(Collectors.toMap(LLMProvider::getName, Function.identity()));
-        this.redisTemplate = redisTemplate;
+        this.stateStore = stateStore;
         this.properties = properties;
+        this.coalescer = coalescer;
+        this.metrics = metrics;
+        this.costTracker = costTracker;
+        this.tracing = tracing;
         
         logger.info("LLM Service initialized with {} providers: {}", 
                    providers.size(), providers.keySet());
-        
-        // Initialize active provider if not set
-        initializeActiveProvider();
     }
     
     @Override
-    public CompletableFuture<LLMResponse> complete(String prompt, CompletionOptions options) {
-        LLMProvider activeProvider = getActiveProvider();
+    public CompletableFuture<LLMResponse> complete(String prompt, CompletionOptions requestedOptions) {
+        LLMProvider configured = getConfiguredProvider();
+        LLMProvider activeProvider = localProviderWithinBudget(configured);
+        // A rerouted request uses the local provider's default model, the requested one belongs to the paid provider
+        CompletionOptions options = activeProvider == configured || requestedOptions == null
+            ? requestedOptions : requestedOptions.withoutModel();
         
         logger.debug("Using provider {} for completion request", activeProvider.getName());
         
-        return activeProvider.complete(prompt, options)
-            .handle((response, throwable) -> {
-                if (throwable != null) {
-                    logger.warn("Provider {} failed, attempting fallback", activeProvider.getName(), throwable);
-                    return handleProviderFailure(activeProvider, prompt, options, throwable);
-                }
-                return CompletableFuture.completedFuture(response);
-            })
-            .thenCompose(Function.identity());
+        Observation span = tracing.start("llm.service.request", "operation", "complete",
+            "provider", activeProvider.getName(), "fallback", "false");
+        if (activeProvider != configured) {
+            span.highCardinalityKeyValue("llm.rerouted_from", configured.getName());
+        }
+        return tracing.observe(span, () -> {
+            CompletableFuture<LLMResponse> upstream = coalesce(
+                RequestKeys.completionKey(activeProvider.getName(), prompt, options),
+                () -> activeProvider.complete(prompt, options),
+                LLMResponse::copy);
+            
+            return Futures.propagateCancellation(upstream, upstream
+                .handle((response, throwable) -> {
+                    if (throwable != null) {
+                        logger.warn("Provider {} failed, attempting fallback", activeProvider.getName(), throwable);
+                        return handleProviderFailure(activeProvider, prompt, options, throwable, span);
+                    }
+                    return CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(Function.identity()));
+        });
     }
     
     @Override
@@ -70,22 +103,98 @@ public class LLMServiceImpl implements LLMService {
         
         logger.debug("Using provider {} for analysis request", activeProvider.getName());
         
-        return activeProvider.analyze(text, schema)
-            .handle((response, throwable) -> {
-                if (throwable != null) {
-                    logger.warn("Provider {} failed during analysis, attempting fallback", 
-                              activeProvider.getName(), throwable);
-                    // For analysis, we could fall back to a simple completion
-                    return handleAnalysisFailure(activeProvider, text, schema, throwable);
+        Observation span = tracing.start("llm.service.request", "operation", "analyze",
+            "provider", activeProvider.getName(), "fallback", "false");
+        return tracing.observe(span, () -> {
+            CompletableFuture<StructuredResponse> upstream = coalesce(
+                RequestKeys.analysisKey(activeProvider.getName(), text, schema),
+                () -> activeProvider.analyze(text, schema),
+                StructuredResponse::copy);
+            
+            return Futures.propagateCancellation(upstream, upstream
+                .handle((response, throwable) -> {
+                    if (throwable != null) {
+                        logger.warn("Provider {} failed during analysis, attempting fallback", 
+                                  activeProvider.getName(), throwable);
+                        // For analysis, we could fall back to a simple completion
+                        return handleAnalysisFailure(activeProvider, text, schema, throwable, span);
+                    }
+                    return CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(Function.identity()));
+        });
+    }
+    
+    @Override
+    public CompletableFuture<StructuredResponse> analyze(String text, AnalysisSchema schema,
+                                                         String providerName, String model) {
+        LLMProvider requested = providers.get(providerName);
+        if (requested == null || !requested.isAvailable()) {
+            return CompletableFuture.failedFuture(
+                new ProviderNotAvailableException(providerName, "Provider not available: " + providerName));
+        }
+        LLMProvider provider = localProviderWithinBudget(requested);
+        // A rerouted request uses the local provider's default model, the requested one belongs to the paid provider
+        String targetModel = provider == requested ? model : null;
+        
+        String keyPrefix = targetModel != null ? provider.getName() + "/" + targetModel : provider.getName();
+        Observation span = tracing.start("llm.service.request", "operation", "analyze",
+            "provider", provider.getName(), "fallback", "false");
+        if (provider != requested) {
+            span.highCardinalityKeyValue("llm.rerouted_from", requested.getName());
+        }
+        return tracing.observe(span, () -> {
+            CompletableFuture<StructuredResponse> upstream = coalesce(
+                RequestKeys.analysisKey(keyPrefix, text, schema),
+                () -> provider.analyze(text, schema, targetModel),
+                StructuredResponse::copy);
+            return Futures.propagateCancellation(upstream, upstream.thenApply(Function.identity()));
+        });
+    }
+    
+    @Override
+    public Flux<AnalysisFieldEvent> analyzeStream(String text, AnalysisSchema schema) {
+        LLMProvider activeProvider = getActiveProvider();
+        
+        logger.debug("Using provider {} for streaming analysis request", activeProvider.getName());
+        
+        AtomicBoolean emitted = new AtomicBoolean();
+        Observation span = tracing.start("llm.service.request", "operation", "analyze_stream",
+            "provider", activeProvider.getName(), "fallback", "false");
+        return tracing.observe(span, Flux.defer(() -> activeProvider.analyzeStream(text, schema))
+            .doOnNext(event -> emitted.set(true))
+            .onErrorResume(throwable -> {
+                // Fields already sent to the client cannot be taken back, so only fall back before the first event
+                if (emitted.get() || !properties.isFallbackEnabled()) {
+                    return Flux.error(throwable);
+                }
+                String fallbackProviderName = getFallbackProvider(activeProvider.getName());
+                if (fallbackProviderName == null) {
+                    return Flux.error(throwable);
                 }
-                return CompletableFuture.completedFuture(response);
-            })
-            .thenCompose(Function.identity());
+                logger.warn("Provider {} failed during streaming analysis, falling back to {}",
+                          activeProvider.getName(), fallbackProviderName, throwable);
+                metrics.recordFallback(activeProvider.getName(), fallbackProviderName, "analyze_stream");
+                recordFallbackHop(span, activeProvider.getName(), fallbackProviderName);
+                return providers.get(fallbackProviderName).analyzeStream(text, schema);
+            }));
     }
     
     @Override
     public LLMProvider getActiveProvider() {
-        String activeProviderName = redisTemplate.opsForValue().get(ACTIVE_PROVIDER_KEY);
+        return localProviderWithinBudget(getConfiguredProvider());
+    }
+    
+    /**
+     * The selected provider before any budget rerouting
+     */
+    private LLMProvider getConfiguredProvider() {
+        // Covers the state store read and, when the stored provider is unusable, the availability probes
+        return tracing.observe("llm.service.active_provider", this::resolveConfiguredProvider);
+    }
+    
+    private LLMProvider resolveConfiguredProvider() {
+        String activeProviderName = stateStore.get(ACTIVE_PROVIDER_KEY);
         
         if (activeProviderName == null) {
             activeProviderName = properties.getDefaultProvider();
@@ -137,29 +246,11 @@ public class LLMServiceImpl implements LLMService {
     }
     
     @Override
-    public UsageStats getAggregatedUsage() {
-        UsageStats aggregated = new UsageStats();
-        
+    public UsageSnapshot getAggregatedUsage() {
+        UsageSnapshot aggregated = UsageSnapshot.empty();
         for (LLMProvider provider : providers.values()) {
-            UsageStats providerStats = provider.getUsageStats();
-            aggregated.setTotalRequests(aggregated.getTotalRequests() + providerStats.getTotalRequests());
-            aggregated.setTotalTokens(aggregated.getTotalTokens() + providerStats.getTotalTokens());
-            
-            if (aggregated.getLastRequest() == null || 
-                (providerStats.getLastRequest() != null && 
-                 providerStats.getLastRequest().isAfter(aggregated.getLastRequest()))) {
-                aggregated.setLastRequest(providerStats.getLastRequest());
-            }
-            
-            // Merge daily usage
-            providerStats.getDailyUsage().forEach((date, tokens) -> 
-                aggregated.getDailyUsage().merge(date, tokens, Integer::sum));
-                
-            // Merge model usage
-            providerStats.getModelUsage().forEach((model, tokens) -> 
-                aggregated.getModelUsage().merge(model, tokens, Integer::sum));
+            aggregated = aggregated.merge(provider.getUsageStats().snapshot());
         }
-        
         return aggregated;
     }
     
@@ -206,6 +297,14 @@ public class LLMServiceImpl implements LLMService {
         }
     }
     
+    private <T> CompletableFuture<T> coalesce(String key, Supplier<CompletableFuture<T>> upstreamCall,
+                                              UnaryOperator<T> copy) {
+        if (!properties.isCoalescingEnabled()) {
+            return upstreamCall.get();
+        }
+        return coalescer.execute(key, upstreamCall, copy);
+    }
+    
     private CompletableFuture<Boolean> testProviderConnectivity(LLMProvider provider) {
         CompletionOptions testOptions = CompletionOptions.builder()
             .maxTokens(10)
@@ -221,7 +320,7 @@ public class LLMServiceImpl implements LLMService {
     }
     
     private CompletableFuture<LLMResponse> handleProviderFailure(
-            LLMProvider failedProvider, String prompt, CompletionOptions options, Throwable error) {
+            LLMProvider failedProvider, String prompt, CompletionOptions options, Throwable error, Observation span) {
         
         if (!properties.isFallbackEnabled()) {
             return CompletableFuture.failedFuture(error);
@@ -233,8 +332,11 @@ public class LLMServiceImpl implements LLMService {
         if (fallbackProviderName != null) {
             LLMProvider fallbackProvider = providers.get(fallbackProviderName);
             logger.info("Attempting fallback to provider: {}", fallbackProviderName);
+            metrics.recordFallback(failedProvider.getName(), fallbackProviderName, "complete");
+            recordFallbackHop(span, failedProvider.getName(), fallbackProviderName);
             
-            return fallbackProvider.complete(prompt, options)
+            // The requested model belongs to the failed provider
+            return fallbackProvider.complete(prompt, options != null ? options.withoutModel() : null)
                 .exceptionally(fallbackError -> {
                     logger.error("Fallback provider also failed", fallbackError);
                     throw new LLMException("All providers failed", "FALLBACK_FAILED", "ALL_PROVIDERS_FAILED");
@@ -245,7 +347,7 @@ public class LLMServiceImpl implements LLMService {
     }
     
     private CompletableFuture<StructuredResponse> handleAnalysisFailure(
-            LLMProvider failedProvider, String text, AnalysisSchema schema, Throwable error) {
+            LLMProvider failedProvider, String text, AnalysisSchema schema, Throwable error, Observation span) {
         
         if (!properties.isFallbackEnabled()) {
             return CompletableFuture.failedFuture(error);
@@ -256,6 +358,8 @@ public class LLMServiceImpl implements LLMService {
         if (fallbackProviderName != null) {
             LLMProvider fallbackProvider = providers.get(fallbackProviderName);
             logger.info("Attempting analysis fallback to provider: {}", fallbackProviderName);
+            metrics.recordFallback(failedProvider.getName(), fallbackProviderName, "analyze");
+            recordFallbackHop(span, failedProvider.getName(), fallbackProviderName);
             
             return fallbackProvider.analyze(text, schema)
                 .exceptionally(fallbackError -> {
@@ -267,13 +371,42 @@ public class LLMServiceImpl implements LLMService {
         return CompletableFuture.failedFuture(error);
     }
     
+    private void recordFallbackHop(Observation span, String failedProviderName, String fallbackProviderName) {
+        // Replaces the "false" every request span starts with, so both outcomes can be filtered on
+        span.lowCardinalityKeyValue("fallback", "true");
+        span.highCardinalityKeyValue("llm.fallback_hop", failedProviderName + "->" + fallbackProviderName);
+        span.event(Observation.Event.of("llm.fallback"));
+    }
+    
     private String getFallbackProvider(String failedProviderName) {
         // Simple fallback logic: if Gemini fails, use Ollama; if Ollama fails, use Gemini
-        return switch (failedProviderName) {
+        String fallback = switch (failedProviderName) {
             case "gemini" -> providers.containsKey("ollama") && providers.get("ollama").isAvailable() ? "ollama" : null;
             case "ollama" -> providers.containsKey("gemini") && providers.get("gemini").isAvailable() ? "gemini" : null;
             default -> getFirstAvailableProvider() != null ? getFirstAvailableProvider().getName() : null;
         };
+        // While the budget is nearly spent, a failed local request must not end up at a paid provider
+        if (fallback != null && costTracker.shouldRouteLocal(fallback)) {
+            logger.debug("Budget nearly spent, not falling back from {} to {}", failedProviderName, fallback);
+            return null;
+        }
+        return fallback;
+    }
+    
+    /**
+     * The local provider instead of a paid one while a budget is nearly spent, if it is available
+     */
+    private LLMProvider localProviderWithinBudget(LLMProvider provider) {
+        if (!costTracker.shouldRouteLocal(provider.getName())) {
+            return provider;
+        }
+        LLMProvider local = providers.get(properties.getCost().getLocalProvider());
+        if (local == null || !local.isAvailable()) {
+            return provider;
+        }
+        logger.debug("Budget nearly spent, routing request for {} to {}", provider.getName(), local.getName());
+        metrics.recordBudgetReroute(provider.getName());
+        return local;
     }
     
     private LLMProvider getFirstAvailableProvider() {
@@ -285,35 +418,34 @@ public class LLMServiceImpl implements LLMService {
     
     private void setActiveProvider(String providerName) {
         try {
-            redisTemplate.opsForValue().set(ACTIVE_PROVIDER_KEY, providerName, Duration.ofDays(7));
+            stateStore.set(ACTIVE_PROVIDER_KEY, providerName, Duration.ofDays(7));
         } catch (Exception e) {
-            logger.warn("Failed to set active provider in Redis", e);
+            logger.warn("Failed to store active provider", e);
         }
     }
     
-    private void initializeActiveProvider() {
-        try {
-            String currentActive = redisTemplate.opsForValue().get(ACTIVE_PROVIDER_KEY);
+    @Override
+    public void initializeActiveProvider() {
+        String currentActive = stateStore.get(ACTIVE_PROVIDER_KEY);
+        
+        if (currentActive == null) {
+            // Set default provider
+            String defaultProvider = properties.getDefaultProvider();
+            LLMProvider provider = providers.get(defaultProvider);
             
-            if (currentActive == null) {
-                // Set default provider
-                String defaultProvider = properties.getDefaultProvider();
-                LLMProvider provider = providers.get(defaultProvider);
-                
-                if (provider != null && provider.isAvailable()) {
-                    setActiveProvider(defaultProvider);
-                    logger.info("Initialized active provider to default: {}", defaultProvider);
+            if (provider != null && provider.isAvailable()) {
+                setActiveProvider(defaultProvider);
+                logger.info("Initialized active provider to default: {}", defaultProvider);
+            } else {
+                // Find first available provider
+                LLMProvider firstAvailable = getFirstAvailableProvider();
+                if (firstAvailable != null) {
+                    setActiveProvider(firstAvailable.getName());
+                    logger.info("Initialized active provider to first available: {}", firstAvailable.getName());
                 } else {
-                    // Find first available provider
-                    LLMProvider firstAvailable = getFirstAvailableProvider();
-                    if (firstAvailable != null) {
-                        setActiveProvider(firstAvailable.getName());
-                        logger.info("Initialized active provider to first available: {}", firstAvailable.getName());
-                    }
+                    logger.warn("No LLM provider is available yet, the active provider is chosen on the first request");
                 }
             }
-        } catch (Exception e) {
-            logger.warn("Failed to initialize active provider", e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.docmgr.llm.service;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.usage.UsageHistoryService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Initialization that needs the providers or the state store, run in the background once the application
+ * has started: the active provider is chosen, which probes provider availability, and usage totals are restored.
+ * Startup therefore takes the same time whether or not Ollama and Redis are reachable yet.
+ * Until the warm-up has finished the "llmWarmup" health contributor reports OUT_OF_SERVICE, which keeps the
+ * readiness probe down while liveness stays up; if the state store cannot be reached, it is retried.
+ */
+@Component("llmWarmup")
+public class LLMWarmup implements HealthIndicator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LLMWarmup.class);
+    
+    private final LLMService llmService;
+    private final UsageHistoryService usageHistory;
+    private final LLMProperties properties;
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private final Instant createdAt = Instant.now();
+    
+    private volatile Thread thread;
+    private volatile int attempts;
+    private volatile String lastError;
+    private volatile Duration readyAfter;
+    
+    public LLMWarmup(LLMService llmService, UsageHistoryService usageHistory, LLMProperties properties) {
+        this.llmService = llmService;
+        this.usageHistory = usageHistory;
+        this.properties = properties;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnStartup() {
+        Thread warmup = new Thread(this::run, "llm-warmup");
+        warmup.setDaemon(true);
+        thread = warmup;
+        warmup.start();
+    }
+    
+    @PreDestroy
+    public void stop() {
+        Thread warmup = thread;
+        if (warmup != null) {
+            warmup.interrupt();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready.isDone();
+    }
+    
+    /**
+     * Completes once the warm-up has finished
+     */
+    public CompletionStage<Void> whenReady() {
+        return ready.minimalCompletionStage();
+    }
+    
+    /**
+     * Wait for the warm-up to finish
+     * @param timeout longest time to wait
+     * @return true if it has finished, false if it is still running after the timeout
+     */
+    public boolean awaitReady(Duration timeout) {
+        if (ready.isDone()) {
+            return true;
+        }
+        try {
+            ready.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+    
+    @Override
+    public Health health() {
+        Health.Builder builder = ready.isDone() ? Health.up() : Health.outOfService();
+        builder.withDetail("attempts", attempts);
+        if (readyAfter != null) {
+            builder.withDetail("ready_after_ms", readyAfter.toMillis());
+        }
+        if (lastError != null && !ready.isDone()) {
+            builder.withDetail("last_error", lastError);
+        }
+        return builder.build();
+    }
+    
+    private void run() {
+        long retryMillis = TimeUnit.SECONDS.toMillis(properties.getStartup().getRetryIntervalSeconds());
+        while (!Thread.currentThread().isInterrupted()) {
+            attempts++;
+            try {
+                llmService.initializeActiveProvider();
+                usageHistory.rehydrate();
+                readyAfter = Duration.between(createdAt, Instant.now());
+                ready.complete(null);
+                logger.info("LLM warm-up finished after {} attempt(s), ready for requests", attempts);
+                return;
+            } catch (Exception e) {
+                lastError = e.getMessage();
+                logger.warn("LLM warm-up failed, retrying in {} ms: {}", retryMillis, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
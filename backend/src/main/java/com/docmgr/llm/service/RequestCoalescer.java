@@ -0,0 +1,191 @@
+package com.docmgr.llm.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Single-flight coalescing of identical in-flight LLM requests.
+ * Concurrent callers with the same key share one upstream call; each caller gets its own
+ * future completed with its own copy of the result, and the upstream call is only cancelled
+ * once every caller has cancelled.
+ */
+@Component
+public class RequestCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final Map<String, InFlight<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder upstreamCalls = new LongAdder();
+    private final LongAdder coalescedCalls = new LongAdder();
+    private final LongAdder cancelledUpstreamCalls = new LongAdder();
+
+    /**
+     * Execute the upstream call, or join an identical call that is already in flight
+     * @param key request key, see {@link RequestKeys}
+     * @param upstreamCall supplier that starts the upstream request
+     * @param copy copies the result for each caller, since callers go on to modify their response
+     * @return future owned by this caller; cancelling it only detaches this caller
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> execute(String key, Supplier<CompletableFuture<T>> upstreamCall,
+                                            UnaryOperator<T> copy) {
+        while (true) {
+            InFlight<T> existing = (InFlight<T>) inFlight.get(key);
+            if (existing != null) {
+                CompletableFuture<T> waiter = existing.join();
+                if (waiter != null) {
+                    coalescedCalls.increment();
+                    logger.debug("Coalesced request onto in-flight call {}", key);
+                    return waiter;
+                }
+                // Entry is closing (completed or abandoned), drop it and start over
+                inFlight.remove(key, existing);
+                continue;
+            }
+
+            InFlight<T> created = new InFlight<>(key, copy);
+            if (inFlight.putIfAbsent(key, created) != null) {
+                continue;
+            }
+
+            CompletableFuture<T> waiter = created.join();
+            upstreamCalls.increment();
+
+            CompletableFuture<T> upstream;
+            try {
+                upstream = upstreamCall.get();
+            } catch (Throwable t) {
+                upstream = CompletableFuture.failedFuture(t);
+            }
+            created.attach(upstream);
+            return waiter;
+        }
+    }
+
+    /**
+     * Number of calls that were served by joining an in-flight request
+     */
+    public long getCoalescedCount() {
+        return coalescedCalls.sum();
+    }
+
+    /**
+     * Number of calls that were actually sent upstream
+     */
+    public long getUpstreamCount() {
+        return upstreamCalls.sum();
+    }
+
+    /**
+     * Number of upstream calls cancelled because every waiter went away
+     */
+    public long getCancelledCount() {
+        return cancelledUpstreamCalls.sum();
+    }
+
+    /**
+     * Number of distinct requests currently in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Shared state for one in-flight upstream call
+     */
+    private final class InFlight<T> {
+        private final String key;
+        private final UnaryOperator<T> copy;
+        private final List<CompletableFuture<T>> waiters = new ArrayList<>();
+        private int activeWaiters;
+        private boolean closed;
+        private CompletableFuture<T> upstream;
+
+        private InFlight(String key, UnaryOperator<T> copy) {
+            this.key = key;
+            this.copy = copy;
+        }
+
+        /**
+         * Register a new waiter, or return null if this call no longer accepts waiters
+         */
+        private synchronized CompletableFuture<T> join() {
+            if (closed) {
+                return null;
+            }
+            CompletableFuture<T> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            activeWaiters++;
+            waiter.whenComplete((result, error) -> {
+                if (waiter.isCancelled()) {
+                    onWaiterCancelled();
+                }
+            });
+            return waiter;
+        }
+
+        private void attach(CompletableFuture<T> future) {
+            boolean abandoned;
+            synchronized (this) {
+                upstream = future;
+                abandoned = closed;
+            }
+            if (abandoned) {
+                // Every waiter cancelled before the upstream call was even started
+                future.cancel(true);
+                return;
+            }
+            future.whenComplete(this::onUpstreamComplete);
+        }
+
+        private void onUpstreamComplete(T result, Throwable error) {
+            inFlight.remove(key, this);
+            List<CompletableFuture<T>> toComplete;
+            synchronized (this) {
+                closed = true;
+                toComplete = new ArrayList<>(waiters);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+            for (CompletableFuture<T> waiter : toComplete) {
+                if (cause != null) {
+                    waiter.completeExceptionally(cause);
+                } else {
+                    waiter.complete(result != null ? copy.apply(result) : null);
+                }
+            }
+        }
+
+        private void onWaiterCancelled() {
+            CompletableFuture<T> toCancel = null;
+            boolean abandon = false;
+            synchronized (this) {
+                activeWaiters--;
+                if (activeWaiters == 0 && !closed) {
+                    closed = true;
+                    abandon = true;
+                    toCancel = upstream;
+                }
+            }
+            if (abandon) {
+                inFlight.remove(key, this);
+                cancelledUpstreamCalls.increment();
+                logger.debug("All waiters cancelled, cancelling upstream call {}", key);
+                if (toCancel != null) {
+                    toCancel.cancel(true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.docmgr.llm.service;
+
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.CompletionOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Builds stable cache keys for LLM requests so identical calls can be recognised
+ */
+public final class RequestKeys {
+
+    private static final char SEPARATOR = '\u0000';
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private RequestKeys() {}
+
+    /**
+     * Key for a text completion on a given provider
+     * @param providerName provider that will serve the request
+     * @param prompt the input text prompt
+     * @param options completion configuration options
+     * @return hex encoded SHA-256 key
+     */
+    public static String completionKey(String providerName, String prompt, CompletionOptions options) {
+        StringBuilder key = new StringBuilder(prompt.length() + 64);
+        key.append("complete").append(SEPARATOR)
+           .append(providerName).append(SEPARATOR)
+           .append(options.getModel()).append(SEPARATOR)
+           .append(options.getMaxTokens()).append(SEPARATOR)
+           .append(options.getTemperature()).append(SEPARATOR)
+           .append(options.isStream()).append(SEPARATOR)
+           .append(options.getResponseSchema()).append(SEPARATOR)
+           .append(prompt);
+        return sha256(key);
+    }
+
+    /**
+     * Key for a structured analysis on a given provider
+     * @param providerName provider that will serve the request
+     * @param text the text to analyze
+     * @param schema the expected output structure
+     * @return hex encoded SHA-256 key
+     */
+    public static String analysisKey(String providerName, String text, AnalysisSchema schema) {
+        StringBuilder key = new StringBuilder(text.length() + 256);
+        key.append("analyze").append(SEPARATOR)
+           .append(providerName).append(SEPARATOR)
+           .append(schema.getSchemaType()).append(SEPARATOR)
+           .append(schema.getInstructions()).append(SEPARATOR)
+           .append(schema.isConfidenceRequested()).append(SEPARATOR);
+
+        // Field order in the schema map is not significant, so sort for a stable key
+        Map<String, AnalysisSchema.FieldDefinition> sortedFields = new TreeMap<>(schema.getFields());
+        sortedFields.forEach((name, field) -> key
+            .append(name).append(':')
+            .append(field.getType()).append(':')
+            .append(field.isRequired()).append(':')
+            .append(field.getDescription()).append(SEPARATOR));
+
+        key.append(text);
+        return sha256(key);
+    }
+
+    private static String sha256(CharSequence value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(value.toString().getBytes(StandardCharsets.UTF_8));
+            char[] hex = new char[hash.length * 2];
+            for (int i = 0; i < hash.length; i++) {
+                hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not supported by this JVM", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.docmgr.llm.state;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Counter increments to be applied together, see {@link LLMStateStore#apply}
+ */
+public class CounterBatch {
+    
+    private final String name;
+    private final List<HashIncrements> hashes = new ArrayList<>();
+    private final List<CounterIncrement> counters = new ArrayList<>();
+    
+    /**
+     * @param name what the batch is for, e.g. "usage_flush"; tags the Redis pipeline metrics
+     */
+    public CounterBatch(String name) {
+        this.name = name;
+    }
+    
+    /**
+     * Add to several fields of a hash
+     */
+    public CounterBatch hash(String key, Map<String, Long> deltas, Duration ttl) {
+        hashes.add(new HashIncrements(key, deltas, ttl));
+        return this;
+    }
+    
+    /**
+     * Add to a counter
+     */
+    public CounterBatch counter(String key, long delta, Duration ttl) {
+        counters.add(new CounterIncrement(key, delta, ttl));
+        return this;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public List<HashIncrements> getHashes() {
+        return hashes;
+    }
+    
+    public List<CounterIncrement> getCounters() {
+        return counters;
+    }
+    
+    public boolean isEmpty() {
+        return hashes.isEmpty() && counters.isEmpty();
+    }
+    
+    /**
+     * Redis commands the batch takes: one per increment plus one expiry per key
+     */
+    public int commandCount() {
+        return hashes.stream().mapToInt(hash -> hash.deltas().size() + 1).sum() + counters.size() * 2;
+    }
+    
+    public record HashIncrements(String key, Map<String, Long> deltas, Duration ttl) {}
+    
+    public record CounterIncrement(String key, long delta, Duration ttl) {}
+}
\ No newline at end of file
@@ -0,0 +1,324 @@
+package com.docmgr.llm.state;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * State in the application's memory for single-node installs: no network round trip on the request path.
+ * Keys live in one concurrent map and values are atomics, so readers and writers never block each other;
+ * an expired key is replaced by compare-and-set when it is next written and purged once a minute.
+ * Optionally the state is written to a snapshot file periodically and on shutdown and read back on startup,
+ * so usage totals and the active provider survive restarts; rate-limit windows are short-lived anyway.
+ */
+@Component
+@ConditionalOnProperty(name = "app.llm.state.store", havingValue = "memory")
+public class InMemoryStateStore implements LLMStateStore {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryStateStore.class);
+    
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final Path snapshotFile;
+    
+    public InMemoryStateStore(LLMProperties properties, ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        String file = properties.getState().getSnapshotFile();
+        this.snapshotFile = file != null && !file.isBlank() ? Path.of(file) : null;
+        if (snapshotFile != null) {
+            loadSnapshot();
+        }
+    }
+    
+    @Override
+    public String get(String key) {
+        Slot slot = live(key, System.currentTimeMillis());
+        if (slot instanceof Value value) {
+            return value.value();
+        }
+        if (slot instanceof Counter counter) {
+            return String.valueOf(counter.value.get());
+        }
+        return null;
+    }
+    
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        slots.put(key, new Value(value, expiry(System.currentTimeMillis(), ttl)));
+    }
+    
+    @Override
+    public long increment(String key, long delta, Duration ttl) {
+        long now = System.currentTimeMillis();
+        return slot(key, Counter.class, () -> new Counter(expiry(now, ttl)), now).value.addAndGet(delta);
+    }
+    
+    @Override
+    public Map<String, String> getHash(String key) {
+        if (!(live(key, System.currentTimeMillis()) instanceof Hash hash)) {
+            return Map.of();
+        }
+        Map<String, String> fields = new LinkedHashMap<>();
+        hash.fields.forEach((field, value) -> fields.put(field, String.valueOf(value.get())));
+        return fields;
+    }
+    
+    @Override
+    public List<Map<String, String>> getHashes(List<String> keys) {
+        List<Map<String, String>> hashes = new ArrayList<>(keys.size());
+        keys.forEach(key -> hashes.add(getHash(key)));
+        return hashes;
+    }
+    
+    @Override
+    public void deleteHashFields(String key, Collection<String> fields) {
+        if (live(key, System.currentTimeMillis()) instanceof Hash hash) {
+            fields.forEach(hash.fields::remove);
+        }
+    }
+    
+    @Override
+    public void apply(CounterBatch batch) {
+        long now = System.currentTimeMillis();
+        for (CounterBatch.HashIncrements increments : batch.getHashes()) {
+            Hash hash = slot(increments.key(), Hash.class, () -> new Hash(0), now);
+            increments.deltas().forEach((field, delta) -> hash.field(field).addAndGet(delta));
+            hash.expiresAt = expiry(now, increments.ttl());
+        }
+        for (CounterBatch.CounterIncrement increment : batch.getCounters()) {
+            Counter counter = slot(increment.key(), Counter.class, () -> new Counter(0), now);
+            counter.value.addAndGet(increment.delta());
+            counter.expiresAt = expiry(now, increment.ttl());
+        }
+    }
+    
+    /**
+     * Drop expired keys that were not touched again, e.g. past rate-limit windows and usage buckets
+     */
+    @Scheduled(fixedDelay = 60, timeUnit = TimeUnit.SECONDS)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        slots.forEach((key, slot) -> {
+            if (slot.isExpired(now)) {
+                slots.remove(key, slot);
+            }
+        });
+    }
+    
+    @Scheduled(fixedDelayString = "${app.llm.state.snapshot-interval-seconds:60}",
+               initialDelayString = "${app.llm.state.snapshot-interval-seconds:60}",
+               timeUnit = TimeUnit.SECONDS)
+    public synchronized void snapshot() {
+        if (snapshotFile == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Object> entries = new LinkedHashMap<>();
+        slots.forEach((key, slot) -> {
+            if (!slot.isExpired(now)) {
+                entries.put(key, slot.toJson());
+            }
+        });
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("saved_at", Instant.ofEpochMilli(now).toString());
+        snapshot.put("entries", entries);
+        try {
+            if (snapshotFile.getParent() != null) {
+                Files.createDirectories(snapshotFile.getParent());
+            }
+            // Write aside and move into place, so that a crash mid-write leaves the previous snapshot intact
+            Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            objectMapper.writeValue(temporary.toFile(), snapshot);
+            try {
+                Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to write state snapshot to {}: {}", snapshotFile, e.getMessage());
+        }
+    }
+    
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+    
+    private void loadSnapshot() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            JsonNode entries = objectMapper.readTree(snapshotFile.toFile()).path("entries");
+            entries.fields().forEachRemaining(entry -> {
+                Slot slot = Slot.fromJson(entry.getValue());
+                if (slot != null && !slot.isExpired(now)) {
+                    slots.put(entry.getKey(), slot);
+                }
+            });
+            logger.info("Restored {} state entries from {}", slots.size(), snapshotFile);
+        } catch (IOException e) {
+            logger.warn("Failed to read state snapshot {}, starting empty: {}", snapshotFile, e.getMessage());
+        }
+    }
+    
+    /**
+     * The slot of a key if it exists and has not expired
+     */
+    private Slot live(String key, long now) {
+        Slot slot = slots.get(key);
+        if (slot != null && slot.isExpired(now)) {
+            slots.remove(key, slot);
+            return null;
+        }
+        return slot;
+    }
+    
+    /**
+     * The slot of a key, created if the key does not exist, has expired or holds another type.
+     * Creation races are settled by putIfAbsent/replace; the loser uses the winner's slot.
+     */
+    private <T extends Slot> T slot(String key, Class<T> type, Supplier<T> factory, long now) {
+        while (true) {
+            Slot slot = slots.get(key);
+            if (slot != null && !slot.isExpired(now) && type.isInstance(slot)) {
+                return type.cast(slot);
+            }
+            T created = factory.get();
+            if (slot == null ? slots.putIfAbsent(key, created) == null : slots.replace(key, slot, created)) {
+                return created;
+            }
+        }
+    }
+    
+    private static long expiry(long now, Duration ttl) {
+        return ttl != null && !ttl.isZero() ? now + ttl.toMillis() : 0;
+    }
+    
+    private abstract static class Slot {
+        
+        volatile long expiresAt;
+        
+        Slot(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+        
+        boolean isExpired(long now) {
+            return expiresAt > 0 && now >= expiresAt;
+        }
+        
+        abstract Map<String, Object> toJson();
+        
+        Map<String, Object> json(String type) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("type", type);
+            if (expiresAt > 0) {
+                json.put("expires_at", expiresAt);
+            }
+            return json;
+        }
+        
+        static Slot fromJson(JsonNode json) {
+            long expiresAt = json.path("expires_at").asLong(0);
+            switch (json.path("type").asText()) {
+                case "value":
+                    return new Value(json.path("value").asText(), expiresAt);
+                case "counter":
+                    Counter counter = new Counter(expiresAt);
+                    counter.value.set(json.path("value").asLong());
+                    return counter;
+                case "hash":
+                    Hash hash = new Hash(expiresAt);
+                    json.path("fields").fields().forEachRemaining(field -> hash.field(field.getKey()).set(field.getValue().asLong()));
+                    return hash;
+                default:
+                    return null;
+            }
+        }
+    }
+    
+    private static final class Value extends Slot {
+        
+        private final String value;
+        
+        Value(String value, long expiresAt) {
+            super(expiresAt);
+            this.value = value;
+        }
+        
+        String value() {
+            return value;
+        }
+        
+        @Override
+        Map<String, Object> toJson() {
+            Map<String, Object> json = json("value");
+            json.put("value", value);
+            return json;
+        }
+    }
+    
+    private static final class Counter extends Slot {
+        
+        final AtomicLong value = new AtomicLong();
+        
+        Counter(long expiresAt) {
+            super(expiresAt);
+        }
+        
+        @Override
+        Map<String, Object> toJson() {
+            Map<String, Object> json = json("counter");
+            json.put("value", value.get());
+            return json;
+        }
+    }
+    
+    private static final class Hash extends Slot {
+        
+        final ConcurrentMap<String, AtomicLong> fields = new ConcurrentHashMap<>();
+        
+        Hash(long expiresAt) {
+            super(expiresAt);
+        }
+        
+        AtomicLong field(String name) {
+            AtomicLong field = fields.get(name);
+            return field != null ? field : fields.computeIfAbsent(name, k -> new AtomicLong());
+        }
+        
+        @Override
+        Map<String, Object> toJson() {
+            Map<String, Object> json = json("hash");
+            Map<String, Long> values = new LinkedHashMap<>();
+            fields.forEach((name, value) -> values.put(name, value.get()));
+            json.put("fields", values);
+            return json;
+        }
+    }
+}
\ No newline at end of file
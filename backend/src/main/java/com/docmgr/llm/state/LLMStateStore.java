@@ -0,0 +1,51 @@
+package com.docmgr.llm.state;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared state of the LLM layer: the active provider, rate-limit windows, provider failure counters and usage counters.
+ * Keys, values and expiry follow Redis semantics so that both implementations hold the same data:
+ * {@link RedisStateStore} shares the state between instances, {@link InMemoryStateStore} keeps it in the process
+ * for single-node installs. Selected with {@code app.llm.state.store}.
+ */
+public interface LLMStateStore {
+    
+    /**
+     * @return the string or counter value of a key, null if the key does not exist or has expired
+     */
+    String get(String key);
+    
+    /**
+     * Set a string value, replacing any previous value and expiry
+     */
+    void set(String key, String value, Duration ttl);
+    
+    /**
+     * Add to a counter, creating it at zero. The expiry is set when the counter is created, so a counter keyed
+     * by time window lives for the window no matter how often it is incremented.
+     * @return the counter's value after the increment
+     */
+    long increment(String key, long delta, Duration ttl);
+    
+    /**
+     * @return all fields of a hash, empty if the key does not exist
+     */
+    Map<String, String> getHash(String key);
+    
+    /**
+     * Read several hashes at once; Redis answers them in one round trip
+     * @return the hashes in key order, empty for keys that do not exist
+     */
+    List<Map<String, String>> getHashes(List<String> keys);
+    
+    void deleteHashFields(String key, Collection<String> fields);
+    
+    /**
+     * Apply a batch of counter increments; Redis sends the batch as one pipeline.
+     * Every key in the batch gets its expiry refreshed.
+     */
+    void apply(CounterBatch batch);
+}
\ No newline at end of file
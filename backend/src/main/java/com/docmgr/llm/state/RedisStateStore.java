@@ -0,0 +1,114 @@
+package com.docmgr.llm.state;
+
+import com.docmgr.llm.metrics.LLMMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State in Redis, shared by all instances. Failures surface as {@link DataAccessException}.
+ */
+@Component
+@ConditionalOnProperty(name = "app.llm.state.store", havingValue = "redis", matchIfMissing = true)
+public class RedisStateStore implements LLMStateStore {
+    
+    private final RedisTemplate<String, String> redisTemplate;
+    private final LLMMetrics metrics;
+    
+    public RedisStateStore(RedisTemplate<String, String> redisTemplate, LLMMetrics metrics) {
+        this.redisTemplate = redisTemplate;
+        this.metrics = metrics;
+    }
+    
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(key);
+    }
+    
+    @Override
+    public void set(String key, String value, Duration ttl) {
+        redisTemplate.opsForValue().set(key, value, ttl);
+    }
+    
+    @Override
+    public long increment(String key, long delta, Duration ttl) {
+        Long value = redisTemplate.opsForValue().increment(key, delta);
+        long current = value != null ? value : delta;
+        // Only the increment that created the counter sets the expiry, saving a round trip on every other call
+        if (current == delta) {
+            redisTemplate.expire(key, ttl);
+        }
+        return current;
+    }
+    
+    @Override
+    public Map<String, String> getHash(String key) {
+        return toStrings(redisTemplate.opsForHash().entries(key));
+    }
+    
+    @Override
+    public List<Map<String, String>> getHashes(List<String> keys) {
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                keys.forEach(key -> redis.opsForHash().entries(key));
+                return null;
+            }
+        });
+        List<Map<String, String>> hashes = new ArrayList<>(results.size());
+        for (Object result : results) {
+            hashes.add(result instanceof Map<?, ?> fields ? toStrings(fields) : Map.of());
+        }
+        return hashes;
+    }
+    
+    @Override
+    public void deleteHashFields(String key, Collection<String> fields) {
+        if (!fields.isEmpty()) {
+            redisTemplate.opsForHash().delete(key, fields.toArray());
+        }
+    }
+    
+    @Override
+    public void apply(CounterBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> redis = (RedisOperations<String, String>) operations;
+                batch.getHashes().forEach(hash -> {
+                    hash.deltas().forEach((field, delta) -> redis.opsForHash().increment(hash.key(), field, delta));
+                    redis.expire(hash.key(), hash.ttl());
+                });
+                batch.getCounters().forEach(counter -> {
+                    redis.opsForValue().increment(counter.key(), counter.delta());
+                    redis.expire(counter.key(), counter.ttl());
+                });
+                return null;
+            }
+        });
+        metrics.recordRedisPipeline(batch.getName(), System.currentTimeMillis() - startTime, batch.commandCount());
+    }
+    
+    private static Map<String, String> toStrings(Map<?, ?> fields) {
+        Map<String, String> strings = new LinkedHashMap<>();
+        fields.forEach((field, value) -> strings.put(String.valueOf(field), String.valueOf(value)));
+        return strings;
+    }
+}
\ No newline at end of file
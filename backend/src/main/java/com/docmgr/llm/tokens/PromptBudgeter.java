@@ -0,0 +1,111 @@
+package com.docmgr.llm.tokens;
+
+import com.docmgr.llm.catalog.ModelCatalogService;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.exception.ContextWindowExceededException;
+import com.docmgr.llm.model.ModelInfo;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks prompts against the model's context window before they are sent and sizes the window per request.
+ * Allocating only what a request needs keeps Ollama's KV cache small for short prompts.
+ */
+@Component
+public class PromptBudgeter {
+    
+    /** Tokens reserved for chat template and special tokens added by the runtime */
+    static final int RESERVED_TOKENS = 64;
+    /** num_ctx is rounded up to this step so that similar requests reuse the same loaded context */
+    static final int NUM_CTX_STEP = 2048;
+    
+    private final TokenCounter tokenCounter;
+    private final ModelCatalogService modelCatalog;
+    private final LLMProperties properties;
+    
+    public PromptBudgeter(TokenCounter tokenCounter,
+                         @Lazy ModelCatalogService modelCatalog,
+                         LLMProperties properties) {
+        this.tokenCounter = tokenCounter;
+        this.modelCatalog = modelCatalog;
+        this.properties = properties;
+    }
+    
+    /**
+     * Plan the token budget for a request
+     * @param providerName name of the provider
+     * @param model model that will serve the request
+     * @param prompt the prompt text
+     * @param maxOutputTokens requested maximum output tokens
+     * @return budget with the counted prompt size and the context size to allocate
+     * @throws ContextWindowExceededException if prompt and output cannot fit into the model's context window
+     */
+    public TokenBudget plan(String providerName, String model, String prompt, int maxOutputTokens) {
+        int promptTokens = tokenCounter.count(prompt, model);
+        boolean exact = tokenCounter.hasVocabulary(model);
+        int contextLength = getContextLength(providerName, model);
+        
+        int required = promptTokens + maxOutputTokens + safetyMargin(promptTokens, exact);
+        if (contextLength > 0 && required > contextLength) {
+            throw new ContextWindowExceededException(providerName, model, promptTokens, maxOutputTokens, contextLength);
+        }
+        
+        int numCtx = ((required + NUM_CTX_STEP - 1) / NUM_CTX_STEP) * NUM_CTX_STEP;
+        if (contextLength > 0) {
+            numCtx = Math.min(numCtx, contextLength);
+        }
+        return new TokenBudget(promptTokens, maxOutputTokens, contextLength, numCtx, exact);
+    }
+    
+    /**
+     * Number of prompt tokens that fit into a model's context window next to the requested output
+     * @param providerName name of the provider
+     * @param model model that will serve the request
+     * @param maxOutputTokens requested maximum output tokens
+     * @return available prompt tokens, or Integer.MAX_VALUE if the context window is unknown
+     */
+    public int getAvailablePromptTokens(String providerName, String model, int maxOutputTokens) {
+        int contextLength = getContextLength(providerName, model);
+        if (contextLength <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, contextLength - maxOutputTokens - RESERVED_TOKENS);
+    }
+    
+    /**
+     * Usable context window: the model's trained context length, capped by the configured Ollama num-ctx
+     * @param providerName name of the provider
+     * @param model model name
+     * @return context window in tokens, 0 if unknown
+     */
+    public int getContextLength(String providerName, String model) {
+        int modelLength = modelCatalog.getModel(providerName, model)
+            .map(ModelInfo::getContextLength)
+            .orElse(0);
+        int configured = "ollama".equals(providerName) ? properties.getOllama().getNumCtx() : 0;
+        if (modelLength > 0 && configured > 0) {
+            return Math.min(modelLength, configured);
+        }
+        return modelLength > 0 ? modelLength : configured;
+    }
+    
+    /**
+     * Model used by a provider when the request does not name one
+     * @param providerName name of the provider
+     * @return default model name
+     */
+    public String getDefaultModel(String providerName) {
+        return "gemini".equals(providerName)
+            ? properties.getGemini().getModel()
+            : properties.getOllama().getDefaultModel();
+    }
+    
+    public TokenCounter getTokenCounter() {
+        return tokenCounter;
+    }
+    
+    private int safetyMargin(int promptTokens, boolean exact) {
+        // Estimated counts can be off by roughly 10%, so leave room for the difference
+        return exact ? RESERVED_TOKENS : RESERVED_TOKENS + promptTokens / 10;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.docmgr.llm.tokens;
+
+/**
+ * Token budget for a single request: counted prompt tokens, requested output and the context window to allocate
+ */
+public class TokenBudget {
+    
+    private final int promptTokens;
+    private final int maxOutputTokens;
+    private final int contextLength;
+    private final int numCtx;
+    private final boolean exact;
+    
+    public TokenBudget(int promptTokens, int maxOutputTokens, int contextLength, int numCtx, boolean exact) {
+        this.promptTokens = promptTokens;
+        this.maxOutputTokens = maxOutputTokens;
+        this.contextLength = contextLength;
+        this.numCtx = numCtx;
+        this.exact = exact;
+    }
+    
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+    
+    public int getMaxOutputTokens() {
+        return maxOutputTokens;
+    }
+    
+    /**
+     * @return usable context window of the model, 0 if unknown
+     */
+    public int getContextLength() {
+        return contextLength;
+    }
+    
+    /**
+     * @return context size to allocate for this request
+     */
+    public int getNumCtx() {
+        return numCtx;
+    }
+    
+    /**
+     * @return true if the prompt was counted with the model's vocabulary rather than estimated
+     */
+    public boolean isExact() {
+        return exact;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,138 @@
+package com.docmgr.llm.tokens;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Counts prompt tokens per model.
+ * Uses a local tokenizer vocabulary when one is configured for the model (see app.llm.tokenizer.vocabulary-dir)
+ * and a word-shape heuristic otherwise.
+ */
+@Component
+public class TokenCounter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TokenCounter.class);
+    private static final Pattern WORD_SHAPE = Pattern.compile("\\p{L}+|\\p{N}{1,3}|[^\\s\\p{L}\\p{N}]|[\\r\\n]+");
+    
+    private final LLMProperties properties;
+    private final Map<String, TokenizerVocabulary> vocabularies = new ConcurrentHashMap<>();
+    private final Map<String, Optional<TokenizerVocabulary>> vocabularyByModel = new ConcurrentHashMap<>();
+    
+    public TokenCounter(LLMProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        loadVocabularies(properties.getTokenizer().getVocabularyDir(), objectMapper);
+    }
+    
+    /**
+     * Count the tokens of a text for a model
+     * @param text the text to count
+     * @param model model name, with or without tag
+     * @return token count; exact up to the greedy approximation if a vocabulary is loaded, estimated otherwise
+     */
+    public int count(String text, String model) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return vocabularyFor(model)
+            .map(vocabulary -> vocabulary.count(text))
+            .orElseGet(() -> estimate(text));
+    }
+    
+    /**
+     * Check whether counts for a model come from a real vocabulary
+     * @param model model name, with or without tag
+     * @return true if a vocabulary is loaded for the model
+     */
+    public boolean hasVocabulary(String model) {
+        return vocabularyFor(model).isPresent();
+    }
+    
+    /**
+     * Estimate tokens without a vocabulary: short words are one token, longer words about one token per
+     * four letters, numbers one token per three digits and every punctuation character one token
+     * @param text the text to estimate
+     * @return estimated token count
+     */
+    public static int estimate(String text) {
+        int count = 0;
+        Matcher matcher = WORD_SHAPE.matcher(text);
+        while (matcher.find()) {
+            String piece = matcher.group();
+            count += Character.isLetter(piece.charAt(0)) ? 1 + (piece.length() - 1) / 4 : 1;
+        }
+        return count;
+    }
+    
+    private Optional<TokenizerVocabulary> vocabularyFor(String model) {
+        if (model == null || vocabularies.isEmpty()) {
+            return Optional.empty();
+        }
+        return vocabularyByModel.computeIfAbsent(model, this::resolve);
+    }
+    
+    private Optional<TokenizerVocabulary> resolve(String model) {
+        String normalized = model.toLowerCase(Locale.ROOT);
+        int tag = normalized.indexOf(':');
+        if (tag >= 0) {
+            normalized = normalized.substring(0, tag);
+        }
+        String base = normalized.substring(normalized.lastIndexOf('/') + 1);
+        
+        // Explicit aliases first (e.g. gemini -> gemma), then the longest vocabulary name the model starts with
+        String vocabularyName = properties.getTokenizer().getAliases().entrySet().stream()
+            .filter(alias -> base.startsWith(alias.getKey().toLowerCase(Locale.ROOT)))
+            .max(Comparator.comparingInt(alias -> alias.getKey().length()))
+            .map(Map.Entry::getValue)
+            .orElseGet(() -> vocabularies.keySet().stream()
+                .filter(base::startsWith)
+                .max(Comparator.comparingInt(String::length))
+                .orElse(null));
+        
+        return Optional.ofNullable(vocabularyName != null ? vocabularies.get(vocabularyName) : null);
+    }
+    
+    private void loadVocabularies(String directory, ObjectMapper objectMapper) {
+        if (directory == null || directory.isBlank()) {
+            logger.info("No tokenizer vocabulary directory configured, using estimated token counts");
+            return;
+        }
+        
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            logger.warn("Tokenizer vocabulary directory {} does not exist, using estimated token counts", dir);
+            return;
+        }
+        
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                String name = fileName.substring(0, fileName.length() - ".json".length()).toLowerCase(Locale.ROOT);
+                try {
+                    vocabularies.put(name, TokenizerVocabulary.load(name, file, objectMapper));
+                } catch (IOException | RuntimeException e) {
+                    logger.warn("Failed to load tokenizer vocabulary {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to list tokenizer vocabularies in {}", dir, e);
+        }
+        logger.info("Loaded tokenizer vocabularies: {}", List.copyOf(vocabularies.keySet()));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package com.docmgr.llm.tokens;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Token vocabulary loaded from a Hugging Face tokenizer.json file (byte-level BPE as used by Llama 3 and Qwen,
+ * or SentencePiece as used by Gemma and Mistral).
+ * Counting uses greedy longest-match over the vocabulary per pre-token, which stays within a few percent of
+ * the real BPE merge result without needing the merge table.
+ */
+final class TokenizerVocabulary {
+    
+    /** Pre-tokenizer pattern of the Llama 3 / tiktoken family */
+    private static final Pattern PRE_TOKENIZER = Pattern.compile(
+        "(?i:'s|'t|'re|'ve|'m|'ll|'d)|[^\\r\\n\\p{L}\\p{N}]?\\p{L}+|\\p{N}{1,3}| ?[^\\s\\p{L}\\p{N}]+[\\r\\n]*|\\s*[\\r\\n]+|\\s+(?!\\S)|\\s+");
+    private static final String BYTE_LEVEL_SPACE = "Ġ";
+    private static final String SENTENCEPIECE_SPACE = "▁";
+    private static final char[] BYTE_TO_UNICODE = byteToUnicode();
+    
+    private final String name;
+    private final Set<String> tokens;
+    private final boolean byteLevel;
+    private final int maxTokenLength;
+    
+    private TokenizerVocabulary(String name, Set<String> tokens, boolean byteLevel) {
+        this.name = name;
+        this.tokens = tokens;
+        this.byteLevel = byteLevel;
+        this.maxTokenLength = tokens.stream().mapToInt(String::length).max().orElse(1);
+    }
+    
+    static TokenizerVocabulary load(String name, Path file, ObjectMapper objectMapper) throws IOException {
+        JsonNode vocab = objectMapper.readTree(file.toFile()).path("model").path("vocab");
+        Set<String> tokens = new HashSet<>();
+        if (vocab.isObject()) {
+            // BPE: {"token": id, ...}
+            Iterator<String> names = vocab.fieldNames();
+            names.forEachRemaining(tokens::add);
+        } else if (vocab.isArray()) {
+            // Unigram: [["token", score], ...]
+            vocab.forEach(entry -> tokens.add(entry.path(0).asText()));
+        }
+        if (tokens.isEmpty()) {
+            throw new IOException("No vocabulary found in " + file);
+        }
+        boolean byteLevel = tokens.contains(BYTE_LEVEL_SPACE + "the") || !tokens.contains(SENTENCEPIECE_SPACE + "the");
+        return new TokenizerVocabulary(name, tokens, byteLevel);
+    }
+    
+    String getName() {
+        return name;
+    }
+    
+    int count(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        return byteLevel ? countByteLevel(text) : countSentencePiece(text);
+    }
+    
+    private int countByteLevel(String text) {
+        int count = 0;
+        Matcher matcher = PRE_TOKENIZER.matcher(text);
+        while (matcher.find()) {
+            byte[] bytes = matcher.group().getBytes(StandardCharsets.UTF_8);
+            StringBuilder mapped = new StringBuilder(bytes.length);
+            for (byte b : bytes) {
+                mapped.append(BYTE_TO_UNICODE[b & 0xFF]);
+            }
+            count += countPiece(mapped.toString());
+        }
+        return count;
+    }
+    
+    private int countSentencePiece(String text) {
+        String normalized = SENTENCEPIECE_SPACE + text.replace(" ", SENTENCEPIECE_SPACE);
+        int count = 0;
+        int start = 0;
+        for (int i = 1; i <= normalized.length(); i++) {
+            if (i == normalized.length() || normalized.startsWith(SENTENCEPIECE_SPACE, i)) {
+                count += countPiece(normalized.substring(start, i));
+                start = i;
+            }
+        }
+        return count;
+    }
+    
+    private int countPiece(String piece) {
+        int count = 0;
+        int position = 0;
+        while (position < piece.length()) {
+            int length = Math.min(maxTokenLength, piece.length() - position);
+            while (length > 1 && !tokens.contains(piece.substring(position, position + length))) {
+                length--;
+            }
+            if (length == 1 && !byteLevel && !tokens.contains(piece.substring(position, position + 1))) {
+                // SentencePiece byte fallback: one token per UTF-8 byte
+                count += String.valueOf(piece.charAt(position)).getBytes(StandardCharsets.UTF_8).length;
+            } else {
+                count++;
+            }
+            position += length;
+        }
+        return count;
+    }
+    
+    /**
+     * GPT-2 byte-to-unicode table: printable bytes map to themselves, the rest to code points from 256 upwards
+     */
+    private static char[] byteToUnicode() {
+        char[] table = new char[256];
+        int next = 256;
+        for (int b = 0; b < 256; b++) {
+            boolean printable = (b >= '!' && b <= '~') || (b >= 0xA1 && b <= 0xAC) || (b >= 0xAE && b <= 0xFF);
+            table[b] = printable ? (char) b : (char) next++;
+        }
+        return table;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.docmgr.llm.tracing;
+
+import com.docmgr.llm.model.LLMResponse;
+import io.micrometer.common.KeyValues;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.observation.contextpropagation.ObservationThreadLocalAccessor;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Creates spans for the LLM layer. Spans are Micrometer observations, exported through the OpenTelemetry bridge;
+ * each observation also records a timer of the same name.
+ * A span is current while its work is started, so spans of nested calls, WebClient requests and
+ * Redis commands become its children.
+ */
+@Component
+public class LLMTracing {
+    
+    /** Response metadata copied to provider spans */
+    private static final List<String> RESPONSE_ATTRIBUTES = List.of("prompt_tokens", "completion_tokens", "num_ctx");
+    
+    private final ObservationRegistry registry;
+    
+    public LLMTracing(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+    
+    /**
+     * Start a span as a child of the current one
+     * @param name span name, e.g. "llm.provider.request"
+     * @param keyValues low-cardinality attributes as name/value pairs
+     */
+    public Observation start(String name, String... keyValues) {
+        return Observation.createNotStarted(name, registry)
+            .lowCardinalityKeyValues(KeyValues.of(keyValues))
+            .start();
+    }
+    
+    /**
+     * Run an asynchronous call within a span that ends when the returned future completes
+     */
+    public <T> CompletableFuture<T> observe(Observation observation, Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> future;
+        try (Observation.Scope scope = observation.openScope()) {
+            future = call.get();
+        } catch (RuntimeException e) {
+            observation.error(e);
+            observation.stop();
+            throw e;
+        }
+        CompletableFuture<T> observed = future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                observation.error(throwable instanceof CompletionException && throwable.getCause() != null
+                    ? throwable.getCause() : throwable);
+            }
+            observation.stop();
+        });
+        // Callers cancel the returned future when the client goes away; pass that on to the call
+        observed.whenComplete((result, throwable) -> {
+            if (observed.isCancelled()) {
+                future.cancel(true);
+            }
+        });
+        return observed;
+    }
+    
+    /**
+     * Run a stream within a span that ends when the stream terminates or is cancelled
+     */
+    public <T> Flux<T> observe(Observation observation, Flux<T> stream) {
+        return stream
+            .doOnError(observation::error)
+            .doFinally(signal -> observation.stop())
+            .contextWrite(context -> context.put(ObservationThreadLocalAccessor.KEY, observation));
+    }
+    
+    /**
+     * Run a synchronous call within a span
+     */
+    public <T> T observe(String name, Supplier<T> call, String... keyValues) {
+        return Observation.createNotStarted(name, registry)
+            .lowCardinalityKeyValues(KeyValues.of(keyValues))
+            .observe(call);
+    }
+    
+    /**
+     * Add the token counts of a provider response to its span
+     */
+    public void recordResponse(Observation observation, LLMResponse response) {
+        observation.highCardinalityKeyValue("llm.total_tokens", String.valueOf(response.getTokensUsed()));
+        for (String attribute : RESPONSE_ATTRIBUTES) {
+            Object value = response.getMetadata().get(attribute);
+            if (value != null) {
+                observation.highCardinalityKeyValue("llm." + attribute, String.valueOf(value));
+            }
+        }
+    }
+}
\ No newline at end of file
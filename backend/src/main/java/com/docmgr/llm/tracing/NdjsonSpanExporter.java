@@ -0,0 +1,130 @@
+package com.docmgr.llm.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.EventData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exports finished spans as one JSON object per line, to a file or to the {@code llm.traces} logger,
+ * so that latency can be profiled without a collector. The file is rotated to {@code <file>.1} once it
+ * exceeds its size limit. Spans arrive in batches from the span processor, off the request threads.
+ */
+public class NdjsonSpanExporter implements SpanExporter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NdjsonSpanExporter.class);
+    private static final Logger traceLog = LoggerFactory.getLogger("llm.traces");
+    
+    private final ObjectMapper objectMapper;
+    private final Path file;
+    private final long maxFileBytes;
+    
+    private NdjsonSpanExporter(ObjectMapper objectMapper, Path file, long maxFileBytes) {
+        this.objectMapper = objectMapper;
+        this.file = file;
+        this.maxFileBytes = maxFileBytes;
+    }
+    
+    public static NdjsonSpanExporter toLog(ObjectMapper objectMapper) {
+        return new NdjsonSpanExporter(objectMapper, null, 0);
+    }
+    
+    public static NdjsonSpanExporter toFile(ObjectMapper objectMapper, Path file, long maxFileBytes) {
+        return new NdjsonSpanExporter(objectMapper, file, maxFileBytes);
+    }
+    
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> spans) {
+        try {
+            List<String> lines = new ArrayList<>(spans.size());
+            for (SpanData span : spans) {
+                lines.add(objectMapper.writeValueAsString(toMap(span)));
+            }
+            if (file == null) {
+                lines.forEach(traceLog::info);
+            } else {
+                write(lines);
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            logger.warn("Failed to export {} spans: {}", spans.size(), e.getMessage());
+            return CompletableResultCode.ofFailure();
+        }
+    }
+    
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+    
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+    
+    private void write(List<String> lines) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        if (maxFileBytes > 0 && Files.exists(file) && Files.size(file) > maxFileBytes) {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        }
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+    }
+    
+    private static Map<String, Object> toMap(SpanData span) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("trace_id", span.getTraceId());
+        json.put("span_id", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            json.put("parent_span_id", span.getParentSpanId());
+        }
+        json.put("name", span.getName());
+        json.put("kind", span.getKind().name());
+        json.put("start", Instant.ofEpochSecond(0, span.getStartEpochNanos()).toString());
+        json.put("duration_ms", (span.getEndEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+        json.put("status", span.getStatus().getStatusCode().name());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            json.put("error", span.getStatus().getDescription());
+        }
+        
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), value));
+        json.put("attributes", attributes);
+        
+        if (!span.getEvents().isEmpty()) {
+            List<Map<String, Object>> events = new ArrayList<>();
+            for (EventData event : span.getEvents()) {
+                Map<String, Object> eventJson = new LinkedHashMap<>();
+                eventJson.put("name", event.getName());
+                eventJson.put("offset_ms", (event.getEpochNanos() - span.getStartEpochNanos()) / 1_000_000.0);
+                events.add(eventJson);
+            }
+            json.put("events", events);
+        }
+        return json;
+    }
+}
\ No newline at end of file
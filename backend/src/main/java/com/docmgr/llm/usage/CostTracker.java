@@ -0,0 +1,164 @@
+package com.docmgr.llm.usage;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.metrics.LLMMetrics;
+import com.docmgr.llm.state.LLMStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prices requests and tracks spending against the daily and monthly budgets.
+ * Costs are counted in millionths of the currency unit so that they fit the usage counters.
+ * Spending of all instances is read periodically from the persisted day buckets, and this instance's
+ * spending since that read is added on top, so checking the budget never waits for the state store.
+ * The total can lag by up to one usage flush interval.
+ */
+@Component
+public class CostTracker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CostTracker.class);
+    static final String COST_COUNTER = "cost_micros";
+    private static final double MICROS_PER_UNIT = 1_000_000.0;
+    
+    private final LLMStateStore stateStore;
+    private final LLMProperties properties;
+    private final LLMMetrics metrics;
+    /** Spending of this instance since the last refresh */
+    private final LongAdder recentSpend = new LongAdder();
+    private volatile long persistedToday;
+    private volatile long persistedMonth;
+    
+    public CostTracker(LLMStateStore stateStore, LLMProperties properties, LLMMetrics metrics) {
+        this.stateStore = stateStore;
+        this.properties = properties;
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Price a request and count it against the budgets
+     * @param providerName provider that served the request
+     * @param model model that served the request, may be null
+     * @param promptTokens tokens sent to the model
+     * @param completionTokens tokens generated by the model
+     * @return cost in millionths of the currency unit, 0 if the model has no price
+     */
+    public long record(String providerName, String model, long promptTokens, long completionTokens) {
+        LLMProperties.Cost.Price price = priceOf(model);
+        if (price == null) {
+            return 0;
+        }
+        // Prices are per million tokens, so tokens times price is the cost in millionths
+        long costMicros = Math.round(promptTokens * price.getInputPerMillion()
+            + completionTokens * price.getOutputPerMillion());
+        if (costMicros > 0) {
+            recentSpend.add(costMicros);
+            metrics.recordCost(providerName, model, toCurrency(costMicros));
+        }
+        return costMicros;
+    }
+    
+    /**
+     * Whether requests for a provider should go to the local provider instead, because a budget is nearly spent
+     */
+    public boolean shouldRouteLocal(String providerName) {
+        return !properties.getCost().getLocalProvider().equals(providerName) && isBudgetNearlySpent();
+    }
+    
+    public boolean isBudgetNearlySpent() {
+        LLMProperties.Cost config = properties.getCost();
+        long recent = recentSpend.sum();
+        return nearlySpent(persistedToday + recent, config.getDailyBudget())
+            || nearlySpent(persistedMonth + recent, config.getMonthlyBudget());
+    }
+    
+    /**
+     * Spending against the budgets
+     * @return spent amounts and limits in the configured currency, and whether requests are routed locally
+     */
+    public Map<String, Object> getBudgetStatus() {
+        LLMProperties.Cost config = properties.getCost();
+        long recent = recentSpend.sum();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("currency", config.getCurrency());
+        status.put("daily_spent", toCurrency(persistedToday + recent));
+        status.put("daily_budget", config.getDailyBudget());
+        status.put("monthly_spent", toCurrency(persistedMonth + recent));
+        status.put("monthly_budget", config.getMonthlyBudget());
+        status.put("route_local_threshold", config.getRouteLocalThreshold());
+        status.put("routing_local", isBudgetNearlySpent());
+        return status;
+    }
+    
+    /**
+     * Read today's and this month's spending of all instances from the day buckets
+     */
+    @Scheduled(fixedDelayString = "${app.llm.cost.refresh-interval-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void refresh() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        List<String> keys = new ArrayList<>();
+        for (LocalDate day = today.withDayOfMonth(1); !day.isAfter(today); day = day.plusDays(1)) {
+            keys.add(UsageGranularity.DAY.redisKey(day.atStartOfDay().toInstant(ZoneOffset.UTC)));
+        }
+        
+        // Taken before reading: what this instance spends from here on is not part of the read
+        long recent = recentSpend.sumThenReset();
+        try {
+            List<Map<String, String>> buckets = stateStore.getHashes(keys);
+            long month = 0;
+            long day = 0;
+            for (Map<String, String> bucket : buckets) {
+                day = costOf(bucket);
+                month += day;
+            }
+            persistedMonth = month;
+            persistedToday = day;
+        } catch (Exception e) {
+            recentSpend.add(recent);
+            logger.warn("Failed to read spending, budget check uses local counts: {}", e.getMessage());
+        }
+    }
+    
+    public static double toCurrency(long costMicros) {
+        return costMicros / MICROS_PER_UNIT;
+    }
+    
+    private LLMProperties.Cost.Price priceOf(String model) {
+        if (model == null) {
+            return null;
+        }
+        LLMProperties.Cost.Price price = null;
+        int matched = -1;
+        for (Map.Entry<String, LLMProperties.Cost.Price> entry : properties.getCost().getPrices().entrySet()) {
+            if (model.startsWith(entry.getKey()) && entry.getKey().length() > matched) {
+                price = entry.getValue();
+                matched = entry.getKey().length();
+            }
+        }
+        return price;
+    }
+    
+    private boolean nearlySpent(long spentMicros, double budget) {
+        return budget > 0 && toCurrency(spentMicros) >= budget * properties.getCost().getRouteLocalThreshold();
+    }
+    
+    private static long costOf(Map<String, String> fields) {
+        long cost = 0;
+        for (Map.Entry<String, String> entry : fields.entrySet()) {
+            if (entry.getKey().endsWith(UsageRecorder.FIELD_SEPARATOR + COST_COUNTER)) {
+                cost += Long.parseLong(entry.getValue());
+            }
+        }
+        return cost;
+    }
+}
\ No newline at end of file
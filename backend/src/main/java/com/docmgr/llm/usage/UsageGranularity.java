@@ -0,0 +1,68 @@
+package com.docmgr.llm.usage;
+
+import com.docmgr.llm.config.LLMProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+
+/**
+ * Bucket sizes of the usage time series. Buckets are aligned to UTC.
+ */
+public enum UsageGranularity {
+    
+    MINUTE(ChronoUnit.MINUTES, Duration.ofHours(1)),
+    HOUR(ChronoUnit.HOURS, Duration.ofDays(1)),
+    DAY(ChronoUnit.DAYS, Duration.ofDays(30));
+    
+    private final ChronoUnit unit;
+    private final Duration defaultWindow;
+    
+    UsageGranularity(ChronoUnit unit, Duration defaultWindow) {
+        this.unit = unit;
+        this.defaultWindow = defaultWindow;
+    }
+    
+    /**
+     * Parse a granularity name, ignoring case
+     * @throws IllegalArgumentException if the name is not a granularity
+     */
+    public static UsageGranularity parse(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown granularity '" + name + "', expected minute, hour or day");
+        }
+    }
+    
+    public Instant bucketStart(Instant time) {
+        return time.truncatedTo(unit);
+    }
+    
+    public Instant next(Instant bucketStart) {
+        return bucketStart.plus(1, unit);
+    }
+    
+    /**
+     * Time range queried when a request gives no explicit range
+     */
+    public Duration getDefaultWindow() {
+        return defaultWindow;
+    }
+    
+    public Duration retention(LLMProperties.Usage config) {
+        return switch (this) {
+            case MINUTE -> Duration.ofHours(config.getMinuteRetentionHours());
+            case HOUR -> Duration.ofDays(config.getHourRetentionDays());
+            case DAY -> Duration.ofDays(config.getDayRetentionDays());
+        };
+    }
+    
+    /**
+     * Redis hash holding all counters of one bucket
+     */
+    public String redisKey(Instant bucketStart) {
+        return "usage:ts:" + name().toLowerCase(Locale.ROOT) + ":" + bucketStart.getEpochSecond();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,189 @@
+package com.docmgr.llm.usage;
+
+import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.model.UsageSeries;
+import com.docmgr.llm.model.UsageStats;
+import com.docmgr.llm.state.LLMStateStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads persisted usage: restores the providers' in-memory counters after a restart and answers
+ * time range queries from the minute, hour and day buckets written by {@link UsageRecorder}.
+ */
+@Service
+public class UsageHistoryService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UsageHistoryService.class);
+    private static final String DAILY_PREFIX = "daily:";
+    private static final String MODEL_PREFIX = "model:";
+    
+    private final LLMStateStore stateStore;
+    private final List<LLMProvider> providers;
+    private final LLMProperties properties;
+    
+    public UsageHistoryService(LLMStateStore stateStore, List<LLMProvider> providers, LLMProperties properties) {
+        this.stateStore = stateStore;
+        this.providers = providers;
+        this.properties = properties;
+    }
+    
+    /**
+     * Restore each provider's totals from the state store, so that usage statistics survive restarts.
+     * Per-day totals outside the retention are deleted on the way. Run by the warm-up after startup.
+     * All totals are read before any is restored, so a state store failure leaves the counters untouched
+     * and is thrown for the warm-up to retry.
+     */
+    public void rehydrate() {
+        List<Map<String, String>> hashes = stateStore.getHashes(providers.stream()
+            .map(provider -> UsageRecorder.usageKey(provider.getName()))
+            .toList());
+        Map<LLMProvider, Map<String, String>> persisted = new LinkedHashMap<>();
+        for (int i = 0; i < providers.size(); i++) {
+            persisted.put(providers.get(i), hashes.get(i));
+        }
+        
+        persisted.forEach((provider, fields) -> {
+            if (fields.isEmpty()) {
+                return;
+            }
+            
+            long requests = 0;
+            long tokens = 0;
+            long costMicros = 0;
+            Map<LocalDate, Long> daily = new HashMap<>();
+            Map<String, Long> models = new HashMap<>();
+            List<String> expired = new ArrayList<>();
+            LocalDate oldest = LocalDate.now().minusDays(UsageStats.DAILY_RETENTION_DAYS);
+            for (Map.Entry<String, String> entry : fields.entrySet()) {
+                String field = entry.getKey();
+                long value;
+                try {
+                    value = Long.parseLong(entry.getValue());
+                } catch (NumberFormatException e) {
+                    // Retrying would read the same value, so skip it rather than fail the warm-up
+                    logger.warn("Ignoring malformed usage field {} of provider {}: {}",
+                               field, provider.getName(), entry.getValue());
+                    continue;
+                }
+                if (field.equals("total_requests")) {
+                    requests = value;
+                } else if (field.equals("total_tokens")) {
+                    tokens = value;
+                } else if (field.equals("total_cost_micros")) {
+                    costMicros = value;
+                } else if (field.startsWith(MODEL_PREFIX)) {
+                    models.put(field.substring(MODEL_PREFIX.length()), value);
+                } else if (field.startsWith(DAILY_PREFIX)) {
+                    LocalDate date = parseDate(field.substring(DAILY_PREFIX.length()));
+                    if (date == null || date.isBefore(oldest)) {
+                        expired.add(field);
+                    } else {
+                        daily.put(date, value);
+                    }
+                }
+            }
+            
+            provider.getUsageStats().restore(requests, tokens, daily, models, CostTracker.toCurrency(costMicros));
+            logger.info("Restored usage of provider {}: {} requests, {} tokens", provider.getName(), requests, tokens);
+            if (!expired.isEmpty()) {
+                try {
+                    stateStore.deleteHashFields(UsageRecorder.usageKey(provider.getName()), expired);
+                } catch (Exception e) {
+                    // Only cleanup: the totals are restored, and expired fields are skipped again next time
+                    logger.warn("Failed to delete expired usage of provider {}: {}", provider.getName(), e.getMessage());
+                }
+            }
+        });
+    }
+    
+    /**
+     * Usage within a time range, read from the persisted buckets.
+     * Counts of the last few seconds may still be waiting for the next flush.
+     * @param from start of the range, inclusive; rounded down to the bucket start
+     * @param to end of the range, exclusive
+     * @param granularity bucket size
+     * @return non-empty buckets in time order
+     * @throws IllegalArgumentException if the range is empty or spans more than the configured number of buckets
+     */
+    public UsageSeries query(Instant from, Instant to, UsageGranularity granularity) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        int maxBuckets = properties.getUsage().getMaxQueryBuckets();
+        List<Instant> starts = new ArrayList<>();
+        for (Instant start = granularity.bucketStart(from); start.isBefore(to); start = granularity.next(start)) {
+            if (starts.size() == maxBuckets) {
+                throw new IllegalArgumentException("Range spans more than " + maxBuckets + " "
+                    + granularity.name().toLowerCase(Locale.ROOT) + " buckets, use a coarser granularity");
+            }
+            starts.add(start);
+        }
+        
+        List<String> keys = starts.stream().map(granularity::redisKey).toList();
+        List<Map<String, String>> buckets = stateStore.getHashes(keys);
+        
+        UsageSeries series = new UsageSeries(granularity.name().toLowerCase(Locale.ROOT), from, to);
+        for (int i = 0; i < starts.size(); i++) {
+            if (!buckets.get(i).isEmpty()) {
+                parseBucket(starts.get(i), buckets.get(i)).forEach(series::addBucket);
+            }
+        }
+        return series;
+    }
+    
+    /**
+     * Group the fields of one bucket hash, named "provider|model|operation|counter", into one entry per series
+     */
+    private static List<UsageSeries.Bucket> parseBucket(Instant start, Map<?, ?> fields) {
+        Map<String, long[]> counts = new LinkedHashMap<>();
+        fields.forEach((name, value) -> {
+            String field = String.valueOf(name);
+            int counterStart = field.lastIndexOf(UsageRecorder.FIELD_SEPARATOR);
+            if (counterStart < 0) {
+                return;
+            }
+            long[] counters = counts.computeIfAbsent(field.substring(0, counterStart), k -> new long[3]);
+            long count = Long.parseLong(String.valueOf(value));
+            switch (field.substring(counterStart + 1)) {
+                case "requests" -> counters[0] += count;
+                case "tokens" -> counters[1] += count;
+                case CostTracker.COST_COUNTER -> counters[2] += count;
+                default -> { }
+            }
+        });
+        
+        List<UsageSeries.Bucket> buckets = new ArrayList<>();
+        counts.forEach((series, counters) -> {
+            int providerEnd = series.indexOf(UsageRecorder.FIELD_SEPARATOR);
+            int operationStart = series.lastIndexOf(UsageRecorder.FIELD_SEPARATOR);
+            if (providerEnd < 0 || operationStart <= providerEnd) {
+                return;
+            }
+            buckets.add(new UsageSeries.Bucket(start, series.substring(0, providerEnd),
+                series.substring(providerEnd + 1, operationStart), series.substring(operationStart + 1),
+                counters[0], counters[1], CostTracker.toCurrency(counters[2])));
+        });
+        return buckets;
+    }
+    
+    private static LocalDate parseDate(String value) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
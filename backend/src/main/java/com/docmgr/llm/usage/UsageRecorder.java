@@ -0,0 +1,246 @@
+package com.docmgr.llm.usage;
+
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.state.CounterBatch;
+import com.docmgr.llm.state.LLMStateStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind persistence of provider usage and failure counters.
+ * Recording only adds to in-memory counters; a scheduled flush applies all changes since the last flush
+ * to the {@link LLMStateStore} as one batch, a single pipeline on Redis. A crash loses at most one flush interval of counts.
+ * Besides the per-provider totals, every request is counted in minute, hour and day buckets
+ * by provider, model and operation; each bucket expires after its granularity's retention.
+ */
+@Component
+public class UsageRecorder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(UsageRecorder.class);
+    private static final Duration USAGE_TTL = Duration.ofDays(30);
+    private static final Duration FAILURE_TTL = Duration.ofMinutes(10);
+    /** Separates provider, model, operation and counter in time-series field names; model names may contain ':' */
+    static final String FIELD_SEPARATOR = "|";
+    
+    private final LLMStateStore stateStore;
+    private final LLMProperties properties;
+    /** Pending hash increments: Redis key, then hash field */
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> pendingUsage = new ConcurrentHashMap<>();
+    /** Pending time-series increments: bucket, then "provider|model|operation|counter" */
+    private final ConcurrentMap<SeriesBucket, ConcurrentMap<String, LongAdder>> pendingSeries = new ConcurrentHashMap<>();
+    /** Pending string increments keyed by Redis key */
+    private final ConcurrentMap<String, LongAdder> pendingFailures = new ConcurrentHashMap<>();
+    
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong commandCount = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong lastFlushDurationMs = new AtomicLong();
+    
+    public UsageRecorder(LLMStateStore stateStore, LLMProperties properties) {
+        this.stateStore = stateStore;
+        this.properties = properties;
+    }
+    
+    /**
+     * Record a completed request
+     * @param providerName provider that served the request
+     * @param model model that served the request, may be null
+     * @param operation how the provider was called, e.g. "complete" or "stream"
+     * @param tokens tokens used by the request
+     * @param costMicros cost of the request in millionths of the currency unit, see {@link CostTracker}
+     */
+    public void recordRequest(String providerName, String model, String operation, long tokens, long costMicros) {
+        ConcurrentMap<String, LongAdder> fields = usageFields(usageKey(providerName));
+        counter(fields, "total_requests").increment();
+        counter(fields, "total_tokens").add(tokens);
+        if (costMicros > 0) {
+            counter(fields, "total_cost_micros").add(costMicros);
+        }
+        counter(fields, "daily:" + LocalDate.now()).add(tokens);
+        if (model != null) {
+            counter(fields, "model:" + model).add(tokens);
+        }
+        
+        Instant now = Instant.now();
+        String series = providerName + FIELD_SEPARATOR + (model != null ? model : "-") + FIELD_SEPARATOR + operation;
+        for (UsageGranularity granularity : UsageGranularity.values()) {
+            ConcurrentMap<String, LongAdder> bucket = seriesFields(new SeriesBucket(granularity, granularity.bucketStart(now)));
+            counter(bucket, series + FIELD_SEPARATOR + "requests").increment();
+            counter(bucket, series + FIELD_SEPARATOR + "tokens").add(tokens);
+            if (costMicros > 0) {
+                counter(bucket, series + FIELD_SEPARATOR + CostTracker.COST_COUNTER).add(costMicros);
+            }
+        }
+    }
+    
+    /**
+     * Record a failed request; providers report themselves as degraded after repeated recent failures
+     * @param providerName provider whose request failed
+     */
+    public void recordFailure(String providerName) {
+        counter(pendingFailures, failureKey(providerName)).increment();
+    }
+    
+    /**
+     * Redis key holding a provider's recent failure count
+     */
+    public static String failureKey(String providerName) {
+        return "health:" + providerName + ":failures";
+    }
+    
+    /**
+     * Redis hash holding a provider's usage totals
+     */
+    public static String usageKey(String providerName) {
+        return "usage:" + providerName;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.llm.usage.flush-interval-seconds:5}",
+               initialDelayString = "${app.llm.usage.flush-interval-seconds:5}",
+               timeUnit = TimeUnit.SECONDS)
+    public synchronized void flush() {
+        Map<String, Map<String, Long>> usage = drainUsage();
+        Map<SeriesBucket, Map<String, Long>> series = drainSeries();
+        Map<String, Long> failures = drain(pendingFailures);
+        if (usage.isEmpty() && series.isEmpty() && failures.isEmpty()) {
+            return;
+        }
+        
+        CounterBatch batch = new CounterBatch("usage_flush");
+        usage.forEach((key, fields) -> batch.hash(key, fields, USAGE_TTL));
+        series.forEach((bucket, fields) -> batch.hash(bucket.redisKey(), fields,
+            bucket.granularity().retention(properties.getUsage())));
+        failures.forEach((key, delta) -> batch.counter(key, delta, FAILURE_TTL));
+        
+        long startTime = System.currentTimeMillis();
+        try {
+            stateStore.apply(batch);
+            commandCount.addAndGet(batch.commandCount());
+            flushCount.incrementAndGet();
+            lastFlushMillis.set(System.currentTimeMillis());
+        } catch (Exception e) {
+            // Put the counts back so that the next flush retries them
+            failedFlushCount.incrementAndGet();
+            usage.forEach((key, fields) -> fields.forEach((field, delta) -> counter(usageFields(key), field).add(delta)));
+            series.forEach((bucket, fields) -> fields.forEach((field, delta) -> counter(seriesFields(bucket), field).add(delta)));
+            failures.forEach((key, delta) -> counter(pendingFailures, key).add(delta));
+            logger.warn("Failed to flush usage counters, retrying with the next flush: {}", e.getMessage());
+        } finally {
+            lastFlushDurationMs.set(System.currentTimeMillis() - startTime);
+        }
+    }
+    
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+    
+    /**
+     * Flush statistics
+     * @return counters for flushes, failed flushes, Redis commands sent and counts waiting for the next flush
+     */
+    public Map<String, Object> getFlushStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("flushes", flushCount.get());
+        stats.put("failed_flushes", failedFlushCount.get());
+        stats.put("redis_commands", commandCount.get());
+        stats.put("pending_fields", pendingUsage.values().stream().mapToLong(UsageRecorder::nonZero).sum()
+            + pendingSeries.values().stream().mapToLong(UsageRecorder::nonZero).sum()
+            + nonZero(pendingFailures));
+        stats.put("last_flush_duration_ms", lastFlushDurationMs.get());
+        stats.put("last_flush_epoch_ms", lastFlushMillis.get());
+        return stats;
+    }
+    
+    private static long nonZero(Map<String, LongAdder> counters) {
+        return counters.values().stream().filter(counter -> counter.sum() != 0).count();
+    }
+    
+    private ConcurrentMap<String, LongAdder> usageFields(String key) {
+        ConcurrentMap<String, LongAdder> fields = pendingUsage.get(key);
+        return fields != null ? fields : pendingUsage.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+    
+    private ConcurrentMap<String, LongAdder> seriesFields(SeriesBucket bucket) {
+        ConcurrentMap<String, LongAdder> fields = pendingSeries.get(bucket);
+        return fields != null ? fields : pendingSeries.computeIfAbsent(bucket, k -> new ConcurrentHashMap<>());
+    }
+    
+    /**
+     * Drain time-series counters and forget buckets that ended more than a minute ago.
+     * A recording computes its bucket just before adding to it, so a bucket no longer receives
+     * counts shortly after it ends.
+     */
+    private Map<SeriesBucket, Map<String, Long>> drainSeries() {
+        Instant closedBefore = Instant.now().minus(Duration.ofMinutes(1));
+        Map<SeriesBucket, Map<String, Long>> drained = new HashMap<>();
+        pendingSeries.forEach((bucket, fields) -> {
+            if (bucket.end().isBefore(closedBefore)) {
+                pendingSeries.remove(bucket);
+            }
+            Map<String, Long> deltas = drain(fields);
+            if (!deltas.isEmpty()) {
+                drained.put(bucket, deltas);
+            }
+        });
+        return drained;
+    }
+    
+    private Map<String, Map<String, Long>> drainUsage() {
+        Map<String, Map<String, Long>> drained = new HashMap<>();
+        pendingUsage.forEach((key, fields) -> {
+            Map<String, Long> deltas = drain(fields);
+            if (!deltas.isEmpty()) {
+                drained.put(key, deltas);
+            }
+        });
+        return drained;
+    }
+    
+    /**
+     * Take the current counts, resetting each counter. Counters are never removed, so an increment racing
+     * with the drain is either part of this flush or the next one.
+     */
+    private static Map<String, Long> drain(ConcurrentMap<String, LongAdder> counters) {
+        Map<String, Long> deltas = new HashMap<>();
+        counters.forEach((name, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta != 0) {
+                deltas.put(name, delta);
+            }
+        });
+        return deltas;
+    }
+    
+    private static LongAdder counter(ConcurrentMap<String, LongAdder> counters, String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter : counters.computeIfAbsent(name, k -> new LongAdder());
+    }
+    
+    private record SeriesBucket(UsageGranularity granularity, Instant start) {
+        
+        String redisKey() {
+            return granularity.redisKey(start);
+        }
+        
+        Instant end() {
+            return granularity.next(start);
+        }
+    }
+}
\ No newline at end of file
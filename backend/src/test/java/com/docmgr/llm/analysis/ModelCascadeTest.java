@@ -0,0 +1,119 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.LLMProvider;
+import com.docmgr.llm.catalog.ModelCatalogService;
+import com.docmgr.llm.config.LLMProperties;
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.ModelInfo;
+import com.docmgr.llm.model.StructuredResponse;
+import com.docmgr.llm.service.LLMService;
+import com.docmgr.llm.usage.CostTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ModelCascadeTest {
+    
+    private final LLMProperties properties = new LLMProperties();
+    private final LLMService llmService = mock(LLMService.class);
+    private ModelCatalogService modelCatalog;
+    private ModelCascade cascade;
+    
+    @BeforeEach
+    void setUp() {
+        properties.getCascade().setEnabled(true);
+        properties.getCascade().setLevels(List.of(level("ollama", "small"), level("ollama", "large"), level("gemini", "flash")));
+        
+        LLMProvider ollama = provider("ollama");
+        LLMProvider gemini = provider("gemini");
+        when(ollama.fetchModelDetails()).thenReturn(CompletableFuture.completedFuture(
+            List.of(new ModelInfo("small:latest", "ollama"), new ModelInfo("large:latest", "ollama"))));
+        when(llmService.getAvailableProviders()).thenReturn(List.of(ollama, gemini));
+        modelCatalog = new ModelCatalogService(List.of(ollama, gemini), event -> {}, properties);
+        when(llmService.analyze(anyString(), any(), anyString(), anyString()))
+            .thenReturn(CompletableFuture.completedFuture(response("total", 99.5)));
+        
+        cascade = new ModelCascade(llmService, properties, new CostTracker(null, properties, null),
+            new ProviderConcurrencyLimiter(properties), modelCatalog);
+    }
+    
+    @Test
+    void chunkWithoutARequiredFieldIsNotEscalated() {
+        AnalysisSchema document = new AnalysisSchema("invoice").addField("total", "number", true);
+        when(llmService.analyze(anyString(), any(), eq("ollama"), eq("small")))
+            .thenReturn(CompletableFuture.completedFuture(response("total", null)));
+        
+        StructuredResponse result = cascade.analyze("Seite 2 von 5: Positionen", document.asOptional()).join();
+        
+        assertNull(result.getData().get("total"));
+        assertEquals(0, result.getMetadata().get("cascade_level"));
+        verify(llmService, never()).analyze(anyString(), any(), eq("ollama"), eq("large"));
+        verify(llmService, never()).analyze(anyString(), any(), eq("gemini"), eq("flash"));
+    }
+    
+    @Test
+    void wholeDocumentWithoutARequiredFieldIsEscalated() {
+        AnalysisSchema document = new AnalysisSchema("invoice").addField("total", "number", true);
+        when(llmService.analyze(anyString(), any(), eq("ollama"), eq("small")))
+            .thenReturn(CompletableFuture.completedFuture(response("total", null)));
+        
+        StructuredResponse result = cascade.analyze("Rechnung", document).join();
+        
+        assertEquals(99.5, result.getData().get("total"));
+        assertEquals(1, result.getMetadata().get("cascade_level"));
+    }
+    
+    @Test
+    void levelsWithAModelTheProviderDoesNotListAreSkipped() {
+        properties.getCascade().setLevels(List.of(level("ollama", "tiny"), level("ollama", "large")));
+        modelCatalog.refresh("ollama").join();
+        AnalysisSchema document = new AnalysisSchema("invoice").addField("total", "number", true);
+        
+        StructuredResponse result = cascade.analyze("Rechnung", document).join();
+        
+        assertEquals(List.of("ollama/large"), result.getMetadata().get("cascade_path"));
+        verify(llmService, never()).analyze(anyString(), any(), eq("ollama"), eq("tiny"));
+    }
+    
+    @Test
+    void levelsAreKeptUntilTheCatalogueHasLoaded() {
+        properties.getCascade().setLevels(List.of(level("ollama", "tiny"), level("ollama", "large")));
+        AnalysisSchema document = new AnalysisSchema("invoice").addField("total", "number", true);
+        
+        StructuredResponse result = cascade.analyze("Rechnung", document).join();
+        
+        assertEquals(List.of("ollama/tiny"), result.getMetadata().get("cascade_path"));
+    }
+    
+    private static LLMProperties.Cascade.Level level(String provider, String model) {
+        LLMProperties.Cascade.Level level = new LLMProperties.Cascade.Level();
+        level.setProvider(provider);
+        level.setModel(model);
+        return level;
+    }
+    
+    private static LLMProvider provider(String name) {
+        LLMProvider provider = mock(LLMProvider.class);
+        when(provider.getName()).thenReturn(name);
+        return provider;
+    }
+    
+    private static StructuredResponse response(String field, Object value) {
+        StructuredResponse response = new StructuredResponse();
+        response.setProviderId("test");
+        response.addExtractedData(field, value, value != null ? 0.95 : null);
+        return response;
+    }
+}
@@ -0,0 +1,143 @@
+package com.docmgr.llm.analysis;
+
+import com.docmgr.llm.config.LLMProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderConcurrencyLimiterTest {
+    
+    private final LLMProperties properties = new LLMProperties();
+    private final AtomicInteger started = new AtomicInteger();
+    private final List<CompletableFuture<String>> upstream = new ArrayList<>();
+    
+    @Test
+    void requestsOverTheLimitWaitForAFreeSlot() {
+        properties.getGemini().setMaxConcurrentRequests(2);
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(properties);
+        
+        CompletableFuture<String> first = submit(limiter, "gemini");
+        submit(limiter, "gemini");
+        CompletableFuture<String> third = submit(limiter, "gemini");
+        assertEquals(2, started.get());
+        
+        upstream.get(0).complete("first");
+        assertEquals("first", first.join());
+        assertEquals(3, started.get());
+        
+        upstream.get(2).complete("third");
+        assertEquals("third", third.join());
+    }
+    
+    @Test
+    void nestedFanOutsShareOneLimitPerProvider() {
+        properties.getGemini().setMaxConcurrentRequests(2);
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(properties);
+        
+        // Three chunks with three field groups each still reach the provider two at a time
+        for (int chunk = 0; chunk < 3; chunk++) {
+            for (int group = 0; group < 3; group++) {
+                submit(limiter, "gemini");
+            }
+        }
+        assertEquals(2, started.get());
+        
+        for (int completed = 0; completed < 9; completed++) {
+            upstream.get(completed).complete("done");
+            assertEquals(Math.min(9, completed + 3), started.get());
+        }
+    }
+    
+    @Test
+    void providersHaveSeparateLimits() {
+        properties.getGemini().setMaxConcurrentRequests(1);
+        properties.getOllama().setMaxConcurrentRequests(1);
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(properties);
+        
+        submit(limiter, "gemini");
+        submit(limiter, "ollama");
+        submit(limiter, "gemini");
+        assertEquals(2, started.get());
+    }
+    
+    @Test
+    void failedRequestsReleaseTheirSlot() {
+        properties.getOllama().setMaxConcurrentRequests(1);
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(properties);
+        
+        CompletableFuture<String> failing = submit(limiter, "ollama");
+        submit(limiter, "ollama");
+        upstream.get(0).completeExceptionally(new IllegalStateException("connection refused"));
+        
+        assertTrue(failing.isCompletedExceptionally());
+        assertEquals(2, started.get());
+    }
+    
+    @Test
+    void cancelledWaitingRequestsAreSkipped() {
+        properties.getOllama().setMaxConcurrentRequests(1);
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(properties);
+        
+        submit(limiter, "ollama");
+        CompletableFuture<String> cancelled = submit(limiter, "ollama");
+        CompletableFuture<String> last = submit(limiter, "ollama");
+        cancelled.cancel(true);
+        
+        upstream.get(0).complete("first");
+        assertEquals(2, started.get());
+        assertFalse(last.isDone());
+        upstream.get(1).complete("last");
+        assertEquals("last", last.join());
+    }
+    
+    @Test
+    void cancellingARunningRequestCancelsTheProviderCallAndFreesItsSlot() {
+        properties.getOllama().setMaxConcurrentRequests(1);
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(properties);
+        
+        CompletableFuture<String> running = submit(limiter, "ollama");
+        CompletableFuture<String> next = submit(limiter, "ollama");
+        running.cancel(true);
+        
+        assertTrue(upstream.get(0).isCancelled());
+        assertEquals(2, started.get());
+        upstream.get(1).complete("next");
+        assertEquals("next", next.join());
+    }
+    
+    @Test
+    void longQueuesOfSynchronouslyFailingRequestsDrainWithoutRecursion() {
+        properties.getOllama().setMaxConcurrentRequests(1);
+        ProviderConcurrencyLimiter limiter = new ProviderConcurrencyLimiter(properties);
+        
+        submit(limiter, "ollama");
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            queued.add(limiter.submit("ollama",
+                () -> CompletableFuture.failedFuture(new IllegalStateException("provider unavailable"))));
+        }
+        upstream.get(0).complete("first");
+        
+        assertTrue(queued.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+        CompletableFuture<String> next = submit(limiter, "ollama");
+        assertEquals(2, started.get());
+        upstream.get(1).complete("next");
+        assertEquals("next", next.join());
+    }
+    
+    private CompletableFuture<String> submit(ProviderConcurrencyLimiter limiter, String provider) {
+        return limiter.submit(provider, () -> {
+            started.incrementAndGet();
+            CompletableFuture<String> call = new CompletableFuture<>();
+            upstream.add(call);
+            return call;
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package com.docmgr.llm.extraction;
+
+import com.docmgr.llm.model.AnalysisSchema;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RuleBasedExtractorTest {
+    
+    /** Default of app.llm.rules.min-confidence; only values above it skip the model */
+    private static final double MIN_CONFIDENCE = 0.85;
+    
+    private static final String INVOICE = """
+        Stadtwerke Musterstadt GmbH · Hauptstraße 1 · 12345 Musterstadt
+        
+        Rechnung Strom
+        Rechnungsnummer: RE-2024-004711
+        Kundennummer: 1002003004
+        Rechnungsdatum: 15.03.2024
+        
+        Abrechnungszeitraum 01.01.2023 bis 31.12.2023
+        Zählernummer 1ESY1160123456
+        Verbrauch 3.200 kWh
+        
+        Arbeitspreis 3.200 kWh x 0,3120 € = 998,40 €
+        Grundpreis 12 Monate x 11,50 € = 138,00 €
+        Nettobetrag 1.136,40 €
+        Umsatzsteuer 19 % 215,92 €
+        Rechnungsbetrag 1.352,32 €
+        Abzüglich geleisteter Abschläge 1.320,00 €
+        davon Abschlag August 2023: 110,00 €
+        Zu zahlen 32,32 €
+        Ihr neuer monatlicher Abschlag ab April: 115,00 €
+        
+        Zahlbar bis 29.03.2024 ohne Abzug auf folgendes Konto:
+        IBAN: DE89 3704 0044 0532 0130 00
+        BIC: COBADEFFXXX
+        """;
+    
+    private static final String CONTRACT = """
+        Stromliefervertrag
+        
+        Vertragspartner: Grünstrom Energie GmbH, Am Markt 5, 50667 Köln
+        Kunde: Erika Mustermann, Lindenweg 3, 50668 Köln
+        Vertragsnummer: V-2024-55123
+        Datum: 02.01.2024
+        
+        Vertragsbeginn: 01.02.2024
+        Mindestlaufzeit: 24 Monate
+        Kündigungsfrist: 3 Monate zum Ende der Laufzeit, erstmals zum 31.01.2026
+        Monatlicher Abschlag: 89,00 €
+        Grundpreis: 9,90 € pro Monat
+        Arbeitspreis: 29,80 ct/kWh
+        Voraussichtlicher Jahresverbrauch: 3.500 kWh
+        """;
+    
+    private final RuleBasedExtractor extractor = new RuleBasedExtractor();
+    
+    @ParameterizedTest(name = "{0} ({1}) = {2}, accepted: {3}")
+    @CsvSource({
+        "iban,              string, DE89370400440532013000, true",
+        "bic,               string, COBADEFFXXX,            true",
+        "invoice_number,    string, RE-2024-004711,         true",
+        "customer_number,   string, 1002003004,             true",
+        "customer_id,       string, 1002003004,             true",
+        "invoice_date,      date,   2024-03-15,             true",
+        "due_date,          date,   2024-03-29,             true",
+        "net_amount,        number, 1136.40,                true",
+        "vat_amount,        number, 215.92,                 true",
+        "amount_due,        number, 32.32,                  true",
+        "abschlagsbetrag,   number, 115.00,                 true",
+        // A generic date label or a lone amount is only a hint for the model
+        "document_date,     date,   2024-03-15,             false",
+        "unit_price,        number, 998.40,                 false",
+        // Numbers that are not amounts get no rule value at all
+        "consumption_kwh,   number, ,                       false",
+        "vat_rate,          number, ,                       false",
+        "period_days,       number, ,                       false",
+        // Flags are not references, even though "paid" ends in "id"
+        "invoice_paid,      boolean, ,                      false",
+        "invoice_paid,      string, ,                       false",
+    })
+    void invoiceFields(String field, String type, String expected, boolean accepted) {
+        assertExtracted(INVOICE, field, type, expected, accepted);
+    }
+    
+    @ParameterizedTest(name = "{0} ({1}) = {2}, accepted: {3}")
+    @CsvSource({
+        "contract_number,        string, V-2024-55123,           true",
+        "start_date,             date,   2024-02-01,             true",
+        "cancellation_deadline,  date,   2026-01-31,             true",
+        "monthly_amount,         number, 89.00,                  true",
+        "contract_date,          date,   2024-01-02,             false",
+        "base_price,             number, 89.00,                  false",
+        "provider,               string, Grünstrom Energie GmbH, false",
+        "contract_term_months,   number, ,                       false",
+        "annual_consumption_kwh, number, ,                       false",
+        "contract_valid,         boolean, ,                      false",
+    })
+    void contractFields(String field, String type, String expected, boolean accepted) {
+        assertExtracted(CONTRACT, field, type, expected, accepted);
+    }
+    
+    private void assertExtracted(String text, String field, String type, String expected, boolean accepted) {
+        ExtractedValue value = extractor.extract(text, new AnalysisSchema().addField(field, type, false)).get(field);
+        if (expected == null) {
+            assertNull(value, field + " should not be extracted");
+            return;
+        }
+        assertNotNull(value, field + " should be extracted");
+        if (value.value() instanceof BigDecimal amount) {
+            assertEquals(0, new BigDecimal(expected).compareTo(amount), field + ": " + amount);
+        } else {
+            assertEquals(expected, String.valueOf(value.value()));
+        }
+        assertEquals(accepted, value.confidence() > MIN_CONFIDENCE, field + " confidence " + value.confidence());
+    }
+}
@@ -0,0 +1,93 @@
+package com.docmgr.llm.parsing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalJsonExtractorTest {
+    
+    private final IncrementalJsonExtractor extractor = new IncrementalJsonExtractor(new ObjectMapper());
+    
+    @Test
+    void extractsPlainObject() {
+        Map<String, String> fields = extract("{\"invoice_number\": \"RE-2024-0815\", \"total_amount\": 119.0}");
+        
+        assertEquals(Map.of("invoice_number", "\"RE-2024-0815\"", "total_amount", "119.0"), fields);
+        assertTrue(extractor.isComplete());
+    }
+    
+    @Test
+    void extractsFencedObject() {
+        Map<String, String> fields = extract("""
+            ```json
+            {
+              "invoice_number": "RE-2024-0815",
+              "positions": [{"text": "Wartung", "amount": 100.0}]
+            }
+            ```""");
+        
+        assertEquals("\"RE-2024-0815\"", fields.get("invoice_number"));
+        assertEquals("[{\"text\":\"Wartung\",\"amount\":100.0}]", fields.get("positions"));
+    }
+    
+    @Test
+    void skipsBracesInProseBeforeTheObject() {
+        Map<String, String> fields = extract("Die Felder {Rechnungsnummer, Betrag} lauten wie folgt { siehe unten }:\n"
+            + "{\"invoice_number\": \"RE-2024-0815\", \"total_amount\": 119.0}");
+        
+        assertEquals(Map.of("invoice_number", "\"RE-2024-0815\"", "total_amount", "119.0"), fields);
+        assertEquals(0, extractor.getMalformedSegments());
+    }
+    
+    @Test
+    void recognisesTheObjectWhenTheBraceEndsAChunk() {
+        Map<String, String> fields = extract("Here is the result: {", "\n  \"total_amount\"", ": 119.0}");
+        
+        assertEquals(Map.of("total_amount", "119.0"), fields);
+    }
+    
+    @Test
+    void emitsFieldsAsSoonAsTheyAreComplete() {
+        assertTrue(extractor.feed("{\"invoice_number\": \"RE-2024").isEmpty());
+        List<Map.Entry<String, JsonNode>> fields = extractor.feed("-0815\", \"total");
+        
+        assertEquals(1, fields.size());
+        assertEquals("invoice_number", fields.get(0).getKey());
+    }
+    
+    @Test
+    void recoversFieldsOfATruncatedObject() {
+        Map<String, String> fields = extract("{\"invoice_number\": \"RE-2024-0815\", \"total_amount\": 119.0");
+        
+        assertEquals(Map.of("invoice_number", "\"RE-2024-0815\"", "total_amount", "119.0"), fields);
+        assertEquals(0, extractor.getMalformedSegments());
+    }
+    
+    @Test
+    void findsNoObjectInProse() {
+        Map<String, String> fields = extract("Ich kann in diesem Dokument keine {Rechnung} erkennen.");
+        
+        assertTrue(fields.isEmpty());
+        assertFalse(extractor.hasObject());
+    }
+    
+    private Map<String, String> extract(String... chunks) {
+        List<Map.Entry<String, JsonNode>> fields = new ArrayList<>();
+        for (String chunk : chunks) {
+            fields.addAll(extractor.feed(chunk));
+        }
+        fields.addAll(extractor.finish());
+        Map<String, String> values = new LinkedHashMap<>();
+        fields.forEach(field -> values.put(field.getKey(), field.getValue().toString()));
+        return values;
+    }
+}
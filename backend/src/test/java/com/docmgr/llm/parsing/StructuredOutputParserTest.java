@@ -0,0 +1,88 @@
+package com.docmgr.llm.parsing;
+
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.StructuredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StructuredOutputParserTest {
+    
+    private final StructuredOutputParser parser = new StructuredOutputParser(new ObjectMapper());
+    private final AnalysisSchema schema = new AnalysisSchema("INVOICE")
+        .addField("total_amount", "number", true)
+        .addField("sender_address", "object", false);
+    
+    @Test
+    void objectFieldsAreParsedAsMaps() {
+        StructuredResponse response = new StructuredResponse();
+        parser.populate(response, "{\"total_amount\": 119.0, \"sender_address\": {\"city\": \"Berlin\"}}", schema);
+        
+        assertEquals(Map.of("city", "Berlin"), response.getData().get("sender_address"));
+        assertTrue(response.getValidationErrors().isEmpty());
+    }
+    
+    @Test
+    void jsonEncodedObjectFieldsAreDecoded() {
+        // Gemini answers object fields without properties as JSON strings
+        StructuredResponse response = new StructuredResponse();
+        parser.populate(response,
+            "{\"total_amount\": 119.0, \"sender_address\": \"{\\\"city\\\": \\\"Berlin\\\", \\\"zip\\\": \\\"10115\\\"}\"}", schema);
+        
+        assertEquals(Map.of("city", "Berlin", "zip", "10115"), response.getData().get("sender_address"));
+        assertEquals(StructuredOutputParser.NATIVE_CONFIDENCE, response.getConfidenceScore("sender_address"));
+        assertEquals(new BigDecimal("119.0"), response.getData().get("total_amount"));
+        assertTrue(response.getValidationErrors().isEmpty());
+    }
+    
+    @Test
+    void textThatIsNotAnObjectStaysAMismatch() {
+        StructuredResponse response = new StructuredResponse();
+        parser.populate(response, "{\"total_amount\": 119.0, \"sender_address\": \"Hauptstr. 1, Berlin\"}", schema);
+        
+        assertEquals("Hauptstr. 1, Berlin", response.getData().get("sender_address"));
+        assertEquals(StructuredOutputParser.MISMATCH_CONFIDENCE, response.getConfidenceScore("sender_address"));
+        assertEquals(1, response.getValidationErrors().size());
+    }
+    
+    @Test
+    void statedConfidenceCapsTheScore() {
+        StructuredResponse response = new StructuredResponse();
+        parser.populate(response, "{\"total_amount\": {\"value\": 119.0, \"confidence\": 0.4}}", confidenceSchema());
+        
+        assertEquals(new BigDecimal("119.0"), response.getData().get("total_amount"));
+        assertEquals(0.4, response.getConfidenceScore("total_amount"));
+    }
+    
+    @Test
+    void requestedConfidenceUnwrapsObjectFields() {
+        StructuredResponse response = new StructuredResponse();
+        parser.populate(response,
+            "{\"total_amount\": {\"value\": 119.0, \"confidence\": 0.95}, "
+            + "\"sender_address\": {\"value\": {\"city\": \"Berlin\"}, \"confidence\": 0.8}}", confidenceSchema());
+        
+        assertEquals(Map.of("city", "Berlin"), response.getData().get("sender_address"));
+        assertEquals(0.8, response.getConfidenceScore("sender_address"));
+        assertEquals(StructuredOutputParser.NATIVE_CONFIDENCE, response.getConfidenceScore("total_amount"));
+    }
+    
+    @Test
+    void valuesWithoutTheRequestedConfidenceAreCapped() {
+        StructuredResponse response = new StructuredResponse();
+        parser.populate(response, "{\"total_amount\": 119.0}", confidenceSchema());
+        
+        assertEquals(new BigDecimal("119.0"), response.getData().get("total_amount"));
+        assertEquals(StructuredOutputParser.UNSTATED_CONFIDENCE, response.getConfidenceScore("total_amount"));
+    }
+    
+    private AnalysisSchema confidenceSchema() {
+        AnalysisSchema requested = schema.subset(schema.getFields().keySet());
+        requested.setConfidenceRequested(true);
+        return requested;
+    }
+}
@@ -0,0 +1,71 @@
+package com.docmgr.llm.prompt;
+
+import com.docmgr.llm.config.LLMProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TextCompactorTest {
+    
+    private static final String STATEMENT = String.join("\f",
+        """
+        Musterbank AG · Kontoauszug 3/2024 · Seite 1 von 3
+        IBAN DE89 3704 0044 0532 0130 00
+        
+        01.03. Miete März            -850,00 €
+        04.03. Gehalt              2.400,00 €
+        Zwischensumme 1.550,00 €
+        Musterbank AG · Friedrichstraße 1 · 10117 Berlin
+        """,
+        """
+        Musterbank AG · Kontoauszug 3/2024 · Seite 2 von 3
+        IBAN DE89 3704 0044 0532 0130 00
+        Übertrag 1.550,00 €
+        
+        12.03. Stadtwerke Abschlag   -115,00 €
+        15.03. Versicherung           -64,20 €
+        Zwischensumme 1.370,80 €
+        Musterbank AG · Friedrichstraße 1 · 10117 Berlin
+        """,
+        """
+        Musterbank AG · Kontoauszug 3/2024 · Seite 3 von 3
+        IBAN DE89 3704 0044 0532 0130 00
+        Übertrag 1.370,80 €
+        
+        28.03. Kartenzahlung          -42,10 €
+        Neuer Kontostand 1.328,70 €
+        Musterbank AG · Friedrichstraße 1 · 10117 Berlin
+        """);
+    
+    private final TextCompactor compactor = new TextCompactor(new LLMProperties());
+    
+    @Test
+    void carriedTotalsAreKeptOnEveryPage() {
+        String text = compactor.compact(STATEMENT).text();
+        
+        assertTrue(text.contains("Zwischensumme 1.550,00 €"));
+        assertTrue(text.contains("Übertrag 1.550,00 €"));
+        assertTrue(text.contains("Zwischensumme 1.370,80 €"));
+        assertTrue(text.contains("Übertrag 1.370,80 €"));
+        assertTrue(text.contains("Neuer Kontostand 1.328,70 €"));
+    }
+    
+    @Test
+    void repeatedHeadersAndFootersKeepTheirFirstOccurrence() {
+        String text = compactor.compact(STATEMENT).text();
+        
+        assertEquals(1, occurrences(text, "Kontoauszug 3/2024"));
+        assertTrue(text.contains("Seite 1 von 3"));
+        assertFalse(text.contains("Seite 2 von 3"));
+        assertEquals(1, occurrences(text, "IBAN DE89"));
+        assertEquals(1, occurrences(text, "Friedrichstraße 1"));
+    }
+    
+    private static int occurrences(String text, String part) {
+        return text.split(Pattern.quote(part), -1).length - 1;
+    }
+}
@@ -0,0 +1,109 @@
+package com.docmgr.llm.service;
+
+import com.docmgr.llm.model.StructuredResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RequestCoalescerTest {
+    
+    private final RequestCoalescer coalescer = new RequestCoalescer();
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final CompletableFuture<StructuredResponse> upstream = new CompletableFuture<>();
+    
+    @Test
+    void identicalConcurrentRequestsShareOneUpstreamCall() {
+        CompletableFuture<StructuredResponse> first = execute("key");
+        CompletableFuture<StructuredResponse> second = execute("key");
+        
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1, coalescer.getCoalescedCount());
+        assertEquals(1, coalescer.getInFlightCount());
+        
+        upstream.complete(new StructuredResponse(Map.of("total_amount", 42.0), "ollama"));
+        assertEquals(42.0, first.join().getData().get("total_amount"));
+        assertEquals(42.0, second.join().getData().get("total_amount"));
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+    
+    @Test
+    void eachCallerGetsItsOwnCopy() {
+        CompletableFuture<StructuredResponse> first = execute("key");
+        CompletableFuture<StructuredResponse> second = execute("key");
+        upstream.complete(new StructuredResponse(Map.of("total_amount", 42.0), "ollama"));
+        
+        StructuredResponse mine = first.join();
+        StructuredResponse theirs = second.join();
+        assertNotSame(mine, theirs);
+        
+        mine.addExtractedData("iban", "DE89370400440532013000", 0.95);
+        mine.addMetadata("chunk_count", 3);
+        mine.getValidationErrors().add("iban: unexpected");
+        assertNull(theirs.getData().get("iban"));
+        assertNull(theirs.getMetadata().get("chunk_count"));
+        assertTrue(theirs.getValidationErrors().isEmpty());
+    }
+    
+    @Test
+    void differentKeysAreNotCoalesced() {
+        execute("a");
+        execute("b");
+        
+        assertEquals(2, upstreamCalls.get());
+        assertEquals(0, coalescer.getCoalescedCount());
+    }
+    
+    @Test
+    void cancellingOneCallerKeepsTheUpstreamCallForTheOthers() {
+        CompletableFuture<StructuredResponse> first = execute("key");
+        CompletableFuture<StructuredResponse> second = execute("key");
+        
+        first.cancel(false);
+        assertFalse(upstream.isCancelled());
+        assertEquals(0, coalescer.getCancelledCount());
+        
+        upstream.complete(new StructuredResponse(Map.of("total_amount", 42.0), "ollama"));
+        assertEquals(42.0, second.join().getData().get("total_amount"));
+    }
+    
+    @Test
+    void cancellingEveryCallerCancelsTheUpstreamCall() {
+        CompletableFuture<StructuredResponse> first = execute("key");
+        CompletableFuture<StructuredResponse> second = execute("key");
+        
+        first.cancel(false);
+        second.cancel(false);
+        assertTrue(upstream.isCancelled());
+        assertEquals(1, coalescer.getCancelledCount());
+        assertEquals(0, coalescer.getInFlightCount());
+        
+        // The next identical request starts a new upstream call instead of joining the cancelled one
+        execute("key");
+        assertEquals(2, upstreamCalls.get());
+    }
+    
+    @Test
+    void failuresReachEveryCaller() {
+        CompletableFuture<StructuredResponse> first = execute("key");
+        CompletableFuture<StructuredResponse> second = execute("key");
+        
+        upstream.completeExceptionally(new IllegalStateException("provider down"));
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+    }
+    
+    private CompletableFuture<StructuredResponse> execute(String key) {
+        return coalescer.execute(key, () -> {
+            upstreamCalls.incrementAndGet();
+            return upstream;
+        }, StructuredResponse::copy);
+    }
+}
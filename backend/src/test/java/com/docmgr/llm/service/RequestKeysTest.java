@@ -0,0 +1,54 @@
+package com.docmgr.llm.service;
+
+import com.docmgr.llm.model.AnalysisSchema;
+import com.docmgr.llm.model.CompletionOptions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class RequestKeysTest {
+    
+    @Test
+    void identicalCompletionsShareAKey() {
+        CompletionOptions options = CompletionOptions.builder().maxTokens(100).temperature(0.1).build();
+        CompletionOptions same = CompletionOptions.builder().maxTokens(100).temperature(0.1).build();
+        
+        assertEquals(RequestKeys.completionKey("ollama", "Hallo", options),
+            RequestKeys.completionKey("ollama", "Hallo", same));
+    }
+    
+    @Test
+    void streamingAndBlockingCompletionsDoNotShareAKey() {
+        CompletionOptions blocking = CompletionOptions.builder().maxTokens(100).build();
+        CompletionOptions streaming = CompletionOptions.builder().maxTokens(100).stream(true).build();
+        
+        assertNotEquals(RequestKeys.completionKey("ollama", "Hallo", blocking),
+            RequestKeys.completionKey("ollama", "Hallo", streaming));
+    }
+    
+    @Test
+    void completionsWithDifferentResponseSchemasDoNotShareAKey() {
+        CompletionOptions invoice = CompletionOptions.builder()
+            .responseSchema(Map.of("type", "object", "properties", Map.of("total_amount", Map.of("type", "number"))))
+            .build();
+        CompletionOptions contract = CompletionOptions.builder()
+            .responseSchema(Map.of("type", "object", "properties", Map.of("notice_period", Map.of("type", "string"))))
+            .build();
+        
+        assertNotEquals(RequestKeys.completionKey("gemini", "Dokument", invoice),
+            RequestKeys.completionKey("gemini", "Dokument", contract));
+    }
+    
+    @Test
+    void analysesAskingForStatedConfidenceDoNotShareAKey() {
+        AnalysisSchema schema = new AnalysisSchema("INVOICE").addField("total_amount", "number", true);
+        AnalysisSchema withConfidence = schema.subset(schema.getFields().keySet());
+        withConfidence.setConfidenceRequested(true);
+        
+        assertNotEquals(RequestKeys.analysisKey("ollama", "Rechnung", schema),
+            RequestKeys.analysisKey("ollama", "Rechnung", withConfidence));
+    }
+}
\ No newline at end of file